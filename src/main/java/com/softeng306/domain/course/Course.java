@@ -16,7 +16,6 @@ import java.util.List;
  * This is a subclass of {@code ICourse}
  */
 public class Course implements ICourse {
-
     private String courseId;
     private String name;
     private int academicUnits;
@@ -25,7 +24,12 @@ public class Course implements ICourse {
     private Department department;
     private CourseType courseType;
 
-    private int vacancies;
+    /**
+     * The vacancies of this course, and how many of them are held. Only the vacancies are stored, so seats
+     * held when the program stops are vacancies again when it starts.
+     */
+    private final SeatCounter vacancies = new SeatCounter();
+
     private int capacity;
 
     private int lectureHoursPerWeek;
@@ -39,7 +43,7 @@ public class Course implements ICourse {
     /**
      * The main assessment components for this course
      */
-    private List<MainComponent> mainComponents = new ArrayList<>();
+    private volatile List<MainComponent> mainComponents = new ArrayList<>();
 
     /**
      * Default constructor. Required for Jackson serialization.
@@ -69,7 +73,12 @@ public class Course implements ICourse {
 
     @Override
     public int getVacancies() {
-        return vacancies;
+        return vacancies.getSeatsLeft();
+    }
+
+    @Override
+    public int getHeldVacancies() {
+        return vacancies.getSeatsHeld();
     }
 
     @Override
@@ -124,12 +133,54 @@ public class Course implements ICourse {
 
     @Override
     public void setVacancies(int vacancies) {
-        this.vacancies = vacancies;
+        this.vacancies.setSeatsLeft(vacancies);
     }
 
     @Override
-    public void updateVacanciesForEnrollment() {
-        this.vacancies = vacancies - 1;
+    public boolean reserveSeat(IGroup lectureGroup, IGroup tutorialGroup, IGroup labGroup) {
+        if (!vacancies.tryTake()) {
+            return false;
+        }
+
+        IGroup[] groups = {lectureGroup, tutorialGroup, labGroup};
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i] != null && !groups[i].tryReserveVacancy()) {
+                // give back the seats already taken, so that the registration takes none
+                for (int j = 0; j < i; j++) {
+                    if (groups[j] != null) {
+                        groups[j].releaseVacancy();
+                    }
+                }
+                vacancies.release();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryHoldSeat() {
+        return vacancies.tryHold();
+    }
+
+    @Override
+    public void commitHeldSeat() {
+        vacancies.commitHeld();
+    }
+
+    @Override
+    public void releaseHeldSeat() {
+        vacancies.releaseHeld();
+    }
+
+    @Override
+    public void releaseSeat(IGroup lectureGroup, IGroup tutorialGroup, IGroup labGroup) {
+        for (IGroup group : new IGroup[]{lectureGroup, tutorialGroup, labGroup}) {
+            if (group != null) {
+                group.releaseVacancy();
+            }
+        }
+        vacancies.release();
     }
 
     @Override
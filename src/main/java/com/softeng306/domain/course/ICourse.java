@@ -1,5 +1,6 @@
 package com.softeng306.domain.course;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.softeng306.domain.course.component.MainComponent;
 import com.softeng306.domain.course.group.IGroup;
@@ -37,10 +38,16 @@ public interface ICourse {
     IProfessor getCourseCoordinator();
 
     /**
-     * @return The number of seats left for this course.
+     * @return The number of seats left for this course, including those held by {@link #tryHoldSeat()}.
      */
     int getVacancies();
 
+    /**
+     * @return The number of the seats left for this course that are held for registrations still being made.
+     */
+    @JsonIgnore
+    int getHeldVacancies();
+
     /**
      * @return The total seats of this course.
      */
@@ -99,9 +106,45 @@ public interface ICourse {
     void setVacancies(int vacancies);
 
     /**
-     * Updates the available vacancies of this course after someone has registered.
+     * Takes a seat in this course and in each of the groups a student has chosen, or none of them if
+     * any is full. Seats are taken with compare-and-set rather than a lock, so registrations for the same
+     * course never wait for each other and never take more seats than there are. A registration that
+     * fails may briefly hold seats that another registration at the same time would have taken.
+     *
+     * @param lectureGroup  The chosen lecture group, or null if there is none.
+     * @param tutorialGroup The chosen tutorial group, or null if there is none.
+     * @param labGroup      The chosen lab group, or null if there is none.
+     * @return Whether the seats were taken.
+     */
+    boolean reserveSeat(IGroup lectureGroup, IGroup tutorialGroup, IGroup labGroup);
+
+    /**
+     * Gives back the seats taken by {@link #reserveSeat(IGroup, IGroup, IGroup)}.
+     *
+     * @param lectureGroup  The chosen lecture group, or null if there is none.
+     * @param tutorialGroup The chosen tutorial group, or null if there is none.
+     * @param labGroup      The chosen lab group, or null if there is none.
+     */
+    void releaseSeat(IGroup lectureGroup, IGroup tutorialGroup, IGroup labGroup);
+
+    /**
+     * Holds one of the seats left in this course for a registration that is still being made, if there is
+     * one that is not already held. A held seat is still a vacancy, so it is stored as one, but cannot be
+     * held or taken by anyone else. The seat is held with a compare-and-set.
+     *
+     * @return Whether a seat was held.
+     */
+    boolean tryHoldSeat();
+
+    /**
+     * Takes a seat held by {@link #tryHoldSeat()}, so that it is no longer a vacancy.
+     */
+    void commitHeldSeat();
+
+    /**
+     * Gives back a seat held by {@link #tryHoldSeat()} without taking it.
      */
-    void updateVacanciesForEnrollment();
+    void releaseHeldSeat();
 
     /**
      * Sets the lecture groups available for this course.
@@ -0,0 +1,121 @@
+package com.softeng306.domain.course;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the seats left in a course or group, and how many of them are held for registrations that are still
+ * being made.
+ * <p>
+ * Both counts are kept in one atomic long, the seats left in the high half and the held seats in the low half,
+ * so that holding, taking and giving back a seat each change them together with one compare-and-set. A thread
+ * can never see a seat that is being taken as both held and left, or as neither.
+ */
+public class SeatCounter {
+    private static final long ONE_SEAT_LEFT = 1L << 32;
+    private static final long ONE_SEAT_HELD = 1L;
+
+    private final AtomicLong seats = new AtomicLong();
+
+    /**
+     * Creates a counter with no seats left.
+     */
+    public SeatCounter() {
+    }
+
+    /**
+     * Creates a counter with seats left and none held.
+     *
+     * @param seatsLeft The number of seats left.
+     */
+    public SeatCounter(int seatsLeft) {
+        seats.set(seatsLeft * ONE_SEAT_LEFT);
+    }
+
+    /**
+     * @return The number of seats left, including those held.
+     */
+    public int getSeatsLeft() {
+        return seatsLeft(seats.get());
+    }
+
+    /**
+     * @return The number of the seats left that are held.
+     */
+    public int getSeatsHeld() {
+        return seatsHeld(seats.get());
+    }
+
+    /**
+     * Sets the number of seats left, keeping the seats held.
+     *
+     * @param seatsLeft The number of seats left, including those held.
+     */
+    public void setSeatsLeft(int seatsLeft) {
+        long current;
+        do {
+            current = seats.get();
+        } while (!seats.compareAndSet(current, seatsLeft * ONE_SEAT_LEFT + seatsHeld(current)));
+    }
+
+    /**
+     * Holds one of the seats left, if there is one not already held.
+     *
+     * @return Whether a seat was held.
+     */
+    public boolean tryHold() {
+        long current;
+        do {
+            current = seats.get();
+            if (seatsHeld(current) >= seatsLeft(current)) {
+                return false;
+            }
+        } while (!seats.compareAndSet(current, current + ONE_SEAT_HELD));
+        return true;
+    }
+
+    /**
+     * Takes a seat held by {@link #tryHold()}, so that it is no longer left.
+     */
+    public void commitHeld() {
+        seats.addAndGet(-ONE_SEAT_LEFT - ONE_SEAT_HELD);
+    }
+
+    /**
+     * Gives back a seat held by {@link #tryHold()} without taking it.
+     */
+    public void releaseHeld() {
+        seats.addAndGet(-ONE_SEAT_HELD);
+    }
+
+    /**
+     * Takes one of the seats left, if there is one not held.
+     *
+     * @return Whether a seat was taken.
+     */
+    public boolean tryTake() {
+        long current;
+        do {
+            current = seats.get();
+            if (seatsHeld(current) >= seatsLeft(current)) {
+                return false;
+            }
+        } while (!seats.compareAndSet(current, current - ONE_SEAT_LEFT));
+        return true;
+    }
+
+    /**
+     * Gives back a seat taken by {@link #tryTake()} or {@link #commitHeld()}.
+     */
+    public void release() {
+        seats.addAndGet(ONE_SEAT_LEFT);
+    }
+
+    private static int seatsLeft(long seats) {
+        // the held seats are never negative, so they never borrow from the seats left
+        return (int) (seats >> 32);
+    }
+
+    private static int seatsHeld(long seats) {
+        return (int) seats;
+    }
+}
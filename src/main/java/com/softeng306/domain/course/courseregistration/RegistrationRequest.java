@@ -0,0 +1,52 @@
+package com.softeng306.domain.course.courseregistration;
+
+/**
+ * A request to register a student for a course in groups with given names, made as part of a batch of
+ * registrations.
+ */
+public class RegistrationRequest {
+    private final String studentId;
+    private final String courseId;
+    private final String lectureGroupName;
+    private final String tutorialGroupName;
+    private final String labGroupName;
+
+    /**
+     * Creates a request to register a student for a course.
+     *
+     * @param studentId         The student registering for the course
+     * @param courseId          The course being registered by the student
+     * @param lectureGroupName  The name of the lecture group to register in
+     * @param tutorialGroupName The name of the tutorial group to register in, or null if the course has none
+     * @param labGroupName      The name of the lab group to register in, or null if the course has none
+     */
+    public RegistrationRequest(String studentId, String courseId, String lectureGroupName, String tutorialGroupName,
+                               String labGroupName) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.lectureGroupName = lectureGroupName;
+        this.tutorialGroupName = tutorialGroupName;
+        this.labGroupName = labGroupName;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public String getLectureGroupName() {
+        return lectureGroupName;
+    }
+
+    public String getTutorialGroupName() {
+        return tutorialGroupName;
+    }
+
+    public String getLabGroupName() {
+        return labGroupName;
+    }
+
+}
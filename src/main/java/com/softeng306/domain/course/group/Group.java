@@ -1,5 +1,6 @@
 package com.softeng306.domain.course.group;
 
+import com.softeng306.domain.course.SeatCounter;
 import com.softeng306.enums.GroupType;
 
 /**
@@ -8,9 +9,14 @@ import com.softeng306.enums.GroupType;
  * This is a subclass of {@code IGroup}
  */
 public class Group implements IGroup {
-
     private String groupName;
-    private int availableVacancies;
+
+    /**
+     * The available vacancies of this group, and how many of them are held. Only the available vacancies
+     * are stored, so seats held when the program stops are available again when it starts.
+     */
+    private final SeatCounter vacancies = new SeatCounter();
+
     private GroupType groupType;
     private int capacity;
 
@@ -31,7 +37,7 @@ public class Group implements IGroup {
     public Group(String groupName, int availableVacancies, int groupCapacity, GroupType groupType) {
         this.groupType = groupType;
         this.groupName = groupName;
-        this.availableVacancies = availableVacancies;
+        this.vacancies.setSeatsLeft(availableVacancies);
         this.capacity = groupCapacity;
     }
 
@@ -42,7 +48,16 @@ public class Group implements IGroup {
 
     @Override
     public int getAvailableVacancies() {
-        return this.availableVacancies;
+        return vacancies.getSeatsLeft();
+    }
+
+    /**
+     * Sets the available vacancies of this group when it is read. Required for Jackson serialization.
+     *
+     * @param availableVacancies This group's current available vacancy.
+     */
+    private void setAvailableVacancies(int availableVacancies) {
+        vacancies.setSeatsLeft(availableVacancies);
     }
 
     @Override
@@ -51,8 +66,33 @@ public class Group implements IGroup {
     }
 
     @Override
-    public void updateVacanciesForEnrollment() {
-        this.availableVacancies -= 1;
+    public int getHeldVacancies() {
+        return vacancies.getSeatsHeld();
+    }
+
+    @Override
+    public boolean tryReserveVacancy() {
+        return vacancies.tryTake();
+    }
+
+    @Override
+    public void releaseVacancy() {
+        vacancies.release();
+    }
+
+    @Override
+    public boolean tryHoldVacancy() {
+        return vacancies.tryHold();
+    }
+
+    @Override
+    public void commitHeldVacancy() {
+        vacancies.commitHeld();
+    }
+
+    @Override
+    public void releaseHeldVacancy() {
+        vacancies.releaseHeld();
     }
 
     @Override
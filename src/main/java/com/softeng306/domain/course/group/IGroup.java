@@ -1,5 +1,6 @@
 package com.softeng306.domain.course.group;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.softeng306.enums.GroupType;
 
@@ -19,10 +20,16 @@ public interface IGroup {
     String getGroupName();
 
     /**
-     * @return This group's current number of available seats.
+     * @return This group's current number of available seats, including those held by {@link #tryHoldVacancy()}.
      */
     int getAvailableVacancies();
 
+    /**
+     * @return The number of this group's available seats held for registrations that are still being made.
+     */
+    @JsonIgnore
+    int getHeldVacancies();
+
     /**
      * @return This group's total seats.
      */
@@ -34,8 +41,35 @@ public interface IGroup {
     GroupType getGroupType();
 
     /**
-     * Updates the available vacancies of this group after someone has registered in it.
+     * Takes one of the available seats of this group, if there is one left. The seat is taken with a
+     * compare-and-set, so threads taking seats at the same time never take more seats than there are.
+     *
+     * @return Whether a seat was taken.
+     */
+    boolean tryReserveVacancy();
+
+    /**
+     * Gives back a seat taken by {@link #tryReserveVacancy()}.
+     */
+    void releaseVacancy();
+
+    /**
+     * Holds one of the available seats of this group for a registration that is still being made, if
+     * there is one that is not already held. A held seat is still available, so it is stored as available,
+     * but cannot be held or taken by anyone else. The seat is held with a compare-and-set.
+     *
+     * @return Whether a seat was held.
+     */
+    boolean tryHoldVacancy();
+
+    /**
+     * Takes a seat held by {@link #tryHoldVacancy()}, so that it is no longer available.
+     */
+    void commitHeldVacancy();
+
+    /**
+     * Gives back a seat held by {@link #tryHoldVacancy()} without taking it.
      */
-    void updateVacanciesForEnrollment();
+    void releaseHeldVacancy();
 
 }
@@ -0,0 +1,13 @@
+package com.softeng306.domain.exceptions;
+
+/**
+ * This exception is thrown when the user tries to register a student for a course that still has vacancies,
+ * but every vacancy left in the course or a chosen group is held by a registration still being made, so the
+ * registration may be made once those seats are given back.
+ */
+public class SeatsHeldException extends InvalidCourseRegistrationException {
+
+    public SeatsHeldException() {
+        super();
+    }
+}
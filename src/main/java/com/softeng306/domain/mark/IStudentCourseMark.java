@@ -41,6 +41,8 @@ public interface IStudentCourseMark {
 
     /**
      * Sets the main course work marks of this student mark record.
+     * The mark and the total mark are updated together, so marks set at the same time from different
+     * threads are all added to the total.
      *
      * @param courseWorkName The name of this main course work.
      * @param result         The mark obtained in this main course work.
@@ -49,7 +51,8 @@ public interface IStudentCourseMark {
     List<Double> setMainComponentMark(String courseWorkName, double result);
 
     /**
-     * Sets the sub course work marks of this student mark record.
+     * Sets the sub course work marks of this student mark record, updating the main course work
+     * mark and the total mark with it in one step.
      *
      * @param courseWorkName The name of this sub course work.
      * @param result         The mark obtained in this sub course work.
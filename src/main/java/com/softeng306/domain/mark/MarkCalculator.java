@@ -4,7 +4,6 @@ import com.softeng306.domain.course.component.MainComponent;
 import com.softeng306.domain.course.component.SubComponent;
 import com.softeng306.managers.StudentCourseMarkMgr;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,24 +14,14 @@ public class MarkCalculator implements IMarkCalculator {
 
     @Override
     public double computeAverageMarkForCourseComponent(String courseID, String componentName) {
-        List<IStudentCourseMark> marksForCourse = new ArrayList<>();
-        for (IStudentCourseMark studentCourseMark : StudentCourseMarkMgr.getInstance().getStudentCourseMarks()) {
-            if (studentCourseMark.getCourse().getCourseId().equals(courseID)) {
-                marksForCourse.add(studentCourseMark);
-            }
-        }
+        List<IStudentCourseMark> marksForCourse = StudentCourseMarkMgr.getInstance().getCourseMarksForCourse(courseID);
 
         return computeAverageComponentMark(marksForCourse, componentName);
     }
 
     @Override
     public double computeOverallMarkForCourse(String courseID) {
-        List<IStudentCourseMark> marksForCourse = new ArrayList<>();
-        for (IStudentCourseMark studentCourseMark : StudentCourseMarkMgr.getInstance().getStudentCourseMarks()) {
-            if (studentCourseMark.getCourse().getCourseId().equals(courseID)) {
-                marksForCourse.add(studentCourseMark);
-            }
-        }
+        List<IStudentCourseMark> marksForCourse = StudentCourseMarkMgr.getInstance().getCourseMarksForCourse(courseID);
 
         return computeOverallMark(marksForCourse);
     }
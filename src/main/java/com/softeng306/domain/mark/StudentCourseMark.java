@@ -58,12 +58,12 @@ public class StudentCourseMark implements IStudentCourseMark {
     }
 
     @Override
-    public double getTotalMark() {
+    public synchronized double getTotalMark() {
         return totalMark;
     }
 
     @Override
-    public List<Double> setMainComponentMark(String courseWorkName, double result) throws IllegalArgumentException {
+    public synchronized List<Double> setMainComponentMark(String courseWorkName, double result) throws IllegalArgumentException {
         List<Double> resultList = new ArrayList<>();
         for (IMainComponentMark mainComponentMark : courseWorkMarks) {
             if (mainComponentMark.getMainComponent().getName().equals(courseWorkName)) {
@@ -86,7 +86,7 @@ public class StudentCourseMark implements IStudentCourseMark {
     }
 
     @Override
-    public List<Double> setSubComponentMark(String courseWorkName, double result) {
+    public synchronized List<Double> setSubComponentMark(String courseWorkName, double result) {
         List<Double> resultList = new ArrayList<>();
         for (IMainComponentMark mainComponentMark : courseWorkMarks) {
             ISubComponentMark subComponentMark = mainComponentMark.getSubComponentMark(courseWorkName);
@@ -0,0 +1,52 @@
+package com.softeng306.enums;
+
+/**
+ * Enumerated type for what happened to each request in a batch of course registrations.
+ */
+public enum RegistrationOutcome {
+    /**
+     * The student was registered for the course.
+     */
+    REGISTERED,
+
+    /**
+     * There is no student with the ID.
+     */
+    STUDENT_NOT_FOUND,
+
+    /**
+     * There is no course with the ID.
+     */
+    COURSE_NOT_FOUND,
+
+    /**
+     * The course has no assessment yet, so students cannot register for it.
+     */
+    NO_ASSESSMENT,
+
+    /**
+     * The course has no group of one of the types with the name, or has groups of a type but no name was given.
+     */
+    GROUP_NOT_FOUND,
+
+    /**
+     * The student was already registered for the course.
+     */
+    ALREADY_REGISTERED,
+
+    /**
+     * The same student and course were requested earlier in the batch.
+     */
+    DUPLICATE_REQUEST,
+
+    /**
+     * The course or one of the chosen groups is full.
+     */
+    NO_VACANCIES,
+
+    /**
+     * The course and the chosen groups have vacancies left, but they are held by registrations still being
+     * made, which may give them back.
+     */
+    SEATS_HELD
+}
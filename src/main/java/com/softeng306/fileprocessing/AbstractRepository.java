@@ -0,0 +1,227 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Skeleton of a repository, which applies changes to the contents held by the backend and writes them
+ * either straight away or when the open transaction is committed.
+ * <p>
+ * Changes are applied while holding the lock of the repository, and written while holding a separate
+ * write lock, so that writes happen in the order the changes were made without blocking reads.
+ * Each thread has a transaction of its own, so that the changes one thread makes in a transaction are
+ * never written or undone by another. The changes are applied to the contents straight away all the
+ * same, so every thread sees them. Rolling a transaction back undoes the changes made to the contents
+ * in it, except that an entry changed in place keeps its changes.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ */
+abstract class AbstractRepository<K, T> implements IRepository<K, T> {
+    /**
+     * Held while writing, so that changes are written in the order they were made.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The transaction each thread has open, if any.
+     */
+    private final ThreadLocal<Transaction<K, T>> transactions = new ThreadLocal<>();
+
+    @Override
+    public void insert(T entry) {
+        writeBatch(new RepositoryBatch<K, T>().insert(entry));
+    }
+
+    @Override
+    public void update(T entry) {
+        writeBatch(new RepositoryBatch<K, T>().update(entry));
+    }
+
+    @Override
+    public void delete(K key) {
+        writeBatch(new RepositoryBatch<K, T>().delete(key));
+    }
+
+    @Override
+    public void writeBatch(RepositoryBatch<K, T> batch) {
+        Transaction<K, T> transaction = transactions.get();
+        if (transaction != null) {
+            synchronized (this) {
+                transaction.undoLog.addAll(apply(batch));
+            }
+            transaction.changes.addAll(batch);
+            return;
+        }
+
+        synchronized (writeLock) {
+            Runnable write;
+            synchronized (this) {
+                apply(batch);
+                write = prepareWrite(batch);
+            }
+            write.run();
+        }
+    }
+
+    /**
+     * Opens a transaction for the calling thread, unless it already has one open.
+     */
+    @Override
+    public void beginTransaction() {
+        if (transactions.get() == null) {
+            transactions.set(new Transaction<>());
+        }
+    }
+
+    /**
+     * Writes the changes made in the transaction of the calling thread, and closes it.
+     */
+    @Override
+    public void commitTransaction() {
+        Transaction<K, T> transaction = transactions.get();
+        if (transaction == null) {
+            return;
+        }
+        transactions.remove();
+
+        writeDetached(transaction.changes);
+    }
+
+    /**
+     * Undoes the changes made in the transaction of the calling thread, and closes it.
+     */
+    @Override
+    public void rollbackTransaction() {
+        Transaction<K, T> transaction = transactions.get();
+        if (transaction == null) {
+            return;
+        }
+        transactions.remove();
+
+        synchronized (this) {
+            undo(transaction.undoLog);
+        }
+    }
+
+    /**
+     * Closes the transaction of the calling thread without writing its changes, so that they can be
+     * written later by {@link #writeDetached(RepositoryBatch)}, such as by a background writer.
+     *
+     * @return The changes made in the transaction, in order, or none if no transaction was open.
+     */
+    RepositoryBatch<K, T> detachTransaction() {
+        Transaction<K, T> transaction = transactions.get();
+        if (transaction == null) {
+            return new RepositoryBatch<>();
+        }
+        transactions.remove();
+        return transaction.changes;
+    }
+
+    /**
+     * Writes changes that were made in a transaction, which have already been applied to the
+     * contents. Whatever the write copies from the contents is copied as it is now, so it includes
+     * any changes made since.
+     *
+     * @param changes The changes, in order.
+     */
+    void writeDetached(RepositoryBatch<K, T> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            Runnable write;
+            synchronized (this) {
+                write = prepareWrite(changes);
+            }
+            write.run();
+        }
+    }
+
+    /**
+     * Adds a new entry to the contents. Called while holding the lock of the repository.
+     *
+     * @param entry The new entry.
+     * @return Undoes the change.
+     * @throws IllegalArgumentException If there is already an entry with the key of the new entry.
+     */
+    protected abstract Runnable applyInsert(T entry);
+
+    /**
+     * Records a changed entry in the contents. Called while holding the lock of the repository.
+     *
+     * @param entry The changed entry.
+     * @return Undoes the change, as far as it can be undone.
+     * @throws IllegalArgumentException If there is no entry with the key of the changed entry.
+     */
+    protected abstract Runnable applyUpdate(T entry);
+
+    /**
+     * Removes the entries with a key from the contents. Called while holding the lock of the repository.
+     *
+     * @param key The key of the entries to remove.
+     * @return Undoes the change.
+     */
+    protected abstract Runnable applyDelete(K key);
+
+    /**
+     * Prepares to write changes that have been applied to the contents. Called while holding the lock
+     * of the repository, so that whatever the write needs from the contents can be copied.
+     *
+     * @param batch The changes, in order.
+     * @return Writes the changes. Run without the lock of the repository, and reports its own errors.
+     */
+    protected abstract Runnable prepareWrite(RepositoryBatch<K, T> batch);
+
+    /**
+     * Applies every change in a batch, undoing the ones already applied if one of them fails.
+     *
+     * @return Undoes the changes.
+     */
+    private List<Runnable> apply(RepositoryBatch<K, T> batch) {
+        List<Runnable> undo = new ArrayList<>();
+        try {
+            for (RepositoryBatch.Change<K, T> change : batch.getChanges()) {
+                switch (change.getType()) {
+                    case INSERT:
+                        undo.add(applyInsert(change.getEntry()));
+                        break;
+                    case UPDATE:
+                        undo.add(applyUpdate(change.getEntry()));
+                        break;
+                    default:
+                        undo.add(applyDelete(change.getKey()));
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            undo(undo);
+            throw e;
+        }
+        return undo;
+    }
+
+    private static void undo(List<Runnable> undo) {
+        for (int i = undo.size() - 1; i >= 0; i--) {
+            undo.get(i).run();
+        }
+    }
+
+    /**
+     * The changes a thread has made in its open transaction.
+     */
+    private static final class Transaction<K, T> {
+        /**
+         * The changes made in the transaction, which are written when it is committed.
+         */
+        private final RepositoryBatch<K, T> changes = new RepositoryBatch<>();
+
+        /**
+         * Undoes the changes made in the transaction, in the order they were made.
+         */
+        private final List<Runnable> undoLog = new ArrayList<>();
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.softeng306.fileprocessing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes whole data files so that a crash can never leave a half-written file behind.
+ * The new contents are written to a temporary file next to the target, forced to disk, and then
+ * renamed over the target in one atomic step, so the target always holds either the old or the new
+ * contents in full.
+ * <p>
+ * Contents are serialized straight into a {@code FileChannel} through a direct buffer that the
+ * writing thread reuses for every write, so the bytes are not copied again on their way to the
+ * operating system. Writes to the same file wait for each other, as they share its temporary file,
+ * but writes to different files, including forcing them to disk, run at the same time.
+ */
+public class AtomicSnapshotWriter {
+
+    private static final AtomicSnapshotWriter singleInstance = new AtomicSnapshotWriter();
+
+    /**
+     * Suffix of the temporary file the contents are written to before being renamed over the target.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The buffer of each thread, reused for every write the thread makes.
+     */
+    private final ThreadLocal<ByteBuffer> buffers =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    /**
+     * The lock of each file written, by absolute path, held while the file is written.
+     */
+    private final Map<Path, Object> targetLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Override default constructor to implement singleton pattern
+     */
+    private AtomicSnapshotWriter() { }
+
+    /**
+     * Return the AtomicSnapshotWriter singleton.
+     *
+     * @return AtomicSnapshotWriter the singleton instance
+     */
+    public static AtomicSnapshotWriter getInstance() {
+        return singleInstance;
+    }
+
+    /**
+     * Replaces the contents of a file with whatever the given contents write to a stream.
+     *
+     * @param target   The file to replace.
+     * @param contents Writes the new contents of the file.
+     * @throws IOException If the file could not be written. The target is left unchanged.
+     */
+    public void write(Path target, SnapshotContents contents) throws IOException {
+        synchronized (targetLocks.computeIfAbsent(target.toAbsolutePath().normalize(), path -> new Object())) {
+            writeLocked(target, contents);
+        }
+    }
+
+    /**
+     * Replaces the contents of a file, holding the lock of the file.
+     *
+     * @param target   The file to replace.
+     * @param contents Writes the new contents of the file.
+     * @throws IOException If the file could not be written. The target is left unchanged.
+     */
+    private void writeLocked(Path target, SnapshotContents contents) throws IOException {
+        Path tempPath = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelOutputStream out = new ChannelOutputStream(channel, buffers.get());
+            contents.writeTo(out);
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+
+        try {
+            Files.move(tempPath, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces the rename of a file in a directory to disk. Not every platform allows a directory to
+     * be opened, in which case the rename is left to the operating system.
+     *
+     * @param directory The directory containing the renamed file.
+     */
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be synced on this platform
+        }
+    }
+
+    /**
+     * Writes the contents of a file to a stream.
+     */
+    @FunctionalInterface
+    public interface SnapshotContents {
+        /**
+         * @param out The stream to write the contents to.
+         * @throws IOException If the contents could not be written.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Stream that collects bytes in a direct buffer and writes them to a channel whenever the buffer
+     * fills up. Closing the stream flushes it but leaves the channel open.
+     */
+    private static class ChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        ChannelOutputStream(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            buffer.clear();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+}
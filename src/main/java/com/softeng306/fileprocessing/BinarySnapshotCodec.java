@@ -0,0 +1,108 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec for data files stored in a compact binary form of the same tokens a JSON file holds.
+ * <p>
+ * A binary data file starts with {@link #MAGIC}, followed by one tag byte per token. Field names
+ * are written in full the first time they appear and as an index into the names seen so far after
+ * that, so a field name repeated by every record costs one or two bytes. Short string values such
+ * as IDs and group names are shared the same way. Integers are written as variable-length numbers
+ * and doubles as their eight raw bytes, so nothing has to be parsed from text when the file is read.
+ * This class implements {@code ISnapshotCodec}.
+ */
+public class BinarySnapshotCodec implements ISnapshotCodec {
+
+    public static final String NAME = "binary";
+
+    /**
+     * The bytes every binary data file starts with. The leading zero byte can never start a JSON file,
+     * and the last byte is the version of the format.
+     */
+    static final byte[] MAGIC = {0, 'S', 'N', 'A', 'P', 1};
+
+    static final int START_OBJECT = 0x01;
+    static final int END_OBJECT = 0x02;
+    static final int START_ARRAY = 0x03;
+    static final int END_ARRAY = 0x04;
+    /**
+     * A field name written in full, which is given the next index in the table of field names.
+     */
+    static final int FIELD_NAME = 0x05;
+    /**
+     * A field name written as its index in the table of field names.
+     */
+    static final int FIELD_NAME_REFERENCE = 0x06;
+    /**
+     * A string value that is not shared.
+     */
+    static final int STRING = 0x07;
+    /**
+     * A string value written in full, which is given the next index in the table of shared strings.
+     */
+    static final int SHARED_STRING = 0x08;
+    /**
+     * A string value written as its index in the table of shared strings.
+     */
+    static final int STRING_REFERENCE = 0x09;
+    static final int INT = 0x0A;
+    static final int LONG = 0x0B;
+    static final int FLOAT = 0x0C;
+    static final int DOUBLE = 0x0D;
+    static final int BIG_INTEGER = 0x0E;
+    static final int BIG_DECIMAL = 0x0F;
+    static final int TRUE = 0x10;
+    static final int FALSE = 0x11;
+    static final int NULL = 0x12;
+    static final int BINARY = 0x13;
+
+    /**
+     * Strings longer than this, in characters, are never shared.
+     */
+    static final int MAX_SHARED_STRING_LENGTH = 64;
+
+    /**
+     * The largest number of strings shared in one file, which bounds the memory used by the tables.
+     */
+    static final int MAX_SHARED_STRINGS = 1 << 16;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc} A binary data file starts with {@link #MAGIC}.
+     */
+    @Override
+    public boolean canRead(byte[] header, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public JsonParser createParser(ObjectMapper objectMapper, InputStream in) throws IOException {
+        return new BinarySnapshotParser(objectMapper, in);
+    }
+
+    @Override
+    public JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        return new BinarySnapshotGenerator(objectMapper, out);
+    }
+
+}
@@ -0,0 +1,345 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes tokens in the format described by {@code BinarySnapshotCodec}.
+ */
+class BinarySnapshotGenerator extends GeneratorBase {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Room for a tag byte and the longest variable-length number.
+     */
+    private static final int MAX_HEADER_LENGTH = 11;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private final Map<String, Integer> fieldNames = new HashMap<>();
+    private final Map<String, Integer> sharedStrings = new HashMap<>();
+
+    /**
+     * Creates a generator and writes the header of the data file.
+     *
+     * @param codec The codec that values are written with.
+     * @param out   The stream to write to.
+     * @throws IOException If the header could not be written.
+     */
+    BinarySnapshotGenerator(ObjectCodec codec, OutputStream out) throws IOException {
+        super(Feature.collectDefaults(), codec);
+        this.out = out;
+        System.arraycopy(BinarySnapshotCodec.MAGIC, 0, buffer, 0, BinarySnapshotCodec.MAGIC.length);
+        position = BinarySnapshotCodec.MAGIC.length;
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext();
+        writeTag(BinarySnapshotCodec.START_ARRAY);
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        if (!_writeContext.inArray()) {
+            _reportError("Current context not Array but " + _writeContext.typeDesc());
+        }
+        writeTag(BinarySnapshotCodec.END_ARRAY);
+        _writeContext = _writeContext.clearAndGetParent();
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        _verifyValueWrite("start an object");
+        _writeContext = _writeContext.createChildObjectContext();
+        writeTag(BinarySnapshotCodec.START_OBJECT);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        if (!_writeContext.inObject()) {
+            _reportError("Current context not Object but " + _writeContext.typeDesc());
+        }
+        writeTag(BinarySnapshotCodec.END_OBJECT);
+        _writeContext = _writeContext.clearAndGetParent();
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        if (_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE) {
+            _reportError("Can not write a field name, expecting a value");
+        }
+
+        Integer index = fieldNames.get(name);
+        if (index != null) {
+            writeTagged(BinarySnapshotCodec.FIELD_NAME_REFERENCE, index);
+        } else {
+            if (fieldNames.size() < BinarySnapshotCodec.MAX_SHARED_STRINGS) {
+                fieldNames.put(name, fieldNames.size());
+            }
+            writeText(BinarySnapshotCodec.FIELD_NAME, name);
+        }
+    }
+
+    @Override
+    public void writeString(String text) throws IOException {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+
+        _verifyValueWrite("write a string");
+        if (text.length() > BinarySnapshotCodec.MAX_SHARED_STRING_LENGTH) {
+            writeText(BinarySnapshotCodec.STRING, text);
+            return;
+        }
+
+        Integer index = sharedStrings.get(text);
+        if (index != null) {
+            writeTagged(BinarySnapshotCodec.STRING_REFERENCE, index);
+        } else if (sharedStrings.size() < BinarySnapshotCodec.MAX_SHARED_STRINGS) {
+            sharedStrings.put(text, sharedStrings.size());
+            writeText(BinarySnapshotCodec.SHARED_STRING, text);
+        } else {
+            writeText(BinarySnapshotCodec.STRING, text);
+        }
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int length) throws IOException {
+        writeString(new String(text, offset, length));
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException {
+        writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int length) throws IOException {
+        writeString(new String(text, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeRaw(String text) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(String text, int offset, int length) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(char[] text, int offset, int length) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeRaw(char c) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeBinary(Base64Variant variant, byte[] data, int offset, int length) throws IOException {
+        if (data == null) {
+            writeNull();
+            return;
+        }
+
+        _verifyValueWrite("write a binary value");
+        writeTagged(BinarySnapshotCodec.BINARY, length);
+        writeBytes(data, offset, length);
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        _verifyValueWrite("write a number");
+        writeTagged(BinarySnapshotCodec.INT, zigZag(value));
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        if (value == (int) value) {
+            writeNumber((int) value);
+            return;
+        }
+
+        _verifyValueWrite("write a number");
+        writeTagged(BinarySnapshotCodec.LONG, zigZag(value));
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+
+        _verifyValueWrite("write a number");
+        writeText(BinarySnapshotCodec.BIG_INTEGER, value.toString());
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        _verifyValueWrite("write a number");
+        writeTag(BinarySnapshotCodec.DOUBLE);
+        writeFixed(Double.doubleToRawLongBits(value), 8);
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        _verifyValueWrite("write a number");
+        writeTag(BinarySnapshotCodec.FLOAT);
+        writeFixed(Float.floatToRawIntBits(value), 4);
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+
+        _verifyValueWrite("write a number");
+        writeText(BinarySnapshotCodec.BIG_DECIMAL, value.toString());
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException {
+        if (encodedValue == null) {
+            writeNull();
+            return;
+        }
+
+        if (encodedValue.indexOf('.') < 0 && encodedValue.indexOf('e') < 0 && encodedValue.indexOf('E') < 0) {
+            writeNumber(new BigInteger(encodedValue));
+        } else {
+            writeNumber(new BigDecimal(encodedValue));
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException {
+        _verifyValueWrite("write a boolean value");
+        writeTag(state ? BinarySnapshotCodec.TRUE : BinarySnapshotCodec.FALSE);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        _verifyValueWrite("write a null");
+        writeTag(BinarySnapshotCodec.NULL);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        drain();
+        if (isEnabled(Feature.AUTO_CLOSE_TARGET)) {
+            out.close();
+        } else {
+            out.flush();
+        }
+    }
+
+    @Override
+    protected void _releaseBuffers() {
+        // the buffer belongs to this generator alone
+    }
+
+    @Override
+    protected void _verifyValueWrite(String typeMsg) throws IOException {
+        if (_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME) {
+            _reportError("Can not " + typeMsg + ", expecting field name");
+        }
+    }
+
+    private void writeTag(int tag) throws IOException {
+        ensureRoom(1);
+        buffer[position++] = (byte) tag;
+    }
+
+    /**
+     * Writes a tag followed by an unsigned variable-length number.
+     */
+    private void writeTagged(int tag, long value) throws IOException {
+        ensureRoom(MAX_HEADER_LENGTH);
+        buffer[position++] = (byte) tag;
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a tag followed by the length of a string in UTF-8 and the string itself.
+     */
+    private void writeText(int tag, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeTagged(tag, bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the low bytes of a value, most significant first.
+     */
+    private void writeFixed(long value, int byteCount) throws IOException {
+        ensureRoom(byteCount);
+        for (int shift = (byteCount - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            drain();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureRoom(int length) throws IOException {
+        if (buffer.length - position < length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Maps a signed number onto an unsigned one, so that numbers close to zero are written in few bytes.
+     */
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
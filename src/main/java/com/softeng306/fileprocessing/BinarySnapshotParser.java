@@ -0,0 +1,462 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads tokens in the format described by {@code BinarySnapshotCodec}.
+ */
+class BinarySnapshotParser extends ParserMinimalBase {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    /**
+     * The number of bytes read from the stream before the start of the buffer.
+     */
+    private long bufferOffset;
+
+    private ObjectCodec codec;
+    private JsonReadContext context = JsonReadContext.createRootContext(null);
+    private boolean closed;
+
+    private final List<String> fieldNames = new ArrayList<>();
+    private final List<String> sharedStrings = new ArrayList<>();
+
+    private String text;
+    private NumberType numberType;
+    private long longValue;
+    private double doubleValue;
+    private Number bigValue;
+    private byte[] binaryValue;
+
+    /**
+     * Creates a parser and checks the header of the data file.
+     *
+     * @param codec The codec that values are bound with.
+     * @param in    The contents of the data file.
+     * @throws IOException If the stream is not a binary data file.
+     */
+    BinarySnapshotParser(ObjectCodec codec, InputStream in) throws IOException {
+        this.codec = codec;
+        this.in = in;
+
+        ensureAvailable(BinarySnapshotCodec.MAGIC.length);
+        for (byte expected : BinarySnapshotCodec.MAGIC) {
+            if (buffer[position++] != expected) {
+                throw _constructError("Not a binary data file");
+            }
+        }
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        if (closed) {
+            return null;
+        }
+
+        int tag = readTag();
+        if (tag < 0) {
+            _handleEOF();
+            close();
+            return _currToken = null;
+        }
+
+        switch (tag) {
+            case BinarySnapshotCodec.START_OBJECT:
+                context = context.createChildObjectContext(-1, -1);
+                return _currToken = JsonToken.START_OBJECT;
+            case BinarySnapshotCodec.END_OBJECT:
+                context = context.clearAndGetParent();
+                return _currToken = JsonToken.END_OBJECT;
+            case BinarySnapshotCodec.START_ARRAY:
+                context = context.createChildArrayContext(-1, -1);
+                return _currToken = JsonToken.START_ARRAY;
+            case BinarySnapshotCodec.END_ARRAY:
+                context = context.clearAndGetParent();
+                return _currToken = JsonToken.END_ARRAY;
+            case BinarySnapshotCodec.FIELD_NAME:
+                String name = readText();
+                if (fieldNames.size() < BinarySnapshotCodec.MAX_SHARED_STRINGS) {
+                    fieldNames.add(name);
+                }
+                context.setCurrentName(name);
+                return _currToken = JsonToken.FIELD_NAME;
+            case BinarySnapshotCodec.FIELD_NAME_REFERENCE:
+                context.setCurrentName(lookUp(fieldNames, readUnsigned()));
+                return _currToken = JsonToken.FIELD_NAME;
+            case BinarySnapshotCodec.STRING:
+                text = readText();
+                return _currToken = JsonToken.VALUE_STRING;
+            case BinarySnapshotCodec.SHARED_STRING:
+                text = readText();
+                sharedStrings.add(text);
+                return _currToken = JsonToken.VALUE_STRING;
+            case BinarySnapshotCodec.STRING_REFERENCE:
+                text = lookUp(sharedStrings, readUnsigned());
+                return _currToken = JsonToken.VALUE_STRING;
+            case BinarySnapshotCodec.INT:
+                return readInteger(NumberType.INT);
+            case BinarySnapshotCodec.LONG:
+                return readInteger(NumberType.LONG);
+            case BinarySnapshotCodec.FLOAT:
+                doubleValue = Float.intBitsToFloat((int) readFixed(4));
+                numberType = NumberType.FLOAT;
+                return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+            case BinarySnapshotCodec.DOUBLE:
+                doubleValue = Double.longBitsToDouble(readFixed(8));
+                numberType = NumberType.DOUBLE;
+                return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+            case BinarySnapshotCodec.BIG_INTEGER:
+                bigValue = new BigInteger(readText());
+                numberType = NumberType.BIG_INTEGER;
+                return _currToken = JsonToken.VALUE_NUMBER_INT;
+            case BinarySnapshotCodec.BIG_DECIMAL:
+                bigValue = new BigDecimal(readText());
+                numberType = NumberType.BIG_DECIMAL;
+                return _currToken = JsonToken.VALUE_NUMBER_FLOAT;
+            case BinarySnapshotCodec.TRUE:
+                return _currToken = JsonToken.VALUE_TRUE;
+            case BinarySnapshotCodec.FALSE:
+                return _currToken = JsonToken.VALUE_FALSE;
+            case BinarySnapshotCodec.NULL:
+                return _currToken = JsonToken.VALUE_NULL;
+            case BinarySnapshotCodec.BINARY:
+                binaryValue = readBytes((int) readUnsigned());
+                return _currToken = JsonToken.VALUE_EMBEDDED_OBJECT;
+            default:
+                throw _constructError("Invalid tag 0x" + Integer.toHexString(tag) + " in binary data file");
+        }
+    }
+
+    @Override
+    protected void _handleEOF() throws JsonParseException {
+        if (!context.inRoot()) {
+            _reportInvalidEOF(": expected close marker for " + context.typeDesc(), null);
+        }
+    }
+
+    @Override
+    public String getCurrentName() {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            JsonReadContext parent = context.getParent();
+            return parent == null ? null : parent.getCurrentName();
+        }
+        return context.getCurrentName();
+    }
+
+    @Override
+    public void overrideCurrentName(String name) {
+        JsonReadContext nameContext = context;
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            nameContext = nameContext.getParent();
+        }
+        try {
+            nameContext.setCurrentName(name);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String getText() throws IOException {
+        if (_currToken == null) {
+            return null;
+        }
+
+        switch (_currToken) {
+            case FIELD_NAME:
+                return getCurrentName();
+            case VALUE_STRING:
+                return text;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return getNumberValue().toString();
+            default:
+                return _currToken.asString();
+        }
+    }
+
+    @Override
+    public char[] getTextCharacters() throws IOException {
+        String currentText = getText();
+        return currentText == null ? null : currentText.toCharArray();
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        return false;
+    }
+
+    @Override
+    public int getTextLength() throws IOException {
+        String currentText = getText();
+        return currentText == null ? 0 : currentText.length();
+    }
+
+    @Override
+    public int getTextOffset() {
+        return 0;
+    }
+
+    @Override
+    public byte[] getBinaryValue(Base64Variant variant) throws IOException {
+        if (_currToken == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            return binaryValue;
+        }
+        if (_currToken == JsonToken.VALUE_STRING) {
+            return variant.decode(text);
+        }
+        throw _constructError("Current token (" + _currToken + ") not binary");
+    }
+
+    @Override
+    public Object getEmbeddedObject() {
+        return _currToken == JsonToken.VALUE_EMBEDDED_OBJECT ? binaryValue : null;
+    }
+
+    @Override
+    public Number getNumberValue() throws IOException {
+        switch (getNumberType()) {
+            case INT:
+                return (int) longValue;
+            case LONG:
+                return longValue;
+            case FLOAT:
+                return (float) doubleValue;
+            case DOUBLE:
+                return doubleValue;
+            default:
+                return bigValue;
+        }
+    }
+
+    @Override
+    public NumberType getNumberType() throws IOException {
+        if (_currToken != JsonToken.VALUE_NUMBER_INT && _currToken != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw _constructError("Current token (" + _currToken + ") not numeric");
+        }
+        return numberType;
+    }
+
+    @Override
+    public int getIntValue() throws IOException {
+        return getNumberType() == NumberType.INT ? (int) longValue : getNumberValue().intValue();
+    }
+
+    @Override
+    public long getLongValue() throws IOException {
+        NumberType type = getNumberType();
+        return type == NumberType.INT || type == NumberType.LONG ? longValue : getNumberValue().longValue();
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException {
+        switch (getNumberType()) {
+            case BIG_INTEGER:
+                return (BigInteger) bigValue;
+            case BIG_DECIMAL:
+                return ((BigDecimal) bigValue).toBigInteger();
+            case FLOAT:
+            case DOUBLE:
+                return BigDecimal.valueOf(doubleValue).toBigInteger();
+            default:
+                return BigInteger.valueOf(longValue);
+        }
+    }
+
+    @Override
+    public float getFloatValue() throws IOException {
+        return (float) getDoubleValue();
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException {
+        NumberType type = getNumberType();
+        return type == NumberType.DOUBLE || type == NumberType.FLOAT ? doubleValue : getNumberValue().doubleValue();
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException {
+        switch (getNumberType()) {
+            case BIG_DECIMAL:
+                return (BigDecimal) bigValue;
+            case BIG_INTEGER:
+                return new BigDecimal((BigInteger) bigValue);
+            case FLOAT:
+            case DOUBLE:
+                return BigDecimal.valueOf(doubleValue);
+            default:
+                return BigDecimal.valueOf(longValue);
+        }
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public void setCodec(ObjectCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+
+    @Override
+    public JsonStreamContext getParsingContext() {
+        return context;
+    }
+
+    @Override
+    public JsonLocation getTokenLocation() {
+        return getCurrentLocation();
+    }
+
+    @Override
+    public JsonLocation getCurrentLocation() {
+        return new JsonLocation(null, bufferOffset + position, -1, -1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            if (isEnabled(Feature.AUTO_CLOSE_SOURCE)) {
+                in.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private JsonToken readInteger(NumberType type) throws IOException {
+        long value = readUnsigned();
+        longValue = (value >>> 1) ^ -(value & 1);
+        numberType = type;
+        return _currToken = JsonToken.VALUE_NUMBER_INT;
+    }
+
+    /**
+     * @return The next tag, or -1 at the end of the file.
+     */
+    private int readTag() throws IOException {
+        if (position == limit && !fill(1)) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned variable-length number.
+     */
+    private long readUnsigned() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            ensureAvailable(1);
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw _constructError("Malformed number in binary data file");
+    }
+
+    /**
+     * Reads a value stored in its low bytes, most significant first.
+     */
+    private long readFixed(int byteCount) throws IOException {
+        ensureAvailable(byteCount);
+        long value = 0;
+        for (int i = 0; i < byteCount; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private String readText() throws IOException {
+        int length = (int) readUnsigned();
+        if (length <= buffer.length) {
+            ensureAvailable(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            ensureAvailable(1);
+            int chunk = Math.min(length - copied, limit - position);
+            System.arraycopy(buffer, position, bytes, copied, chunk);
+            position += chunk;
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    private String lookUp(List<String> table, long index) throws IOException {
+        if (index >= table.size()) {
+            throw _constructError("Invalid string reference " + index + " in binary data file");
+        }
+        return table.get((int) index);
+    }
+
+    private void ensureAvailable(int length) throws IOException {
+        if (limit - position < length && !fill(length)) {
+            throw new EOFException("Unexpected end of binary data file");
+        }
+    }
+
+    /**
+     * Reads from the stream until at least the given number of bytes are buffered.
+     *
+     * @return Whether enough bytes could be read before the end of the stream.
+     */
+    private boolean fill(int length) throws IOException {
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        bufferOffset += position;
+        position = 0;
+        limit = remaining;
+
+        while (limit < length) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.softeng306.fileprocessing;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over IDs, which answers that an ID is definitely not present without looking it up.
+ * <p>
+ * The filter also counts how it is used, so that the rate of false positives it gives in practice
+ * can be compared with the rate it was sized for. A false positive is only known once the ID has
+ * been looked up, so it is reported by whoever looks the ID up.
+ */
+final class BloomFilter {
+    private static final double LN_2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong definitelyAbsent = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private BloomFilter(long[] words, int hashCount, long insertions) {
+        this.words = new AtomicLongArray(words);
+        this.hashCount = hashCount;
+        this.insertions.set(insertions);
+    }
+
+    /**
+     * Creates an empty filter sized for a number of IDs.
+     *
+     * @param expectedInsertions The number of IDs the filter will hold.
+     * @param falsePositiveRate  The rate of false positives the filter should give once it holds them.
+     * @return The filter.
+     */
+    static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int insertions = Math.max(expectedInsertions, 1);
+        long bits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        int wordCount = (int) Math.min(Math.max((bits + 63) / 64, 1), Integer.MAX_VALUE / 64);
+        int hashCount = (int) Math.max(1, Math.round((double) wordCount * 64 / insertions * LN_2));
+        return new BloomFilter(new long[wordCount], hashCount, 0);
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @param buffer   The buffer holding the filter.
+     * @param position The position of the filter in the buffer.
+     * @return The filter, copied out of the buffer so that IDs can be added to it.
+     */
+    static BloomFilter readFrom(ByteBuffer buffer, int position) {
+        int hashCount = buffer.getInt(position);
+        long insertions = buffer.getLong(position + Integer.BYTES);
+        int wordCount = buffer.getInt(position + Integer.BYTES + Long.BYTES);
+        long[] words = new long[wordCount];
+        buffer.duplicate().position(position + serializedSize(0)).asLongBuffer().get(words);
+        return new BloomFilter(words, hashCount, insertions);
+    }
+
+    /**
+     * @param wordCount The number of 64-bit words in a filter.
+     * @return The number of bytes the filter takes when it is written.
+     */
+    static int serializedSize(int wordCount) {
+        return Integer.BYTES + Long.BYTES + Integer.BYTES + wordCount * Long.BYTES;
+    }
+
+    /**
+     * @param buffer   The buffer holding a filter.
+     * @param position The position of the filter in the buffer.
+     * @return The number of bytes the filter takes.
+     */
+    static int serializedSizeAt(ByteBuffer buffer, int position) {
+        return serializedSize(buffer.getInt(position + Integer.BYTES + Long.BYTES));
+    }
+
+    /**
+     * Writes the filter, without the counts of how it has been used.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If the filter could not be written.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(hashCount);
+        out.writeLong(insertions.get());
+        out.writeInt(words.length());
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    /**
+     * Adds an ID to the filter. An ID whose bits are all set already is not counted again, so that
+     * adding an ID that is already in the filter does not change the expected rate of false positives.
+     *
+     * @param key The ID, in UTF-8.
+     */
+    void add(byte[] key) {
+        long hash = hash(key);
+        long step = stepOf(hash);
+        long bitCount = (long) words.length() * 64;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param key An ID, in UTF-8.
+     * @return False if the ID is definitely not in the filter, or true if it may be.
+     */
+    boolean mightContain(byte[] key) {
+        queries.incrementAndGet();
+        if (!probe(key)) {
+            definitelyAbsent.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks the filter without counting the check in its statistics.
+     *
+     * @param key An ID, in UTF-8.
+     * @return False if the ID is definitely not in the filter, or true if it may be.
+     */
+    boolean probe(byte[] key) {
+        long hash = hash(key);
+        long step = stepOf(hash);
+        long bitCount = (long) words.length() * 64;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that an ID the filter said might be present turned out not to be.
+     */
+    void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * @return How the filter is sized and how it has been used since it was built.
+     */
+    BloomFilterStats getStats() {
+        long bitCount = (long) words.length() * 64;
+        long insertionCount = insertions.get();
+        double expectedRate = Math.pow(1 - Math.exp(-hashCount * (double) insertionCount / bitCount), hashCount);
+        return new BloomFilterStats(bitCount, hashCount, insertionCount, queries.get(), definitelyAbsent.get(),
+                falsePositives.get(), expectedRate);
+    }
+
+    /**
+     * @return A 64-bit hash of the ID, spread by the finaliser of SplitMix64 so that IDs that differ
+     *         only in their last characters have unrelated hashes.
+     */
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * @return The distance between the bits set for an ID, derived from its hash so that different
+     *         IDs step through the filter differently.
+     */
+    private static long stepOf(long hash) {
+        return mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.softeng306.fileprocessing;
+
+/**
+ * How the Bloom filter in front of an index is sized, and how it has been used since it was built.
+ * The rate of false positives it gives in practice can be compared with the rate expected from its
+ * size, to decide whether it should be made bigger or smaller.
+ */
+public final class BloomFilterStats {
+    private final long bitCount;
+    private final int hashCount;
+    private final long insertions;
+    private final long queries;
+    private final long definitelyAbsent;
+    private final long falsePositives;
+    private final double expectedFalsePositiveRate;
+
+    BloomFilterStats(long bitCount, int hashCount, long insertions, long queries, long definitelyAbsent,
+                     long falsePositives, double expectedFalsePositiveRate) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.insertions = insertions;
+        this.queries = queries;
+        this.definitelyAbsent = definitelyAbsent;
+        this.falsePositives = falsePositives;
+        this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+    }
+
+    /**
+     * @return The number of bits in the filter.
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return The number of bits set for each ID.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @return The number of IDs added to the filter.
+     */
+    public long getInsertions() {
+        return insertions;
+    }
+
+    /**
+     * @return The number of IDs the filter has been asked about.
+     */
+    public long getQueries() {
+        return queries;
+    }
+
+    /**
+     * @return The number of IDs the filter answered were definitely not present.
+     */
+    public long getDefinitelyAbsent() {
+        return definitelyAbsent;
+    }
+
+    /**
+     * @return The number of IDs the filter answered might be present that were not.
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * @return The rate of false positives expected from the size of the filter and the number of IDs in it.
+     */
+    public double getExpectedFalsePositiveRate() {
+        return expectedFalsePositiveRate;
+    }
+
+    /**
+     * @return The rate of false positives among the IDs that were not present, or 0 if none were asked about.
+     */
+    public double getObservedFalsePositiveRate() {
+        long absent = definitelyAbsent + falsePositives;
+        return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bits, %d hashes, %d IDs, %d queries, %d definitely absent, %d false positives"
+                        + " (observed rate %.4f, expected rate %.4f)", bitCount, hashCount, insertions, queries,
+                definitelyAbsent, falsePositives, getObservedFalsePositiveRate(), expectedFalsePositiveRate);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.professor.IProfessor;
+import com.softeng306.domain.student.IStudent;
+
+import java.io.IOException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Jackson module that replaces every student, course and professor read from JSON with its
+ * canonical instance from the {@code EntityRegistry}.
+ * Copies of an entity embedded in other objects, such as the coordinator of a course, therefore
+ * all resolve to the same object as the one held by the entity's manager. An entity that is already
+ * registered is never replaced by the copy read, as described on {@code EntityRegistry}.
+ */
+public class CanonicalEntityModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the module, hooking into the deserializers of students, courses and professors.
+     */
+    public CanonicalEntityModule() {
+        super("CanonicalEntityModule");
+
+        EntityRegistry registry = EntityRegistry.getInstance();
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc,
+                                                          JsonDeserializer<?> deserializer) {
+                Class<?> beanClass = beanDesc.getBeanClass();
+
+                if (IStudent.class.isAssignableFrom(beanClass)) {
+                    return new CanonicalizingDeserializer(deserializer,
+                            student -> registry.canonicalStudent((IStudent) student));
+                } else if (ICourse.class.isAssignableFrom(beanClass)) {
+                    return new CanonicalizingDeserializer(deserializer,
+                            course -> registry.canonicalCourse((ICourse) course));
+                } else if (IProfessor.class.isAssignableFrom(beanClass)) {
+                    return new CanonicalizingDeserializer(deserializer,
+                            professor -> registry.canonicalProfessor((IProfessor) professor));
+                }
+
+                return deserializer;
+            }
+        });
+    }
+
+    /**
+     * Deserializer that passes every value produced by another deserializer through a
+     * canonicalizing function.
+     */
+    private static class CanonicalizingDeserializer extends DelegatingDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final UnaryOperator<Object> canonicalizer;
+
+        CanonicalizingDeserializer(JsonDeserializer<?> delegatee, UnaryOperator<Object> canonicalizer) {
+            super(delegatee);
+            this.canonicalizer = canonicalizer;
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new CanonicalizingDeserializer(newDelegatee, canonicalizer);
+        }
+
+        @Override
+        public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            Object value = _delegatee.deserialize(parser, context);
+            return value == null ? null : canonicalizer.apply(value);
+        }
+
+    }
+
+}
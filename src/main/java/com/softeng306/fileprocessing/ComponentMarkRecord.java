@@ -0,0 +1,93 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.softeng306.domain.mark.IMainComponentMark;
+import com.softeng306.domain.mark.ISubComponentMark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk form of the mark for one assessment component.
+ * The component is stored by name and is resolved against the components of the course when the
+ * record is loaded. Marks for main components also hold the marks of their sub components.
+ * <p>
+ * Records are also read from the legacy format, in which every mark embeds a full copy of its
+ * component. The fields are bound straight from the parser in either format.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ComponentMarkRecord {
+
+    private String componentName;
+    private double mark;
+    private List<ComponentMarkRecord> subComponentMarks;
+
+    /**
+     * Default constructor. Required for Jackson serialization.
+     */
+    public ComponentMarkRecord() {
+
+    }
+
+    /**
+     * Creates the on-disk record for the mark of a main component and its sub components.
+     *
+     * @param mainComponentMark The main component mark to store.
+     */
+    public ComponentMarkRecord(IMainComponentMark mainComponentMark) {
+        this.componentName = mainComponentMark.getMainComponent().getName();
+        this.mark = mainComponentMark.getMark();
+        this.subComponentMarks = new ArrayList<>();
+        for (ISubComponentMark subComponentMark : mainComponentMark.getSubComponentMarks()) {
+            subComponentMarks.add(new ComponentMarkRecord(subComponentMark));
+        }
+    }
+
+    /**
+     * Creates the on-disk record for the mark of a sub component.
+     *
+     * @param subComponentMark The sub component mark to store.
+     */
+    public ComponentMarkRecord(ISubComponentMark subComponentMark) {
+        this.componentName = subComponentMark.getSubComponent().getName();
+        this.mark = subComponentMark.getMark();
+    }
+
+    /**
+     * Reads the component of a main component mark in the legacy format, which embeds a full copy of
+     * the component.
+     *
+     * @param mainComponent The embedded main component.
+     */
+    @JsonSetter("mainComponent")
+    private void readEmbeddedMainComponent(Object mainComponent) {
+        componentName = RecordFields.readName(mainComponent, "name");
+    }
+
+    /**
+     * Reads the component of a sub component mark in the legacy format, which embeds a full copy of
+     * the component.
+     *
+     * @param subComponent The embedded sub component.
+     */
+    @JsonSetter("subComponent")
+    private void readEmbeddedSubComponent(Object subComponent) {
+        componentName = RecordFields.readName(subComponent, "name");
+    }
+
+    public String getComponentName() {
+        return componentName;
+    }
+
+    public double getMark() {
+        return mark;
+    }
+
+    public List<ComponentMarkRecord> getSubComponentMarks() {
+        return subComponentMarks;
+    }
+
+}
@@ -1,45 +1,56 @@
 package com.softeng306.fileprocessing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.softeng306.domain.course.ICourse;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Concrete implementation of a file processor for courses.
  * Used to read and write course objects from a file.
- * This class extends {@code FileProcessor}
+ * This class extends {@code FileProcessor}, and can look up a single course through an index of the file.
  */
-public class CourseFileProcessor extends FileProcessor<ICourse> {
+public class CourseFileProcessor extends FileProcessor<ICourse> implements IIndexedFileProcessor<ICourse> {
     /**
      * The path to the file for course data.
      */
-    private static final String COURSE_FILE_PATH = "data/courseFile.json";
+    static final String COURSE_FILE_PATH = "data/courseFile.json";
 
     /**
-     * Loads a list of all the courses from {@value COURSE_FILE_PATH}.
+     * The path to the file this processor reads and writes.
+     */
+    private final String courseFilePath;
+
+    /**
+     * Creates a processor for the course file at {@value COURSE_FILE_PATH}.
+     */
+    public CourseFileProcessor() {
+        this(COURSE_FILE_PATH);
+    }
+
+    /**
+     * Creates a processor for the course file at the given path.
      *
-     * @return A list of all the courses that is loaded from the file.
+     * @param courseFilePath The path to the course file.
      */
-    @Override
-    public List<ICourse> loadFile() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        File courseFile = Paths.get(COURSE_FILE_PATH).toFile();
-        ArrayList<ICourse> allCourses = new ArrayList<>();
+    public CourseFileProcessor(String courseFilePath) {
+        this.courseFilePath = courseFilePath;
+    }
 
+    /**
+     * Loads all the courses from {@value COURSE_FILE_PATH}, handing each one to a sink as soon as it is read.
+     *
+     * @param sink The sink to hand the courses to.
+     */
+    @Override
+    public void loadFile(IRecordSink<? super ICourse> sink) {
         try {
-            allCourses = new ArrayList<>(Arrays.asList(objectMapper.readValue(courseFile, ICourse[].class)));
+            readSnapshot(courseFilePath, ICourse.class, sink);
         } catch (IOException e) {
             System.out.println("Error happens when loading courses.");
             e.printStackTrace();
         }
-
-        return allCourses;
     }
 
     /**
@@ -50,10 +61,8 @@ public class CourseFileProcessor extends FileProcessor<ICourse> {
     @Override
     public void writeNewEntryToFile(ICourse course) {
         try {
-            List<ICourse> courses = loadFile();
-            courses.add(course);
-
-            writeToFile(COURSE_FILE_PATH, courses);
+            appendToSnapshot(courseFilePath, ICourse.class, List.of(course));
+            idIndexChanged(List.of(course.getCourseId()));
         } catch (IOException e) {
             System.out.println("Error in adding a course to the file.");
             e.printStackTrace();
@@ -68,12 +77,61 @@ public class CourseFileProcessor extends FileProcessor<ICourse> {
     @Override
     public void updateFileContents(List<ICourse> updatedCourses) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.writeValue(Paths.get(COURSE_FILE_PATH).toFile(), updatedCourses);
+            writeSnapshotToFile(courseFilePath, updatedCourses);
+            idIndexChanged(updatedCourses.stream().map(ICourse::getCourseId).collect(Collectors.toList()));
         } catch (IOException e) {
             System.out.println("Error in backing up courses.");
             e.printStackTrace();
         }
     }
 
+    /**
+     * Opens the index of {@value COURSE_FILE_PATH} by course ID, building it first if it is missing or
+     * out of date.
+     *
+     * @return Whether the index was opened.
+     */
+    @Override
+    public boolean openIndex() {
+        try {
+            return openIdIndex(courseFilePath, "courseId");
+        } catch (IOException e) {
+            System.out.println("Error in indexing courses.");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean containsId(String courseId) {
+        return indexContains(courseId);
+    }
+
+    /**
+     * Reads a single course from {@value COURSE_FILE_PATH} through its index.
+     *
+     * @param courseId The ID of the course.
+     * @return The course, or null if there is no course with the ID or it could not be read.
+     */
+    @Override
+    public ICourse loadById(String courseId) {
+        try {
+            return readIndexedRecord(courseId, ICourse.class);
+        } catch (IOException e) {
+            System.out.println("Error in reading a course through the index.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public List<String> findIdsWithPrefix(String prefix) {
+        return indexedIdsWithPrefix(prefix);
+    }
+
+    @Override
+    public BloomFilterStats getExistenceFilterStats() {
+        return getIdIndexFilterStats();
+    }
+
 }
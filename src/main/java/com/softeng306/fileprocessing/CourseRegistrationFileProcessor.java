@@ -1,63 +1,210 @@
 package com.softeng306.fileprocessing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.softeng306.domain.course.courseregistration.ICourseRegistration;
+import com.softeng306.domain.exceptions.CourseNotFoundException;
+import com.softeng306.domain.exceptions.StudentNotFoundException;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Concrete implementation of a file processor for course registrations.
  * Used to read and write course registrations from a file.
+ * Registrations are stored as {@code CourseRegistrationRecord}s, which refer to students and courses by ID.
+ * New registrations are appended to a journal next to the snapshot file, and the journal is
+ * folded back into the snapshot in the background once it grows large enough, and when the processor
+ * is closed. When registrations are stored one record per line, new registrations are appended to the
+ * snapshot file itself instead.
+ * When registrations are paged, they are also copied into a page file next to the snapshot file.
  * This class extends {@code FileProcessor}
  */
-public class CourseRegistrationFileProcessor extends FileProcessor<ICourseRegistration> {
+public class CourseRegistrationFileProcessor extends FileProcessor<ICourseRegistration>
+        implements IStudentCourseFileProcessor<ICourseRegistration> {
     /**
      * Path to the file for course registration data.
      */
-    private static final String COURSE_REGISTRATION_FILE_PATH = "data/courseRegistrationFile.json";
+    static final String COURSE_REGISTRATION_FILE_PATH = "data/courseRegistrationFile.json";
 
     /**
-     * Loads a list of all the course registrations from {@value COURSE_REGISTRATION_FILE_PATH}.
+     * Path to the journal of registrations not yet written to {@value COURSE_REGISTRATION_FILE_PATH}.
+     */
+    private static final String COURSE_REGISTRATION_JOURNAL_PATH = "data/courseRegistrationFile.journal";
+
+    /**
+     * The number of journaled registrations that triggers a background compaction.
+     */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private static final Function<ICourseRegistration, String> STUDENT_ID_OF =
+            courseRegistration -> courseRegistration.getStudent().getStudentId();
+
+    private static final Function<ICourseRegistration, String> COURSE_ID_OF =
+            courseRegistration -> courseRegistration.getCourse().getCourseId();
+
+    /**
+     * The path to the snapshot file this processor reads and writes.
+     */
+    private final String courseRegistrationFilePath;
+
+    private final RecordJournal<CourseRegistrationRecord> journal;
+
+    /**
+     * The path to the page file registrations are read from when they are paged.
+     */
+    private final Path pagePath;
+
+    /**
+     * The paged registrations, or null if the registrations are held in memory.
+     */
+    private volatile PagedStudentCourseRecords<ICourseRegistration, CourseRegistrationRecord> pagedRecords;
+
+    /**
+     * Guards the snapshot file so that it is never read while a compaction is rewriting it.
+     */
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Whether a journal left behind by an interrupted compaction has been folded into the snapshot,
+     * which must happen before registrations are appended to the snapshot itself. Guarded by
+     * {@code snapshotLock}.
+     */
+    private boolean interruptedCompactionFolded;
+
+    /**
+     * Creates a course registration file processor for {@value COURSE_REGISTRATION_FILE_PATH}.
+     */
+    public CourseRegistrationFileProcessor() {
+        this(COURSE_REGISTRATION_FILE_PATH, COURSE_REGISTRATION_JOURNAL_PATH);
+    }
+
+    /**
+     * Creates a course registration file processor for the snapshot file at the given path,
+     * journaling new registrations next to it.
      *
-     * @return A list of all the course registrations loaded from the file.
+     * @param courseRegistrationFilePath The path to the course registration snapshot file.
+     */
+    public CourseRegistrationFileProcessor(String courseRegistrationFilePath) {
+        this(courseRegistrationFilePath, courseRegistrationFilePath.replaceFirst("\\.json$", "") + ".journal");
+    }
+
+    private CourseRegistrationFileProcessor(String courseRegistrationFilePath, String journalFilePath) {
+        this.courseRegistrationFilePath = courseRegistrationFilePath;
+        this.journal = new RecordJournal<>(journalFilePath, CourseRegistrationRecord.class);
+        this.pagePath = Paths.get(courseRegistrationFilePath.replaceFirst("\\.json$", "") + ".pages");
+        if (PersistenceConfig.isNdjsonRecordsEnabled()) {
+            setSnapshotCodec(SnapshotCodecs.forName(NdjsonSnapshotCodec.NAME));
+        }
+    }
+
+    /**
+     * Loads all the course registrations from {@value COURSE_REGISTRATION_FILE_PATH}, followed by any
+     * registrations replayed from {@value COURSE_REGISTRATION_JOURNAL_PATH}. Each record is resolved
+     * and handed to the sink as soon as it is read, so the records themselves are never all held at once.
+     *
+     * @param sink The sink to hand the course registrations to.
      */
     @Override
-    public List<ICourseRegistration> loadFile() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        File courseRegistrationFile = Paths.get(COURSE_REGISTRATION_FILE_PATH).toFile();
-        ArrayList<ICourseRegistration> allCourseRegistrations = new ArrayList<>();
+    public void loadFile(IRecordSink<? super ICourseRegistration> sink) {
+        IRecordSink<CourseRegistrationRecord> resolvingSink = resolvingSink(sink);
+        synchronized (snapshotLock) {
+            try {
+                readRecords(resolvingSink);
+            } catch (IOException e) {
+                System.out.println("Error happens when loading course registrations.");
+                e.printStackTrace();
+            }
+        }
+    }
 
+    /**
+     * Reads the records from {@value COURSE_REGISTRATION_FILE_PATH} and
+     * {@value COURSE_REGISTRATION_JOURNAL_PATH} while the students and courses they refer to are still
+     * loading, holding back a bounded number of them, then resolves each record as it is read once the
+     * students and courses have been loaded.
+     *
+     * @param sink            The sink to hand the course registrations to.
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     */
+    @Override
+    public void loadFile(IRecordSink<? super ICourseRegistration> sink, Runnable awaitReferences) {
+        ReferenceAwaitingSink<CourseRegistrationRecord> awaitingSink =
+                new ReferenceAwaitingSink<>(resolvingSink(sink), awaitReferences);
         try {
-            allCourseRegistrations = new ArrayList<>(Arrays.asList(objectMapper.readValue(courseRegistrationFile, ICourseRegistration[].class)));
+            try {
+                synchronized (snapshotLock) {
+                    readRecords(awaitingSink);
+                }
+            } finally {
+                awaitingSink.finish();
+            }
         } catch (IOException e) {
-            System.out.println("Error happens when loading courses.");
+            System.out.println("Error happens when loading course registrations.");
             e.printStackTrace();
         }
+    }
+
+    /**
+     * Loads the course registrations from {@value COURSE_REGISTRATION_FILE_PATH} and
+     * {@value COURSE_REGISTRATION_JOURNAL_PATH}. When registrations are paged, the page file is only
+     * copied from those files again if they have changed since it was last saved.
+     *
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     * @return The course registrations.
+     */
+    @Override
+    public IStudentCourseRecords<ICourseRegistration> loadRecords(Runnable awaitReferences) {
+        if (PersistenceConfig.isPagedRecordsEnabled()) {
+            RecordPageFile<CourseRegistrationRecord> pages = new RecordPageFile<>(pagePath,
+                    CourseRegistrationRecord.class, CourseRegistrationRecord::getStudentId,
+                    CourseRegistrationRecord::getCourseId);
+            try {
+                synchronized (snapshotLock) {
+                    pages.open(sourcePaths(), this::readRecords);
+                }
+
+                awaitReferences.run();
+                pagedRecords = new PagedStudentCourseRecords<>(pages, STUDENT_ID_OF, COURSE_ID_OF,
+                        CourseRegistrationRecord::new, CourseRegistrationFileProcessor::resolve,
+                        PersistenceConfig.getPagedRecordsCacheSize());
+                return pagedRecords;
+            } catch (IOException e) {
+                System.out.println("Error happens when paging course registrations.");
+                e.printStackTrace();
+            }
+        }
 
-        return allCourseRegistrations;
+        StudentCourseRecords<ICourseRegistration> records = new StudentCourseRecords<>(STUDENT_ID_OF, COURSE_ID_OF);
+        loadFile(records::add, awaitReferences);
+        return records;
     }
 
     /**
-     * Writes a new course registration into {@value COURSE_REGISTRATION_FILE_PATH}.
+     * Appends a new course registration to {@value COURSE_REGISTRATION_JOURNAL_PATH}, or to
+     * {@value COURSE_REGISTRATION_FILE_PATH} when it is stored one record per line.
      *
      * @param courseRegistration The new course registration to write to the file.
      */
     @Override
     public void writeNewEntryToFile(ICourseRegistration courseRegistration) {
-        try {
-            List<ICourseRegistration> courseRegistrations = loadFile();
-            courseRegistrations.add(courseRegistration);
+        appendToJournal(List.of(courseRegistration), "Error in adding a course registration to the file.");
+    }
 
-            writeToFile(COURSE_REGISTRATION_FILE_PATH, courseRegistrations);
-        } catch (IOException e) {
-            System.out.println("Error in adding a course registration to the file.");
-            e.printStackTrace();
-        }
+    /**
+     * Appends new course registrations to {@value COURSE_REGISTRATION_JOURNAL_PATH}, or to
+     * {@value COURSE_REGISTRATION_FILE_PATH} when it is stored one record per line. Course
+     * registrations are never changed once they are made, so only the new registrations are written.
+     *
+     * @param newCourseRegistrations      The registrations that are not yet in the file.
+     * @param modifiedCourseRegistrations The registrations that have changed, which are not written.
+     */
+    @Override
+    public void writeChangesToFile(List<ICourseRegistration> newCourseRegistrations,
+                                   List<ICourseRegistration> modifiedCourseRegistrations) {
+        appendToJournal(newCourseRegistrations, "Error in adding a course registration to the file.");
     }
 
     /**
@@ -67,13 +214,172 @@ public class CourseRegistrationFileProcessor extends FileProcessor<ICourseRegist
      */
     @Override
     public void updateFileContents(List<ICourseRegistration> updatedCourseRegistrations) {
+        synchronized (snapshotLock) {
+            try {
+                writeSnapshotToFile(courseRegistrationFilePath, toStoredForm(updatedCourseRegistrations));
+                journal.clear();
+            } catch (IOException e) {
+                System.out.println("Error in backing up course registrations.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Appends course registrations to the journal, scheduling a compaction once the journal is large
+     * enough. When the snapshot is stored one record per line, the registrations are appended to the
+     * snapshot instead, converting it to that format first if it is not in it yet.
+     *
+     * @param courseRegistrations The registrations to journal.
+     * @param errorMessage        The message to print if the registrations could not be written.
+     */
+    private void appendToJournal(List<ICourseRegistration> courseRegistrations, String errorMessage) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.writeValue(Paths.get(COURSE_REGISTRATION_FILE_PATH).toFile(), updatedCourseRegistrations);
+            if (getSnapshotCodec() instanceof NdjsonSnapshotCodec) {
+                synchronized (snapshotLock) {
+                    foldInterruptedCompaction();
+                    appendToSnapshot(courseRegistrationFilePath, CourseRegistrationRecord.class,
+                            toStoredForm(courseRegistrations));
+                }
+            } else {
+                journal.appendAll(toStoredForm(courseRegistrations));
+            }
+            PagedStudentCourseRecords<ICourseRegistration, CourseRegistrationRecord> paged = pagedRecords;
+            if (paged != null) {
+                paged.saved(courseRegistrations);
+            }
         } catch (IOException e) {
-            System.out.println("Error in backing up course registrations.");
+            System.out.println(errorMessage);
+            e.printStackTrace();
+        }
+
+        if (journal.size() >= COMPACTION_THRESHOLD) {
+            JournalCompactor.getInstance().schedule(this::compact);
+        }
+    }
+
+    /**
+     * Folds the journal into the snapshot and saves the index of the page file, if registrations are paged.
+     */
+    @Override
+    public void close() {
+        compact();
+
+        PagedStudentCourseRecords<ICourseRegistration, CourseRegistrationRecord> paged = pagedRecords;
+        if (paged != null) {
+            synchronized (snapshotLock) {
+                try {
+                    paged.close(sourcePaths());
+                } catch (IOException e) {
+                    System.out.println("Error in saving the index of course registrations.");
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds the journaled registrations into {@value COURSE_REGISTRATION_FILE_PATH}.
+     */
+    private void compact() {
+        synchronized (snapshotLock) {
+            try {
+                List<CourseRegistrationRecord> journaled = journal.beginCompaction(courseRegistrationFilePath);
+                if (!journaled.isEmpty()) {
+                    writeRecordsToFile(courseRegistrationFilePath, sink -> {
+                        readSnapshot(courseRegistrationFilePath, CourseRegistrationRecord.class, sink);
+                        for (CourseRegistrationRecord record : journaled) {
+                            sink.accept(record);
+                        }
+                    });
+                }
+                journal.finishCompaction();
+            } catch (IOException e) {
+                System.out.println("Error in compacting course registrations.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Folds the journal into the snapshot the first time registrations are appended to the snapshot, since
+     * a journal left behind by an interrupted compaction is only replayed while the snapshot is unchanged.
+     * Must be called while holding {@code snapshotLock}.
+     */
+    private void foldInterruptedCompaction() {
+        if (!interruptedCompactionFolded) {
+            compact();
+            interruptedCompactionFolded = true;
+        }
+    }
+
+    /**
+     * Reads the records in the snapshot, followed by the records replayed from the journal.
+     * Must be called while holding {@code snapshotLock}.
+     *
+     * @param sink The sink to hand the records to, in order.
+     * @throws IOException If the snapshot or journal could not be read or the sink failed.
+     */
+    private void readRecords(IRecordSink<? super CourseRegistrationRecord> sink) throws IOException {
+        readSnapshot(courseRegistrationFilePath, CourseRegistrationRecord.class, sink);
+        for (CourseRegistrationRecord record : journal.replay(courseRegistrationFilePath)) {
+            sink.accept(record);
+        }
+    }
+
+    /**
+     * @return The files the registrations are stored in.
+     */
+    private List<Path> sourcePaths() {
+        List<Path> sourcePaths = new ArrayList<>();
+        sourcePaths.add(Paths.get(courseRegistrationFilePath));
+        sourcePaths.addAll(journal.getPaths());
+        return sourcePaths;
+    }
+
+    /**
+     * @param sink The sink to hand course registrations to.
+     * @return A sink that resolves records into course registrations and hands them to the given sink,
+     *         skipping records that refer to a student or course that does not exist.
+     */
+    private static IRecordSink<CourseRegistrationRecord> resolvingSink(IRecordSink<? super ICourseRegistration> sink) {
+        return record -> {
+            ICourseRegistration courseRegistration = resolve(record);
+            if (courseRegistration != null) {
+                sink.accept(courseRegistration);
+            }
+        };
+    }
+
+    /**
+     * Resolves a record into a course registration.
+     *
+     * @param record The record to resolve.
+     * @return The course registration, or null if the record refers to a student or course that does not exist.
+     */
+    static ICourseRegistration resolve(CourseRegistrationRecord record) {
+        try {
+            return record.toCourseRegistration();
+        } catch (StudentNotFoundException | CourseNotFoundException e) {
+            System.out.println("Error happens when resolving a course registration.");
             e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Converts course registrations into the records stored on disk.
+     *
+     * @param courseRegistrations The registrations to convert.
+     * @return The records for the registrations.
+     */
+    @Override
+    protected List<CourseRegistrationRecord> toStoredForm(List<ICourseRegistration> courseRegistrations) {
+        List<CourseRegistrationRecord> records = new ArrayList<>();
+        for (ICourseRegistration courseRegistration : courseRegistrations) {
+            records.add(new CourseRegistrationRecord(courseRegistration));
         }
+        return records;
     }
 
 }
@@ -0,0 +1,163 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.courseregistration.CourseRegistration;
+import com.softeng306.domain.course.courseregistration.ICourseRegistration;
+import com.softeng306.domain.course.group.IGroup;
+import com.softeng306.domain.exceptions.CourseNotFoundException;
+import com.softeng306.domain.exceptions.StudentNotFoundException;
+import com.softeng306.domain.student.IStudent;
+
+import java.util.List;
+
+/**
+ * On-disk form of a course registration.
+ * The student and course are stored by ID and the groups by name, and are resolved against
+ * the canonical students and courses in the {@code EntityRegistry} when the record is loaded.
+ * <p>
+ * Records are also read from the legacy format, in which every registration embeds a full copy of its
+ * student, course and groups. The fields are bound straight from the parser in either format.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CourseRegistrationRecord {
+
+    private String studentId;
+    private String courseId;
+    private String lectureGroup;
+    private String tutorialGroup;
+    private String labGroup;
+
+    /**
+     * Default constructor. Required for Jackson serialization.
+     */
+    public CourseRegistrationRecord() {
+
+    }
+
+    /**
+     * Creates the on-disk record for a course registration.
+     *
+     * @param courseRegistration The registration to store.
+     */
+    public CourseRegistrationRecord(ICourseRegistration courseRegistration) {
+        this.studentId = courseRegistration.getStudent().getStudentId();
+        this.courseId = courseRegistration.getCourse().getCourseId();
+        this.lectureGroup = groupName(courseRegistration.getLectureGroup());
+        this.tutorialGroup = groupName(courseRegistration.getTutorialGroup());
+        this.labGroup = groupName(courseRegistration.getLabGroup());
+    }
+
+    /**
+     * Reads the student of a record in the legacy format, which embeds a full copy of the student.
+     *
+     * @param student The embedded student.
+     */
+    @JsonSetter("student")
+    private void readEmbeddedStudent(Object student) {
+        studentId = RecordFields.readName(student, "studentId");
+    }
+
+    /**
+     * Reads the course of a record in the legacy format, which embeds a full copy of the course.
+     *
+     * @param course The embedded course.
+     */
+    @JsonSetter("course")
+    private void readEmbeddedCourse(Object course) {
+        courseId = RecordFields.readName(course, "courseId");
+    }
+
+    /**
+     * @param lectureGroup The name of the lecture group, or the embedded group in the legacy format.
+     */
+    @JsonSetter("lectureGroup")
+    private void readLectureGroup(Object lectureGroup) {
+        this.lectureGroup = RecordFields.readName(lectureGroup, "groupName");
+    }
+
+    /**
+     * @param tutorialGroup The name of the tutorial group, or the embedded group in the legacy format.
+     */
+    @JsonSetter("tutorialGroup")
+    private void readTutorialGroup(Object tutorialGroup) {
+        this.tutorialGroup = RecordFields.readName(tutorialGroup, "groupName");
+    }
+
+    /**
+     * @param labGroup The name of the lab group, or the embedded group in the legacy format.
+     */
+    @JsonSetter("labGroup")
+    private void readLabGroup(Object labGroup) {
+        this.labGroup = RecordFields.readName(labGroup, "groupName");
+    }
+
+    /**
+     * Resolves this record into a course registration that refers to the canonical student and
+     * course.
+     *
+     * @return The course registration described by this record.
+     * @throws StudentNotFoundException If the student of this record does not exist.
+     * @throws CourseNotFoundException  If the course of this record does not exist.
+     */
+    public ICourseRegistration toCourseRegistration() throws StudentNotFoundException, CourseNotFoundException {
+        IStudent student = EntityRegistry.getInstance().getStudent(studentId);
+        ICourse course = EntityRegistry.getInstance().getCourse(courseId);
+
+        return new CourseRegistration(student, course, findGroup(course.getLectureGroups(), lectureGroup),
+                findGroup(course.getTutorialGroups(), tutorialGroup), findGroup(course.getLabGroups(), labGroup));
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public String getLectureGroup() {
+        return lectureGroup;
+    }
+
+    public String getTutorialGroup() {
+        return tutorialGroup;
+    }
+
+    public String getLabGroup() {
+        return labGroup;
+    }
+
+    /**
+     * Finds the group with the given name.
+     *
+     * @param groups    The groups of one type in a course.
+     * @param groupName The name of the group to find.
+     * @return The group with the given name, or null if the registration has no such group.
+     */
+    private static IGroup findGroup(List<IGroup> groups, String groupName) {
+        if (groupName == null || groups == null) {
+            return null;
+        }
+
+        for (IGroup group : groups) {
+            if (groupName.equals(group.getGroupName())) {
+                return group;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param group A registered group, which may be absent.
+     * @return The name of the group, or null if there is no group.
+     */
+    private static String groupName(IGroup group) {
+        return group == null ? null : group.getGroupName();
+    }
+
+}
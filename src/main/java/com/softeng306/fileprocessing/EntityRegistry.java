@@ -0,0 +1,169 @@
+package com.softeng306.fileprocessing;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.exceptions.CourseNotFoundException;
+import com.softeng306.domain.exceptions.ProfessorNotFoundException;
+import com.softeng306.domain.exceptions.StudentNotFoundException;
+import com.softeng306.domain.professor.IProfessor;
+import com.softeng306.domain.student.IStudent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry of the canonical instance of every student, course and professor, keyed by ID.
+ * Every copy of an entity read from a data file is replaced by its canonical instance, so that all
+ * managers and records share one object per ID no matter how many times the entity is referenced.
+ * <p>
+ * Students and courses that have not been read yet, because they are looked up through an index of
+ * their data files, are read by a loader the first time they are asked for.
+ * <p>
+ * The first instance registered for an ID stays canonical for the rest of the run. Reading a data file
+ * again therefore gives back the instances already in memory, with any changes made to them since, and
+ * never the copies on disk. Code that needs what is actually on disk must read the file with a mapper
+ * that does not use the {@code CanonicalEntityModule}.
+ */
+public class EntityRegistry {
+
+    private static final EntityRegistry singleInstance = new EntityRegistry();
+
+    private final Map<String, IStudent> students = new ConcurrentHashMap<>();
+    private final Map<String, ICourse> courses = new ConcurrentHashMap<>();
+    private final Map<String, IProfessor> professors = new ConcurrentHashMap<>();
+
+    private volatile Function<String, ? extends IStudent> studentLoader = studentId -> null;
+    private volatile Function<String, ? extends ICourse> courseLoader = courseId -> null;
+
+    /**
+     * Override default constructor to implement singleton pattern
+     */
+    private EntityRegistry() { }
+
+    /**
+     * Return the EntityRegistry singleton.
+     *
+     * @return EntityRegistry the singleton instance
+     */
+    public static EntityRegistry getInstance() {
+        return singleInstance;
+    }
+
+    /**
+     * Registers a student, unless a student with the same ID is already registered.
+     *
+     * @param student The student to register.
+     * @return The canonical instance of the student with this ID.
+     */
+    public IStudent canonicalStudent(IStudent student) {
+        if (student.getStudentId() == null) {
+            return student;
+        }
+
+        IStudent existing = students.putIfAbsent(student.getStudentId(), student);
+        return existing == null ? student : existing;
+    }
+
+    /**
+     * Registers a course, unless a course with the same ID is already registered.
+     *
+     * @param course The course to register.
+     * @return The canonical instance of the course with this ID.
+     */
+    public ICourse canonicalCourse(ICourse course) {
+        if (course.getCourseId() == null) {
+            return course;
+        }
+
+        ICourse existing = courses.putIfAbsent(course.getCourseId(), course);
+        return existing == null ? course : existing;
+    }
+
+    /**
+     * Registers a professor, unless a professor with the same ID is already registered.
+     *
+     * @param professor The professor to register.
+     * @return The canonical instance of the professor with this ID.
+     */
+    public IProfessor canonicalProfessor(IProfessor professor) {
+        if (professor.getProfessorId() == null) {
+            return professor;
+        }
+
+        IProfessor existing = professors.putIfAbsent(professor.getProfessorId(), professor);
+        return existing == null ? professor : existing;
+    }
+
+    /**
+     * Sets how a student that has not been registered yet is read when it is asked for.
+     *
+     * @param studentLoader Reads the student with a given ID, returning null if there is none.
+     */
+    public void setStudentLoader(Function<String, ? extends IStudent> studentLoader) {
+        this.studentLoader = studentLoader;
+    }
+
+    /**
+     * Sets how a course that has not been registered yet is read when it is asked for.
+     *
+     * @param courseLoader Reads the course with a given ID, returning null if there is none.
+     */
+    public void setCourseLoader(Function<String, ? extends ICourse> courseLoader) {
+        this.courseLoader = courseLoader;
+    }
+
+    /**
+     * Gets the canonical student with a given ID.
+     *
+     * @param studentId The ID of the student.
+     * @return The student with the given ID.
+     * @throws StudentNotFoundException If no student with the given ID is registered.
+     */
+    public IStudent getStudent(String studentId) throws StudentNotFoundException {
+        IStudent student = students.get(studentId);
+        if (student == null) {
+            student = studentLoader.apply(studentId);
+        }
+        if (student == null) {
+            throw new StudentNotFoundException(studentId);
+        }
+
+        return canonicalStudent(student);
+    }
+
+    /**
+     * Gets the canonical course with a given ID.
+     *
+     * @param courseId The ID of the course.
+     * @return The course with the given ID.
+     * @throws CourseNotFoundException If no course with the given ID is registered.
+     */
+    public ICourse getCourse(String courseId) throws CourseNotFoundException {
+        ICourse course = courses.get(courseId);
+        if (course == null) {
+            course = courseLoader.apply(courseId);
+        }
+        if (course == null) {
+            throw new CourseNotFoundException(courseId);
+        }
+
+        return canonicalCourse(course);
+    }
+
+    /**
+     * Gets the canonical professor with a given ID.
+     *
+     * @param professorId The ID of the professor.
+     * @return The professor with the given ID.
+     * @throws ProfessorNotFoundException If no professor with the given ID is registered.
+     */
+    public IProfessor getProfessor(String professorId) throws ProfessorNotFoundException {
+        IProfessor professor = professors.get(professorId);
+        if (professor == null) {
+            throw new ProfessorNotFoundException(professorId);
+        }
+
+        return professor;
+    }
+
+}
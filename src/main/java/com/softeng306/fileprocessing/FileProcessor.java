@@ -1,33 +1,368 @@
 package com.softeng306.fileprocessing;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 
-import java.io.*;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Abstract implementation of a file processor for a given domain type.
+ * Data files hold a single array of records, which are read and written one record at a time.
  * This class implements {@code IFileProcessor}.
  *
  * @param <T> The domain type that this file processor deals with.
  */
 public abstract class FileProcessor<T> implements IFileProcessor<T> {
+    /**
+     * Object mapper for whole data files. How the file is laid out is left to the codec,
+     * which indents JSON so that it is easier for a human to decipher.
+     */
+    private static final ObjectMapper SNAPSHOT_MAPPER = new ObjectMapper();
+
+    /**
+     * Writer for the records in data files. The generator is flushed once when the whole file has
+     * been written rather than after every record.
+     */
+    private static final ObjectWriter RECORD_WRITER = SNAPSHOT_MAPPER.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /**
+     * Object mapper for reading data files. Every student, course and professor it reads is replaced
+     * by its canonical instance, so an entity referenced from many places is only held in memory once.
+     */
+    private static final ObjectMapper LOAD_MAPPER = new ObjectMapper().registerModule(new CanonicalEntityModule());
+
+    /**
+     * Readers for each type of record, created once and shared by every load.
+     */
+    private static final Map<Class<?>, ObjectReader> RECORD_READERS = new ConcurrentHashMap<>();
+
+    /**
+     * The codec data files are written with. Data files are read with whichever codec they were written with.
+     */
+    private ISnapshotCodec snapshotCodec = SnapshotCodecs.configured();
+
+    /**
+     * The index of the data file, once it has been opened with {@link #openIdIndex(String, String)}.
+     */
+    private volatile IdIndexFile idIndex;
 
     /**
-     * {@inheritDoc} Writes into a JSON file.
+     * Whether the data file has been written since its index was opened, in which case the index is
+     * built again before it is next searched for an ID its Bloom filter does not rule out.
+     */
+    private volatile boolean idIndexStale;
+
+    private String indexedFilePath;
+    private String indexedIdField;
+
+    /**
+     * {@inheritDoc} Collects the entries handed to the sink by {@link #loadFile(IRecordSink)}.
+     */
+    @Override
+    public List<T> loadFile() {
+        List<T> entries = new ArrayList<>();
+        loadFile(entries::add);
+        return entries;
+    }
+
+    /**
+     * {@inheritDoc} Writes in the format of the snapshot codec.
      */
     @Override
     public void writeToFile(String filePath, List<T> listToWrite) throws IOException {
-        // The serialization feature allows the json to be formatted such that it is easier for
-        // a human to decipher.
-        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
-        File file = Paths.get(filePath).toFile();
-        FileWriter fileWriter = new FileWriter(file, true);
+        writeSnapshotToFile(filePath, toStoredForm(listToWrite));
+    }
+
+    /**
+     * @return The codec data files are written with.
+     */
+    public ISnapshotCodec getSnapshotCodec() {
+        return snapshotCodec;
+    }
+
+    /**
+     * Changes the format that data files are written in from now on.
+     *
+     * @param snapshotCodec The codec to write data files with.
+     */
+    public void setSnapshotCodec(ISnapshotCodec snapshotCodec) {
+        this.snapshotCodec = snapshotCodec;
+    }
+
+    /**
+     * Converts entries into the records that are written to disk.
+     * By default entries are written as they are.
+     *
+     * @param entries The entries to convert.
+     * @return The records to write to disk.
+     */
+    protected List<?> toStoredForm(List<T> entries) {
+        return entries;
+    }
+
+    /**
+     * Reads the records stored in a data file one at a time, in whichever format the file was
+     * written in, and hands each record to a sink as soon as it is read. Large JSON and NDJSON files
+     * are parsed on several threads, with the records still handed to the sink in order.
+     *
+     * @param filePath   The path to the file to read.
+     * @param recordType The type of the records in the file.
+     * @param sink       The sink to hand the records to, in order.
+     * @param <E>        The type of the records in the file.
+     * @throws IOException If the file could not be read or the sink failed.
+     */
+    protected static <E> void readSnapshot(String filePath, Class<E> recordType, IRecordSink<? super E> sink)
+            throws IOException {
+        ObjectReader reader = readerFor(recordType);
+        Path path = Paths.get(filePath);
+        if (ParallelSnapshotReader.isSplittable(path)) {
+            ParallelSnapshotReader.read(path, LOAD_MAPPER, reader, sink);
+            return;
+        }
+
+        try (JsonParser parser = SnapshotCodecs.openParser(path, LOAD_MAPPER)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw MismatchedInputException.from(parser, recordType,
+                        "Expected an array of records in " + filePath + " but found " + parser.currentToken());
+            }
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                sink.accept(reader.readValue(parser));
+            }
+        }
+    }
+
+    /**
+     * Writes records into a data file in the format of the snapshot codec, atomically replacing the
+     * contents of the file.
+     *
+     * @param filePath The path to the file to write into.
+     * @param contents The records to write.
+     * @throws IOException If the write could not occur.
+     */
+    protected void writeSnapshotToFile(String filePath, List<?> contents) throws IOException {
+        writeRecordsToFile(filePath, sink -> {
+            for (Object record : contents) {
+                sink.accept(record);
+            }
+        });
+    }
+
+    /**
+     * Writes records into a data file as they are produced, atomically replacing the contents of the
+     * file. The source may read the file being replaced, since the new contents are only moved
+     * over it once they have all been written.
+     *
+     * @param filePath The path to the file to write into.
+     * @param source   The source of the records to write.
+     * @throws IOException If the write could not occur.
+     */
+    protected void writeRecordsToFile(String filePath, IRecordSource<?> source) throws IOException {
+        writeRecords(filePath, snapshotCodec, source);
+    }
+
+    /**
+     * Writes records into a data file in the format of a codec as they are produced, atomically
+     * replacing the contents of the file.
+     *
+     * @param filePath The path to the file to write into.
+     * @param codec    The codec to write the file with.
+     * @param source   The source of the records to write.
+     * @throws IOException If the write could not occur.
+     */
+    protected static void writeRecords(String filePath, ISnapshotCodec codec, IRecordSource<?> source)
+            throws IOException {
+        AtomicSnapshotWriter.getInstance().write(Paths.get(filePath), out -> {
+            try (JsonGenerator generator = codec.createGenerator(SNAPSHOT_MAPPER, out)) {
+                generator.writeStartArray();
+                source.forEachRecord(record -> RECORD_WRITER.writeValue(generator, record));
+                generator.writeEndArray();
+            }
+        });
+    }
+
+    /**
+     * Adds records to the end of a data file. If the snapshot codec writes one record per line and the
+     * file is already in that format, the records are appended as lines. Otherwise the records already
+     * in the file are copied across one at a time rather than loading them all first, and the file is
+     * written in the format of the snapshot codec.
+     *
+     * @param filePath   The path to the file to add the records to. The file is created if it does not exist.
+     * @param recordType The type of the records in the file.
+     * @param records    The records to add, in order.
+     * @param <E>        The type of the records in the file.
+     * @throws IOException If the file could not be read or written.
+     */
+    protected <E> void appendToSnapshot(String filePath, Class<E> recordType, List<? extends E> records)
+            throws IOException {
+        Path path = Paths.get(filePath);
+        if (snapshotCodec instanceof NdjsonSnapshotCodec
+                && (!Files.exists(path) || SnapshotCodecs.codecOf(path) instanceof NdjsonSnapshotCodec)) {
+            List<byte[]> lines = new ArrayList<>(records.size());
+            for (E record : records) {
+                lines.add(RECORD_WRITER.writeValueAsBytes(record));
+            }
+            NdjsonSnapshotCodec.appendLines(path, lines);
+            return;
+        }
+
+        writeRecordsToFile(filePath, sink -> {
+            if (Files.exists(path)) {
+                readSnapshot(filePath, recordType, sink);
+            }
+            for (E record : records) {
+                sink.accept(record);
+            }
+        });
+    }
+
+    /**
+     * Opens the index of a data file by the ID of each record, building it first if it does not
+     * exist or the data file has changed since it was built. The Bloom filter of the index is sized
+     * for the rate of false positives set in {@code PersistenceConfig}.
+     *
+     * @param filePath The path to the data file.
+     * @param idField  The name of the field holding the ID of each record.
+     * @return Whether the index was opened. Data files that are not in the JSON format are not indexed.
+     * @throws IOException If the data file could not be read or the index could not be built.
+     */
+    protected synchronized boolean openIdIndex(String filePath, String idField) throws IOException {
+        IdIndexFile index = IdIndexFile.open(Paths.get(filePath), idField,
+                PersistenceConfig.getIndexFalsePositiveRate());
+        if (index == null) {
+            return false;
+        }
+
+        if (indexedFilePath == null && PersistenceConfig.isReportIndexFilterStatsEnabled()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                    System.err.println("Bloom filter of " + filePath + ": " + getIdIndexFilterStats())));
+        }
+        indexedFilePath = filePath;
+        indexedIdField = idField;
+
+        IdIndexFile previousIndex = idIndex;
+        idIndex = index;
+        idIndexStale = false;
+        if (previousIndex != null) {
+            previousIndex.close();
+        }
+        return true;
+    }
+
+    /**
+     * Records that records have been written to the indexed data file, adding their IDs to the Bloom
+     * filter of the index so that they are not ruled out. The index itself is built again before it
+     * is next searched. Nothing is done if the index has not been opened.
+     *
+     * @param writtenIds The IDs of the records written, including any that were already in the file.
+     */
+    protected void idIndexChanged(Collection<String> writtenIds) {
+        IdIndexFile index = idIndex;
+        if (index == null) {
+            return;
+        }
+
+        for (String id : writtenIds) {
+            index.addToFilter(id);
+        }
+        idIndexStale = true;
+    }
+
+    /**
+     * @return How the Bloom filter of the index is sized and how it has been used since the index
+     *         was last built, or null if the index has not been opened.
+     */
+    protected BloomFilterStats getIdIndexFilterStats() {
+        IdIndexFile index = idIndex;
+        return index == null ? null : index.getFilterStats();
+    }
+
+    /**
+     * @param id The ID of a record.
+     * @return Whether the indexed data file holds a record with the ID.
+     */
+    protected boolean indexContains(String id) {
+        return openedIdIndex(id).contains(id);
+    }
+
+    /**
+     * Reads a single record from the indexed data file.
+     *
+     * @param id         The ID of the record.
+     * @param recordType The type of the records in the file.
+     * @param <E>        The type of the records in the file.
+     * @return The record, or null if the data file holds no record with the ID.
+     * @throws IOException If the record could not be read.
+     */
+    protected <E> E readIndexedRecord(String id, Class<E> recordType) throws IOException {
+        byte[] record = openedIdIndex(id).readRecord(id);
+        return record == null ? null : readerFor(recordType).readValue(record);
+    }
+
+    /**
+     * Converts a record into the JSON tree it would be written as, so that it can be embedded in
+     * another record.
+     *
+     * @param record The record.
+     * @return The record as a JSON tree.
+     */
+    protected static JsonNode toStoredTree(Object record) {
+        return SNAPSHOT_MAPPER.valueToTree(record);
+    }
 
-        clearFileContents(filePath);
-        objectMapper.writeValue(fileWriter, listToWrite);
+    /**
+     * Reads a record from the JSON tree it was written as by {@link #toStoredTree(Object)}. Students,
+     * courses and professors in the record are replaced by their canonical instances.
+     *
+     * @param storedTree The record as a JSON tree.
+     * @param recordType The type of the record.
+     * @param <E>        The type of the record.
+     * @return The record.
+     * @throws IOException If the record could not be read.
+     */
+    protected static <E> E fromStoredTree(JsonNode storedTree, Class<E> recordType) throws IOException {
+        return readerFor(recordType).readValue(storedTree);
+    }
+
+    /**
+     * Reads a record from the JSON tree it was written as, without replacing the students, courses and
+     * professors in it by their canonical instances, so that a record can be inspected without
+     * registering the entities in it.
+     *
+     * @param storedTree The record as a JSON tree.
+     * @param recordType The type of the record.
+     * @param <E>        The type of the record.
+     * @return The record.
+     * @throws IOException If the record could not be read.
+     */
+    protected static <E> E inspectStoredTree(JsonNode storedTree, Class<E> recordType) throws IOException {
+        return SNAPSHOT_MAPPER.treeToValue(storedTree, recordType);
+    }
+
+    /**
+     * @param prefix The start of the IDs to find.
+     * @return The IDs in the indexed data file that start with the prefix, sorted by ID.
+     */
+    protected List<String> indexedIdsWithPrefix(String prefix) {
+        return openedIdIndex(null).scanPrefix(prefix);
     }
 
     /**
@@ -44,4 +379,42 @@ public abstract class FileProcessor<T> implements IFileProcessor<T> {
         }
     }
 
+    /**
+     * Gets the index to look an ID up in. If the data file has been written since the index was
+     * opened, the index is built again first, unless its Bloom filter rules the ID out.
+     *
+     * @param id The ID to look up, or null if every ID is needed.
+     * @return The index of the data file.
+     * @throws IllegalStateException If the index has not been opened.
+     */
+    private IdIndexFile openedIdIndex(String id) {
+        IdIndexFile index = idIndex;
+        if (index == null) {
+            throw new IllegalStateException("The index of the data file has not been opened");
+        }
+
+        if (idIndexStale && (id == null || index.mightContain(id))) {
+            synchronized (this) {
+                if (idIndexStale) {
+                    try {
+                        openIdIndex(indexedFilePath, indexedIdField);
+                    } catch (IOException e) {
+                        System.out.println("Error in rebuilding the index of " + indexedFilePath + ".");
+                        e.printStackTrace();
+                    }
+                }
+                index = idIndex;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param recordType A type of record stored in data files.
+     * @return The shared reader for records of the type.
+     */
+    private static ObjectReader readerFor(Class<?> recordType) {
+        return RECORD_READERS.computeIfAbsent(recordType, LOAD_MAPPER::readerFor);
+    }
+
 }
@@ -0,0 +1,158 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository of entries keyed by ID that are stored by a file processor, which writes each change
+ * with as few writes to its file as the processor allows.
+ * <p>
+ * When the processor can look entries up through an index of its file, the repository can be created
+ * with {@link #indexed(RepositorySchema, IIndexedFileProcessor)} so that single entries are read as
+ * they are asked for, and every entry is only read once a scan or a change needs all of them.
+ *
+ * @param <T> The type of the entries.
+ */
+class FileProcessorRepository<T> extends InMemoryRepository<String, T> {
+    private final IFileProcessor<T> fileProcessor;
+
+    /**
+     * The processor entries are looked up through while they have not all been read, or null if they
+     * were all read when the repository was created.
+     */
+    private final IIndexedFileProcessor<T> indexedFileProcessor;
+
+    /**
+     * The entries read through the index before every entry was read, keyed by ID.
+     */
+    private final Map<String, T> entriesReadById = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Creates a repository holding every entry stored by a file processor.
+     *
+     * @param schema        The schema of the entries.
+     * @param fileProcessor The file processor that stores the entries.
+     */
+    FileProcessorRepository(RepositorySchema<String, T, ?> schema, IFileProcessor<T> fileProcessor) {
+        this(schema, fileProcessor, null);
+        ensureLoaded();
+    }
+
+    private FileProcessorRepository(RepositorySchema<String, T, ?> schema, IFileProcessor<T> fileProcessor,
+                                    IIndexedFileProcessor<T> indexedFileProcessor) {
+        super(schema, List.of());
+        this.fileProcessor = fileProcessor;
+        this.indexedFileProcessor = indexedFileProcessor;
+    }
+
+    /**
+     * Creates a repository that looks single entries up through the index of a file processor. If the
+     * index cannot be opened, every entry is read straight away instead.
+     *
+     * @param schema        The schema of the entries.
+     * @param fileProcessor The file processor that stores the entries.
+     * @param <T>           The type of the entries.
+     * @return The repository.
+     */
+    static <T> FileProcessorRepository<T> indexed(RepositorySchema<String, T, ?> schema,
+                                                  IIndexedFileProcessor<T> fileProcessor) {
+        if (!fileProcessor.openIndex()) {
+            return new FileProcessorRepository<>(schema, fileProcessor);
+        }
+        return new FileProcessorRepository<>(schema, fileProcessor, fileProcessor);
+    }
+
+    @Override
+    public T get(String key) {
+        if (loaded) {
+            return super.get(key);
+        }
+
+        T entry = entriesReadById.get(key);
+        if (entry == null) {
+            entry = indexedFileProcessor.loadById(key);
+            if (entry != null) {
+                entriesReadById.putIfAbsent(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        if (loaded) {
+            return super.contains(key);
+        }
+        return entriesReadById.containsKey(key) || indexedFileProcessor.containsId(key);
+    }
+
+    /**
+     * {@inheritDoc} While the entries have not all been read, the IDs are listed from the index of the file.
+     */
+    @Override
+    public List<String> scanKeys() {
+        if (loaded) {
+            return super.scanKeys();
+        }
+        return indexedFileProcessor.findIdsWithPrefix("");
+    }
+
+    @Override
+    public List<T> scanAll() {
+        ensureLoaded();
+        return super.scanAll();
+    }
+
+    @Override
+    public List<T> scanByIndex(String index, String value) {
+        ensureLoaded();
+        return super.scanByIndex(index, value);
+    }
+
+    @Override
+    public void writeBatch(RepositoryBatch<String, T> batch) {
+        ensureLoaded();
+        super.writeBatch(batch);
+    }
+
+    /**
+     * Writes the changes in a single batch if the processor can write individual entries, appends a
+     * single new entry, and otherwise rewrites every entry.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Runnable prepareWrite(RepositoryBatch<String, T> batch) {
+        List<T> newEntries = batch.getInserted();
+        List<T> modifiedEntries = batch.getUpdated();
+        if (fileProcessor instanceof IIncrementalFileProcessor && !batch.hasDeletes()) {
+            return () -> ((IIncrementalFileProcessor<T>) fileProcessor).writeChangesToFile(newEntries,
+                    modifiedEntries);
+        } else if (!batch.hasDeletes() && modifiedEntries.isEmpty() && newEntries.size() == 1) {
+            return () -> fileProcessor.writeNewEntryToFile(newEntries.get(0));
+        }
+
+        List<T> allEntries = new ArrayList<>(entries());
+        return () -> fileProcessor.updateFileContents(allEntries);
+    }
+
+    /**
+     * Reads every entry from the file, if they have not all been read yet.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!loaded) {
+                fileProcessor.loadFile(this::add);
+                loaded = true;
+            }
+        }
+    }
+
+}
@@ -31,6 +31,28 @@ public interface IFileProcessor<T> {
      */
     List<T> loadFile();
 
+    /**
+     * Loads every entry from a file, handing each entry to a sink as soon as it is read so that
+     * the caller can build its own collections and indexes without a list of every entry in between.
+     *
+     * @param sink The sink to hand the entries to, in the order they are stored.
+     */
+    void loadFile(IRecordSink<? super T> sink);
+
+    /**
+     * Loads every entry from a file whose entries refer to data held in other files. The file is read
+     * first, then the caller waits for the data it refers to, and only then are the entries resolved
+     * and handed to the sink. This lets the file be read while the data it refers to is still loading.
+     * By default the caller waits before the file is read.
+     *
+     * @param sink            The sink to hand the entries to, in the order they are stored.
+     * @param awaitReferences Waits until the data the entries refer to has been loaded.
+     */
+    default void loadFile(IRecordSink<? super T> sink, Runnable awaitReferences) {
+        awaitReferences.run();
+        loadFile(sink);
+    }
+
     /**
      * Writes a new object to a file.
      *
@@ -0,0 +1,21 @@
+package com.softeng306.fileprocessing;
+
+import java.util.List;
+
+/**
+ * Interface for file processors that can persist a change to a single entry without rewriting
+ * every other entry in the file.
+ *
+ * @param <T> The domain type that this file processor deals with.
+ */
+public interface IIncrementalFileProcessor<T> extends IFileProcessor<T> {
+
+    /**
+     * Writes new entries and the current state of modified entries to the file in a single batch.
+     *
+     * @param newEntries      The entries that are not yet in the file.
+     * @param modifiedEntries The entries already in the file that have changed.
+     */
+    void writeChangesToFile(List<T> newEntries, List<T> modifiedEntries);
+
+}
@@ -0,0 +1,50 @@
+package com.softeng306.fileprocessing;
+
+import java.util.List;
+
+/**
+ * Interface for file processors that can look up a single entry by its ID through an index of the
+ * file, without reading every other entry in the file.
+ *
+ * @param <T> The domain type that this file processor deals with.
+ */
+public interface IIndexedFileProcessor<T> extends IFileProcessor<T> {
+
+    /**
+     * Opens the index of the file, building it first if it does not exist or the file has changed
+     * since it was built. The other methods of this interface may only be used once the index is open.
+     *
+     * @return Whether the index was opened. Files that are not in the JSON format are not indexed.
+     */
+    boolean openIndex();
+
+    /**
+     * @param id The ID of an entry.
+     * @return Whether the file holds an entry with the ID.
+     */
+    boolean containsId(String id);
+
+    /**
+     * Reads a single entry from the file.
+     *
+     * @param id The ID of the entry.
+     * @return The entry, or null if the file holds no entry with the ID.
+     */
+    T loadById(String id);
+
+    /**
+     * @param prefix The start of the IDs to find.
+     * @return The IDs of the entries in the file that start with the prefix, sorted by ID.
+     */
+    List<String> findIdsWithPrefix(String prefix);
+
+    /**
+     * Gets the statistics of the Bloom filter that answers that an ID is definitely not in the file
+     * without searching the index, so that the filter can be sized with
+     * {@link PersistenceConfig#INDEX_FALSE_POSITIVE_RATE_PROPERTY}.
+     *
+     * @return How the filter is sized and how it has been used since the index was last built.
+     */
+    BloomFilterStats getExistenceFilterStats();
+
+}
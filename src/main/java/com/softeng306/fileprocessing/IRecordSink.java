@@ -0,0 +1,22 @@
+package com.softeng306.fileprocessing;
+
+import java.io.IOException;
+
+/**
+ * Interface for a consumer of the records read from a data file, which is handed each record as
+ * soon as it is read so that the whole file never has to be held in memory at once.
+ *
+ * @param <T> The type of record the sink accepts.
+ */
+@FunctionalInterface
+public interface IRecordSink<T> {
+
+    /**
+     * Accepts the next record.
+     *
+     * @param record The record.
+     * @throws IOException If the record could not be handled, which stops the records being read.
+     */
+    void accept(T record) throws IOException;
+
+}
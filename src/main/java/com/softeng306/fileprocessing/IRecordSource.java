@@ -0,0 +1,22 @@
+package com.softeng306.fileprocessing;
+
+import java.io.IOException;
+
+/**
+ * Interface for a producer of the records written to a data file, which hands the records to a
+ * sink one at a time so that they can be written without first collecting them in a list.
+ *
+ * @param <T> The type of record the source produces.
+ */
+@FunctionalInterface
+public interface IRecordSource<T> {
+
+    /**
+     * Hands every record to a sink, in order.
+     *
+     * @param sink The sink to hand the records to.
+     * @throws IOException If the records could not be produced or the sink failed.
+     */
+    void forEachRecord(IRecordSink<? super T> sink) throws IOException;
+
+}
@@ -0,0 +1,97 @@
+package com.softeng306.fileprocessing;
+
+import java.util.List;
+
+/**
+ * Interface for a store of entries that are looked up by key, which managers read and change
+ * entries through without knowing how the entries are stored.
+ * <p>
+ * Changes are applied to the contents of the repository straight away, so they are seen by every
+ * later read. Outside a transaction each change is also written straight away. Inside a transaction,
+ * the changes are written together when the transaction is committed, with as few writes as the
+ * backend allows.
+ * <p>
+ * Implementations are safe to use from several threads.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ */
+public interface IRepository<K, T> extends ITransactionHooks {
+
+    /**
+     * Gets an entry by key. If the stored entries somehow hold two entries with one key, the first is returned.
+     *
+     * @param key The key of the entry.
+     * @return The entry, or null if there is no entry with the key.
+     */
+    T get(K key);
+
+    /**
+     * @param key The key of an entry.
+     * @return Whether there is an entry with the key.
+     */
+    boolean contains(K key);
+
+    /**
+     * Lists the key of every entry. Backends that can list the keys without reading the entries do so.
+     *
+     * @return The keys, each listed once.
+     */
+    List<K> scanKeys();
+
+    /**
+     * @return A read-only list of every entry, in the order they were inserted.
+     */
+    List<T> scanAll();
+
+    /**
+     * Finds the entries with a value in one of the indexes of the repository.
+     *
+     * @param index The name of the index.
+     * @param value The value to find.
+     * @return A read-only list of the entries with the value, in the order they were inserted.
+     * @throws IllegalArgumentException If the repository has no index with the name.
+     */
+    List<T> scanByIndex(String index, String value);
+
+    /**
+     * Adds a new entry.
+     *
+     * @param entry The new entry.
+     * @throws IllegalArgumentException If there is already an entry with the key of the new entry.
+     */
+    void insert(T entry);
+
+    /**
+     * Records that an entry has changed. The entry either is the one in the repository, changed in
+     * place, or replaces the entry with its key.
+     *
+     * @param entry The changed entry.
+     * @throws IllegalArgumentException If there is no entry with the key of the changed entry.
+     */
+    void update(T entry);
+
+    /**
+     * Removes every entry with a key. Does nothing if there is no entry with the key.
+     *
+     * @param key The key of the entries to remove.
+     */
+    void delete(K key);
+
+    /**
+     * Applies every change in a batch, in the order they were added to it, and writes them together.
+     * If any change cannot be applied, none of them are.
+     *
+     * @param batch The changes.
+     * @throws IllegalArgumentException If a change cannot be applied.
+     */
+    void writeBatch(RepositoryBatch<K, T> batch);
+
+    /**
+     * Writes out anything the repository's backend still holds outside its data files. Called by the
+     * owner of the repository when the application exits. By default there is nothing to write.
+     */
+    default void close() {
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Interface for the on-disk format of a data file.
+ * A codec reads and writes a data file as a stream of JSON tokens, so the same object mappers
+ * and records work with every format.
+ */
+public interface ISnapshotCodec {
+
+    /**
+     * @return The name used to select this codec, such as {@code json}.
+     */
+    String getName();
+
+    /**
+     * Checks whether a data file is in this codec's format.
+     *
+     * @param header The first bytes of the data file.
+     * @param length The number of bytes in the header, which is fewer than its capacity if the file is short.
+     * @return Whether this codec can read the data file.
+     */
+    boolean canRead(byte[] header, int length);
+
+    /**
+     * Creates a parser that reads the tokens of a data file.
+     *
+     * @param objectMapper The object mapper that values read from the parser are bound with.
+     * @param in           The contents of the data file.
+     * @return The parser for the data file.
+     * @throws IOException If the data file could not be read.
+     */
+    JsonParser createParser(ObjectMapper objectMapper, InputStream in) throws IOException;
+
+    /**
+     * Creates a generator that writes tokens in this codec's format.
+     * Closing the generator closes the stream.
+     *
+     * @param objectMapper The object mapper that values are written with.
+     * @param out          The stream to write the data file to.
+     * @return The generator for the data file.
+     * @throws IOException If the data file could not be written.
+     */
+    JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream out) throws IOException;
+
+}
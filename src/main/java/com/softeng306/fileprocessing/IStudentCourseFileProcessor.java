@@ -0,0 +1,29 @@
+package com.softeng306.fileprocessing;
+
+/**
+ * Interface for file processors of records about students in courses, which can load their records
+ * either into memory or as an index of records that are read when they are asked for.
+ *
+ * @param <T> The domain type that this file processor deals with.
+ */
+public interface IStudentCourseFileProcessor<T> extends IIncrementalFileProcessor<T> {
+
+    /**
+     * Loads the records from the file, held in memory or paged in from disk as set by
+     * {@link PersistenceConfig#isPagedRecordsEnabled()}. The file is read before waiting for the
+     * students and courses the records refer to, as in {@link #loadFile(IRecordSink, Runnable)}.
+     *
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     * @return The records in the file.
+     */
+    IStudentCourseRecords<T> loadRecords(Runnable awaitReferences);
+
+    /**
+     * Writes out anything the processor still holds outside its data file, such as a journal of
+     * records not yet folded into the file. Called by the owner of the processor once it is no longer
+     * used. By default there is nothing to write.
+     */
+    default void close() {
+    }
+
+}
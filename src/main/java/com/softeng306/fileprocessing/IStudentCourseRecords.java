@@ -0,0 +1,73 @@
+package com.softeng306.fileprocessing;
+
+import java.util.List;
+
+/**
+ * The records kept about students in courses, such as course registrations and marks, looked up by
+ * student, by course or by both.
+ * <p>
+ * Depending on {@link PersistenceConfig#isPagedRecordsEnabled()}, the records are either all held in
+ * memory, or only an index of where each record is stored is held in memory and the records are read
+ * from disk when they are asked for.
+ *
+ * @param <T> The type of the records.
+ */
+public interface IStudentCourseRecords<T> {
+
+    /**
+     * Adds a new record. The record must also be registered with the {@code UnitOfWork} to be saved.
+     *
+     * @param record The new record.
+     */
+    void add(T record);
+
+    /**
+     * Records that a record has been changed, so that the change is not lost before it is saved.
+     * The record must also be registered with the {@code UnitOfWork} to be saved.
+     *
+     * @param record The changed record.
+     */
+    void markModified(T record);
+
+    /**
+     * Removes every record for a student in a course. The removal must also be registered with the
+     * {@code UnitOfWork} to be saved.
+     *
+     * @param studentId The ID of the student.
+     * @param courseId  The ID of the course.
+     * @return The records removed, in the order they were added.
+     * @throws UnsupportedOperationException If the records are paged in from disk, from which they
+     *                                       cannot be removed.
+     */
+    List<T> remove(String studentId, String courseId);
+
+    /**
+     * Gets the record for a student in a course. If a student somehow has two records for one
+     * course, the first is returned.
+     *
+     * @param studentId The ID of the student.
+     * @param courseId  The ID of the course.
+     * @return The record, or null if there is none.
+     */
+    T get(String studentId, String courseId);
+
+    /**
+     * @param studentId The ID of a student.
+     * @return The records of the student, in the order they were added.
+     */
+    List<T> getForStudent(String studentId);
+
+    /**
+     * @param courseId The ID of a course.
+     * @return The records of the course, in the order they were added.
+     */
+    List<T> getForCourse(String courseId);
+
+    /**
+     * Gets every record. If only the index is held in memory, each record is read when it is reached.
+     *
+     * @return A read-only view of every record, in the order they were added.
+     */
+    List<T> getAll();
+
+}
@@ -0,0 +1,31 @@
+package com.softeng306.fileprocessing;
+
+/**
+ * Interface for stores whose writes can be grouped into transactions. Changes made while a transaction
+ * is open are only made durable when it is committed, together, and are discarded if it is rolled back.
+ * <p>
+ * The {@code UnitOfWork} opens a transaction on every repository an operation changes and commits them
+ * all once the operation is done.
+ */
+public interface ITransactionHooks {
+
+    /**
+     * Opens a transaction. If a transaction is already open, the changes join it.
+     */
+    void beginTransaction();
+
+    /**
+     * Makes the changes made since the transaction was opened durable, and closes it.
+     * Does nothing if no transaction is open.
+     *
+     * @throws IllegalStateException If the changes could not be made durable.
+     */
+    void commitTransaction();
+
+    /**
+     * Discards the changes made since the transaction was opened, and closes it.
+     * Does nothing if no transaction is open.
+     */
+    void rollbackTransaction();
+
+}
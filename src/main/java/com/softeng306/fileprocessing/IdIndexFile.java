@@ -0,0 +1,521 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A sorted index of the records in a JSON or NDJSON data file, keyed by the ID of each record, which gives
+ * where each record is stored in the data file so that it can be read without reading the rest.
+ * <p>
+ * The index is stored in a file next to the data file and is read through a memory mapping. The
+ * entries are sorted by ID and packed into fixed-size blocks, so an ID is found by a binary search
+ * over the first ID of each block followed by a scan of a single block, and the IDs in a range are
+ * listed by scanning the blocks in order. The index remembers the size and modification time of the
+ * data file, and is built again when it is opened if the data file has changed since.
+ * <p>
+ * A Bloom filter of the IDs is stored after the blocks and built along with them. It is checked
+ * before the blocks are searched, so most IDs that are not in the index are answered without
+ * touching the blocks, and IDs added to the data file after the index was built can be added to it.
+ * <p>
+ * If a data file holds more than one record with the same ID, only the first is indexed. Data files
+ * in the binary format store shared strings once for the whole file, so their records cannot be read
+ * on their own and they are not indexed.
+ */
+final class IdIndexFile {
+    private static final int INDEX_MAGIC = 0x49444958;
+    private static final int INDEX_VERSION = 2;
+    private static final String INDEX_SUFFIX = ".index";
+
+    /**
+     * The header holds the magic number, version, size and modification time of the data file,
+     * number of entries, number of blocks and rate of false positives the Bloom filter was sized for.
+     */
+    private static final int HEADER_SIZE = 40;
+
+    /**
+     * Each block starts with the number of entries in it, followed by the entries. Each entry holds
+     * the length of the ID, the ID in UTF-8, and the offset and length of the record in the data file.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    private static final int ENTRY_OVERHEAD = Short.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Path dataPath;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer index;
+    private final int entryCount;
+    private final int blockCount;
+    private final BloomFilter filter;
+
+    private IdIndexFile(Path dataPath, FileChannel dataChannel, MappedByteBuffer index) {
+        this.dataPath = dataPath;
+        this.dataChannel = dataChannel;
+        this.index = index;
+        this.entryCount = index.getInt(24);
+        this.blockCount = index.getInt(28);
+        this.filter = BloomFilter.readFrom(index, blockStart(blockCount));
+    }
+
+    /**
+     * Opens the index of a data file, building it first if it does not exist or the data file has
+     * changed since it was built. Records are read from the data file as it was when the index was
+     * opened, even if the data file is replaced afterwards.
+     *
+     * @param dataPath          The path to a data file holding an array of records, or one record per line.
+     * @param idField           The name of the field holding the ID of each record.
+     * @param falsePositiveRate The rate of false positives to size the Bloom filter for.
+     * @return The index, or null if the data file is not in the JSON or NDJSON format.
+     * @throws IOException If the data file could not be read or the index could not be built.
+     */
+    static IdIndexFile open(Path dataPath, String idField, double falsePositiveRate) throws IOException {
+        ISnapshotCodec codec = SnapshotCodecs.codecOf(dataPath);
+        boolean lines = codec instanceof NdjsonSnapshotCodec;
+        if (!lines && !(codec instanceof JsonSnapshotCodec)) {
+            return null;
+        }
+
+        Path indexPath = dataPath.resolveSibling(dataPath.getFileName().toString().replaceFirst("\\.json$", "")
+                + INDEX_SUFFIX);
+        FileChannel dataChannel = FileChannel.open(dataPath, StandardOpenOption.READ);
+        try {
+            long dataSize = dataChannel.size();
+            long dataModified = Files.getLastModifiedTime(dataPath).toMillis();
+
+            MappedByteBuffer index = map(indexPath);
+            if (index == null || !isUpToDate(index, dataSize, dataModified, falsePositiveRate)) {
+                build(dataPath, lines, idField, indexPath, dataSize, dataModified, falsePositiveRate);
+                index = map(indexPath);
+                if (index == null || !isUpToDate(index, dataSize, dataModified, falsePositiveRate)) {
+                    throw new IOException("Could not build the index " + indexPath);
+                }
+            }
+            return new IdIndexFile(dataPath, dataChannel, index);
+        } catch (IOException | RuntimeException e) {
+            dataChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of records in the index.
+     */
+    int size() {
+        return entryCount;
+    }
+
+    /**
+     * @param id The ID of a record.
+     * @return Whether the data file holds a record with the ID.
+     */
+    boolean contains(String id) {
+        return find(encode(id)) >= 0;
+    }
+
+    /**
+     * Checks the Bloom filter alone, without counting the check in its statistics.
+     *
+     * @param id The ID of a record.
+     * @return False if the data file definitely holds no record with the ID, or true if it may.
+     */
+    boolean mightContain(String id) {
+        return filter.probe(encode(id));
+    }
+
+    /**
+     * Adds an ID to the Bloom filter, for a record added to the data file after the index was built.
+     * The blocks are only updated when the index is built again.
+     *
+     * @param id The ID of the record.
+     */
+    void addToFilter(String id) {
+        filter.add(encode(id));
+    }
+
+    /**
+     * @return How the Bloom filter is sized and how it has been used since the index was opened.
+     */
+    BloomFilterStats getFilterStats() {
+        return filter.getStats();
+    }
+
+    /**
+     * Reads a record from the data file as it is stored, without reading any other record.
+     *
+     * @param id The ID of the record.
+     * @return The record as it is stored in the data file, or null if there is no record with the ID.
+     * @throws IOException If the record could not be read.
+     */
+    byte[] readRecord(String id) throws IOException {
+        int position = find(encode(id));
+        if (position < 0) {
+            return null;
+        }
+
+        int keyLength = Short.toUnsignedInt(index.getShort(position));
+        long offset = index.getLong(position + Short.BYTES + keyLength);
+        int length = index.getInt(position + Short.BYTES + keyLength + Long.BYTES);
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (dataChannel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + dataPath);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Lists the IDs in a range, in the order they are sorted in, which is the order of their UTF-8 bytes.
+     *
+     * @param fromInclusive The lowest ID to list.
+     * @param toExclusive   The ID to stop listing at, or null to list every ID from {@code fromInclusive} on.
+     * @return The IDs in the range.
+     */
+    List<String> scan(String fromInclusive, String toExclusive) {
+        byte[] to = toExclusive == null ? null : encode(toExclusive);
+        List<String> ids = new ArrayList<>();
+        scanFrom(encode(fromInclusive), key -> {
+            if (to != null && compare(key, to) >= 0) {
+                return false;
+            }
+            ids.add(new String(key, StandardCharsets.UTF_8));
+            return true;
+        });
+        return ids;
+    }
+
+    /**
+     * Lists the IDs that start with a prefix, in the order they are sorted in.
+     *
+     * @param prefix The start of the IDs to list. Every ID starts with the empty string.
+     * @return The IDs that start with the prefix.
+     */
+    List<String> scanPrefix(String prefix) {
+        byte[] start = encode(prefix);
+        List<String> ids = new ArrayList<>();
+        scanFrom(start, key -> {
+            if (key.length < start.length || !Arrays.equals(key, 0, start.length, start, 0, start.length)) {
+                return false;
+            }
+            ids.add(new String(key, StandardCharsets.UTF_8));
+            return true;
+        });
+        return ids;
+    }
+
+    /**
+     * Closes the data file. The mapping of the index is released once it is no longer referenced.
+     *
+     * @throws IOException If the data file could not be closed.
+     */
+    void close() throws IOException {
+        dataChannel.close();
+    }
+
+    /**
+     * @param key The ID to find, in UTF-8.
+     * @return The position in the index of the entry for the ID, or -1 if there is none.
+     */
+    private int find(byte[] key) {
+        if (!filter.mightContain(key)) {
+            return -1;
+        }
+
+        int position = search(key);
+        if (position < 0) {
+            filter.recordFalsePositive();
+        }
+        return position;
+    }
+
+    /**
+     * @param key The ID to find, in UTF-8.
+     * @return The position in the index of the entry for the ID, or -1 if the blocks do not hold it.
+     */
+    private int search(byte[] key) {
+        int block = findBlock(key);
+        if (block < 0) {
+            return -1;
+        }
+
+        int position = blockStart(block);
+        int entries = Short.toUnsignedInt(index.getShort(position));
+        position += Short.BYTES;
+        for (int i = 0; i < entries; i++) {
+            int comparison = compareKeyAt(position, key);
+            if (comparison == 0) {
+                return position;
+            } else if (comparison > 0) {
+                return -1;
+            }
+            position += ENTRY_OVERHEAD + Short.toUnsignedInt(index.getShort(position));
+        }
+        return -1;
+    }
+
+    /**
+     * @param key An ID, in UTF-8.
+     * @return The last block whose first ID is not after the ID, or -1 if the ID is before every block.
+     */
+    private int findBlock(byte[] key) {
+        int low = 0;
+        int high = blockCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compareKeyAt(blockStart(middle) + Short.BYTES, key) <= 0) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Hands the IDs from a starting point on to a visitor, in order, until the visitor stops.
+     *
+     * @param start   The ID to start from, in UTF-8.
+     * @param visitor Visits each ID, returning whether to carry on to the next.
+     */
+    private void scanFrom(byte[] start, KeyVisitor visitor) {
+        for (int block = Math.max(findBlock(start), 0); block < blockCount; block++) {
+            int position = blockStart(block);
+            int entries = Short.toUnsignedInt(index.getShort(position));
+            position += Short.BYTES;
+            for (int i = 0; i < entries; i++) {
+                int keyLength = Short.toUnsignedInt(index.getShort(position));
+                if (compareKeyAt(position, start) >= 0) {
+                    byte[] key = new byte[keyLength];
+                    index.get(position + Short.BYTES, key);
+                    if (!visitor.visit(key)) {
+                        return;
+                    }
+                }
+                position += ENTRY_OVERHEAD + keyLength;
+            }
+        }
+    }
+
+    /**
+     * @param position The position in the index of an entry.
+     * @param key      An ID, in UTF-8.
+     * @return How the ID of the entry compares to the given ID.
+     */
+    private int compareKeyAt(int position, byte[] key) {
+        int keyLength = Short.toUnsignedInt(index.getShort(position));
+        int common = Math.min(keyLength, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Byte.compareUnsigned(index.get(position + Short.BYTES + i), key[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(keyLength, key.length);
+    }
+
+    private static int blockStart(int block) {
+        return HEADER_SIZE + block * BLOCK_SIZE;
+    }
+
+    /**
+     * Builds the index by reading the data file one token at a time, without binding the records.
+     *
+     * @param dataPath          The path to the data file.
+     * @param lines             Whether the data file holds one record per line rather than an array of records.
+     * @param idField           The name of the field holding the ID of each record.
+     * @param indexPath         The path to write the index to.
+     * @param dataSize          The size of the data file.
+     * @param dataModified      The modification time of the data file.
+     * @param falsePositiveRate The rate of false positives to size the Bloom filter for.
+     * @throws IOException If the data file could not be read or the index could not be written.
+     */
+    private static void build(Path dataPath, boolean lines, String idField, Path indexPath, long dataSize,
+                              long dataModified, double falsePositiveRate) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        InputStream in = Files.newInputStream(dataPath);
+        // a torn last line is left out, and the offsets of the other lines are unchanged
+        try (JsonParser parser = JSON_FACTORY.createParser(lines ? NdjsonSnapshotCodec.completeLines(in) : in)) {
+            if (!lines && parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected an array of records in " + dataPath + " but found "
+                        + parser.currentToken());
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null && lines) {
+                    break;
+                } else if (token == null) {
+                    throw new IOException("Unexpected end of " + dataPath);
+                } else if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                long start = parser.getTokenLocation().getByteOffset();
+                String id = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (id == null && value == JsonToken.VALUE_STRING && idField.equals(field)) {
+                        id = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (parser.currentToken() != JsonToken.END_OBJECT) {
+                    throw new IOException("Unexpected end of " + dataPath);
+                }
+
+                long end = parser.getTokenLocation().getByteOffset() + 1;
+                if (id != null) {
+                    entries.add(new Entry(encode(id), start, (int) (end - start)));
+                }
+            }
+        }
+
+        // the sort is stable, so the first record with each ID is kept
+        entries.sort((first, second) -> compare(first.key, second.key));
+        List<Entry> uniqueEntries = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (uniqueEntries.isEmpty() || compare(uniqueEntries.get(uniqueEntries.size() - 1).key, entry.key) != 0) {
+                uniqueEntries.add(entry);
+            }
+        }
+        writeIndex(indexPath, uniqueEntries, dataSize, dataModified, falsePositiveRate);
+    }
+
+    /**
+     * Writes the entries into blocks, starting a new block whenever the next entry does not fit,
+     * followed by a Bloom filter of their IDs.
+     */
+    private static void writeIndex(Path indexPath, List<Entry> entries, long dataSize, long dataModified,
+                                   double falsePositiveRate) throws IOException {
+        BloomFilter filter = BloomFilter.create(entries.size(), falsePositiveRate);
+        List<ByteBuffer> blocks = new ArrayList<>();
+        ByteBuffer block = null;
+        for (Entry entry : entries) {
+            int entrySize = ENTRY_OVERHEAD + entry.key.length;
+            if (entrySize > BLOCK_SIZE - Short.BYTES) {
+                throw new IOException("ID too long to index: " + new String(entry.key, StandardCharsets.UTF_8));
+            }
+            if (block == null || block.remaining() < entrySize) {
+                block = ByteBuffer.allocate(BLOCK_SIZE);
+                block.putShort((short) 0);
+                blocks.add(block);
+            }
+
+            block.putShort(0, (short) (block.getShort(0) + 1));
+            block.putShort((short) entry.key.length).put(entry.key).putLong(entry.offset).putInt(entry.length);
+            filter.add(entry.key);
+        }
+
+        AtomicSnapshotWriter.getInstance().write(indexPath, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(INDEX_MAGIC);
+            data.writeInt(INDEX_VERSION);
+            data.writeLong(dataSize);
+            data.writeLong(dataModified);
+            data.writeInt(entries.size());
+            data.writeInt(blocks.size());
+            data.writeDouble(falsePositiveRate);
+            for (ByteBuffer fullBlock : blocks) {
+                data.write(fullBlock.array());
+            }
+            filter.writeTo(data);
+            data.flush();
+        });
+    }
+
+    /**
+     * @param indexPath The path to an index file.
+     * @return The index file mapped into memory, or null if it does not exist.
+     * @throws IOException If the index file could not be mapped.
+     */
+    private static MappedByteBuffer map(Path indexPath) throws IOException {
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Index too large to map: " + indexPath);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return Whether the index is complete and was built from the data file as it is now, with a
+     *         Bloom filter sized for the given rate of false positives.
+     */
+    private static boolean isUpToDate(MappedByteBuffer index, long dataSize, long dataModified,
+                                      double falsePositiveRate) {
+        if (index.capacity() < HEADER_SIZE
+                || index.getInt(0) != INDEX_MAGIC
+                || index.getInt(4) != INDEX_VERSION
+                || index.getLong(8) != dataSize
+                || index.getLong(16) != dataModified
+                || index.getDouble(32) != falsePositiveRate) {
+            return false;
+        }
+
+        long filterStart = HEADER_SIZE + (long) index.getInt(28) * BLOCK_SIZE;
+        return index.capacity() >= filterStart + BloomFilter.serializedSize(0)
+                && index.capacity() == filterStart + BloomFilter.serializedSizeAt(index, (int) filterStart);
+    }
+
+    private static byte[] encode(String id) {
+        return id.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int compare(byte[] first, byte[] second) {
+        return Arrays.compareUnsigned(first, second);
+    }
+
+    /**
+     * Visits the IDs in a scan of the index.
+     */
+    @FunctionalInterface
+    private interface KeyVisitor {
+        /**
+         * @param key The next ID, in UTF-8.
+         * @return Whether to carry on to the next ID.
+         */
+        boolean visit(byte[] key);
+    }
+
+    /**
+     * Where the record with an ID is stored in the data file.
+     */
+    private static final class Entry {
+        private final byte[] key;
+        private final long offset;
+        private final int length;
+
+        Entry(byte[] key, long offset, int length) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+}
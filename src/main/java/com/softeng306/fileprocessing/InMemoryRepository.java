@@ -0,0 +1,252 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repository that holds every entry in memory, indexed by key and by each index of its schema.
+ * Nothing is written anywhere, so the entries last only as long as the repository. Subclasses write
+ * the entries to disk.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ */
+public class InMemoryRepository<K, T> extends AbstractRepository<K, T> {
+    private final RepositorySchema<K, T, ?> schema;
+
+    private final List<T> entries = new ArrayList<>();
+
+    /**
+     * The first entry with each key, in the order the keys were first inserted.
+     */
+    private final Map<K, T> entriesByKey = new LinkedHashMap<>();
+
+    /**
+     * The entries with each value of each index, keyed by the name of the index and then by the value.
+     */
+    private final Map<String, Map<String, List<T>>> entriesByIndex = new HashMap<>();
+
+    /**
+     * The values each entry is indexed under, in the order of the indexes of the schema.
+     */
+    private final Map<T, String[]> indexedValues = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty repository.
+     *
+     * @param schema The schema of the entries.
+     */
+    public InMemoryRepository(RepositorySchema<K, T, ?> schema) {
+        this(schema, List.of());
+    }
+
+    /**
+     * Creates a repository holding some entries to begin with. If two entries have the same key,
+     * both are held but the first is the one found by its key.
+     *
+     * @param schema  The schema of the entries.
+     * @param entries The entries, in order.
+     */
+    public InMemoryRepository(RepositorySchema<K, T, ?> schema, Collection<? extends T> entries) {
+        this.schema = schema;
+        for (String index : schema.getIndexes().keySet()) {
+            entriesByIndex.put(index, new HashMap<>());
+        }
+        for (T entry : entries) {
+            add(entry);
+        }
+    }
+
+    @Override
+    public synchronized T get(K key) {
+        return entriesByKey.get(key);
+    }
+
+    @Override
+    public synchronized boolean contains(K key) {
+        return entriesByKey.containsKey(key);
+    }
+
+    @Override
+    public synchronized List<K> scanKeys() {
+        return new ArrayList<>(entriesByKey.keySet());
+    }
+
+    @Override
+    public synchronized List<T> scanAll() {
+        return List.copyOf(entries);
+    }
+
+    @Override
+    public synchronized List<T> scanByIndex(String index, String value) {
+        Map<String, List<T>> entriesByValue = entriesByIndex.get(index);
+        if (entriesByValue == null) {
+            throw new IllegalArgumentException("No index named " + index);
+        }
+
+        List<T> matches = entriesByValue.get(value);
+        return matches == null ? List.of() : List.copyOf(matches);
+    }
+
+    @Override
+    protected Runnable applyInsert(T entry) {
+        K key = schema.keyOf(entry);
+        if (entriesByKey.containsKey(key)) {
+            throw new IllegalArgumentException("There is already an entry with the key " + key);
+        }
+
+        add(entry);
+        return () -> {
+            removeEntry(entry);
+            rebuildIndexes();
+        };
+    }
+
+    @Override
+    protected Runnable applyUpdate(T entry) {
+        K key = schema.keyOf(entry);
+        T existing = entriesByKey.get(key);
+        if (existing == null) {
+            throw new IllegalArgumentException("There is no entry with the key " + key);
+        }
+
+        if (existing == entry) {
+            // changed in place, so only its place in the indexes can have changed
+            unindex(entry);
+            index(entry);
+            return () -> { };
+        }
+
+        int position = positionOf(existing);
+        entries.set(position, entry);
+        entriesByKey.put(key, entry);
+        unindex(existing);
+        index(entry);
+        return () -> {
+            entries.set(positionOf(entry), existing);
+            rebuildIndexes();
+        };
+    }
+
+    @Override
+    protected Runnable applyDelete(K key) {
+        if (!entriesByKey.containsKey(key)) {
+            return () -> { };
+        }
+
+        Map<Integer, T> removed = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (key.equals(schema.keyOf(entries.get(i)))) {
+                removed.put(i, entries.get(i));
+            }
+        }
+        for (T entry : removed.values()) {
+            removeEntry(entry);
+            unindex(entry);
+        }
+        entriesByKey.remove(key);
+
+        return () -> {
+            removed.forEach(entries::add);
+            rebuildIndexes();
+        };
+    }
+
+    /**
+     * Holds nothing but memory, so there is nothing to write.
+     */
+    @Override
+    protected Runnable prepareWrite(RepositoryBatch<K, T> batch) {
+        return () -> { };
+    }
+
+    /**
+     * Adds an entry that is already stored, such as one read from disk, without writing it.
+     * Must be called while holding the lock of the repository.
+     *
+     * @param entry The entry.
+     */
+    protected void add(T entry) {
+        entries.add(entry);
+        entriesByKey.putIfAbsent(schema.keyOf(entry), entry);
+        index(entry);
+    }
+
+    /**
+     * @return Every entry, in order. Must only be used while holding the lock of the repository.
+     */
+    protected List<T> entries() {
+        return entries;
+    }
+
+    private int positionOf(T entry) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i) == entry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeEntry(T entry) {
+        int position = positionOf(entry);
+        if (position >= 0) {
+            entries.remove(position);
+        }
+    }
+
+    private void index(T entry) {
+        String[] values = new String[entriesByIndex.size()];
+        int i = 0;
+        for (Map.Entry<String, Function<? super T, String>> index : schema.getIndexes().entrySet()) {
+            values[i] = index.getValue().apply(entry);
+            if (values[i] != null) {
+                entriesByIndex.get(index.getKey()).computeIfAbsent(values[i], value -> new ArrayList<>()).add(entry);
+            }
+            i++;
+        }
+        indexedValues.put(entry, values);
+    }
+
+    private void unindex(T entry) {
+        String[] values = indexedValues.remove(entry);
+        if (values == null) {
+            return;
+        }
+
+        int i = 0;
+        for (String index : schema.getIndexes().keySet()) {
+            if (values[i] != null) {
+                List<T> matches = entriesByIndex.get(index).get(values[i]);
+                matches.removeIf(match -> match == entry);
+                if (matches.isEmpty()) {
+                    entriesByIndex.get(index).remove(values[i]);
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Rebuilds the index by key and every other index from the entries, after the entries have been
+     * put back the way they were before a change was undone.
+     */
+    private void rebuildIndexes() {
+        entriesByKey.clear();
+        indexedValues.clear();
+        for (Map<String, List<T>> entriesByValue : entriesByIndex.values()) {
+            entriesByValue.clear();
+        }
+        for (T entry : entries) {
+            entriesByKey.putIfAbsent(schema.keyOf(entry), entry);
+            index(entry);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.softeng306.fileprocessing;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background thread that folds journals into their snapshot files once they grow large enough.
+ * Every file processor that journals its records shares the one thread, which is only started the
+ * first time a compaction is needed, so creating a file processor never starts a thread of its own.
+ */
+final class JournalCompactor {
+
+    private static final JournalCompactor singleInstance = new JournalCompactor();
+
+    /**
+     * The compaction thread, created the first time a compaction is scheduled.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Override default constructor to implement singleton pattern
+     */
+    private JournalCompactor() { }
+
+    /**
+     * Return the JournalCompactor singleton.
+     *
+     * @return JournalCompactor the singleton instance
+     */
+    static JournalCompactor getInstance() {
+        return singleInstance;
+    }
+
+    /**
+     * Runs a compaction on the background thread, after every compaction scheduled before it.
+     *
+     * @param compaction The compaction to run.
+     */
+    synchronized void schedule(Runnable compaction) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        executor.execute(compaction);
+    }
+
+}
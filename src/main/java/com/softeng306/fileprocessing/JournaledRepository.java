@@ -0,0 +1,165 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository that holds every entry in memory and appends each change to a journal next to its data
+ * file, so a change costs the same however many entries there are. Once the journal grows large
+ * enough, every entry is written to the data file and the journal is discarded.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ * @param <S> The type of the records the entries are stored as.
+ */
+public class JournaledRepository<K, T, S> extends SnapshotRepository<K, T, S> {
+    /**
+     * The number of journaled changes that triggers a compaction.
+     */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final RepositorySchema<K, T, S> schema;
+    private final RecordJournal<RepositoryChangeRecord> journal;
+
+    /**
+     * Creates a repository for the data file at the given path, reading the entries in it and
+     * replaying the changes journaled since it was last written.
+     *
+     * @param schema   The schema of the entries.
+     * @param filePath The path to the data file.
+     * @param codec    The codec to write the data file with.
+     */
+    public JournaledRepository(RepositorySchema<K, T, S> schema, String filePath, ISnapshotCodec codec) {
+        this(schema, filePath, codec, () -> { });
+    }
+
+    /**
+     * Creates a repository for the data file at the given path, reading the records in it and in the
+     * journal before the entities they refer to have been loaded and resolving them once they have.
+     *
+     * @param schema          The schema of the entries.
+     * @param filePath        The path to the data file.
+     * @param codec           The codec to write the data file with.
+     * @param awaitReferences Waits until the entities the records refer to have been loaded.
+     */
+    public JournaledRepository(RepositorySchema<K, T, S> schema, String filePath, ISnapshotCodec codec,
+                               Runnable awaitReferences) {
+        this(schema, filePath, codec, awaitReferences, new RecordJournal<>(
+                filePath.replaceFirst("\\.json$", "") + ".changes", RepositoryChangeRecord.class));
+    }
+
+    private JournaledRepository(RepositorySchema<K, T, S> schema, String filePath, ISnapshotCodec codec,
+                                Runnable awaitReferences, RecordJournal<RepositoryChangeRecord> journal) {
+        super(schema, filePath, codec, resolve(schema, replay(schema, filePath, journal), awaitReferences));
+        this.schema = schema;
+        this.journal = journal;
+    }
+
+    /**
+     * Converts the changes into journal records, and also copies every entry if the journal is large
+     * enough to be compacted once they have been appended.
+     */
+    @Override
+    protected Runnable prepareWrite(RepositoryBatch<K, T> batch) {
+        List<RepositoryChangeRecord> changes = new ArrayList<>(batch.size());
+        for (RepositoryBatch.Change<K, T> change : batch.getChanges()) {
+            changes.add(toChangeRecord(change));
+        }
+        List<S> snapshot = journal.size() + changes.size() >= COMPACTION_THRESHOLD ? storedRecords() : null;
+
+        return () -> {
+            try {
+                journal.appendAll(changes);
+                if (snapshot != null) {
+                    journal.beginCompaction(getFilePath());
+                    writeSnapshot(snapshot);
+                    journal.finishCompaction();
+                }
+            } catch (IOException e) {
+                System.out.println("Error in journaling changes to " + getFilePath() + ".");
+                e.printStackTrace();
+            }
+        };
+    }
+
+    private RepositoryChangeRecord toChangeRecord(RepositoryBatch.Change<K, T> change) {
+        switch (change.getType()) {
+            case INSERT:
+                return new RepositoryChangeRecord(RepositoryChangeRecord.INSERT,
+                        FileProcessor.toStoredTree(schema.toStoredForm(change.getEntry())), null);
+            case UPDATE:
+                return new RepositoryChangeRecord(RepositoryChangeRecord.UPDATE,
+                        FileProcessor.toStoredTree(schema.toStoredForm(change.getEntry())), null);
+            default:
+                return new RepositoryChangeRecord(RepositoryChangeRecord.DELETE, null,
+                        FileProcessor.toStoredTree(change.getKey()));
+        }
+    }
+
+    /**
+     * Reads the records in the data file and applies the changes journaled since it was written.
+     * The changes are applied to the records as JSON trees, and the records are only read once every
+     * change has been applied, so that each student, course and professor is first registered in the
+     * state it was last written in.
+     *
+     * @return The records, in order.
+     */
+    private static <K, S> List<S> replay(RepositorySchema<K, ?, S> schema, String filePath,
+                                         RecordJournal<RepositoryChangeRecord> journal) {
+        try {
+            List<RepositoryChangeRecord> changes = journal.replay(filePath);
+            if (changes.isEmpty()) {
+                return readRecords(schema, filePath);
+            }
+
+            List<JsonNode> records = readRecords(filePath, JsonNode.class);
+            List<JsonNode> keys = new ArrayList<>(records.size());
+            for (JsonNode record : records) {
+                keys.add(keyOf(schema, record));
+            }
+
+            for (RepositoryChangeRecord change : changes) {
+                if (RepositoryChangeRecord.DELETE.equals(change.getChange())) {
+                    for (int i = records.size() - 1; i >= 0; i--) {
+                        if (keys.get(i).equals(change.getKey())) {
+                            records.remove(i);
+                            keys.remove(i);
+                        }
+                    }
+                    continue;
+                }
+
+                JsonNode key = keyOf(schema, change.getRecord());
+                int position = RepositoryChangeRecord.UPDATE.equals(change.getChange()) ? keys.indexOf(key) : -1;
+                if (position >= 0) {
+                    records.set(position, change.getRecord());
+                } else {
+                    records.add(change.getRecord());
+                    keys.add(key);
+                }
+            }
+
+            List<S> storedRecords = new ArrayList<>(records.size());
+            for (JsonNode record : records) {
+                storedRecords.add(FileProcessor.fromStoredTree(record, schema.getStoredType()));
+            }
+            return storedRecords;
+        } catch (IOException e) {
+            System.out.println("Error in replaying the changes to " + filePath + ".");
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return The key of a stored record as a JSON tree, as the key of a deleted record is journaled.
+     */
+    private static <K, S> JsonNode keyOf(RepositorySchema<K, ?, S> schema, JsonNode record) throws IOException {
+        return FileProcessor.toStoredTree(schema.storedKeyOf(FileProcessor.inspectStoredTree(record,
+                schema.getStoredType())));
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Codec for data files stored as indented JSON, which is easy for a human to read and edit.
+ * This class implements {@code ISnapshotCodec}.
+ */
+public class JsonSnapshotCodec implements ISnapshotCodec {
+
+    public static final String NAME = "json";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc} A JSON data file starts with an array or an object, after any whitespace.
+     */
+    @Override
+    public boolean canRead(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = header[i];
+            if (b == '[' || b == '{') {
+                return true;
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public JsonParser createParser(ObjectMapper objectMapper, InputStream in) throws IOException {
+        return objectMapper.getFactory().createParser(in);
+    }
+
+    @Override
+    public JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out).useDefaultPrettyPrinter();
+    }
+
+}
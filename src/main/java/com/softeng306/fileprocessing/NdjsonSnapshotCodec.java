@@ -0,0 +1,339 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Codec for data files stored as JSON Lines (NDJSON), with each record written as compact JSON on a
+ * line of its own. A record is added by appending its line, without reading or rewriting the records
+ * already in the file, and the file can be read, split or followed one line at a time by other tools.
+ * <p>
+ * Every line, including the last, ends with a newline, so anything after the last newline is a
+ * record whose append was interrupted. That torn line is ignored when the file is read, and cut off
+ * before the next record is appended.
+ * This class implements {@code ISnapshotCodec}.
+ */
+public class NdjsonSnapshotCodec implements ISnapshotCodec {
+
+    public static final String NAME = "ndjson";
+
+    /**
+     * The number of bytes read at a time when looking for the end of the last complete line.
+     */
+    private static final int TAIL_BLOCK_SIZE = 8 * 1024;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc} An NDJSON data file starts with an object, after any whitespace, where a JSON data
+     * file starts with an array. A file holding no records is empty.
+     */
+    @Override
+    public boolean canRead(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = header[i];
+            if (b == '{') {
+                return true;
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} The lines are read as the records of a single array, so the file is read like a
+     * JSON data file.
+     */
+    @Override
+    public JsonParser createParser(ObjectMapper objectMapper, InputStream in) throws IOException {
+        return objectMapper.getFactory().createParser(new CompleteLinesInputStream(in, true));
+    }
+
+    /**
+     * {@inheritDoc} The array of records written to the generator is written as one line per record.
+     */
+    @Override
+    public JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null);
+        return new RecordLinesGenerator(generator);
+    }
+
+    /**
+     * @param in The contents of an NDJSON data file.
+     * @return The contents up to the end of the last complete line, at the same offsets.
+     */
+    static InputStream completeLines(InputStream in) {
+        return new CompleteLinesInputStream(in, false);
+    }
+
+    /**
+     * Appends records to an NDJSON data file, cutting off a torn last line first.
+     *
+     * @param path    The data file. It is created if it does not exist.
+     * @param records The records to append, each as compact JSON without a newline.
+     * @throws IOException If the records could not be written.
+     */
+    static void appendLines(Path path, List<byte[]> records) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (byte[] record : records) {
+            lines.write(record);
+            lines.write('\n');
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long end = completeLength(channel);
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, end + buffer.position());
+            }
+        }
+    }
+
+    /**
+     * @param channel An NDJSON data file.
+     * @return The number of bytes up to and including the last newline in the file.
+     * @throws IOException If the file could not be read.
+     */
+    static long completeLength(FileChannel channel) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(TAIL_BLOCK_SIZE);
+        long blockEnd = channel.size();
+        while (blockEnd > 0) {
+            long blockStart = Math.max(0, blockEnd - TAIL_BLOCK_SIZE);
+            block.clear().limit((int) (blockEnd - blockStart));
+            while (block.hasRemaining()) {
+                if (channel.read(block, blockStart + block.position()) < 0) {
+                    break;
+                }
+            }
+
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            blockEnd = blockStart;
+        }
+        return 0;
+    }
+
+    /**
+     * Passes on the complete lines of a stream, holding each line back until its newline is read so
+     * that a torn last line is never passed on. The lines can also be passed on as the records of a
+     * single JSON array, with blank lines left out.
+     */
+    private static final class CompleteLinesInputStream extends InputStream {
+        private final InputStream in;
+        private final boolean asArray;
+
+        private byte[] buffer = new byte[64 * 1024];
+
+        /**
+         * The bytes of {@code buffer} that have been read from the stream, from the start of the line
+         * that has not been passed on yet.
+         */
+        private int lineStart;
+        private int bufferEnd;
+
+        /**
+         * The bytes of the current line that are still to be passed on.
+         */
+        private int emitPosition;
+        private int emitEnd;
+
+        /**
+         * A byte to pass on before the rest of the current line, or -1 if there is none.
+         */
+        private int pendingByte = -1;
+
+        private boolean started;
+        private boolean finished;
+        private boolean anyRecord;
+
+        CompleteLinesInputStream(InputStream in, boolean asArray) {
+            this.in = in;
+            this.asArray = asArray;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            while (true) {
+                if (pendingByte >= 0) {
+                    b[off] = (byte) pendingByte;
+                    pendingByte = -1;
+                    return 1;
+                }
+                if (emitPosition < emitEnd) {
+                    int count = Math.min(len, emitEnd - emitPosition);
+                    System.arraycopy(buffer, emitPosition, b, off, count);
+                    emitPosition += count;
+                    return count;
+                }
+                if (!nextLine()) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Moves on to the next line to pass on.
+         *
+         * @return False if there is nothing more to pass on.
+         * @throws IOException If the stream could not be read.
+         */
+        private boolean nextLine() throws IOException {
+            if (asArray && !started) {
+                started = true;
+                pendingByte = '[';
+                return true;
+            }
+            if (finished) {
+                return false;
+            }
+
+            while (true) {
+                int newline = indexOfNewline(lineStart);
+                while (newline < 0) {
+                    if (!readMore()) {
+                        // anything after the last newline is a torn line
+                        finished = true;
+                        if (asArray) {
+                            pendingByte = ']';
+                            return true;
+                        }
+                        return false;
+                    }
+                    newline = indexOfNewline(lineStart);
+                }
+
+                emitPosition = lineStart;
+                emitEnd = newline + 1;
+                lineStart = newline + 1;
+                if (!asArray) {
+                    return true;
+                }
+                if (!isBlank(emitPosition, emitEnd)) {
+                    if (anyRecord) {
+                        pendingByte = ',';
+                    }
+                    anyRecord = true;
+                    return true;
+                }
+            }
+        }
+
+        private int indexOfNewline(int from) {
+            for (int i = from; i < bufferEnd; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (!Character.isWhitespace(buffer[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads more of the stream after the current line, moving the line to the start of the buffer
+         * or growing the buffer to make room.
+         *
+         * @return False if the end of the stream has been reached.
+         * @throws IOException If the stream could not be read.
+         */
+        private boolean readMore() throws IOException {
+            if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, bufferEnd - lineStart);
+                bufferEnd -= lineStart;
+                lineStart = 0;
+            } else if (bufferEnd == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int count = in.read(buffer, bufferEnd, buffer.length - bufferEnd);
+            if (count < 0) {
+                return false;
+            }
+            bufferEnd += count;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the records of the array written to it one per line, leaving out the array itself.
+     */
+    private static final class RecordLinesGenerator extends JsonGeneratorDelegate {
+
+        RecordLinesGenerator(JsonGenerator generator) {
+            // copied tokens are written through this generator, so that copied arrays are left out too
+            super(generator, false);
+        }
+
+        @Override
+        public void writeStartArray() throws IOException {
+            if (!delegate.getOutputContext().inRoot()) {
+                delegate.writeStartArray();
+            }
+        }
+
+        @Override
+        public void writeEndArray() throws IOException {
+            if (!delegate.getOutputContext().inRoot()) {
+                delegate.writeEndArray();
+            }
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            delegate.writeEndObject();
+            if (delegate.getOutputContext().inRoot()) {
+                delegate.writeRaw('\n');
+            }
+        }
+    }
+
+}
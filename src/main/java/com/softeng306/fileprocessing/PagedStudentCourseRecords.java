@@ -0,0 +1,292 @@
+package com.softeng306.fileprocessing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Records about students in courses of which only an index is held in memory.
+ * <p>
+ * The records themselves are kept in a {@code RecordPageFile} and are read and resolved when they are
+ * asked for. The most recently used records are kept in a cache of bounded size, so looking up the
+ * records of one student or course only reads the records that are not already cached. New and
+ * changed records are held in memory until they have been saved, so a change is never lost by
+ * dropping the record from the cache.
+ *
+ * @param <T> The type of the records.
+ * @param <R> The type of the records as they are stored on disk.
+ */
+final class PagedStudentCourseRecords<T, R> implements IStudentCourseRecords<T> {
+    private final RecordPageFile<R> pages;
+    private final Function<? super T, String> studentIdOf;
+    private final Function<? super T, String> courseIdOf;
+    private final Function<? super T, ? extends R> toStoredForm;
+
+    /**
+     * Resolves a stored record, returning null if it refers to something that does not exist.
+     */
+    private final Function<? super R, ? extends T> resolver;
+
+    /**
+     * The numbers of the records of each student, keyed by student ID.
+     */
+    private final Map<String, RecordNumbers> recordsByStudentId = new HashMap<>();
+
+    /**
+     * The numbers of the records of each course, keyed by course ID.
+     */
+    private final Map<String, RecordNumbers> recordsByCourseId = new HashMap<>();
+
+    /**
+     * The most recently used records, keyed by record number.
+     */
+    private final Map<Integer, T> cache;
+
+    /**
+     * New and changed records that have not been saved yet, keyed by record number.
+     */
+    private final Map<Integer, T> unsaved = new HashMap<>();
+
+    /**
+     * The number of every record held in memory, whether cached or unsaved.
+     */
+    private final Map<T, Integer> recordNumbers = new IdentityHashMap<>();
+
+    /**
+     * @param pages        The opened page file holding the records.
+     * @param studentIdOf  Gets the ID of the student of a record.
+     * @param courseIdOf   Gets the ID of the course of a record.
+     * @param toStoredForm Converts a record into the form it is stored in.
+     * @param resolver     Resolves a stored record, returning null if it cannot be resolved.
+     * @param cacheSize    The most records to keep in the cache.
+     */
+    PagedStudentCourseRecords(RecordPageFile<R> pages, Function<? super T, String> studentIdOf,
+                              Function<? super T, String> courseIdOf, Function<? super T, ? extends R> toStoredForm,
+                              Function<? super R, ? extends T> resolver, int cacheSize) {
+        this.pages = pages;
+        this.studentIdOf = studentIdOf;
+        this.courseIdOf = courseIdOf;
+        this.toStoredForm = toStoredForm;
+        this.resolver = resolver;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+
+                if (!unsaved.containsKey(eldest.getKey())) {
+                    recordNumbers.remove(eldest.getValue());
+                }
+                return true;
+            }
+        };
+
+        for (int i = 0; i < pages.size(); i++) {
+            index(i);
+        }
+    }
+
+    @Override
+    public synchronized void add(T record) {
+        int recordNumber = pages.reserve(studentIdOf.apply(record), courseIdOf.apply(record));
+        index(recordNumber);
+        unsaved.put(recordNumber, record);
+        recordNumbers.put(record, recordNumber);
+    }
+
+    @Override
+    public synchronized void markModified(T record) {
+        Integer recordNumber = recordNumbers.get(record);
+        if (recordNumber == null) {
+            // dropped from the cache since it was fetched, so it replaces the stored record of its student and course
+            recordNumber = find(studentIdOf.apply(record), courseIdOf.apply(record));
+            if (recordNumber < 0) {
+                return;
+            }
+            recordNumbers.put(record, recordNumber);
+        }
+        unsaved.put(recordNumber, record);
+    }
+
+    /**
+     * {@inheritDoc} Records are never removed from the page file, so paged records cannot be removed.
+     */
+    @Override
+    public List<T> remove(String studentId, String courseId) {
+        throw new UnsupportedOperationException("Paged records cannot be removed");
+    }
+
+    @Override
+    public synchronized T get(String studentId, String courseId) {
+        int recordNumber = find(studentId, courseId);
+        return recordNumber < 0 ? null : fetch(recordNumber);
+    }
+
+    @Override
+    public synchronized List<T> getForStudent(String studentId) {
+        return fetchAll(recordsByStudentId.get(studentId));
+    }
+
+    @Override
+    public synchronized List<T> getForCourse(String courseId) {
+        return fetchAll(recordsByCourseId.get(courseId));
+    }
+
+    @Override
+    public List<T> getAll() {
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                synchronized (PagedStudentCourseRecords.this) {
+                    return fetch(index);
+                }
+            }
+
+            @Override
+            public int size() {
+                synchronized (PagedStudentCourseRecords.this) {
+                    return pages.size();
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes new and changed records to the page file once they have been saved, after which they
+     * may be dropped from memory.
+     *
+     * @param records The records that have been saved.
+     * @throws IOException If the records could not be written to the page file.
+     */
+    synchronized void saved(List<T> records) throws IOException {
+        for (T record : records) {
+            Integer recordNumber = recordNumbers.get(record);
+            if (recordNumber == null) {
+                recordNumber = find(studentIdOf.apply(record), courseIdOf.apply(record));
+                if (recordNumber < 0) {
+                    continue;
+                }
+            }
+
+            pages.write(recordNumber, toStoredForm.apply(record));
+            unsaved.remove(recordNumber);
+            cache.put(recordNumber, record);
+        }
+    }
+
+    /**
+     * Saves the index of the page file and closes it.
+     *
+     * @param sourcePaths The files the records are stored in, as they are now.
+     * @throws IOException If the index could not be saved.
+     */
+    synchronized void close(List<Path> sourcePaths) throws IOException {
+        pages.save(sourcePaths);
+        pages.close();
+    }
+
+    /**
+     * Adds a record to the indexes by student and by course.
+     *
+     * @param recordNumber The number of the record.
+     */
+    private void index(int recordNumber) {
+        recordsByStudentId.computeIfAbsent(pages.getStudentId(recordNumber), id -> new RecordNumbers())
+                .add(recordNumber);
+        recordsByCourseId.computeIfAbsent(pages.getCourseId(recordNumber), id -> new RecordNumbers())
+                .add(recordNumber);
+    }
+
+    /**
+     * @param studentId The ID of a student.
+     * @param courseId  The ID of a course.
+     * @return The number of the first record for the student in the course, or -1 if there is none.
+     */
+    private int find(String studentId, String courseId) {
+        RecordNumbers numbers = recordsByStudentId.get(studentId);
+        if (numbers == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < numbers.size; i++) {
+            if (courseId.equals(pages.getCourseId(numbers.numbers[i]))) {
+                return numbers.numbers[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param recordNumbers The numbers of some records, which may be null.
+     * @return The records that could be resolved.
+     */
+    private List<T> fetchAll(RecordNumbers recordNumbers) {
+        if (recordNumbers == null) {
+            return List.of();
+        }
+
+        List<T> records = new ArrayList<>(recordNumbers.size);
+        for (int i = 0; i < recordNumbers.size; i++) {
+            T record = fetch(recordNumbers.numbers[i]);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return List.copyOf(records);
+    }
+
+    /**
+     * Gets a record from memory, or reads it from the page file if it is not in memory.
+     *
+     * @param recordNumber The number of the record.
+     * @return The record, or null if it could not be read or resolved.
+     */
+    private T fetch(int recordNumber) {
+        T record = unsaved.get(recordNumber);
+        if (record == null) {
+            record = cache.get(recordNumber);
+        }
+        if (record != null) {
+            return record;
+        }
+
+        try {
+            R storedRecord = pages.read(recordNumber);
+            record = storedRecord == null ? null : resolver.apply(storedRecord);
+        } catch (IOException e) {
+            System.out.println("Error in reading a record from the page file.");
+            e.printStackTrace();
+        }
+
+        if (record != null) {
+            recordNumbers.put(record, recordNumber);
+            cache.put(recordNumber, record);
+        }
+        return record;
+    }
+
+    /**
+     * A growable list of record numbers, in ascending order.
+     */
+    private static final class RecordNumbers {
+        private int[] numbers = new int[2];
+        private int size;
+
+        void add(int recordNumber) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = recordNumber;
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads the records of a large JSON or NDJSON data file on several threads.
+ * <p>
+ * The file is memory-mapped and scanned once for the commas between the records of its top-level
+ * array, or for the newlines between its records, which splits it into chunks of whole records. The chunks are parsed in parallel on a
+ * fork/join pool and handed to the sink in their original order, so the sink sees exactly the
+ * records a sequential read would produce. Only a few chunks are parsed ahead of the sink at a time,
+ * so the parsed records never pile up in memory.
+ * <p>
+ * Binary data files are not split, because their strings refer back to earlier parts of the file.
+ */
+final class ParallelSnapshotReader {
+    /**
+     * The smallest chunk worth handing to another thread, in bytes.
+     */
+    private static final int MIN_CHUNK_BYTES = 1024 * 1024;
+
+    /**
+     * The number of chunks per thread, so that threads that finish early can take more work.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private ParallelSnapshotReader() { }
+
+    /**
+     * Checks whether a data file is large enough to be worth reading on several threads, and is
+     * in a format that can be split.
+     *
+     * @param path The data file.
+     * @return Whether the file should be read with {@link #read}.
+     * @throws IOException If the file could not be read.
+     */
+    static boolean isSplittable(Path path) throws IOException {
+        if (PARALLELISM < 2) {
+            return false;
+        }
+
+        long size = Files.size(path);
+        return size >= PersistenceConfig.getParallelLoadThresholdBytes()
+                && size <= Integer.MAX_VALUE
+                && isSplittableCodec(SnapshotCodecs.codecOf(path));
+    }
+
+    /**
+     * @param codec The codec of a data file.
+     * @return Whether data files in the codec's format can be split between their records.
+     */
+    private static boolean isSplittableCodec(ISnapshotCodec codec) {
+        return codec instanceof JsonSnapshotCodec || codec instanceof NdjsonSnapshotCodec;
+    }
+
+    /**
+     * Reads every record in a JSON or NDJSON data file, parsing chunks of the file in parallel.
+     *
+     * @param path         The data file, which must hold a single array of records or one record per line.
+     * @param objectMapper The object mapper to create parsers with.
+     * @param reader       The reader for the records in the file, which is shared by every thread.
+     * @param sink         The sink to hand the records to, in the order they are stored.
+     * @param <E>          The type of the records in the file.
+     * @throws IOException If the file could not be read or the sink failed.
+     */
+    static <E> void read(Path path, ObjectMapper objectMapper, ObjectReader reader, IRecordSink<? super E> sink)
+            throws IOException {
+        MappedByteBuffer contents;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        boolean lines = SnapshotCodecs.codecOf(path) instanceof NdjsonSnapshotCodec;
+        int chunkBytes = Math.max(MIN_CHUNK_BYTES, contents.capacity() / (PARALLELISM * CHUNKS_PER_THREAD));
+        List<int[]> chunks = lines ? findLineChunks(contents, chunkBytes) : findChunks(contents, chunkBytes, path);
+
+        ForkJoinPool pool = PoolHolder.POOL;
+        int maxInFlight = PARALLELISM * 2;
+        List<ForkJoinTask<List<E>>> tasks = new ArrayList<>(chunks.size());
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                while (tasks.size() < chunks.size() && tasks.size() < i + maxInFlight) {
+                    tasks.add(submit(pool, contents, chunks.get(tasks.size()), lines, objectMapper, reader));
+                }
+
+                for (E record : await(tasks.get(i))) {
+                    sink.accept(record);
+                }
+                // let the parsed records of this chunk be collected
+                tasks.set(i, null);
+            }
+        } finally {
+            for (ForkJoinTask<List<E>> task : tasks) {
+                if (task != null) {
+                    task.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans a JSON data file for the boundaries between the records of its top-level array, and
+     * groups the records into chunks of roughly the given size.
+     *
+     * @param contents   The contents of the file.
+     * @param chunkBytes The size of chunk to aim for, in bytes.
+     * @param path       The data file, for error messages.
+     * @return The start (inclusive) and end (exclusive) of each chunk, which holds whole records
+     *         separated by commas.
+     * @throws IOException If the file does not hold a single complete array.
+     */
+    private static List<int[]> findChunks(MappedByteBuffer contents, int chunkBytes, Path path) throws IOException {
+        List<int[]> chunks = new ArrayList<>();
+        int size = contents.capacity();
+        int depth = 0;
+        int chunkStart = -1;
+        boolean inString = false;
+        boolean escaped = false;
+
+        for (int i = 0; i < size; i++) {
+            byte b = contents.get(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+
+            switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '[':
+                case '{':
+                    if (depth == 0) {
+                        if (b != '[') {
+                            throw new IOException("Expected an array of records in " + path);
+                        }
+                        chunkStart = i + 1;
+                    }
+                    depth++;
+                    break;
+                case ']':
+                case '}':
+                    depth--;
+                    if (depth == 0) {
+                        chunks.add(new int[]{chunkStart, i});
+                        return chunks;
+                    }
+                    break;
+                case ',':
+                    if (depth == 1 && i - chunkStart >= chunkBytes) {
+                        chunks.add(new int[]{chunkStart, i});
+                        chunkStart = i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        throw new IOException("Unexpected end of the array of records in " + path);
+    }
+
+    /**
+     * Splits an NDJSON data file into chunks of whole lines of roughly the given size. A torn last
+     * line is left out.
+     *
+     * @param contents   The contents of the file.
+     * @param chunkBytes The size of chunk to aim for, in bytes.
+     * @return The start (inclusive) and end (exclusive) of each chunk, which holds whole lines.
+     */
+    private static List<int[]> findLineChunks(MappedByteBuffer contents, int chunkBytes) {
+        int end = contents.capacity();
+        while (end > 0 && contents.get(end - 1) != '\n') {
+            end--;
+        }
+
+        List<int[]> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        while (chunkStart < end) {
+            int chunkEnd = Math.min(chunkStart + chunkBytes, end);
+            while (contents.get(chunkEnd - 1) != '\n') {
+                chunkEnd++;
+            }
+            chunks.add(new int[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    private static <E> ForkJoinTask<List<E>> submit(ForkJoinPool pool, MappedByteBuffer contents, int[] chunk,
+                                                    boolean lines, ObjectMapper objectMapper, ObjectReader reader) {
+        return pool.submit(() -> parseChunk(contents, chunk[0], chunk[1], lines, objectMapper, reader));
+    }
+
+    /**
+     * Parses the records in one chunk of a data file.
+     *
+     * @param contents     The contents of the file.
+     * @param start        The offset of the start of the chunk.
+     * @param end          The offset of the end of the chunk.
+     * @param lines        Whether the chunk holds one record per line, rather than records separated by commas.
+     * @param objectMapper The object mapper to create the parser with.
+     * @param reader       The reader for the records.
+     * @param <E>          The type of the records.
+     * @return The records in the chunk, in order.
+     * @throws IOException If the chunk could not be parsed.
+     */
+    private static <E> List<E> parseChunk(MappedByteBuffer contents, int start, int end, boolean lines,
+                                          ObjectMapper objectMapper, ObjectReader reader) throws IOException {
+        List<E> records = new ArrayList<>();
+        if (lines) {
+            // each line is a record of its own, so the chunk is read as a sequence of records
+            byte[] json = new byte[end - start];
+            contents.get(start, json, 0, end - start);
+            try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+                while (parser.nextToken() != null) {
+                    records.add(reader.readValue(parser));
+                }
+            }
+            return records;
+        }
+
+        // the records in a chunk are separated by commas, so the chunk is read as an array of its own
+        byte[] json = new byte[end - start + 2];
+        json[0] = '[';
+        contents.get(start, json, 1, end - start);
+        json[json.length - 1] = ']';
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                records.add(reader.readValue(parser));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Waits for a chunk to be parsed.
+     *
+     * @param task The task parsing the chunk.
+     * @param <E>  The type of the records.
+     * @return The records in the chunk.
+     * @throws IOException If the chunk could not be parsed.
+     */
+    private static <E> List<E> await(ForkJoinTask<List<E>> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading a data file");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Holds the pool that parses chunks, which is only created once a large file is read.
+     */
+    private static class PoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.softeng306.fileprocessing;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Persistence settings, read from system properties so that they can be changed with {@code -D}
+ * options on the command line without changing the data files.
+ */
+public final class PersistenceConfig {
+    /**
+     * Whether changes are written by a background thread instead of by the operation that made them.
+     */
+    public static final String WRITE_BEHIND_PROPERTY = "softeng306.persistence.writeBehind";
+
+    /**
+     * The longest time, in milliseconds, that the background writer holds a change before writing it.
+     */
+    public static final String WRITE_BEHIND_MAX_DELAY_PROPERTY = "softeng306.persistence.writeBehind.maxDelayMillis";
+
+    /**
+     * The number of committed operations after which the background writer writes without waiting longer.
+     */
+    public static final String WRITE_BEHIND_MAX_BATCH_PROPERTY = "softeng306.persistence.writeBehind.maxBatch";
+
+    /**
+     * The number of committed operations that may wait for the background writer before committing blocks.
+     */
+    public static final String WRITE_BEHIND_QUEUE_CAPACITY_PROPERTY = "softeng306.persistence.writeBehind.queueCapacity";
+
+    /**
+     * The format data files are written in, {@code json}, {@code ndjson} or {@code binary}. Files in
+     * any format can be read.
+     */
+    public static final String SNAPSHOT_FORMAT_PROPERTY = "softeng306.persistence.snapshotFormat";
+
+    /**
+     * Whether students, course registrations and marks are stored one record per line, so that a new
+     * one is added to its data file by appending a line, whatever format the other data files are in.
+     */
+    public static final String NDJSON_RECORDS_PROPERTY = "softeng306.persistence.ndjsonRecords";
+
+    /**
+     * The size, in bytes, from which a JSON or NDJSON data file is split into chunks that are parsed in parallel.
+     */
+    public static final String PARALLEL_LOAD_THRESHOLD_PROPERTY = "softeng306.persistence.parallelLoad.thresholdBytes";
+
+    /**
+     * Whether course registrations and marks are read from disk when they are needed, with only an
+     * index of where each one is stored held in memory.
+     */
+    public static final String PAGED_RECORDS_PROPERTY = "softeng306.persistence.pagedRecords";
+
+    /**
+     * The number of course registrations, and separately of marks, kept in memory when they are paged.
+     */
+    public static final String PAGED_RECORDS_CACHE_SIZE_PROPERTY = "softeng306.persistence.pagedRecords.cacheSize";
+
+    /**
+     * Whether students and courses are looked up through an index of their data files, and only all
+     * read from the data files once an operation needs every one of them.
+     */
+    public static final String INDEXED_ENTITIES_PROPERTY = "softeng306.persistence.indexedEntities";
+
+    /**
+     * The rate of false positives the Bloom filter in front of each index of students or courses is
+     * sized for. A lower rate answers more lookups of missing IDs without searching the index, at the
+     * cost of a bigger filter.
+     */
+    public static final String INDEX_FALSE_POSITIVE_RATE_PROPERTY =
+            "softeng306.persistence.indexedEntities.falsePositiveRate";
+
+    /**
+     * Whether the statistics of the Bloom filter in front of each index are printed when the program exits.
+     */
+    public static final String REPORT_INDEX_FILTER_STATS_PROPERTY =
+            "softeng306.persistence.indexedEntities.reportFilterStats";
+
+    /**
+     * Where entities are stored: {@code json} for the data files, or one of the repository backends
+     * {@code memory}, {@code snapshot}, {@code binary} and {@code journaled}.
+     */
+    public static final String STORAGE_BACKEND_PROPERTY = "softeng306.persistence.backend";
+
+    /**
+     * The name of the storage backend that keeps every entity in the data files.
+     */
+    public static final String JSON_BACKEND = "json";
+
+    /**
+     * The name of the storage backend that reads every entity from the data files and then only keeps
+     * it in memory, so that nothing is written.
+     */
+    public static final String MEMORY_BACKEND = "memory";
+
+    /**
+     * The name of the storage backend that rewrites a whole data file, in the format of
+     * {@link #SNAPSHOT_FORMAT_PROPERTY}, whenever one of its entities changes.
+     */
+    public static final String SNAPSHOT_BACKEND = "snapshot";
+
+    /**
+     * The name of the storage backend that rewrites a whole data file in the binary format whenever
+     * one of its entities changes.
+     */
+    public static final String BINARY_BACKEND = "binary";
+
+    /**
+     * The name of the storage backend that journals each change to an entity next to its data file,
+     * and only rewrites the data file once the journal is large.
+     */
+    public static final String JOURNALED_BACKEND = "journaled";
+
+    private static final List<String> STORAGE_BACKENDS = List.of(JSON_BACKEND, MEMORY_BACKEND, SNAPSHOT_BACKEND,
+            BINARY_BACKEND, JOURNALED_BACKEND);
+
+    private PersistenceConfig() { }
+
+    /**
+     * @return Whether changes are written by a background thread. Off by default.
+     */
+    public static boolean isWriteBehindEnabled() {
+        return Boolean.getBoolean(WRITE_BEHIND_PROPERTY);
+    }
+
+    /**
+     * @return The longest time, in milliseconds, that a change waits in the background writer.
+     */
+    public static long getWriteBehindMaxDelayMillis() {
+        return Long.getLong(WRITE_BEHIND_MAX_DELAY_PROPERTY, 50);
+    }
+
+    /**
+     * @return The number of committed operations the background writer coalesces into one write per file.
+     */
+    public static int getWriteBehindMaxBatch() {
+        return Integer.getInteger(WRITE_BEHIND_MAX_BATCH_PROPERTY, 256);
+    }
+
+    /**
+     * @return The capacity of the queue of committed operations waiting for the background writer.
+     */
+    public static int getWriteBehindQueueCapacity() {
+        return Integer.getInteger(WRITE_BEHIND_QUEUE_CAPACITY_PROPERTY, 1024);
+    }
+
+    /**
+     * @return The name of the format data files are written in. JSON by default, so that the files can be read by a human.
+     */
+    public static String getSnapshotFormat() {
+        return System.getProperty(SNAPSHOT_FORMAT_PROPERTY, JsonSnapshotCodec.NAME);
+    }
+
+    /**
+     * @return Whether students, course registrations and marks are stored one record per line. Off by
+     *         default, so that they are written in the format of the other data files.
+     */
+    public static boolean isNdjsonRecordsEnabled() {
+        return Boolean.getBoolean(NDJSON_RECORDS_PROPERTY);
+    }
+
+    /**
+     * @return The size, in bytes, from which a JSON or NDJSON data file is parsed on several threads.
+     *         8 MB by default.
+     */
+    public static long getParallelLoadThresholdBytes() {
+        return Long.getLong(PARALLEL_LOAD_THRESHOLD_PROPERTY, 8L * 1024 * 1024);
+    }
+
+    /**
+     * @return Whether course registrations and marks are paged in from disk. Off by default, so that
+     *         every record is held in memory.
+     */
+    public static boolean isPagedRecordsEnabled() {
+        return Boolean.getBoolean(PAGED_RECORDS_PROPERTY);
+    }
+
+    /**
+     * @return The number of paged records of each kind kept in memory. 10000 by default.
+     */
+    public static int getPagedRecordsCacheSize() {
+        return Integer.getInteger(PAGED_RECORDS_CACHE_SIZE_PROPERTY, 10000);
+    }
+
+    /**
+     * @return Whether students and courses are looked up through an index of their data files. Off by
+     *         default, so that every student and course is read when the program starts.
+     */
+    public static boolean isIndexedEntitiesEnabled() {
+        return Boolean.getBoolean(INDEXED_ENTITIES_PROPERTY);
+    }
+
+    /**
+     * @return The rate of false positives the Bloom filter of each index is sized for. 1% by default.
+     */
+    public static double getIndexFalsePositiveRate() {
+        double rate = Double.parseDouble(System.getProperty(INDEX_FALSE_POSITIVE_RATE_PROPERTY, "0.01"));
+        if (!(rate > 0 && rate < 1)) {
+            throw new IllegalArgumentException(
+                    INDEX_FALSE_POSITIVE_RATE_PROPERTY + " must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+
+    /**
+     * @return Whether the statistics of the Bloom filter of each index are printed to standard error
+     *         when the program exits. Off by default.
+     */
+    public static boolean isReportIndexFilterStatsEnabled() {
+        return Boolean.getBoolean(REPORT_INDEX_FILTER_STATS_PROPERTY);
+    }
+
+    /**
+     * Gets the storage backend. The repository backends read the data files without the journals of
+     * course registrations and marks the file processors keep next to them, so those journals are folded
+     * into the data files before a repository backend opens them, even if the program last exited
+     * without folding them itself.
+     *
+     * @return The name of the storage backend, in lower case. {@code json} by default.
+     * @throws IllegalArgumentException If there is no storage backend with the name that is set.
+     */
+    public static String getStorageBackend() {
+        String backend = System.getProperty(STORAGE_BACKEND_PROPERTY, JSON_BACKEND).toLowerCase(Locale.ROOT);
+        if (!STORAGE_BACKENDS.contains(backend)) {
+            throw new IllegalArgumentException("Unknown storage backend: " + backend);
+        }
+        return backend;
+    }
+
+}
@@ -1,13 +1,8 @@
 package com.softeng306.fileprocessing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.softeng306.domain.professor.IProfessor;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -19,27 +14,21 @@ public class ProfessorFileProcessor extends FileProcessor<IProfessor> {
     /**
      * The path to the file storing professor data.
      */
-    private static final String PROFESSOR_FILE_PATH = "data/professorFile.json";
+    static final String PROFESSOR_FILE_PATH = "data/professorFile.json";
 
     /**
-     * Loads a list of all the professors from {@value PROFESSOR_FILE_PATH}.
+     * Loads all the professors from {@value PROFESSOR_FILE_PATH}, handing each one to a sink as soon as it is read.
      *
-     * @return A list of all the professors loaded from the file.
+     * @param sink The sink to hand the professors to.
      */
     @Override
-    public List<IProfessor> loadFile() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        File professorFile = Paths.get(PROFESSOR_FILE_PATH).toFile();
-        ArrayList<IProfessor> allProfessors = new ArrayList<>();
-
+    public void loadFile(IRecordSink<? super IProfessor> sink) {
         try {
-            allProfessors = new ArrayList<>(Arrays.asList(objectMapper.readValue(professorFile, IProfessor[].class)));
+            readSnapshot(PROFESSOR_FILE_PATH, IProfessor.class, sink);
         } catch (IOException e) {
             System.out.println("Error occurs when loading professors.");
             e.printStackTrace();
         }
-
-        return allProfessors;
     }
 
     /**
@@ -0,0 +1,37 @@
+package com.softeng306.fileprocessing;
+
+import java.util.Map;
+
+/**
+ * Helper methods for reading the fields of on-disk records that may be stored either in the
+ * normalized format or in the legacy format that embeds whole objects.
+ * <p>
+ * Records bind their fields straight from the parser. A field that may hold an embedded object is
+ * bound as a plain value, which is a string in the normalized format and a map in the legacy format,
+ * so that records in the normalized format never build more than their own fields.
+ */
+final class RecordFields {
+
+    private RecordFields() { }
+
+    /**
+     * Reads a name that is either stored as a string, or inside an embedded object.
+     *
+     * @param value     The value to read from, as bound by Jackson.
+     * @param nameField The name field of the embedded object.
+     * @return The name, or null if there is none.
+     */
+    static String readName(Object value, String nameField) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Map) {
+            Object name = ((Map<?, ?>) value).get(nameField);
+            return name == null ? null : name.toString();
+        }
+
+        return value.toString();
+    }
+
+}
@@ -0,0 +1,324 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of records that have not yet been folded into a snapshot file.
+ * Each record is written as one line of compact JSON, so appending a record costs the same
+ * no matter how many records the snapshot already holds.
+ * <p>
+ * A journal is compacted in two steps: {@link #beginCompaction(String)} moves the current journal aside
+ * and returns its records so they can be folded into the snapshot, and {@link #finishCompaction()}
+ * discards the moved-aside journal once the snapshot has been written. The moved-aside journal starts
+ * with a line recording a digest of the snapshot it is to be folded into, so that a journal left behind
+ * by an interrupted compaction is only replayed if the snapshot is still the one it was not yet part of.
+ *
+ * @param <T> The type of record stored in the journal.
+ */
+public class RecordJournal<T> {
+    /**
+     * Suffix of the file holding a journal that is being folded into the snapshot.
+     */
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    /**
+     * Start of the first line of a moved-aside journal, followed by the digest of the snapshot as it was
+     * before the journal was folded into it.
+     */
+    private static final String BASE_SNAPSHOT_MARKER = "#base-snapshot ";
+
+    /**
+     * Digest recorded for a snapshot file that did not exist.
+     */
+    private static final String NO_SNAPSHOT = "none";
+
+    private final Path journalPath;
+    private final Path compactingPath;
+    private final ObjectReader recordReader;
+    private final ObjectWriter recordWriter;
+
+    /**
+     * The open journal stream, created lazily on the first append.
+     */
+    private OutputStream journalStream;
+
+    /**
+     * The number of records in the live journal.
+     */
+    private int size;
+
+    /**
+     * Creates a journal stored at the given path.
+     *
+     * @param journalFilePath The path to the journal file.
+     * @param recordType      The class of the records stored in the journal.
+     */
+    public RecordJournal(String journalFilePath, Class<T> recordType) {
+        this.journalPath = Paths.get(journalFilePath);
+        this.compactingPath = Paths.get(journalFilePath + COMPACTING_SUFFIX);
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.recordReader = objectMapper.readerFor(recordType);
+        this.recordWriter = objectMapper.writerFor(recordType);
+    }
+
+    /**
+     * Appends a single record to the end of the journal.
+     *
+     * @param record The record to append.
+     * @throws IOException If the record could not be written.
+     */
+    public synchronized void append(T record) throws IOException {
+        appendAll(List.of(record));
+    }
+
+    /**
+     * Appends several records to the end of the journal with a single write.
+     *
+     * @param records The records to append, in order.
+     * @throws IOException If the records could not be written.
+     */
+    public synchronized void appendAll(List<T> records) throws IOException {
+        if (journalStream == null) {
+            journalStream = new FileOutputStream(journalPath.toFile(), true);
+        }
+
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (T record : records) {
+            lines.write(recordWriter.writeValueAsBytes(record));
+            lines.write('\n');
+        }
+        journalStream.write(lines.toByteArray());
+        journalStream.flush();
+        size += records.size();
+    }
+
+    /**
+     * Reads every record that has been journaled but not yet folded into the snapshot.
+     * A journal left behind by an interrupted compaction is only replayed if the snapshot has not
+     * been rewritten since it was moved aside.
+     *
+     * @param snapshotPath The path to the snapshot file this journal belongs to.
+     * @return The journaled records, oldest first.
+     * @throws IOException If a journal file could not be read, or holds a corrupt record.
+     */
+    public synchronized List<T> replay(String snapshotPath) throws IOException {
+        List<T> records = new ArrayList<>(readUnfoldedRecords(Paths.get(snapshotPath)));
+        List<T> liveRecords = readRecords(journalPath);
+        size = liveRecords.size();
+        records.addAll(liveRecords);
+        return records;
+    }
+
+    /**
+     * @return The files the journal is stored in, which may not exist.
+     */
+    public List<Path> getPaths() {
+        return List.of(journalPath, compactingPath);
+    }
+
+    /**
+     * @return The number of records in the live journal.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Moves the live journal aside so that new records start a fresh journal while the moved
+     * records are folded into the snapshot.
+     *
+     * @param snapshotPath The path to the snapshot file the records will be folded into.
+     * @return The records that must be folded into the snapshot.
+     * @throws IOException If the journal could not be moved.
+     */
+    public synchronized List<T> beginCompaction(String snapshotPath) throws IOException {
+        closeStream();
+
+        Path snapshot = Paths.get(snapshotPath);
+        // an earlier compaction may have been interrupted before its snapshot was written
+        List<T> records = new ArrayList<>(readUnfoldedRecords(snapshot));
+        records.addAll(readRecords(journalPath));
+        size = 0;
+
+        if (records.isEmpty()) {
+            Files.deleteIfExists(compactingPath);
+        } else {
+            writeCompactingRecords(digestOf(snapshot), records);
+        }
+        Files.deleteIfExists(journalPath);
+        return records;
+    }
+
+    /**
+     * Discards the moved-aside journal after its records have been written to the snapshot.
+     *
+     * @throws IOException If the moved-aside journal could not be deleted.
+     */
+    public synchronized void finishCompaction() throws IOException {
+        Files.deleteIfExists(compactingPath);
+    }
+
+    /**
+     * Discards every journaled record. Used when the snapshot has been rewritten with the full
+     * contents of the store.
+     *
+     * @throws IOException If the journal files could not be deleted.
+     */
+    public synchronized void clear() throws IOException {
+        closeStream();
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(compactingPath);
+        size = 0;
+    }
+
+    /**
+     * Reads the records of a journal left behind by an interrupted compaction, unless the snapshot was
+     * written after it was moved aside, in which case its records are already in the snapshot.
+     *
+     * @param snapshotPath The path to the snapshot file.
+     * @return The records that are not yet in the snapshot.
+     * @throws IOException If the moved-aside journal or the snapshot could not be read.
+     */
+    private List<T> readUnfoldedRecords(Path snapshotPath) throws IOException {
+        if (!Files.exists(compactingPath)) {
+            return List.of();
+        }
+
+        String baseDigest;
+        try (BufferedReader reader = Files.newBufferedReader(compactingPath, StandardCharsets.UTF_8)) {
+            String firstLine = reader.readLine();
+            baseDigest = firstLine != null && firstLine.startsWith(BASE_SNAPSHOT_MARKER)
+                    ? firstLine.substring(BASE_SNAPSHOT_MARKER.length()) : null;
+        }
+        if (baseDigest == null) {
+            throw new IOException(compactingPath + " does not record the snapshot it belongs to.");
+        }
+
+        if (!baseDigest.equals(digestOf(snapshotPath))) {
+            return List.of();
+        }
+        return readRecords(compactingPath);
+    }
+
+    /**
+     * Reads the records in a journal file, one per line, skipping the line that records the snapshot of
+     * a moved-aside journal. A torn final line left by an interrupted append is ignored.
+     *
+     * @param path The journal file to read.
+     * @return The records in the file.
+     * @throws IOException If the file could not be read, or a line other than the last is not a record.
+     */
+    private List<T> readRecords(Path path) throws IOException {
+        List<T> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            IOException tornLine = null;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith(BASE_SNAPSHOT_MARKER)) {
+                    continue;
+                }
+                if (tornLine != null) {
+                    // the bad line was not the last, so it was not left by an interrupted append
+                    throw tornLine;
+                }
+
+                try {
+                    records.add(recordReader.readValue(line));
+                } catch (IOException e) {
+                    tornLine = new IOException("Corrupt record on line " + lineNumber + " of " + path + ".", e);
+                }
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Writes records to the moved-aside journal, replacing its contents, after a line recording the
+     * snapshot they are to be folded into.
+     *
+     * @param baseDigest The digest of the snapshot before the records are folded into it.
+     * @param records    The records to write.
+     * @throws IOException If the file could not be written.
+     */
+    private void writeCompactingRecords(String baseDigest, List<T> records) throws IOException {
+        AtomicSnapshotWriter.getInstance().write(compactingPath, out -> {
+            out.write((BASE_SNAPSHOT_MARKER + baseDigest + "\n").getBytes(StandardCharsets.UTF_8));
+            for (T record : records) {
+                out.write(recordWriter.writeValueAsBytes(record));
+                out.write('\n');
+            }
+        });
+    }
+
+    /**
+     * Computes the digest of a snapshot file, so that a moved-aside journal can tell whether it has been
+     * folded into the snapshot. The snapshot is always replaced as a whole, so it only keeps its digest
+     * if it has not been written since.
+     *
+     * @param snapshotPath The path to the snapshot file.
+     * @return The SHA-256 digest of the file in hex, or {@value NO_SNAPSHOT} if it does not exist.
+     * @throws IOException If the file could not be read.
+     */
+    private static String digestOf(Path snapshotPath) throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return NO_SNAPSHOT;
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(snapshotPath)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Closes the open journal stream, if any.
+     *
+     * @throws IOException If the stream could not be closed.
+     */
+    private void closeStream() throws IOException {
+        if (journalStream != null) {
+            journalStream.close();
+            journalStream = null;
+        }
+    }
+
+}
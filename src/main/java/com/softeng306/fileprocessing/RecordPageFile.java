@@ -0,0 +1,409 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A copy of the records of a data file, stored one record per line so that any single record can be
+ * read without reading the rest of the file.
+ * <p>
+ * Each record has a number, in the order the records are stored in the data file. Where each record
+ * is in the page file is held in memory along with the student and course it belongs to, and is saved
+ * in an index file next to the page file. The index remembers the size and modification time of the
+ * files the pages were copied from, and the pages are copied again if those files have changed since.
+ * <p>
+ * A changed record is appended to the end of the page file and keeps its number, so the space taken
+ * by the old copy is only reclaimed when the page file is rewritten.
+ *
+ * @param <R> The type of the records.
+ */
+final class RecordPageFile<R> {
+    private static final int INDEX_MAGIC = 0x50474958;
+    private static final int INDEX_VERSION = 1;
+    private static final String INDEX_SUFFIX = ".idx";
+
+    /**
+     * The offset of a record that has been numbered but not yet written.
+     */
+    private static final long NOT_WRITTEN = -1;
+
+    private static final ObjectMapper PAGE_MAPPER = new ObjectMapper();
+
+    private final Path pagePath;
+    private final Path indexPath;
+    private final ObjectReader recordReader;
+    private final ObjectWriter recordWriter;
+    private final Function<? super R, String> studentIdOf;
+    private final Function<? super R, String> courseIdOf;
+
+    private long[] offsets = new long[1024];
+    private int[] lengths = new int[1024];
+    private String[] studentIds = new String[1024];
+    private String[] courseIds = new String[1024];
+    private int count;
+
+    /**
+     * The total length of the latest copy of every record, which is less than the size of the page
+     * file once records have been changed.
+     */
+    private long liveBytes;
+
+    private FileChannel channel;
+
+    /**
+     * Whether the index in memory differs from the index file.
+     */
+    private boolean indexChanged;
+
+    /**
+     * The fingerprint of the source files when the page file was last known to match them.
+     */
+    private long[] sourceFingerprint;
+
+    /**
+     * @param pagePath    The path to the page file. The index is stored next to it.
+     * @param recordType  The type of the records.
+     * @param studentIdOf Gets the ID of the student of a record.
+     * @param courseIdOf  Gets the ID of the course of a record.
+     */
+    RecordPageFile(Path pagePath, Class<R> recordType, Function<? super R, String> studentIdOf,
+                   Function<? super R, String> courseIdOf) {
+        this.pagePath = pagePath;
+        this.indexPath = Paths.get(pagePath + INDEX_SUFFIX);
+        this.recordReader = PAGE_MAPPER.readerFor(recordType);
+        this.recordWriter = PAGE_MAPPER.writerFor(recordType);
+        this.studentIdOf = studentIdOf;
+        this.courseIdOf = courseIdOf;
+    }
+
+    /**
+     * Opens the page file, reading the saved index if it is still up to date with the source files,
+     * or copying every record into a new page file if it is not.
+     *
+     * @param sourcePaths The files the records are copied from.
+     * @param source      Reads every record from the source files, in order.
+     * @throws IOException If the files could not be read or written.
+     */
+    void open(List<Path> sourcePaths, IRecordSource<? extends R> source) throws IOException {
+        sourceFingerprint = fingerprint(sourcePaths);
+        if (!readIndex(sourceFingerprint)) {
+            rebuild(source);
+        }
+
+        channel = FileChannel.open(pagePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @return The number of records, including records that have been numbered but not yet written.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @param recordNumber The number of a record.
+     * @return The ID of the student of the record.
+     */
+    String getStudentId(int recordNumber) {
+        return studentIds[recordNumber];
+    }
+
+    /**
+     * @param recordNumber The number of a record.
+     * @return The ID of the course of the record.
+     */
+    String getCourseId(int recordNumber) {
+        return courseIds[recordNumber];
+    }
+
+    /**
+     * Numbers a new record that will be written later with {@link #write}.
+     *
+     * @param studentId The ID of the student of the record.
+     * @param courseId  The ID of the course of the record.
+     * @return The number of the record.
+     */
+    int reserve(String studentId, String courseId) {
+        return number(NOT_WRITTEN, 0, studentId, courseId);
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param recordNumber The number of the record.
+     * @return The record, or null if it has not been written yet.
+     * @throws IOException If the record could not be read.
+     */
+    R read(int recordNumber) throws IOException {
+        long offset = offsets[recordNumber];
+        if (offset == NOT_WRITTEN) {
+            return null;
+        }
+
+        return recordReader.readValue(readBytes(recordNumber));
+    }
+
+    /**
+     * Writes the latest copy of a record to the end of the page file.
+     *
+     * @param recordNumber The number of the record.
+     * @param record       The record.
+     * @throws IOException If the record could not be written.
+     */
+    void write(int recordNumber, R record) throws IOException {
+        byte[] bytes = recordWriter.writeValueAsBytes(record);
+        long offset = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+
+        if (offsets[recordNumber] != NOT_WRITTEN) {
+            liveBytes -= lengths[recordNumber];
+        }
+        offsets[recordNumber] = offset;
+        lengths[recordNumber] = bytes.length;
+        liveBytes += bytes.length;
+        indexChanged = true;
+    }
+
+    /**
+     * Saves the index, so that the page file can be used without copying the records again as long
+     * as the source files are not changed. The page file is rewritten first if most of it is taken by
+     * old copies of changed records. Nothing is saved if any record has not been written yet.
+     *
+     * @param sourcePaths The files the records are copied from, as they are now.
+     * @throws IOException If the page file or index could not be written.
+     */
+    void save(List<Path> sourcePaths) throws IOException {
+        for (int i = 0; i < count; i++) {
+            if (offsets[i] == NOT_WRITTEN) {
+                return;
+            }
+        }
+
+        if (channel.size() > 2 * (liveBytes + count)) {
+            rewritePages();
+            indexChanged = true;
+        }
+
+        long[] fingerprint = fingerprint(sourcePaths);
+        if (indexChanged || !Arrays.equals(fingerprint, sourceFingerprint)) {
+            writeIndex(fingerprint);
+            sourceFingerprint = fingerprint;
+            indexChanged = false;
+        }
+    }
+
+    /**
+     * Closes the page file.
+     *
+     * @throws IOException If the page file could not be closed.
+     */
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Reads the latest copy of a record as it is stored in the page file.
+     *
+     * @param recordNumber The number of a record that has been written.
+     * @return The stored record.
+     * @throws IOException If the record could not be read.
+     */
+    private byte[] readBytes(int recordNumber) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(lengths[recordNumber]);
+        long offset = offsets[recordNumber];
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + pagePath);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Copies every record into a new page file.
+     *
+     * @param source Reads every record, in order.
+     * @throws IOException If the records could not be read or the page file could not be written.
+     */
+    private void rebuild(IRecordSource<? extends R> source) throws IOException {
+        count = 0;
+        liveBytes = 0;
+        long[] position = {0};
+        // the same IDs appear in many records, so only one copy of each is kept
+        Map<String, String> ids = new HashMap<>();
+        Files.deleteIfExists(indexPath);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pagePath), 64 * 1024)) {
+            source.forEachRecord(record -> {
+                byte[] bytes = recordWriter.writeValueAsBytes(record);
+                out.write(bytes);
+                out.write('\n');
+                number(position[0], bytes.length, ids.computeIfAbsent(studentIdOf.apply(record), Function.identity()),
+                        ids.computeIfAbsent(courseIdOf.apply(record), Function.identity()));
+                liveBytes += bytes.length;
+                position[0] += bytes.length + 1;
+            });
+        }
+        indexChanged = true;
+    }
+
+    /**
+     * Rewrites the page file with only the latest copy of every record.
+     *
+     * @throws IOException If the page file could not be rewritten.
+     */
+    private void rewritePages() throws IOException {
+        long[] newOffsets = new long[offsets.length];
+        AtomicSnapshotWriter.getInstance().write(pagePath, out -> {
+            long position = 0;
+            for (int i = 0; i < count; i++) {
+                out.write(readBytes(i));
+                out.write('\n');
+                newOffsets[i] = position;
+                position += lengths[i] + 1;
+            }
+        });
+
+        channel.close();
+        channel = FileChannel.open(pagePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsets = newOffsets;
+    }
+
+    /**
+     * Reads the index file, if it exists and the source files have not changed since it was written.
+     *
+     * @param fingerprint The fingerprint of the source files as they are now.
+     * @return Whether the index was read.
+     * @throws IOException If the index file could not be read.
+     */
+    private boolean readIndex(long[] fingerprint) throws IOException {
+        if (!Files.exists(indexPath) || !Files.exists(pagePath)) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexPath), 64 * 1024))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return false;
+            }
+
+            long[] savedFingerprint = new long[in.readInt()];
+            for (int i = 0; i < savedFingerprint.length; i++) {
+                savedFingerprint[i] = in.readLong();
+            }
+            if (!Arrays.equals(savedFingerprint, fingerprint) || in.readLong() != Files.size(pagePath)) {
+                return false;
+            }
+
+            // the same IDs appear in many records, so only one copy of each is kept
+            Map<String, String> ids = new HashMap<>();
+            int savedCount = in.readInt();
+            count = 0;
+            liveBytes = 0;
+            for (int i = 0; i < savedCount; i++) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                String studentId = ids.computeIfAbsent(in.readUTF(), Function.identity());
+                String courseId = ids.computeIfAbsent(in.readUTF(), Function.identity());
+                number(offset, length, studentId, courseId);
+                liveBytes += length;
+            }
+        } catch (EOFException e) {
+            // the index was cut short, so the records are copied again
+            count = 0;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the index file.
+     *
+     * @param fingerprint The fingerprint of the source files the page file is a copy of.
+     * @throws IOException If the index file could not be written.
+     */
+    private void writeIndex(long[] fingerprint) throws IOException {
+        long pageSize = channel.size();
+        AtomicSnapshotWriter.getInstance().write(indexPath, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(INDEX_MAGIC);
+            data.writeInt(INDEX_VERSION);
+            data.writeInt(fingerprint.length);
+            for (long value : fingerprint) {
+                data.writeLong(value);
+            }
+            data.writeLong(pageSize);
+            data.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                data.writeLong(offsets[i]);
+                data.writeInt(lengths[i]);
+                data.writeUTF(studentIds[i]);
+                data.writeUTF(courseIds[i]);
+            }
+            data.flush();
+        });
+    }
+
+    /**
+     * Gives the next number to a record.
+     *
+     * @return The number of the record.
+     */
+    private int number(long offset, int length, String studentId, String courseId) {
+        if (count == offsets.length) {
+            int capacity = count * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            courseIds = Arrays.copyOf(courseIds, capacity);
+        }
+
+        offsets[count] = offset;
+        lengths[count] = length;
+        studentIds[count] = studentId;
+        courseIds[count] = courseId;
+        return count++;
+    }
+
+    /**
+     * @param paths Files that may not exist.
+     * @return The size and modification time of each file, or -1 for both if the file does not exist.
+     * @throws IOException If the attributes of a file could not be read.
+     */
+    private static long[] fingerprint(List<Path> paths) throws IOException {
+        long[] fingerprint = new long[paths.size() * 2];
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            boolean exists = Files.exists(path);
+            fingerprint[2 * i] = exists ? Files.size(path) : -1;
+            fingerprint[2 * i + 1] = exists ? Files.getLastModifiedTime(path).toMillis() : -1;
+        }
+        return fingerprint;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.softeng306.fileprocessing;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Sink for records that refer to entities still being loaded, which resolves each record as it is read
+ * once those entities have been loaded.
+ * <p>
+ * The wait for the entities runs on a thread of its own, so the file keeps being read meanwhile. The
+ * records read before the entities have been loaded are held back, but never more than a fixed number
+ * of them: once that many are held, reading waits for the entities too. Every later record is handed
+ * straight on, so the records are never all held at once.
+ *
+ * @param <R> The type of the records.
+ */
+final class ReferenceAwaitingSink<R> implements IRecordSink<R> {
+    /**
+     * The most records held back while the entities they refer to are loading.
+     */
+    private static final int MAX_HELD_RECORDS = 4096;
+
+    private final IRecordSink<R> resolvingSink;
+    private final FutureTask<Void> references;
+
+    /**
+     * The records held back, or null once the entities have been loaded and they have been handed on.
+     */
+    private List<R> heldRecords = new ArrayList<>();
+
+    /**
+     * Starts waiting for the entities the records refer to.
+     *
+     * @param resolvingSink   The sink that resolves the records, which may only be used once the
+     *                        entities have been loaded.
+     * @param awaitReferences Waits until the entities have been loaded.
+     */
+    ReferenceAwaitingSink(IRecordSink<R> resolvingSink, Runnable awaitReferences) {
+        this.resolvingSink = resolvingSink;
+        this.references = new FutureTask<>(awaitReferences, null);
+        Thread thread = new Thread(references, "await-references");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void accept(R record) throws IOException {
+        if (heldRecords != null) {
+            if (!references.isDone() && heldRecords.size() < MAX_HELD_RECORDS) {
+                heldRecords.add(record);
+                return;
+            }
+            release();
+        }
+        resolvingSink.accept(record);
+    }
+
+    /**
+     * Waits until the entities have been loaded and hands on the records still held back. Must be called
+     * once every record has been read, even if reading failed.
+     *
+     * @throws IOException If a record held back could not be handled.
+     */
+    void finish() throws IOException {
+        if (heldRecords != null) {
+            release();
+        }
+    }
+
+    private void release() throws IOException {
+        awaitReferences();
+        List<R> records = heldRecords;
+        heldRecords = null;
+        for (R record : records) {
+            resolvingSink.accept(record);
+        }
+    }
+
+    /**
+     * Waits for the entities, rethrowing anything that went wrong while loading them.
+     */
+    private void awaitReferences() {
+        try {
+            references.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the entities records refer to", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.softeng306.fileprocessing;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.courseregistration.ICourseRegistration;
+import com.softeng306.domain.mark.IStudentCourseMark;
+import com.softeng306.domain.professor.IProfessor;
+import com.softeng306.domain.student.IStudent;
+import com.softeng306.enums.Department;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Creates the repositories the managers store entities in, for the storage backend set in
+ * {@code PersistenceConfig}.
+ * <p>
+ * With the {@code json} backend the repositories are adapters over the file processors, so entities are
+ * stored exactly as they were before repositories existed.
+ * The {@code memory}, {@code snapshot}, {@code binary} and {@code journaled} backends are repositories
+ * that hold every entity in memory and store the data files themselves. The {@code memory} backend reads
+ * the data files through the file processors, and the others fold the journals of course registrations
+ * and marks into the data files before reading them.
+ */
+public final class Repositories {
+    /**
+     * The index of records about students in courses by the ID of their student.
+     */
+    public static final String STUDENT_ID_INDEX = "studentId";
+
+    /**
+     * The index of records about students in courses by the ID of their course.
+     */
+    public static final String COURSE_ID_INDEX = "courseId";
+
+    /**
+     * The index of courses and professors by the name of their department.
+     */
+    public static final String DEPARTMENT_INDEX = "department";
+
+    private Repositories() { }
+
+    /**
+     * @return The repository of students, keyed by student ID.
+     */
+    public static IRepository<String, IStudent> forStudents() {
+        RepositorySchema<String, IStudent, IStudent> schema = RepositorySchema.storedAsIs(IStudent.class,
+                IStudent::getStudentId);
+        if (isFileProcessorBackend()) {
+            StudentFileProcessor fileProcessor = new StudentFileProcessor();
+            return PersistenceConfig.isIndexedEntitiesEnabled()
+                    ? FileProcessorRepository.indexed(schema, fileProcessor)
+                    : new FileProcessorRepository<>(schema, fileProcessor);
+        }
+        return forBackend(schema, StudentFileProcessor.STUDENT_FILE_PATH, StudentFileProcessor::new, () -> { });
+    }
+
+    /**
+     * @return The repository of courses, keyed by course ID.
+     */
+    public static IRepository<String, ICourse> forCourses() {
+        RepositorySchema<String, ICourse, ICourse> schema = RepositorySchema.storedAsIs(ICourse.class,
+                ICourse::getCourseId).withIndex(DEPARTMENT_INDEX, course -> nameOf(course.getDepartment()));
+        if (isFileProcessorBackend()) {
+            CourseFileProcessor fileProcessor = new CourseFileProcessor();
+            return PersistenceConfig.isIndexedEntitiesEnabled()
+                    ? FileProcessorRepository.indexed(schema, fileProcessor)
+                    : new FileProcessorRepository<>(schema, fileProcessor);
+        }
+        return forBackend(schema, CourseFileProcessor.COURSE_FILE_PATH, CourseFileProcessor::new, () -> { });
+    }
+
+    /**
+     * @return The repository of professors, keyed by professor ID.
+     */
+    public static IRepository<String, IProfessor> forProfessors() {
+        RepositorySchema<String, IProfessor, IProfessor> schema = RepositorySchema.storedAsIs(IProfessor.class,
+                IProfessor::getProfessorId).withIndex(DEPARTMENT_INDEX,
+                professor -> nameOf(professor.getDepartment()));
+        if (isFileProcessorBackend()) {
+            return new FileProcessorRepository<>(schema, new ProfessorFileProcessor());
+        }
+        return forBackend(schema, ProfessorFileProcessor.PROFESSOR_FILE_PATH, ProfessorFileProcessor::new,
+                () -> { });
+    }
+
+    /**
+     * Creates the repository of course registrations. The stored registrations are read straight away,
+     * but only resolved once the students and courses they refer to have been loaded.
+     *
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     * @return The repository of course registrations, keyed by student and course.
+     */
+    public static IRepository<StudentCourseKey, ICourseRegistration> forCourseRegistrations(
+            Runnable awaitReferences) {
+        if (isFileProcessorBackend()) {
+            return new StudentCourseFileRepository<>(new CourseRegistrationFileProcessor(),
+                    courseRegistration -> courseRegistration.getStudent().getStudentId(),
+                    courseRegistration -> courseRegistration.getCourse().getCourseId(), awaitReferences);
+        }
+
+        RepositorySchema<StudentCourseKey, ICourseRegistration, CourseRegistrationRecord> schema =
+                new RepositorySchema<StudentCourseKey, ICourseRegistration, CourseRegistrationRecord>(
+                        CourseRegistrationRecord.class,
+                        courseRegistration -> new StudentCourseKey(courseRegistration.getStudent().getStudentId(),
+                                courseRegistration.getCourse().getCourseId()),
+                        record -> new StudentCourseKey(record.getStudentId(), record.getCourseId()),
+                        CourseRegistrationRecord::new, CourseRegistrationFileProcessor::resolve)
+                        .withIndex(STUDENT_ID_INDEX, courseRegistration -> courseRegistration.getStudent().getStudentId())
+                        .withIndex(COURSE_ID_INDEX, courseRegistration -> courseRegistration.getCourse().getCourseId());
+        foldJournal(new CourseRegistrationFileProcessor());
+        return forBackend(schema, CourseRegistrationFileProcessor.COURSE_REGISTRATION_FILE_PATH,
+                CourseRegistrationFileProcessor::new, awaitReferences);
+    }
+
+    /**
+     * Creates the repository of marks. The stored marks are read straight away, but only resolved once
+     * the students and courses they refer to have been loaded.
+     *
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     * @return The repository of marks, keyed by student and course.
+     */
+    public static IRepository<StudentCourseKey, IStudentCourseMark> forStudentCourseMarks(Runnable awaitReferences) {
+        if (isFileProcessorBackend()) {
+            return new StudentCourseFileRepository<>(new StudentCourseMarkFileProcessor(),
+                    studentCourseMark -> studentCourseMark.getStudent().getStudentId(),
+                    studentCourseMark -> studentCourseMark.getCourse().getCourseId(), awaitReferences);
+        }
+
+        RepositorySchema<StudentCourseKey, IStudentCourseMark, StudentCourseMarkRecord> schema =
+                new RepositorySchema<StudentCourseKey, IStudentCourseMark, StudentCourseMarkRecord>(
+                        StudentCourseMarkRecord.class,
+                        studentCourseMark -> new StudentCourseKey(studentCourseMark.getStudent().getStudentId(),
+                                studentCourseMark.getCourse().getCourseId()),
+                        record -> new StudentCourseKey(record.getStudentId(), record.getCourseId()),
+                        StudentCourseMarkRecord::new, StudentCourseMarkFileProcessor::resolve)
+                        .withIndex(STUDENT_ID_INDEX, studentCourseMark -> studentCourseMark.getStudent().getStudentId())
+                        .withIndex(COURSE_ID_INDEX, studentCourseMark -> studentCourseMark.getCourse().getCourseId());
+        foldJournal(new StudentCourseMarkFileProcessor());
+        return forBackend(schema, StudentCourseMarkFileProcessor.STUDENT_COURSE_MARK_FILE,
+                StudentCourseMarkFileProcessor::new, awaitReferences);
+    }
+
+    /**
+     * @return Whether entities are stored by the file processors, as they are with the {@code json} backend.
+     */
+    private static boolean isFileProcessorBackend() {
+        return PersistenceConfig.getStorageBackend().equals(PersistenceConfig.JSON_BACKEND);
+    }
+
+    /**
+     * Folds the journal a file processor keeps next to its data file into the data file, so that a
+     * repository backend that reads the data file on its own sees every record, including those
+     * journaled before the program last exited without folding them.
+     *
+     * @param fileProcessor The file processor that keeps the journal.
+     */
+    private static void foldJournal(IStudentCourseFileProcessor<?> fileProcessor) {
+        if (!PersistenceConfig.getStorageBackend().equals(PersistenceConfig.MEMORY_BACKEND)) {
+            fileProcessor.close();
+        }
+    }
+
+    /**
+     * Creates the repository of one of the repository backends.
+     *
+     * @param schema          The schema of the entities.
+     * @param filePath        The path to the data file of the entities.
+     * @param fileProcessor   Creates the file processor that the {@code memory} backend reads the
+     *                        entities with.
+     * @param awaitReferences Waits until the entities the stored entities refer to have been loaded.
+     */
+    private static <K, T, S> IRepository<K, T> forBackend(RepositorySchema<K, T, S> schema, String filePath,
+                                                          Supplier<? extends IFileProcessor<T>> fileProcessor,
+                                                          Runnable awaitReferences) {
+        switch (PersistenceConfig.getStorageBackend()) {
+            case PersistenceConfig.MEMORY_BACKEND:
+                List<T> entries = new ArrayList<>();
+                fileProcessor.get().loadFile(entries::add, awaitReferences);
+                return new InMemoryRepository<>(schema, entries);
+            case PersistenceConfig.BINARY_BACKEND:
+                return new SnapshotRepository<>(schema, filePath, SnapshotCodecs.forName(BinarySnapshotCodec.NAME),
+                        awaitReferences);
+            case PersistenceConfig.JOURNALED_BACKEND:
+                return new JournaledRepository<>(schema, filePath, SnapshotCodecs.configured(), awaitReferences);
+            default:
+                return new SnapshotRepository<>(schema, filePath, SnapshotCodecs.configured(), awaitReferences);
+        }
+    }
+
+    private static String nameOf(Department department) {
+        return department == null ? null : department.name();
+    }
+
+}
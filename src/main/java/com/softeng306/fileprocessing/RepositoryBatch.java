@@ -0,0 +1,160 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes to the entries of a repository that are applied and written together, in the order they
+ * were added to the batch.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ */
+public final class RepositoryBatch<K, T> {
+    private final List<Change<K, T>> changes = new ArrayList<>();
+
+    /**
+     * Adds a new entry to the batch.
+     *
+     * @param entry The new entry.
+     * @return This batch.
+     */
+    public RepositoryBatch<K, T> insert(T entry) {
+        changes.add(new Change<>(ChangeType.INSERT, entry, null));
+        return this;
+    }
+
+    /**
+     * Adds a changed entry to the batch.
+     *
+     * @param entry The changed entry.
+     * @return This batch.
+     */
+    public RepositoryBatch<K, T> update(T entry) {
+        changes.add(new Change<>(ChangeType.UPDATE, entry, null));
+        return this;
+    }
+
+    /**
+     * Adds the removal of the entries with a key to the batch.
+     *
+     * @param key The key of the entries to remove.
+     * @return This batch.
+     */
+    public RepositoryBatch<K, T> delete(K key) {
+        changes.add(new Change<>(ChangeType.DELETE, null, key));
+        return this;
+    }
+
+    /**
+     * Adds every change in another batch to the end of this one.
+     *
+     * @param later The changes to add.
+     */
+    void addAll(RepositoryBatch<K, T> later) {
+        changes.addAll(later.changes);
+    }
+
+    /**
+     * @return The number of changes in the batch.
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * @return Whether the batch holds no changes.
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @return Every change in the batch, in order.
+     */
+    List<Change<K, T>> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * @return Whether any change in the batch removes entries.
+     */
+    boolean hasDeletes() {
+        for (Change<K, T> change : changes) {
+            if (change.type == ChangeType.DELETE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The entries inserted by the batch, each once.
+     */
+    List<T> getInserted() {
+        return distinctEntries(ChangeType.INSERT, Map.of());
+    }
+
+    /**
+     * Gets the entries changed by the batch. New entries are written in their latest state, so
+     * entries inserted by the batch are not listed as changed as well.
+     *
+     * @return The entries changed but not inserted by the batch, each once.
+     */
+    List<T> getUpdated() {
+        Map<T, Boolean> inserted = new IdentityHashMap<>();
+        for (T entry : getInserted()) {
+            inserted.put(entry, true);
+        }
+        return distinctEntries(ChangeType.UPDATE, inserted);
+    }
+
+    private List<T> distinctEntries(ChangeType type, Map<T, Boolean> excluded) {
+        Map<T, Boolean> seen = new IdentityHashMap<>(excluded);
+        List<T> entries = new ArrayList<>();
+        for (Change<K, T> change : changes) {
+            if (change.type == type && seen.put(change.entry, true) == null) {
+                entries.add(change.entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * The kinds of change a batch can hold.
+     */
+    enum ChangeType {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * A single change in a batch: the entry for an insert or update, or the key for a delete.
+     */
+    static final class Change<K, T> {
+        private final ChangeType type;
+        private final T entry;
+        private final K key;
+
+        private Change(ChangeType type, T entry, K key) {
+            this.type = type;
+            this.entry = entry;
+            this.key = key;
+        }
+
+        ChangeType getType() {
+            return type;
+        }
+
+        T getEntry() {
+            return entry;
+        }
+
+        K getKey() {
+            return key;
+        }
+    }
+
+}
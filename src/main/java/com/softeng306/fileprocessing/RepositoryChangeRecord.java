@@ -0,0 +1,71 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * On-disk form of a change journaled by a {@code JournaledRepository}: the record of an inserted or
+ * updated entry in the form it is stored in, or the key of the entries that were deleted.
+ */
+public class RepositoryChangeRecord {
+    /**
+     * The change that inserts a new entry.
+     */
+    public static final String INSERT = "insert";
+
+    /**
+     * The change that replaces the entry with the same key.
+     */
+    public static final String UPDATE = "update";
+
+    /**
+     * The change that removes every entry with a key.
+     */
+    public static final String DELETE = "delete";
+
+    private String change;
+    private JsonNode record;
+    private JsonNode key;
+
+    /**
+     * Default constructor. Required for Jackson serialization.
+     */
+    public RepositoryChangeRecord() {
+
+    }
+
+    /**
+     * @param change The kind of change, one of {@value INSERT}, {@value UPDATE} or {@value DELETE}.
+     * @param record The stored record of the entry, or null for a delete.
+     * @param key    The key of the entries deleted, or null for an insert or update.
+     */
+    public RepositoryChangeRecord(String change, JsonNode record, JsonNode key) {
+        this.change = change;
+        this.record = record;
+        this.key = key;
+    }
+
+    public String getChange() {
+        return change;
+    }
+
+    public void setChange(String change) {
+        this.change = change;
+    }
+
+    public JsonNode getRecord() {
+        return record;
+    }
+
+    public void setRecord(JsonNode record) {
+        this.record = record;
+    }
+
+    public JsonNode getKey() {
+        return key;
+    }
+
+    public void setKey(JsonNode key) {
+        this.key = key;
+    }
+
+}
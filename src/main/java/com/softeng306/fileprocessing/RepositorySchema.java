@@ -0,0 +1,99 @@
+package com.softeng306.fileprocessing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Describes the entries of a repository: how their keys are found, which indexes they can be scanned
+ * by, and the form they are stored in on disk.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ * @param <S> The type of the records the entries are stored as, which may be the type of the entries.
+ */
+public final class RepositorySchema<K, T, S> {
+    private final Class<S> storedType;
+    private final Function<? super T, ? extends K> keyOf;
+    private final Function<? super S, ? extends K> storedKeyOf;
+    private final Function<? super T, ? extends S> toStoredForm;
+    private final Function<? super S, ? extends T> resolver;
+    private final Map<String, Function<? super T, String>> indexes = new LinkedHashMap<>();
+
+    /**
+     * @param storedType   The type of the records the entries are stored as.
+     * @param keyOf        Gets the key of an entry.
+     * @param storedKeyOf  Gets the key of a stored record.
+     * @param toStoredForm Converts an entry into the record it is stored as.
+     * @param resolver     Converts a stored record back into an entry, or returns null if the record
+     *                     cannot be resolved and should be skipped.
+     */
+    public RepositorySchema(Class<S> storedType, Function<? super T, ? extends K> keyOf,
+                            Function<? super S, ? extends K> storedKeyOf,
+                            Function<? super T, ? extends S> toStoredForm,
+                            Function<? super S, ? extends T> resolver) {
+        this.storedType = storedType;
+        this.keyOf = keyOf;
+        this.storedKeyOf = storedKeyOf;
+        this.toStoredForm = toStoredForm;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Creates the schema of entries that are stored as they are.
+     *
+     * @param type  The type of the entries.
+     * @param keyOf Gets the key of an entry.
+     * @param <K>   The type of the keys of the entries.
+     * @param <T>   The type of the entries.
+     * @return The schema.
+     */
+    public static <K, T> RepositorySchema<K, T, T> storedAsIs(Class<T> type, Function<? super T, ? extends K> keyOf) {
+        return new RepositorySchema<>(type, keyOf, keyOf, Function.identity(), Function.identity());
+    }
+
+    /**
+     * Adds an index the entries can be scanned by.
+     *
+     * @param name    The name of the index.
+     * @param valueOf Gets the value of an entry in the index, or null if the entry is not in the index.
+     * @return This schema.
+     */
+    public RepositorySchema<K, T, S> withIndex(String name, Function<? super T, String> valueOf) {
+        indexes.put(name, valueOf);
+        return this;
+    }
+
+    public Class<S> getStoredType() {
+        return storedType;
+    }
+
+    public K keyOf(T entry) {
+        return keyOf.apply(entry);
+    }
+
+    public K storedKeyOf(S record) {
+        return storedKeyOf.apply(record);
+    }
+
+    public S toStoredForm(T entry) {
+        return toStoredForm.apply(entry);
+    }
+
+    /**
+     * @param record A stored record.
+     * @return The entry for the record, or null if it cannot be resolved.
+     */
+    public T resolve(S record) {
+        return resolver.apply(record);
+    }
+
+    /**
+     * @return The indexes the entries can be scanned by, keyed by name.
+     */
+    public Map<String, Function<? super T, String>> getIndexes() {
+        return Collections.unmodifiableMap(indexes);
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The codecs that data files can be stored in. The format of a data file is detected from its first
+ * bytes when it is read, so files written in different formats can be read side by side.
+ */
+public final class SnapshotCodecs {
+    /**
+     * The number of bytes at the start of a data file that codecs inspect to recognise their format.
+     */
+    private static final int HEADER_LENGTH = 16;
+
+    private static final ISnapshotCodec JSON = new JsonSnapshotCodec();
+
+    /**
+     * The codecs, in the order they are asked to recognise a data file. NDJSON comes before JSON, which
+     * would also recognise a file starting with an object.
+     */
+    private static final List<ISnapshotCodec> codecs = new CopyOnWriteArrayList<>(List.of(new NdjsonSnapshotCodec(),
+            JSON, new BinarySnapshotCodec()));
+
+    private SnapshotCodecs() { }
+
+    /**
+     * Adds a codec, so that data files can be written in its format and files in its format are recognised.
+     *
+     * @param codec The codec to add.
+     */
+    public static void register(ISnapshotCodec codec) {
+        codecs.add(codec);
+    }
+
+    /**
+     * Gets the codec with the given name.
+     *
+     * @param name The name of the codec.
+     * @return The codec with the given name.
+     * @throws IllegalArgumentException If there is no codec with the given name.
+     */
+    public static ISnapshotCodec forName(String name) {
+        for (ISnapshotCodec codec : codecs) {
+            if (codec.getName().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown data file format: " + name);
+    }
+
+    /**
+     * @return The codec data files are written with, as set in {@code PersistenceConfig}.
+     */
+    public static ISnapshotCodec configured() {
+        return forName(PersistenceConfig.getSnapshotFormat());
+    }
+
+    /**
+     * Opens a data file for reading in whichever format it was written in.
+     * A file that no codec recognises is read as JSON.
+     *
+     * @param path         The data file to read.
+     * @param objectMapper The object mapper that values read from the parser are bound with.
+     * @return A parser over the contents of the file, which closes the file when it is closed.
+     * @throws IOException If the file could not be opened.
+     */
+    public static JsonParser openParser(Path path, ObjectMapper objectMapper) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(Files.newInputStream(path), HEADER_LENGTH);
+        try {
+            byte[] header = new byte[HEADER_LENGTH];
+            int length = in.readNBytes(header, 0, HEADER_LENGTH);
+            in.unread(header, 0, length);
+
+            return detect(header, length).createParser(objectMapper, in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the format a data file was written in.
+     *
+     * @param path The data file.
+     * @return The codec for the format of the file, or the JSON codec if no codec recognises it.
+     * @throws IOException If the file could not be read.
+     */
+    public static ISnapshotCodec codecOf(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] header = new byte[HEADER_LENGTH];
+            return detect(header, in.readNBytes(header, 0, HEADER_LENGTH));
+        }
+    }
+
+    /**
+     * @param header The first bytes of a data file.
+     * @param length The number of bytes in the header.
+     * @return The codec that recognises the header, or the JSON codec if none does.
+     */
+    private static ISnapshotCodec detect(byte[] header, int length) {
+        for (ISnapshotCodec codec : codecs) {
+            if (codec.canRead(header, length)) {
+                return codec;
+            }
+        }
+        return JSON;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command that converts data files between formats, for example to write the binary data files as
+ * JSON for a human to inspect or to export them.
+ * <p>
+ * Usage: {@code java -cp <jar> com.softeng306.fileprocessing.SnapshotConverter <format> <source> [<target>]},
+ * where the format is {@code json}, {@code ndjson} or {@code binary}. The source file may be in any
+ * format. If no target is given, the source file is replaced by the converted file.
+ */
+public class SnapshotConverter {
+
+    private SnapshotConverter() { }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: SnapshotConverter <json|ndjson|binary> <source file> [<target file>]");
+            System.exit(1);
+        }
+
+        try {
+            ISnapshotCodec codec = SnapshotCodecs.forName(args[0]);
+            Path source = Paths.get(args[1]);
+            Path target = args.length == 3 ? Paths.get(args[2]) : source;
+
+            convert(source, target, codec);
+            System.out.println("Converted " + source + " to " + codec.getName() + " in " + target + ".");
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println("Error in converting the data file.");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts a data file to another format. The data is copied token by token, so any data file
+     * can be converted without knowing what it holds.
+     *
+     * @param source The data file to convert, in any format.
+     * @param target The file to write the converted data file to, which may be the source file.
+     * @param codec  The codec for the format to convert to.
+     * @throws IOException If the source could not be read or the target could not be written.
+     */
+    public static void convert(Path source, Path target, ISnapshotCodec codec) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (JsonParser parser = SnapshotCodecs.openParser(source, objectMapper)) {
+            AtomicSnapshotWriter.getInstance().write(target, out -> {
+                try (JsonGenerator generator = codec.createGenerator(objectMapper, out)) {
+                    while (parser.nextToken() != null) {
+                        generator.copyCurrentStructure(parser);
+                    }
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.softeng306.fileprocessing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository that holds every entry in memory and writes them all to a data file whenever they change,
+ * in the format of a snapshot codec. With the JSON codec the data file is the same as the ones the file
+ * processors write, and with the binary codec it is smaller and faster to read.
+ *
+ * @param <K> The type of the keys of the entries.
+ * @param <T> The type of the entries.
+ * @param <S> The type of the records the entries are stored as.
+ */
+public class SnapshotRepository<K, T, S> extends InMemoryRepository<K, T> {
+    private final RepositorySchema<K, T, S> schema;
+    private final String filePath;
+    private final ISnapshotCodec codec;
+
+    /**
+     * Creates a repository for the data file at the given path, reading the entries already in it.
+     * A data file that does not exist is created when the first entry is written.
+     *
+     * @param schema   The schema of the entries.
+     * @param filePath The path to the data file.
+     * @param codec    The codec to write the data file with. It is read with whichever codec it was written with.
+     */
+    public SnapshotRepository(RepositorySchema<K, T, S> schema, String filePath, ISnapshotCodec codec) {
+        this(schema, filePath, codec, () -> { });
+    }
+
+    /**
+     * Creates a repository for the data file at the given path, reading the records already in it
+     * before the entities they refer to have been loaded and resolving them once they have.
+     *
+     * @param schema          The schema of the entries.
+     * @param filePath        The path to the data file.
+     * @param codec           The codec to write the data file with.
+     * @param awaitReferences Waits until the entities the records refer to have been loaded.
+     */
+    public SnapshotRepository(RepositorySchema<K, T, S> schema, String filePath, ISnapshotCodec codec,
+                              Runnable awaitReferences) {
+        this(schema, filePath, codec, resolve(schema, readRecords(schema, filePath), awaitReferences));
+    }
+
+    /**
+     * @param schema   The schema of the entries.
+     * @param filePath The path to the data file.
+     * @param codec    The codec to write the data file with.
+     * @param entries  The entries already stored, in order.
+     */
+    protected SnapshotRepository(RepositorySchema<K, T, S> schema, String filePath, ISnapshotCodec codec,
+                                 List<T> entries) {
+        super(schema, entries);
+        this.schema = schema;
+        this.filePath = filePath;
+        this.codec = codec;
+    }
+
+    /**
+     * Copies the stored form of every entry, which is written in place of the whole data file.
+     */
+    @Override
+    protected Runnable prepareWrite(RepositoryBatch<K, T> batch) {
+        List<S> records = storedRecords();
+        return () -> {
+            try {
+                writeSnapshot(records);
+            } catch (IOException e) {
+                System.out.println("Error in writing " + filePath + ".");
+                e.printStackTrace();
+            }
+        };
+    }
+
+    /**
+     * @return The stored form of every entry, in order. Must be called while holding the lock of the repository.
+     */
+    protected List<S> storedRecords() {
+        List<S> records = new ArrayList<>(entries().size());
+        for (T entry : entries()) {
+            records.add(schema.toStoredForm(entry));
+        }
+        return records;
+    }
+
+    /**
+     * Atomically replaces the contents of the data file.
+     *
+     * @param records The records to write, in order.
+     * @throws IOException If the data file could not be written.
+     */
+    protected void writeSnapshot(List<S> records) throws IOException {
+        FileProcessor.writeRecords(filePath, codec, sink -> {
+            for (S record : records) {
+                sink.accept(record);
+            }
+        });
+    }
+
+    /**
+     * @return The path to the data file.
+     */
+    protected String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Reads the records in a data file, in whichever format it was written in.
+     *
+     * @param schema   The schema of the entries stored in the file.
+     * @param filePath The path to the data file.
+     * @return The records, in order, or none if the file does not exist or could not be read.
+     */
+    static <S> List<S> readRecords(RepositorySchema<?, ?, S> schema, String filePath) {
+        return readRecords(filePath, schema.getStoredType());
+    }
+
+    /**
+     * Reads the records in a data file as a type, in whichever format it was written in.
+     *
+     * @param filePath   The path to the data file.
+     * @param recordType The type to read the records as.
+     * @return The records, in order, or none if the file does not exist or could not be read.
+     */
+    static <E> List<E> readRecords(String filePath, Class<E> recordType) {
+        List<E> records = new ArrayList<>();
+        if (!Files.exists(Paths.get(filePath))) {
+            return records;
+        }
+
+        try {
+            FileProcessor.readSnapshot(filePath, recordType, records::add);
+        } catch (IOException e) {
+            System.out.println("Error in reading " + filePath + ".");
+            e.printStackTrace();
+        }
+        return records;
+    }
+
+    /**
+     * Resolves stored records into entries once the entities they refer to have been loaded.
+     *
+     * @param schema          The schema of the entries.
+     * @param records         The records, in order.
+     * @param awaitReferences Waits until the entities the records refer to have been loaded.
+     * @return The entries, skipping records that could not be resolved.
+     */
+    static <T, S> List<T> resolve(RepositorySchema<?, T, S> schema, List<S> records, Runnable awaitReferences) {
+        awaitReferences.run();
+        List<T> entries = new ArrayList<>(records.size());
+        for (S record : records) {
+            T entry = schema.resolve(record);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+}
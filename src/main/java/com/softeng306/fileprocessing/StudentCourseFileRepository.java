@@ -0,0 +1,134 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Repository of records about students in courses that are stored by a file processor, held in
+ * memory or paged in from disk as the processor loads them. The records can be scanned by the ID of
+ * their student and by the ID of their course.
+ * <p>
+ * Scans return read-only views of the records rather than copies, so that paged records are only read
+ * as they are reached. Paged records cannot be deleted, and a rollback cannot undo their insertion.
+ *
+ * @param <T> The type of the records.
+ */
+class StudentCourseFileRepository<T> extends AbstractRepository<StudentCourseKey, T> {
+    private final IStudentCourseFileProcessor<T> fileProcessor;
+    private final IStudentCourseRecords<T> records;
+    private final Function<? super T, String> studentIdOf;
+    private final Function<? super T, String> courseIdOf;
+
+    /**
+     * Creates a repository holding the records stored by a file processor.
+     *
+     * @param fileProcessor   The file processor that stores the records.
+     * @param studentIdOf     Gets the ID of the student of a record.
+     * @param courseIdOf      Gets the ID of the course of a record.
+     * @param awaitReferences Waits until the students and courses the records refer to have been loaded.
+     */
+    StudentCourseFileRepository(IStudentCourseFileProcessor<T> fileProcessor, Function<? super T, String> studentIdOf,
+                                Function<? super T, String> courseIdOf, Runnable awaitReferences) {
+        this.fileProcessor = fileProcessor;
+        this.records = fileProcessor.loadRecords(awaitReferences);
+        this.studentIdOf = studentIdOf;
+        this.courseIdOf = courseIdOf;
+    }
+
+    @Override
+    public synchronized T get(StudentCourseKey key) {
+        return records.get(key.getStudentId(), key.getCourseId());
+    }
+
+    @Override
+    public synchronized boolean contains(StudentCourseKey key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized List<StudentCourseKey> scanKeys() {
+        Set<StudentCourseKey> keys = new LinkedHashSet<>();
+        for (T record : records.getAll()) {
+            keys.add(keyOf(record));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    @Override
+    public List<T> scanAll() {
+        return records.getAll();
+    }
+
+    @Override
+    public synchronized List<T> scanByIndex(String index, String value) {
+        if (Repositories.STUDENT_ID_INDEX.equals(index)) {
+            return records.getForStudent(value);
+        } else if (Repositories.COURSE_ID_INDEX.equals(index)) {
+            return records.getForCourse(value);
+        }
+        throw new IllegalArgumentException("No index named " + index);
+    }
+
+    @Override
+    protected Runnable applyInsert(T record) {
+        StudentCourseKey key = keyOf(record);
+        if (get(key) != null) {
+            throw new IllegalArgumentException("There is already a record for " + key);
+        }
+
+        records.add(record);
+        return () -> records.remove(key.getStudentId(), key.getCourseId());
+    }
+
+    @Override
+    protected Runnable applyUpdate(T record) {
+        StudentCourseKey key = keyOf(record);
+        T existing = get(key);
+        if (existing == null) {
+            throw new IllegalArgumentException("There is no record for " + key);
+        }
+
+        records.markModified(record);
+        if (existing == record) {
+            return () -> { };
+        }
+        return () -> records.markModified(existing);
+    }
+
+    @Override
+    protected Runnable applyDelete(StudentCourseKey key) {
+        List<T> removed = records.remove(key.getStudentId(), key.getCourseId());
+        return () -> removed.forEach(records::add);
+    }
+
+    /**
+     * Writes the new and changed records in a single batch, or rewrites every record if any were deleted.
+     */
+    @Override
+    protected Runnable prepareWrite(RepositoryBatch<StudentCourseKey, T> batch) {
+        if (batch.hasDeletes()) {
+            List<T> allRecords = new ArrayList<>(records.getAll());
+            return () -> fileProcessor.updateFileContents(allRecords);
+        }
+
+        List<T> newRecords = batch.getInserted();
+        List<T> modifiedRecords = batch.getUpdated();
+        return () -> fileProcessor.writeChangesToFile(newRecords, modifiedRecords);
+    }
+
+    /**
+     * Closes the file processor, so that it writes out anything it still holds outside its data file.
+     */
+    @Override
+    public void close() {
+        fileProcessor.close();
+    }
+
+    private StudentCourseKey keyOf(T record) {
+        return new StudentCourseKey(studentIdOf.apply(record), courseIdOf.apply(record));
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.softeng306.fileprocessing;
+
+import java.util.Objects;
+
+/**
+ * The key of a record about a student in a course, such as a course registration or the student's
+ * marks for the course.
+ */
+public final class StudentCourseKey {
+    private final String studentId;
+    private final String courseId;
+
+    /**
+     * @param studentId The ID of the student.
+     * @param courseId  The ID of the course.
+     */
+    public StudentCourseKey(String studentId, String courseId) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof StudentCourseKey)) {
+            return false;
+        }
+        StudentCourseKey key = (StudentCourseKey) other;
+        return Objects.equals(studentId, key.studentId) && Objects.equals(courseId, key.courseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(studentId, courseId);
+    }
+
+    @Override
+    public String toString() {
+        return studentId + "/" + courseId;
+    }
+
+}
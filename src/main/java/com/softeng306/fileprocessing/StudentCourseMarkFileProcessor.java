@@ -1,63 +1,191 @@
 package com.softeng306.fileprocessing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softeng306.domain.exceptions.CourseNotFoundException;
+import com.softeng306.domain.exceptions.StudentNotFoundException;
 import com.softeng306.domain.mark.IStudentCourseMark;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Concrete implementation a file processor for marks. Used to write mark data
- * to and from a file. This class extends {@code FileProcessor}
+ * to and from a file. Marks are stored as {@code StudentCourseMarkRecord}s, which refer to students,
+ * courses and components by ID or name.
+ * New and changed mark records are appended to a journal next to the snapshot file, where a later
+ * record for a student and course replaces any earlier one. The journal is folded back into the
+ * snapshot in the background once it grows large enough, and when the processor is closed. When marks
+ * are stored one record per line,
+ * new marks are appended to the snapshot file itself, and only changed marks are journaled.
+ * When marks are paged, they are also copied into a page file next to the snapshot file.
+ * This class extends {@code FileProcessor}
  */
-public class StudentCourseMarkFileProcessor extends FileProcessor<IStudentCourseMark> {
+public class StudentCourseMarkFileProcessor extends FileProcessor<IStudentCourseMark>
+        implements IStudentCourseFileProcessor<IStudentCourseMark> {
     /**
      * The path to the file for mark data.
      */
-    private static final String STUDENT_COURSE_MARK_FILE = "data/studentCourseMarkFile.json";
+    static final String STUDENT_COURSE_MARK_FILE = "data/studentCourseMarkFile.json";
 
     /**
-     * Loads a list of all the marks from {@value STUDENT_COURSE_MARK_FILE}.
+     * Path to the journal of mark records not yet written to {@value STUDENT_COURSE_MARK_FILE}.
+     */
+    private static final String STUDENT_COURSE_MARK_JOURNAL = "data/studentCourseMarkFile.journal";
+
+    /**
+     * Path to the page file marks are read from when they are paged.
+     */
+    private static final String STUDENT_COURSE_MARK_PAGES = "data/studentCourseMarkFile.pages";
+
+    /**
+     * The number of journaled mark records that triggers a background compaction.
+     */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private static final Function<IStudentCourseMark, String> STUDENT_ID_OF =
+            studentCourseMark -> studentCourseMark.getStudent().getStudentId();
+
+    private static final Function<IStudentCourseMark, String> COURSE_ID_OF =
+            studentCourseMark -> studentCourseMark.getCourse().getCourseId();
+
+    private final RecordJournal<StudentCourseMarkRecord> journal =
+            new RecordJournal<>(STUDENT_COURSE_MARK_JOURNAL, StudentCourseMarkRecord.class);
+
+    /**
+     * The paged marks, or null if the marks are held in memory.
+     */
+    private volatile PagedStudentCourseRecords<IStudentCourseMark, StudentCourseMarkRecord> pagedRecords;
+
+    /**
+     * Guards the snapshot file so that it is never read while a compaction is rewriting it.
+     */
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Whether a journal left behind by an interrupted compaction has been folded into the snapshot,
+     * which must happen before marks are appended to the snapshot itself. Guarded by {@code snapshotLock}.
+     */
+    private boolean interruptedCompactionFolded;
+
+    /**
+     * Creates a mark file processor.
+     */
+    public StudentCourseMarkFileProcessor() {
+        if (PersistenceConfig.isNdjsonRecordsEnabled()) {
+            setSnapshotCodec(SnapshotCodecs.forName(NdjsonSnapshotCodec.NAME));
+        }
+    }
+
+    /**
+     * Loads all the marks from {@value STUDENT_COURSE_MARK_FILE}, with the changes replayed from
+     * {@value STUDENT_COURSE_MARK_JOURNAL} applied. Each record is resolved and handed to the sink as
+     * soon as it is read, so the records themselves are never all held at once.
      *
-     * @return A list of all the marks that is loaded from the file.
+     * @param sink The sink to hand the marks to.
      */
     @Override
-    public List<IStudentCourseMark> loadFile() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        File studentCourseMarkFile = Paths.get(STUDENT_COURSE_MARK_FILE).toFile();
-        ArrayList<IStudentCourseMark> allStudentMarks = new ArrayList<>();
+    public void loadFile(IRecordSink<? super IStudentCourseMark> sink) {
+        IRecordSink<StudentCourseMarkRecord> resolvingSink = resolvingSink(sink);
+        synchronized (snapshotLock) {
+            try {
+                readMergedRecords(journal.replay(STUDENT_COURSE_MARK_FILE), resolvingSink);
+            } catch (IOException e) {
+                System.out.println("Error occurs when loading student marks.");
+                e.printStackTrace();
+            }
+        }
+    }
 
+    /**
+     * Reads the mark records from {@value STUDENT_COURSE_MARK_FILE}, with the changes replayed from
+     * {@value STUDENT_COURSE_MARK_JOURNAL} applied, while the students and courses they refer to are
+     * still loading, holding back a bounded number of them, then resolves each record as it is read once
+     * the students and courses have been loaded.
+     *
+     * @param sink            The sink to hand the marks to.
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     */
+    @Override
+    public void loadFile(IRecordSink<? super IStudentCourseMark> sink, Runnable awaitReferences) {
+        ReferenceAwaitingSink<StudentCourseMarkRecord> awaitingSink =
+                new ReferenceAwaitingSink<>(resolvingSink(sink), awaitReferences);
         try {
-            allStudentMarks = new ArrayList<>(
-                    Arrays.asList(objectMapper.readValue(studentCourseMarkFile, IStudentCourseMark[].class)));
+            try {
+                synchronized (snapshotLock) {
+                    readMergedRecords(journal.replay(STUDENT_COURSE_MARK_FILE), awaitingSink);
+                }
+            } finally {
+                awaitingSink.finish();
+            }
         } catch (IOException e) {
             System.out.println("Error occurs when loading student marks.");
             e.printStackTrace();
         }
+    }
+
+    /**
+     * Loads the marks from {@value STUDENT_COURSE_MARK_FILE} and {@value STUDENT_COURSE_MARK_JOURNAL}.
+     * When marks are paged, {@value STUDENT_COURSE_MARK_PAGES} is only copied from those files again
+     * if they have changed since it was last saved.
+     *
+     * @param awaitReferences Waits until the students and courses have been loaded.
+     * @return The marks.
+     */
+    @Override
+    public IStudentCourseRecords<IStudentCourseMark> loadRecords(Runnable awaitReferences) {
+        if (PersistenceConfig.isPagedRecordsEnabled()) {
+            RecordPageFile<StudentCourseMarkRecord> pages = new RecordPageFile<>(
+                    Paths.get(STUDENT_COURSE_MARK_PAGES), StudentCourseMarkRecord.class,
+                    StudentCourseMarkRecord::getStudentId, StudentCourseMarkRecord::getCourseId);
+            try {
+                synchronized (snapshotLock) {
+                    pages.open(sourcePaths(), sink -> readMergedRecords(journal.replay(STUDENT_COURSE_MARK_FILE), sink));
+                }
+
+                awaitReferences.run();
+                pagedRecords = new PagedStudentCourseRecords<>(pages, STUDENT_ID_OF, COURSE_ID_OF,
+                        StudentCourseMarkRecord::new, StudentCourseMarkFileProcessor::resolve,
+                        PersistenceConfig.getPagedRecordsCacheSize());
+                return pagedRecords;
+            } catch (IOException e) {
+                System.out.println("Error occurs when paging student marks.");
+                e.printStackTrace();
+            }
+        }
 
-        return allStudentMarks;
+        StudentCourseRecords<IStudentCourseMark> records = new StudentCourseRecords<>(STUDENT_ID_OF, COURSE_ID_OF);
+        loadFile(records::add, awaitReferences);
+        return records;
     }
 
     /**
-     * Writes a new mark into {@value STUDENT_COURSE_MARK_FILE}.
+     * Appends a new mark to {@value STUDENT_COURSE_MARK_JOURNAL}, or to {@value STUDENT_COURSE_MARK_FILE}
+     * when it is stored one record per line.
      *
      * @param studentCourseMark The new studentCourseMark to write to the file
      */
     @Override
     public void writeNewEntryToFile(IStudentCourseMark studentCourseMark) {
-        try {
-            List<IStudentCourseMark> studentCourseMarks = loadFile();
-            studentCourseMarks.add(studentCourseMark);
+        appendToJournal(List.of(studentCourseMark), List.of(), "Error in adding a studentCourseMark to the file.");
+    }
 
-            writeToFile(STUDENT_COURSE_MARK_FILE, studentCourseMarks);
-        } catch (IOException e) {
-            System.out.println("Error in adding a studentCourseMark to the file.");
-            e.printStackTrace();
-        }
+    /**
+     * Appends new marks and the current state of changed marks to {@value STUDENT_COURSE_MARK_JOURNAL}.
+     * When {@value STUDENT_COURSE_MARK_FILE} is stored one record per line, the new marks are appended
+     * to it instead.
+     *
+     * @param newStudentCourseMarks      The marks that are not yet in the file.
+     * @param modifiedStudentCourseMarks The marks that have changed.
+     */
+    @Override
+    public void writeChangesToFile(List<IStudentCourseMark> newStudentCourseMarks,
+                                   List<IStudentCourseMark> modifiedStudentCourseMarks) {
+        appendToJournal(newStudentCourseMarks, modifiedStudentCourseMarks, "Error in backing up marks.");
     }
 
     /**
@@ -67,13 +195,197 @@ public class StudentCourseMarkFileProcessor extends FileProcessor<IStudentCourse
      */
     @Override
     public void updateFileContents(List<IStudentCourseMark> updatedStudentCourseMarks) {
+        synchronized (snapshotLock) {
+            try {
+                writeSnapshotToFile(STUDENT_COURSE_MARK_FILE, toStoredForm(updatedStudentCourseMarks));
+                journal.clear();
+            } catch (IOException e) {
+                System.out.println("Error in backing up marks.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Converts marks into the records stored on disk.
+     *
+     * @param studentCourseMarks The marks to convert.
+     * @return The records for the marks.
+     */
+    @Override
+    protected List<StudentCourseMarkRecord> toStoredForm(List<IStudentCourseMark> studentCourseMarks) {
+        List<StudentCourseMarkRecord> records = new ArrayList<>();
+        for (IStudentCourseMark studentCourseMark : studentCourseMarks) {
+            records.add(new StudentCourseMarkRecord(studentCourseMark));
+        }
+        return records;
+    }
+
+    /**
+     * Appends the records of marks to the journal, scheduling a compaction once the journal is large
+     * enough. When the snapshot is stored one record per line, the records of new marks are appended
+     * to the snapshot instead, converting it to that format first if it is not in it yet.
+     *
+     * @param newStudentCourseMarks      The marks that are not yet in the file.
+     * @param modifiedStudentCourseMarks The marks that have changed.
+     * @param errorMessage               The message to print if the records could not be written.
+     */
+    private void appendToJournal(List<IStudentCourseMark> newStudentCourseMarks,
+                                 List<IStudentCourseMark> modifiedStudentCourseMarks, String errorMessage) {
+        List<IStudentCourseMark> studentCourseMarks = new ArrayList<>(newStudentCourseMarks);
+        studentCourseMarks.addAll(modifiedStudentCourseMarks);
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.writeValue(Paths.get(STUDENT_COURSE_MARK_FILE).toFile(), updatedStudentCourseMarks);
+            if (getSnapshotCodec() instanceof NdjsonSnapshotCodec) {
+                if (!newStudentCourseMarks.isEmpty()) {
+                    synchronized (snapshotLock) {
+                        foldInterruptedCompaction();
+                        appendToSnapshot(STUDENT_COURSE_MARK_FILE, StudentCourseMarkRecord.class,
+                                toStoredForm(newStudentCourseMarks));
+                    }
+                }
+                if (!modifiedStudentCourseMarks.isEmpty()) {
+                    journal.appendAll(toStoredForm(modifiedStudentCourseMarks));
+                }
+            } else {
+                journal.appendAll(toStoredForm(studentCourseMarks));
+            }
+            PagedStudentCourseRecords<IStudentCourseMark, StudentCourseMarkRecord> paged = pagedRecords;
+            if (paged != null) {
+                paged.saved(studentCourseMarks);
+            }
         } catch (IOException e) {
-            System.out.println("Error in backing up marks.");
+            System.out.println(errorMessage);
             e.printStackTrace();
         }
+
+        if (journal.size() >= COMPACTION_THRESHOLD) {
+            JournalCompactor.getInstance().schedule(this::compact);
+        }
+    }
+
+    /**
+     * Folds the journal into the snapshot and saves the index of the page file, if marks are paged.
+     */
+    @Override
+    public void close() {
+        compact();
+
+        PagedStudentCourseRecords<IStudentCourseMark, StudentCourseMarkRecord> paged = pagedRecords;
+        if (paged != null) {
+            synchronized (snapshotLock) {
+                try {
+                    paged.close(sourcePaths());
+                } catch (IOException e) {
+                    System.out.println("Error in saving the index of marks.");
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds the journaled mark records into {@value STUDENT_COURSE_MARK_FILE}.
+     */
+    private void compact() {
+        synchronized (snapshotLock) {
+            try {
+                List<StudentCourseMarkRecord> journaled = journal.beginCompaction(STUDENT_COURSE_MARK_FILE);
+                if (!journaled.isEmpty()) {
+                    writeRecordsToFile(STUDENT_COURSE_MARK_FILE, sink -> readMergedRecords(journaled, sink));
+                }
+                journal.finishCompaction();
+            } catch (IOException e) {
+                System.out.println("Error in compacting marks.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Folds the journal into the snapshot the first time marks are appended to the snapshot, since a
+     * journal left behind by an interrupted compaction is only replayed while the snapshot is unchanged.
+     * Must be called while holding {@code snapshotLock}.
+     */
+    private void foldInterruptedCompaction() {
+        if (!interruptedCompactionFolded) {
+            compact();
+            interruptedCompactionFolded = true;
+        }
+    }
+
+    /**
+     * Reads the records from the snapshot with journaled mark records applied. A journaled record
+     * takes the place of the record for the same student and course, or follows the snapshot's
+     * records if there is none.
+     *
+     * @param journaled The journaled records, oldest first.
+     * @param sink      The sink to hand the merged records to, in order.
+     * @throws IOException If the snapshot could not be read or the sink failed.
+     */
+    private static void readMergedRecords(List<StudentCourseMarkRecord> journaled,
+                                          IRecordSink<? super StudentCourseMarkRecord> sink) throws IOException {
+        // a later journaled record for a student and course replaces an earlier one, but keeps its position
+        Map<List<String>, StudentCourseMarkRecord> pending = new LinkedHashMap<>();
+        for (StudentCourseMarkRecord record : journaled) {
+            pending.put(keyOf(record), record);
+        }
+
+        readSnapshot(STUDENT_COURSE_MARK_FILE, StudentCourseMarkRecord.class, record -> {
+            StudentCourseMarkRecord replacement = pending.isEmpty() ? null : pending.remove(keyOf(record));
+            sink.accept(replacement == null ? record : replacement);
+        });
+
+        for (StudentCourseMarkRecord record : pending.values()) {
+            sink.accept(record);
+        }
+    }
+
+    /**
+     * @return The files the marks are stored in.
+     */
+    private List<Path> sourcePaths() {
+        List<Path> sourcePaths = new ArrayList<>();
+        sourcePaths.add(Paths.get(STUDENT_COURSE_MARK_FILE));
+        sourcePaths.addAll(journal.getPaths());
+        return sourcePaths;
+    }
+
+    /**
+     * @param sink The sink to hand marks to.
+     * @return A sink that resolves records into marks and hands them to the given sink, skipping
+     *         records that refer to a student, course or component that does not exist.
+     */
+    private static IRecordSink<StudentCourseMarkRecord> resolvingSink(IRecordSink<? super IStudentCourseMark> sink) {
+        return record -> {
+            IStudentCourseMark studentCourseMark = resolve(record);
+            if (studentCourseMark != null) {
+                sink.accept(studentCourseMark);
+            }
+        };
+    }
+
+    /**
+     * Resolves a record into a mark.
+     *
+     * @param record The record to resolve.
+     * @return The mark, or null if the record refers to a student, course or component that does not exist.
+     */
+    static IStudentCourseMark resolve(StudentCourseMarkRecord record) {
+        try {
+            return record.toStudentCourseMark();
+        } catch (StudentNotFoundException | CourseNotFoundException | IllegalStateException e) {
+            System.out.println("Error occurs when resolving student marks.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param record A mark record.
+     * @return The key identifying the student and course of the record.
+     */
+    private static List<String> keyOf(StudentCourseMarkRecord record) {
+        return List.of(record.getStudentId(), record.getCourseId());
     }
 
 }
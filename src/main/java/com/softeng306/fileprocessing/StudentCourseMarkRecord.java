@@ -0,0 +1,161 @@
+package com.softeng306.fileprocessing;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.component.MainComponent;
+import com.softeng306.domain.course.component.SubComponent;
+import com.softeng306.domain.exceptions.CourseNotFoundException;
+import com.softeng306.domain.exceptions.StudentNotFoundException;
+import com.softeng306.domain.mark.IMainComponentMark;
+import com.softeng306.domain.mark.ISubComponentMark;
+import com.softeng306.domain.mark.IStudentCourseMark;
+import com.softeng306.domain.mark.MainComponentMark;
+import com.softeng306.domain.mark.StudentCourseMark;
+import com.softeng306.domain.mark.SubComponentMark;
+import com.softeng306.domain.student.IStudent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-disk form of a student's marks for a course.
+ * The student and course are stored by ID and each component by name, and are resolved against
+ * the canonical students and courses in the {@code EntityRegistry} when the record is loaded.
+ * <p>
+ * Records are also read from the legacy format, in which every mark record embeds a full copy of its
+ * student and course. The fields are bound straight from the parser in either format.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StudentCourseMarkRecord {
+
+    private String studentId;
+    private String courseId;
+    private List<ComponentMarkRecord> courseWorkMarks;
+    private double totalMark;
+
+    /**
+     * Default constructor. Required for Jackson serialization.
+     */
+    public StudentCourseMarkRecord() {
+
+    }
+
+    /**
+     * Creates the on-disk record for a student's marks in a course.
+     *
+     * @param studentCourseMark The marks to store.
+     */
+    public StudentCourseMarkRecord(IStudentCourseMark studentCourseMark) {
+        this.studentId = studentCourseMark.getStudent().getStudentId();
+        this.courseId = studentCourseMark.getCourse().getCourseId();
+        this.totalMark = studentCourseMark.getTotalMark();
+        this.courseWorkMarks = new ArrayList<>();
+        for (IMainComponentMark mainComponentMark : studentCourseMark.getCourseWorkMarks()) {
+            courseWorkMarks.add(new ComponentMarkRecord(mainComponentMark));
+        }
+    }
+
+    /**
+     * Reads the student of a record in the legacy format, which embeds a full copy of the student.
+     *
+     * @param student The embedded student.
+     */
+    @JsonSetter("student")
+    private void readEmbeddedStudent(Object student) {
+        studentId = RecordFields.readName(student, "studentId");
+    }
+
+    /**
+     * Reads the course of a record in the legacy format, which embeds a full copy of the course.
+     *
+     * @param course The embedded course.
+     */
+    @JsonSetter("course")
+    private void readEmbeddedCourse(Object course) {
+        courseId = RecordFields.readName(course, "courseId");
+    }
+
+    /**
+     * Resolves this record into marks that refer to the canonical student and course, and the
+     * components of that course.
+     *
+     * @return The marks described by this record.
+     * @throws StudentNotFoundException If the student of this record does not exist.
+     * @throws CourseNotFoundException  If the course of this record does not exist.
+     */
+    public IStudentCourseMark toStudentCourseMark() throws StudentNotFoundException, CourseNotFoundException {
+        IStudent student = EntityRegistry.getInstance().getStudent(studentId);
+        ICourse course = EntityRegistry.getInstance().getCourse(courseId);
+
+        List<IMainComponentMark> mainComponentMarks = new ArrayList<>();
+        for (ComponentMarkRecord courseWorkMark : courseWorkMarks) {
+            MainComponent mainComponent = findMainComponent(course, courseWorkMark.getComponentName());
+
+            List<ISubComponentMark> subComponentMarks = new ArrayList<>();
+            if (courseWorkMark.getSubComponentMarks() != null) {
+                for (ComponentMarkRecord subComponentMark : courseWorkMark.getSubComponentMarks()) {
+                    SubComponent subComponent = findSubComponent(mainComponent, subComponentMark.getComponentName());
+                    subComponentMarks.add(new SubComponentMark(subComponent, subComponentMark.getMark()));
+                }
+            }
+
+            mainComponentMarks.add(new MainComponentMark(mainComponent, courseWorkMark.getMark(), subComponentMarks));
+        }
+
+        return new StudentCourseMark(student, course, mainComponentMarks, totalMark);
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public List<ComponentMarkRecord> getCourseWorkMarks() {
+        return courseWorkMarks;
+    }
+
+    public double getTotalMark() {
+        return totalMark;
+    }
+
+    /**
+     * Finds the main component of a course with the given name.
+     *
+     * @param course        The course to search.
+     * @param componentName The name of the main component.
+     * @return The main component with the given name.
+     * @throws IllegalStateException If the course has no such component.
+     */
+    private static MainComponent findMainComponent(ICourse course, String componentName) {
+        for (MainComponent mainComponent : course.getMainComponents()) {
+            if (mainComponent.getName().equals(componentName)) {
+                return mainComponent;
+            }
+        }
+
+        throw new IllegalStateException("Course " + course.getCourseId() + " has no component " + componentName);
+    }
+
+    /**
+     * Finds the sub component of a main component with the given name.
+     *
+     * @param mainComponent The main component to search.
+     * @param componentName The name of the sub component.
+     * @return The sub component with the given name.
+     * @throws IllegalStateException If the main component has no such sub component.
+     */
+    private static SubComponent findSubComponent(MainComponent mainComponent, String componentName) {
+        for (SubComponent subComponent : mainComponent.getSubComponents()) {
+            if (subComponent.getName().equals(componentName)) {
+                return subComponent;
+            }
+        }
+
+        throw new IllegalStateException("Component " + mainComponent.getName() + " has no sub component " + componentName);
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Records about students in courses that are all held in memory, indexed by student and by course.
+ *
+ * @param <T> The type of the records.
+ */
+class StudentCourseRecords<T> implements IStudentCourseRecords<T> {
+    private final Function<? super T, String> studentIdOf;
+    private final Function<? super T, String> courseIdOf;
+
+    private final List<T> records = new ArrayList<>();
+
+    /**
+     * Index of the records, keyed by student ID and then by course ID.
+     */
+    private final Map<String, Map<String, T>> recordsByStudentAndCourse = new HashMap<>();
+
+    /**
+     * Index of the records of each student, keyed by student ID.
+     */
+    private final Map<String, List<T>> recordsByStudentId = new HashMap<>();
+
+    /**
+     * Index of the records of each course, keyed by course ID.
+     */
+    private final Map<String, List<T>> recordsByCourseId = new HashMap<>();
+
+    /**
+     * @param studentIdOf Gets the ID of the student of a record.
+     * @param courseIdOf  Gets the ID of the course of a record.
+     */
+    StudentCourseRecords(Function<? super T, String> studentIdOf, Function<? super T, String> courseIdOf) {
+        this.studentIdOf = studentIdOf;
+        this.courseIdOf = courseIdOf;
+    }
+
+    @Override
+    public void add(T record) {
+        String studentId = studentIdOf.apply(record);
+        String courseId = courseIdOf.apply(record);
+
+        records.add(record);
+        recordsByStudentAndCourse.computeIfAbsent(studentId, id -> new HashMap<>()).putIfAbsent(courseId, record);
+        recordsByStudentId.computeIfAbsent(studentId, id -> new ArrayList<>()).add(record);
+        recordsByCourseId.computeIfAbsent(courseId, id -> new ArrayList<>()).add(record);
+    }
+
+    /**
+     * {@inheritDoc} Records held in memory are changed in place, so there is nothing to do unless the
+     * record replaces a different record for its student and course.
+     */
+    @Override
+    public void markModified(T record) {
+        String studentId = studentIdOf.apply(record);
+        String courseId = courseIdOf.apply(record);
+        T existing = get(studentId, courseId);
+        if (existing == null || existing == record) {
+            return;
+        }
+
+        replace(records, existing, record);
+        replace(recordsByStudentId.get(studentId), existing, record);
+        replace(recordsByCourseId.get(courseId), existing, record);
+        recordsByStudentAndCourse.get(studentId).put(courseId, record);
+    }
+
+    @Override
+    public List<T> remove(String studentId, String courseId) {
+        List<T> removed = new ArrayList<>();
+        for (T record : getForStudent(studentId)) {
+            if (courseId.equals(courseIdOf.apply(record))) {
+                removed.add(record);
+            }
+        }
+        if (removed.isEmpty()) {
+            return removed;
+        }
+
+        for (T record : removed) {
+            records.removeIf(candidate -> candidate == record);
+            recordsByStudentId.get(studentId).removeIf(candidate -> candidate == record);
+            recordsByCourseId.get(courseId).removeIf(candidate -> candidate == record);
+        }
+        recordsByStudentAndCourse.get(studentId).remove(courseId);
+        return removed;
+    }
+
+    @Override
+    public T get(String studentId, String courseId) {
+        return recordsByStudentAndCourse.getOrDefault(studentId, Collections.emptyMap()).get(courseId);
+    }
+
+    @Override
+    public List<T> getForStudent(String studentId) {
+        return Collections.unmodifiableList(recordsByStudentId.getOrDefault(studentId, Collections.emptyList()));
+    }
+
+    @Override
+    public List<T> getForCourse(String courseId) {
+        return Collections.unmodifiableList(recordsByCourseId.getOrDefault(courseId, Collections.emptyList()));
+    }
+
+    @Override
+    public List<T> getAll() {
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Replaces a record in a list with another, comparing records by identity.
+     */
+    private static <T> void replace(List<T> list, T existing, T replacement) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == existing) {
+                list.set(i, replacement);
+                return;
+            }
+        }
+    }
+
+}
@@ -1,45 +1,60 @@
 package com.softeng306.fileprocessing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.softeng306.domain.student.IStudent;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Concrete implementation of a file processor for student data.
  * Used to read and write student data from a file.
- * This class extends {@code FileProcessor}
+ * This class extends {@code FileProcessor}, and can look up a single student through an index of the file.
+ * When students are stored one record per line, a new student is added by appending a line to the file.
  */
-public class StudentFileProcessor extends FileProcessor<IStudent> {
+public class StudentFileProcessor extends FileProcessor<IStudent> implements IIndexedFileProcessor<IStudent> {
     /**
      * Path to the file storing student data.
      */
-    private static final String STUDENT_FILE_PATH = "data/studentFile.json";
+    static final String STUDENT_FILE_PATH = "data/studentFile.json";
 
     /**
-     * Loads a list of all the students from {@value STUDENT_FILE_PATH}.
+     * The path to the file this processor reads and writes.
+     */
+    private final String studentFilePath;
+
+    /**
+     * Creates a processor for the student file at {@value STUDENT_FILE_PATH}.
+     */
+    public StudentFileProcessor() {
+        this(STUDENT_FILE_PATH);
+    }
+
+    /**
+     * Creates a processor for the student file at the given path.
      *
-     * @return A list of all the students loaded from the file.
+     * @param studentFilePath The path to the student file.
      */
-    @Override
-    public List<IStudent> loadFile() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        File studentFile = Paths.get(STUDENT_FILE_PATH).toFile();
-        ArrayList<IStudent> allStudents = new ArrayList<>();
+    public StudentFileProcessor(String studentFilePath) {
+        this.studentFilePath = studentFilePath;
+        if (PersistenceConfig.isNdjsonRecordsEnabled()) {
+            setSnapshotCodec(SnapshotCodecs.forName(NdjsonSnapshotCodec.NAME));
+        }
+    }
 
+    /**
+     * Loads all the students from {@value STUDENT_FILE_PATH}, handing each one to a sink as soon as it is read.
+     *
+     * @param sink The sink to hand the students to.
+     */
+    @Override
+    public void loadFile(IRecordSink<? super IStudent> sink) {
         try {
-            allStudents = new ArrayList<>(Arrays.asList(objectMapper.readValue(studentFile, IStudent[].class)));
+            readSnapshot(studentFilePath, IStudent.class, sink);
         } catch (IOException e) {
             System.out.println("Error occurs when loading students.");
             e.printStackTrace();
         }
-
-        return allStudents;
     }
 
     /**
@@ -50,10 +65,8 @@ public class StudentFileProcessor extends FileProcessor<IStudent> {
     @Override
     public void writeNewEntryToFile(IStudent student) {
         try {
-            List<IStudent> students = loadFile();
-            students.add(student);
-
-            writeToFile(STUDENT_FILE_PATH, students);
+            appendToSnapshot(studentFilePath, IStudent.class, List.of(student));
+            idIndexChanged(List.of(student.getStudentId()));
         } catch (IOException e) {
             System.out.println("Error in adding a student to the file.");
             e.printStackTrace();
@@ -68,12 +81,61 @@ public class StudentFileProcessor extends FileProcessor<IStudent> {
     @Override
     public void updateFileContents(List<IStudent> updatedStudents) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.writeValue(Paths.get(STUDENT_FILE_PATH).toFile(), updatedStudents);
+            writeSnapshotToFile(studentFilePath, updatedStudents);
+            idIndexChanged(updatedStudents.stream().map(IStudent::getStudentId).collect(Collectors.toList()));
         } catch (IOException e) {
             System.out.println("Error in backing up students.");
             e.printStackTrace();
         }
     }
 
+    /**
+     * Opens the index of {@value STUDENT_FILE_PATH} by student ID, building it first if it is missing or
+     * out of date.
+     *
+     * @return Whether the index was opened.
+     */
+    @Override
+    public boolean openIndex() {
+        try {
+            return openIdIndex(studentFilePath, "studentId");
+        } catch (IOException e) {
+            System.out.println("Error in indexing students.");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean containsId(String studentId) {
+        return indexContains(studentId);
+    }
+
+    /**
+     * Reads a single student from {@value STUDENT_FILE_PATH} through its index.
+     *
+     * @param studentId The ID of the student.
+     * @return The student, or null if there is no student with the ID or it could not be read.
+     */
+    @Override
+    public IStudent loadById(String studentId) {
+        try {
+            return readIndexedRecord(studentId, IStudent.class);
+        } catch (IOException e) {
+            System.out.println("Error in reading a student through the index.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public List<String> findIdsWithPrefix(String prefix) {
+        return indexedIdsWithPrefix(prefix);
+    }
+
+    @Override
+    public BloomFilterStats getExistenceFilterStats() {
+        return getIdIndexFilterStats();
+    }
+
 }
@@ -0,0 +1,253 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Groups the changes made during a single operation into one transaction on every repository the
+ * operation changes, and commits them together when the operation is done.
+ * Managers register every change they make with the unit of work instead of changing their
+ * repositories directly, so that no change is lost and each repository writes the changes of an
+ * operation with as few writes as its backend allows.
+ * <p>
+ * Each thread has a unit of work of its own, so the changes of an operation are never committed or
+ * rolled back by an operation running on another thread. The operation commits its unit of work once
+ * it has succeeded, or rolls it back if it failed, and the next change the thread makes starts a new one.
+ * <p>
+ * When write-behind is enabled in the {@code PersistenceConfig}, committing hands the changes to
+ * a background writer and returns straight away. {@link #awaitDurability()} waits until every
+ * committed change is on disk.
+ */
+public class UnitOfWork {
+
+    private static final ThreadLocal<UnitOfWork> currentUnitOfWork = ThreadLocal.withInitial(UnitOfWork::new);
+
+    /**
+     * The background writer shared by every unit of work, created the first time a unit of work is
+     * committed, or null if changes are written when they are committed.
+     */
+    private static WriteBehindWriter writeBehindWriter;
+
+    /**
+     * The repositories changed in this unit of work, in the order they were first changed.
+     */
+    private final Set<IRepository<?, ?>> changedRepositories = new LinkedHashSet<>();
+
+    /**
+     * The entries changed in place in this unit of work, with how to undo each change, in the order they
+     * were changed.
+     */
+    private final List<ChangeInPlace<?, ?>> changesInPlace = new ArrayList<>();
+
+    /**
+     * Override default constructor so that units of work are only started through {@link #current()}
+     */
+    private UnitOfWork() { }
+
+    /**
+     * Return the unit of work of the calling thread, starting a new one if the last one was committed or
+     * rolled back.
+     *
+     * @return UnitOfWork the unit of work of the calling thread
+     */
+    public static UnitOfWork current() {
+        return currentUnitOfWork.get();
+    }
+
+    /**
+     * Adds a new entry to a repository.
+     *
+     * @param repository The repository that stores the entry.
+     * @param newEntry   The new entry.
+     * @param <K>        The type of the key of the entry.
+     * @param <T>        The type of the entry.
+     * @throws IllegalArgumentException If the repository already holds an entry with the key of the new entry.
+     */
+    public <K, T> void registerNew(IRepository<K, T> repository, T newEntry) {
+        join(repository);
+        repository.insert(newEntry);
+    }
+
+    /**
+     * Records that an entry of a repository has been modified.
+     *
+     * @param repository The repository that stores the entry.
+     * @param dirtyEntry The modified entry.
+     * @param <K>        The type of the key of the entry.
+     * @param <T>        The type of the entry.
+     * @throws IllegalArgumentException If the repository holds no entry with the key of the modified entry.
+     */
+    public <K, T> void registerDirty(IRepository<K, T> repository, T dirtyEntry) {
+        join(repository);
+        repository.update(dirtyEntry);
+    }
+
+    /**
+     * Records that an entry of a repository has been modified in place, and how to undo the modification,
+     * so that rolling back this unit of work restores the entry as well.
+     *
+     * @param repository The repository that stores the entry.
+     * @param dirtyEntry The modified entry.
+     * @param undo       Undoes the modification, leaving any other change made to the entry since.
+     * @param <K>        The type of the key of the entry.
+     * @param <T>        The type of the entry.
+     * @throws IllegalArgumentException If the repository holds no entry with the key of the modified entry.
+     */
+    public <K, T> void registerDirty(IRepository<K, T> repository, T dirtyEntry, Runnable undo) {
+        changesInPlace.add(new ChangeInPlace<>(repository, dirtyEntry, undo));
+        registerDirty(repository, dirtyEntry);
+    }
+
+    /**
+     * Removes the entries with a key from a repository.
+     *
+     * @param repository The repository that stores the entries.
+     * @param key        The key of the entries to remove.
+     * @param <K>        The type of the key of the entries.
+     */
+    public <K> void registerDeleted(IRepository<K, ?> repository, K key) {
+        join(repository);
+        repository.delete(key);
+    }
+
+    /**
+     * Applies a batch of changes to a repository, so that they are written with the other changes of this
+     * unit of work without each being registered on its own.
+     *
+     * @param repository The repository that stores the entries.
+     * @param batch      The changes.
+     * @param <K>        The type of the keys of the entries.
+     * @param <T>        The type of the entries.
+     * @throws IllegalArgumentException If a change cannot be applied, in which case none of them are.
+     */
+    public <K, T> void registerBatch(IRepository<K, T> repository, RepositoryBatch<K, T> batch) {
+        join(repository);
+        repository.writeBatch(batch);
+    }
+
+    /**
+     * Commits the transaction of every changed repository, or hands them to the background writer,
+     * and ends this unit of work. If a repository cannot be written, the changes of the repositories
+     * not yet written are undone.
+     *
+     * @throws IllegalStateException If the changes could not be made durable.
+     */
+    public void commit() {
+        end();
+        changesInPlace.clear();
+        if (changedRepositories.isEmpty()) {
+            return;
+        }
+
+        List<IRepository<?, ?>> repositories = new ArrayList<>(changedRepositories);
+        changedRepositories.clear();
+
+        WriteBehindWriter writer = getWriteBehindWriter();
+        if (writer != null) {
+            writer.submit(repositories);
+            return;
+        }
+
+        for (int i = 0; i < repositories.size(); i++) {
+            try {
+                repositories.get(i).commitTransaction();
+            } catch (RuntimeException e) {
+                // the changes not yet written are undone, rather than left in the contents unwritten
+                repositories.subList(i + 1, repositories.size()).forEach(ITransactionHooks::rollbackTransaction);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Rolls back the transaction of every changed repository, undoing the changes made in this unit of
+     * work, and ends it. Entries that were changed in place are restored and written again, since another
+     * unit of work may have written them while they held the changes.
+     */
+    public void rollback() {
+        end();
+        for (int i = changesInPlace.size() - 1; i >= 0; i--) {
+            changesInPlace.get(i).undo.run();
+        }
+        for (IRepository<?, ?> repository : changedRepositories) {
+            repository.rollbackTransaction();
+        }
+        changedRepositories.clear();
+
+        UnitOfWork restored = new UnitOfWork();
+        for (ChangeInPlace<?, ?> change : changesInPlace) {
+            change.registerRestored(restored);
+        }
+        changesInPlace.clear();
+        restored.commit();
+    }
+
+    /**
+     * Commits this unit of work and waits until every committed change, of any thread, has been written
+     * to disk.
+     *
+     * @throws IllegalStateException If changes committed by the calling thread could not be written.
+     */
+    public void awaitDurability() {
+        commit();
+        WriteBehindWriter writer = getWriteBehindWriter();
+        if (writer != null) {
+            writer.awaitFlushed();
+        }
+    }
+
+    /**
+     * Opens a transaction on a repository the first time it is changed in this unit of work.
+     */
+    private void join(IRepository<?, ?> repository) {
+        if (changedRepositories.add(repository)) {
+            repository.beginTransaction();
+        }
+    }
+
+    /**
+     * Stops this unit of work being the one of the calling thread, so that its next change starts a new one.
+     */
+    private void end() {
+        if (currentUnitOfWork.get() == this) {
+            currentUnitOfWork.remove();
+        }
+    }
+
+    private static synchronized WriteBehindWriter getWriteBehindWriter() {
+        if (writeBehindWriter == null && PersistenceConfig.isWriteBehindEnabled()) {
+            writeBehindWriter = new WriteBehindWriter(PersistenceConfig.getWriteBehindQueueCapacity(),
+                    PersistenceConfig.getWriteBehindMaxDelayMillis(), PersistenceConfig.getWriteBehindMaxBatch());
+        }
+        return writeBehindWriter;
+    }
+
+    /**
+     * An entry changed in place in a unit of work, and how to undo the change.
+     */
+    private static final class ChangeInPlace<K, T> {
+        private final IRepository<K, T> repository;
+        private final T entry;
+        private final Runnable undo;
+
+        private ChangeInPlace(IRepository<K, T> repository, T entry, Runnable undo) {
+            this.repository = repository;
+            this.entry = entry;
+            this.undo = undo;
+        }
+
+        /**
+         * Registers the entry, once the change has been undone, as modified in another unit of work.
+         */
+        private void registerRestored(UnitOfWork unitOfWork) {
+            try {
+                unitOfWork.registerDirty(repository, entry);
+            } catch (IllegalArgumentException e) {
+                // the entry was added in the unit of work rolled back, so it is gone
+            }
+        }
+    }
+
+}
@@ -0,0 +1,256 @@
+package com.softeng306.fileprocessing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Background thread that writes committed changes to their repositories.
+ * Committed operations wait in a bounded queue, and the writer coalesces every operation that
+ * arrives within a short delay into a single write per repository. Committing blocks only when the
+ * queue is full.
+ * <p>
+ * A write that fails is reported to the threads that committed the changes it was writing, the next
+ * time each of them waits for its changes to be written.
+ */
+class WriteBehindWriter {
+
+    private final BlockingQueue<Batch> queue;
+    private final long maxDelayNanos;
+    private final int maxBatch;
+
+    /**
+     * Held while numbering and queueing a batch, so that batches are queued in sequence order.
+     */
+    private final Object enqueueLock = new Object();
+
+    /**
+     * The sequence number of the last batch submitted, guarded by {@code enqueueLock}.
+     */
+    private long submittedSequence;
+
+    /**
+     * The sequence number of the last batch written to disk, guarded by {@code this}.
+     */
+    private long flushedSequence;
+
+    /**
+     * The first write of the changes of each thread that failed since the thread last waited for its
+     * changes to be written, or null if none has failed.
+     */
+    private final ThreadLocal<AtomicReference<RuntimeException>> failures =
+            ThreadLocal.withInitial(AtomicReference::new);
+
+    /**
+     * Creates a writer and starts its thread.
+     *
+     * @param queueCapacity The number of committed operations that may wait to be written.
+     * @param maxDelayMillis The longest time a committed operation waits before it is written.
+     * @param maxBatch      The number of operations after which the writer stops waiting for more.
+     */
+    WriteBehindWriter(int queueCapacity, long maxDelayMillis, int maxBatch) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.maxBatch = maxBatch;
+
+        Thread thread = new Thread(this::run, "write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues the changes of one committed operation to be written. The transaction of each repository
+     * is closed straight away, and its changes are written later. Repositories whose changes cannot be
+     * detached from their transaction are committed straight away instead.
+     *
+     * @param repositories The repositories changed by the operation.
+     * @throws IllegalStateException If the thread was interrupted before the changes were queued, in which
+     *                               case they are not written.
+     */
+    void submit(List<IRepository<?, ?>> repositories) {
+        List<DetachedChanges<?, ?>> changes = new ArrayList<>();
+        for (IRepository<?, ?> repository : repositories) {
+            if (repository instanceof AbstractRepository) {
+                changes.add(DetachedChanges.detach((AbstractRepository<?, ?>) repository));
+            } else {
+                repository.commitTransaction();
+            }
+        }
+        enqueue(changes, false);
+    }
+
+    /**
+     * Blocks until every change submitted so far has been written to disk.
+     *
+     * @throws IllegalStateException If writing changes the calling thread submitted has failed since it
+     *                               last waited, or the thread was interrupted while waiting.
+     */
+    void awaitFlushed() {
+        long target = enqueue(List.of(), true);
+        synchronized (this) {
+            while (flushedSequence < target) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for changes to be written", e);
+                }
+            }
+        }
+
+        RuntimeException failure = failures.get().getAndSet(null);
+        if (failure != null) {
+            throw new IllegalStateException("Changes could not be written", failure);
+        }
+    }
+
+    /**
+     * Numbers a batch and puts it on the queue, waiting for space if the queue is full.
+     *
+     * @param changes  The changes in the batch.
+     * @param flushNow Whether the writer should write as soon as it reaches this batch.
+     * @return The sequence number of the batch.
+     * @throws IllegalStateException If the thread was interrupted while waiting for space.
+     */
+    private long enqueue(List<DetachedChanges<?, ?>> changes, boolean flushNow) {
+        synchronized (enqueueLock) {
+            Batch batch = new Batch(changes, submittedSequence + 1, flushNow, failures.get());
+            try {
+                queue.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing changes to be written", e);
+            }
+            submittedSequence = batch.sequence;
+            return batch.sequence;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                Batch first = queue.take();
+                List<Batch> batches = new ArrayList<>();
+                batches.add(first);
+                Map<AbstractRepository<?, ?>, DetachedChanges<?, ?>> coalesced = new LinkedHashMap<>();
+                long lastSequence = coalesce(coalesced, first);
+
+                boolean flushNow = first.flushNow;
+                long deadline = System.nanoTime() + maxDelayNanos;
+                for (int operations = 1; !flushNow && operations < maxBatch; operations++) {
+                    Batch next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batches.add(next);
+                    lastSequence = coalesce(coalesced, next);
+                    flushNow = next.flushNow;
+                }
+
+                flush(coalesced, batches);
+                synchronized (this) {
+                    flushedSequence = lastSequence;
+                    notifyAll();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static long coalesce(Map<AbstractRepository<?, ?>, DetachedChanges<?, ?>> coalesced, Batch batch) {
+        for (DetachedChanges<?, ?> changes : batch.changes) {
+            DetachedChanges earlier = coalesced.putIfAbsent(changes.repository, changes);
+            if (earlier != null) {
+                earlier.mergeLater(changes);
+            }
+        }
+        return batch.sequence;
+    }
+
+    /**
+     * Writes the coalesced changes of each repository. If a write fails, it is reported, and recorded for
+     * every thread that submitted changes to the repository, and the other repositories are still written.
+     *
+     * @param coalesced The changes to write, by repository.
+     * @param batches   The batches the changes came from.
+     */
+    private static void flush(Map<AbstractRepository<?, ?>, DetachedChanges<?, ?>> coalesced, List<Batch> batches) {
+        for (DetachedChanges<?, ?> changes : coalesced.values()) {
+            try {
+                changes.write();
+            } catch (RuntimeException e) {
+                System.out.println("Error in writing changes in the background.");
+                e.printStackTrace();
+                for (Batch batch : batches) {
+                    if (batch.hasChangesTo(changes.repository)) {
+                        batch.failure.compareAndSet(null, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The changes of one committed operation, numbered in the order they were submitted.
+     */
+    private static class Batch {
+        private final List<DetachedChanges<?, ?>> changes;
+        private final long sequence;
+        private final boolean flushNow;
+
+        /**
+         * Where a failure to write the changes is recorded for the thread that submitted them.
+         */
+        private final AtomicReference<RuntimeException> failure;
+
+        Batch(List<DetachedChanges<?, ?>> changes, long sequence, boolean flushNow,
+              AtomicReference<RuntimeException> failure) {
+            this.changes = changes;
+            this.sequence = sequence;
+            this.flushNow = flushNow;
+            this.failure = failure;
+        }
+
+        boolean hasChangesTo(AbstractRepository<?, ?> repository) {
+            return changes.stream().anyMatch(repositoryChanges -> repositoryChanges.repository == repository);
+        }
+    }
+
+    /**
+     * The changes one or more committed operations made to a repository, detached from its transaction.
+     */
+    private static final class DetachedChanges<K, T> {
+        private final AbstractRepository<K, T> repository;
+        private final RepositoryBatch<K, T> changes;
+
+        private DetachedChanges(AbstractRepository<K, T> repository, RepositoryBatch<K, T> changes) {
+            this.repository = repository;
+            this.changes = changes;
+        }
+
+        static <K, T> DetachedChanges<K, T> detach(AbstractRepository<K, T> repository) {
+            return new DetachedChanges<>(repository, repository.detachTransaction());
+        }
+
+        /**
+         * Adds the changes made after these, so that both are written together.
+         *
+         * @param laterChanges Changes to the same repository made after these.
+         */
+        void mergeLater(DetachedChanges<K, T> laterChanges) {
+            changes.addAll(laterChanges.changes);
+        }
+
+        void write() {
+            repository.writeDetached(changes);
+        }
+    }
+
+}
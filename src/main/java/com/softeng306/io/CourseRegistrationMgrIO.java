@@ -24,6 +24,11 @@ public class CourseRegistrationMgrIO implements ICourseRegistrationMgrIO {
         System.out.format("This course does not contain any %s group.%n", type);
     }
 
+    @Override
+    public void printGroupNotFound(String type, String groupName) {
+        System.out.format("This course does not contain the %s group %s.%n", type, groupName);
+    }
+
     @Override
     public void printNoRegistrationsForCourseMessage() {
         System.out.println("No one has registered this course yet.");
@@ -50,6 +55,16 @@ public class CourseRegistrationMgrIO implements ICourseRegistrationMgrIO {
         System.out.println("Sorry, the course has no vacancies any more.");
     }
 
+    @Override
+    public void printSeatsHeld() {
+        System.out.println("Sorry, the vacancies left are held by other registrations. Please try again shortly.");
+    }
+
+    @Override
+    public void printSeatHoldExpired() {
+        System.out.println("Sorry, the seats held for this registration have been given back as it took too long.");
+    }
+
     @Override
     public void printNoAssessmentMessage(String profName) {
         System.out.println("Professor " + profName + " is preparing the assessment. Please try to register other courses.");
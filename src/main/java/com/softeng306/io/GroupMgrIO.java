@@ -0,0 +1,34 @@
+package com.softeng306.io;
+
+import java.util.Scanner;
+
+/**
+ * Concrete implementation of {@code IGroupMgrIO}.
+ * Takes care of all the Input/Output processing needed by the IGroupMgr.
+ */
+public class GroupMgrIO implements IGroupMgrIO {
+    private Scanner reader = new Scanner(System.in);
+
+    @Override
+    public void printGroupsWithVacanciesHeader(String groupType) {
+        System.out.println("Here is a list of all the " + groupType + " groups with available slots:");
+    }
+
+    @Override
+    public void printGroupChoice(int choice, String groupName, int vacancies) {
+        System.out.println(choice + ": " + groupName + " (" + vacancies + " vacancies)");
+    }
+
+    @Override
+    public synchronized int readGroupChoice() {
+        System.out.println("Please enter an integer for your choice:");
+        int choice = reader.nextInt();
+        reader.nextLine();
+        return choice;
+    }
+
+    @Override
+    public void printInvalidGroupChoice() {
+        System.out.println("Invalid choice. Please re-enter.");
+    }
+}
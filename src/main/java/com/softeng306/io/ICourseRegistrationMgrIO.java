@@ -13,6 +13,11 @@ public interface ICourseRegistrationMgrIO {
      */
     void printContainsNoGroupMessage(String type);
 
+    /**
+     * When the course has no group of the given type with the given name, this method will be called
+     */
+    void printGroupNotFound(String type, String groupName);
+
     /**
      * When there are no registrations for a course, this method will print an error
      * to the user
@@ -39,6 +44,17 @@ public interface ICourseRegistrationMgrIO {
      */
     void printNoVacancies();
 
+    /**
+     * Displays the message given when the vacancies left in a course or a chosen group are all held by other
+     * registrations still being made.
+     */
+    void printSeatsHeld();
+
+    /**
+     * Displays the message given when the seats held for a registration were given back before it was made.
+     */
+    void printSeatHoldExpired();
+
     /**
      * Displays the message for course information when a course has no exam.
      */
@@ -0,0 +1,35 @@
+package com.softeng306.io;
+
+/**
+ * Interface for GroupMgrIO.
+ * Provides methods to let the user choose a lecture/tutorial/lab group.
+ */
+public interface IGroupMgrIO {
+    /**
+     * Prints the heading of the list of groups the user can choose from.
+     *
+     * @param groupType The type of the groups.
+     */
+    void printGroupsWithVacanciesHeader(String groupType);
+
+    /**
+     * Prints one of the groups the user can choose from.
+     *
+     * @param choice    The number the user enters to choose the group.
+     * @param groupName The name of the group.
+     * @param vacancies The number of vacancies left in the group.
+     */
+    void printGroupChoice(int choice, String groupName, int vacancies);
+
+    /**
+     * Prompts the user to choose a group.
+     *
+     * @return The number the user entered.
+     */
+    int readGroupChoice();
+
+    /**
+     * Tells the user that the group they chose does not exist.
+     */
+    void printInvalidGroupChoice();
+}
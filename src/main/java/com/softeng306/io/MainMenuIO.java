@@ -1,5 +1,7 @@
 package com.softeng306.io;
 
+import com.softeng306.fileprocessing.UnitOfWork;
+
 import java.util.Scanner;
 
 public class MainMenuIO {
@@ -51,6 +53,24 @@ public class MainMenuIO {
     }
 
     private static void executeUserChoice(int choice) {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        try {
+            runUserChoice(choice);
+        } catch (RuntimeException e) {
+            // an operation cut short saves none of its changes
+            unitOfWork.rollback();
+            throw e;
+        }
+        // save everything the operation changed, once
+        try {
+            unitOfWork.commit();
+        } catch (IllegalStateException e) {
+            System.out.println("Error in saving the changes of the operation.");
+            e.printStackTrace();
+        }
+    }
+
+    private static void runUserChoice(int choice) {
         // Choose command based on user input choice
         switch (choice) {
             case 0:
@@ -109,7 +129,8 @@ public class MainMenuIO {
     public static void exitApplication() {
 
         System.out.println("Backing up data before exiting...");
-        // we don't need to back up the data anymore
+        // wait for any changes still queued for the background writer
+        UnitOfWork.current().awaitDurability();
         System.out.println("********* Bye! Thank you for using Main! *********");
         System.out.println();
         System.out.println("                 ######    #      #   #######                   ");
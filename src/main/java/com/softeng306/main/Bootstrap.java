@@ -0,0 +1,130 @@
+package com.softeng306.main;
+
+import com.softeng306.managers.CourseMgr;
+import com.softeng306.managers.CourseRegistrationMgr;
+import com.softeng306.managers.ProfessorMgr;
+import com.softeng306.managers.StudentCourseMarkMgr;
+import com.softeng306.managers.StudentMgr;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads every store before the first command is run, so that no command stalls while a data file is read.
+ * <p>
+ * All five stores are loaded at the same time, each on its own thread. Course registrations and marks
+ * refer to students and courses, so their files are read straight away but their records are only
+ * resolved once the students and courses have been loaded. Startup therefore takes about as long as
+ * the slowest store rather than all of them one after another.
+ * <p>
+ * The time each store took to load is recorded, and is printed to standard error if the system property
+ * {@value REPORT_LOAD_TIMES_PROPERTY} is {@code true}.
+ */
+public class Bootstrap {
+    /**
+     * System property that turns on the report of how long each store took to load.
+     */
+    public static final String REPORT_LOAD_TIMES_PROPERTY = "softeng306.bootstrap.reportLoadTimes";
+
+    /**
+     * The time each store took to load, in the order the stores finished loading.
+     */
+    private static final Map<String, Duration> loadTimes = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private Bootstrap() { }
+
+    /**
+     * Loads every store, returning once all of them are ready to use.
+     */
+    public static void loadAll() {
+        long start = System.nanoTime();
+        Map<String, Runnable> stores = new LinkedHashMap<>();
+        stores.put("students", StudentMgr::getInstance);
+        stores.put("courses", CourseMgr::getInstance);
+        stores.put("professors", ProfessorMgr::getInstance);
+        stores.put("course registrations", CourseRegistrationMgr::getInstance);
+        stores.put("marks", StudentCourseMarkMgr::getInstance);
+
+        ExecutorService executor = Executors.newFixedThreadPool(stores.size(), runnable -> {
+            Thread thread = new Thread(runnable, "bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> loads = new ArrayList<>();
+            for (Map.Entry<String, Runnable> store : stores.entrySet()) {
+                loads.add(executor.submit(() -> load(store.getKey(), store.getValue())));
+            }
+
+            for (Future<?> load : loads) {
+                await(load);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        if (Boolean.getBoolean(REPORT_LOAD_TIMES_PROPERTY)) {
+            for (Map.Entry<String, Duration> loadTime : getLoadTimes().entrySet()) {
+                System.err.println("Loaded " + loadTime.getKey() + " in " + loadTime.getValue().toMillis() + " ms.");
+            }
+            System.err.println("Loaded everything in " + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms.");
+        }
+    }
+
+    /**
+     * Gets the time each store took to load. The time for course registrations and marks includes
+     * waiting for the students and courses they refer to.
+     *
+     * @return The time each store took to load, keyed by the name of the store.
+     */
+    public static Map<String, Duration> getLoadTimes() {
+        synchronized (loadTimes) {
+            return new LinkedHashMap<>(loadTimes);
+        }
+    }
+
+    /**
+     * Loads a store and records how long it took.
+     *
+     * @param name  The name of the store.
+     * @param store Loads the store.
+     */
+    private static void load(String name, Runnable store) {
+        Thread.currentThread().setName("bootstrap-" + name);
+        long start = System.nanoTime();
+        store.run();
+        loadTimes.put(name, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Waits for a store to load, rethrowing anything that went wrong while loading it.
+     *
+     * @param load The load of the store.
+     */
+    private static void await(Future<?> load) {
+        try {
+            load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the data files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+}
@@ -9,12 +9,14 @@ public class Main {
 
     /**
      * The main function of the system.
+     * Loads all the data files.
      * Prints the welcome message.
      * Starts the program.
      *
      * @param args The command line parameters.
      */
     public static void main(String[] args) {
+        Bootstrap.loadAll();
         MainMenuIO.printWelcome();
         MainMenuIO.startMainMenu();
     }
@@ -11,8 +11,11 @@ import com.softeng306.domain.course.component.SubComponent;
 import com.softeng306.enums.CourseType;
 import com.softeng306.enums.GroupType;
 
-import com.softeng306.fileprocessing.CourseFileProcessor;
-import com.softeng306.fileprocessing.IFileProcessor;
+import com.softeng306.fileprocessing.EntityRegistry;
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.PersistenceConfig;
+import com.softeng306.fileprocessing.Repositories;
+import com.softeng306.fileprocessing.UnitOfWork;
 
 import com.softeng306.io.ICourseMgrIO;
 import com.softeng306.io.MainMenuIO;
@@ -21,28 +24,40 @@ import com.softeng306.io.CourseMgrIO;
 import java.util.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Concrete implementation for course manager operations.
  * Provides implementations for functions must be performed on courses in the academic institute.
  * This is a subclass of {@code ICourseMgr}
+ * <p>
+ * When {@link PersistenceConfig#isIndexedEntitiesEnabled()} is set, courses are looked up through an
+ * index of the course file as they are asked for, and every course is only read from the file once an
+ * operation needs all of them.
  */
 public class CourseMgr implements ICourseMgr {
     /**
-     * A list of all the courses in this school.
+     * The repository of all the courses in this school, keyed by course ID.
      */
-    private List<ICourse> courses;
+    private final IRepository<String, ICourse> courses;
     private static ICourseMgr singleInstance;
 
-    private final IFileProcessor<ICourse> courseFileProcessor;
-    private IMarkCalculator markCalculator = new MarkCalculator();
+    private final IMarkCalculator markCalculator = new MarkCalculator();
+
+    /**
+     * The lock held while entering the components of a course, keyed by course ID, so that the
+     * components of a course are only entered once.
+     */
+    private final ConcurrentMap<String, Object> componentLocks = new ConcurrentHashMap<>();
 
     /**
      * Override default constructor to implement singleton pattern
      */
     private CourseMgr() {
-        courseFileProcessor = new CourseFileProcessor();
-        courses = courseFileProcessor.loadFile();
+        courses = Repositories.forCourses();
+        // courses that have not been read yet are read from the repository when they are first referred to
+        EntityRegistry.getInstance().setCourseLoader(courses::get);
     }
 
     /**
@@ -51,7 +66,7 @@ public class CourseMgr implements ICourseMgr {
      *
      * @return CourseMgr the singleton instance
      */
-    public static ICourseMgr getInstance() {
+    public static synchronized ICourseMgr getInstance() {
         if (singleInstance == null) {
             singleInstance = new CourseMgr();
         }
@@ -66,10 +81,10 @@ public class CourseMgr implements ICourseMgr {
         ICourse course = completeBuilder.build();
         int addCourseComponentChoice;
 
-        // Update Course in files
-        courseFileProcessor.writeNewEntryToFile(course);
+        EntityRegistry.getInstance().canonicalCourse(course);
 
-        courses.add(course);
+        // Update Course in files
+        UnitOfWork.current().registerNew(courses, course);
 
         addCourseComponentChoice = courseMgrIO.readCreateCourseComponentChoice();
 
@@ -141,19 +156,22 @@ public class CourseMgr implements ICourseMgr {
             }
         }
 
-        // Make sure course has no components
-        if (currentCourse.getMainComponents().isEmpty()) {
-            // Course is empty, can create and add new components
-            List<MainComponent> mainComponents = addMainComponentsToCourse(io, currentCourse);
-            currentCourse.setMainComponents(mainComponents);
-        } else {
-            io.printCourseworkWeightageEnteredError();
+        synchronized (componentLocks.computeIfAbsent(currentCourse.getCourseId(), id -> new Object())) {
+            // Make sure course has no components
+            if (currentCourse.getMainComponents().isEmpty()) {
+                // Course is empty, can create and add new components
+                List<MainComponent> mainComponents = addMainComponentsToCourse(io, currentCourse);
+                List<MainComponent> previousComponents = currentCourse.getMainComponents();
+                ICourse course = currentCourse;
+                course.setMainComponents(mainComponents);
+                markCourseAsModified(course, () -> course.setMainComponents(previousComponents));
+            } else {
+                io.printCourseworkWeightageEnteredError();
+            }
         }
 
         io.printComponentsForCourse(currentCourse.getCourseId(), currentCourse.getName(),
                 generateComponentInformationForACourses(currentCourse));
-
-        // Update course into course.csv
     }
 
     @Override
@@ -163,12 +181,7 @@ public class CourseMgr implements ICourseMgr {
 
     @Override
     public List<String> getCourseIdsInDepartment(String departmentName) {
-        List<ICourse> validCourses = new ArrayList<>();
-        courses.forEach(course -> {
-            if (departmentName.equals(course.getDepartment().toString())) {
-                validCourses.add(course);
-            }
-        });
+        List<ICourse> validCourses = courses.scanByIndex(Repositories.DEPARTMENT_INDEX, departmentName);
 
         List<String> courseIdsForDepartment = new ArrayList<>();
         validCourses.forEach(course -> {
@@ -242,12 +255,11 @@ public class CourseMgr implements ICourseMgr {
 
     @Override
     public ICourse getCourseFromId(String courseID) throws CourseNotFoundException {
-        Optional<ICourse> course = courses.stream().filter(c -> courseID.equals(c.getCourseId())).findAny();
-
-        if (!course.isPresent()) {
+        ICourse course = courses.get(courseID);
+        if (course == null) {
             throw new CourseNotFoundException(courseID);
         }
-        return course.get();
+        return course;
     }
 
     @Override
@@ -297,9 +309,12 @@ public class CourseMgr implements ICourseMgr {
 
     @Override
     public boolean checkCourseExists(String courseID) {
-        Optional<ICourse> course = courses.stream().filter(c -> courseID.equals(c.getCourseId())).findFirst();
+        return courses.contains(courseID);
+    }
 
-        return course.isPresent();
+    @Override
+    public void markCourseAsModified(ICourse course, Runnable undo) {
+        UnitOfWork.current().registerDirty(courses, course, undo);
     }
 
     /**
@@ -469,7 +484,7 @@ public class CourseMgr implements ICourseMgr {
      */
     private List<String> generateListOfAllCourseIDs() {
         List<String> courseIDs = new ArrayList<>();
-        for (ICourse course : courses) {
+        for (ICourse course : courses.scanAll()) {
             courseIDs.add(course.getCourseId());
         }
         return courseIDs;
@@ -483,7 +498,7 @@ public class CourseMgr implements ICourseMgr {
      */
     private Map<String, List<String>> generateGeneralInformationForAllCourses() {
         Map<String, List<String>> generalCourseInfoMap = new HashMap<>();
-        for (ICourse course : courses) {
+        for (ICourse course : courses.scanAll()) {
             List<String> generalCourseInfo = new ArrayList<>();
             generalCourseInfo.add(course.getName());
             generalCourseInfo.add(course.getCourseCoordinator().getName());
@@ -3,44 +3,86 @@ package com.softeng306.managers;
 import com.softeng306.domain.course.ICourse;
 import com.softeng306.domain.course.courseregistration.ICourseRegistration;
 import com.softeng306.domain.course.courseregistration.CourseRegistration;
+import com.softeng306.domain.course.courseregistration.RegistrationRequest;
 import com.softeng306.domain.course.group.IGroup;
 import com.softeng306.domain.exceptions.CourseNotFoundException;
 import com.softeng306.domain.exceptions.GroupTypeNotFoundException;
 import com.softeng306.domain.exceptions.InvalidCourseRegistrationException;
+import com.softeng306.domain.exceptions.SeatsHeldException;
 import com.softeng306.domain.exceptions.StudentNotFoundException;
 import com.softeng306.domain.student.IStudent;
 import com.softeng306.enums.GroupType;
-import com.softeng306.fileprocessing.CourseRegistrationFileProcessor;
-import com.softeng306.fileprocessing.IFileProcessor;
+import com.softeng306.enums.RegistrationOutcome;
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.Repositories;
+import com.softeng306.fileprocessing.RepositoryBatch;
+import com.softeng306.fileprocessing.StudentCourseKey;
+import com.softeng306.fileprocessing.UnitOfWork;
 import com.softeng306.io.ICourseRegistrationMgrIO;
 import com.softeng306.io.CourseRegistrationMgrIO;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Concrete implementation for course registration manager operations.
  * Provides implementations for functions must be performed on courses registrations in the academic institute.
  * This is a subclass of {@code ICourseRegistrationMgr}
+ * <p>
+ * A seat is held in the course as soon as a registration starts, and in each group as it is chosen, through the
+ * {@code SeatHoldMgr}, so that two students cannot both take the last vacancy without registrations for a
+ * popular course waiting for each other. The held seats are taken when the registration is made, and given
+ * back if it fails, is abandoned or takes longer than a hold lasts. Once the groups have been chosen, a registration
+ * is recorded holding the lock of its course, then the lock of its student, both taken from fixed sets of lock
+ * stripes. Registrations for different courses hardly ever wait for each other, and a student is never registered
+ * twice. A batch of registrations takes the locks of all its courses, then of all its students, each set in
+ * stripe order. Course locks are always taken before student locks, and locks of the same set always in the same
+ * order, so no two registrations can wait for each other forever.
  */
 public class CourseRegistrationMgr implements ICourseRegistrationMgr {
 
     /**
-     * A list of all the course registration records in this school.
+     * All the course registration records in this school, keyed by student and course and indexed by each.
      */
-    private List<ICourseRegistration> courseRegistrations;
+    private final IRepository<StudentCourseKey, ICourseRegistration> courseRegistrations;
 
-    private static ICourseRegistrationMgr singleInstance = null;
+    /**
+     * The number of locks shared out between the courses, and between the students.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * The locks held while recording a registration for a course, keyed by course ID.
+     * Always taken before the locks of the students.
+     */
+    private final LockStripes courseLocks = new LockStripes(LOCK_STRIPES);
 
-    private final IFileProcessor<ICourseRegistration> courseRegistrationFileProcessor;
+    /**
+     * The locks held while recording a registration for a student, keyed by student ID.
+     * Always taken after the locks of the courses.
+     */
+    private final LockStripes studentLocks = new LockStripes(LOCK_STRIPES);
+
+    private static ICourseRegistrationMgr singleInstance = null;
 
     /**
      * Override default constructor to implement singleton pattern
      */
     private CourseRegistrationMgr() {
-        courseRegistrationFileProcessor = new CourseRegistrationFileProcessor();
-        courseRegistrations = courseRegistrationFileProcessor.loadFile();
+        // records refer to students and courses by ID, so those must be loaded before the records are resolved
+        courseRegistrations = Repositories.forCourseRegistrations(() -> {
+            StudentMgr.getInstance();
+            CourseMgr.getInstance();
+        });
+        // the manager owns the repository, so it is the one to close it when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(courseRegistrations::close, "close-course-registrations"));
     }
 
     @Override
@@ -50,61 +92,177 @@ public class CourseRegistrationMgr implements ICourseRegistrationMgr {
         IStudent currentStudent = StudentMgr.getInstance().getStudentFromId(studentID);
         ICourse currentCourse = CourseMgr.getInstance().getCourseFromId(courseID);
 
-        if (courseRegistrationExists(studentID, courseID)) {
-            io.printAlreadyRegisteredError();
-            throw new InvalidCourseRegistrationException();
-        }
+        checkCanRegister(io, currentStudent, currentCourse);
+        ISeatHold seatHold = holdSeat(io, currentCourse);
 
-        if (currentCourse.getMainComponents().isEmpty()) {
-            io.printNoAssessmentMessage(currentCourse.getCourseCoordinator().getName());
-            throw new InvalidCourseRegistrationException();
-        }
+        IGroup selectedLectureGroup;
+        IGroup selectedTutorialGroup;
+        IGroup selectedLabGroup;
+        try {
+            io.printRegistrationRequestDetails(currentStudent.getName(), currentStudent.getStudentId(),
+                    currentCourse.getCourseId(), currentCourse.getName());
 
-        if (currentCourse.getVacancies() == 0) {
-            io.printNoVacancies();
-            throw new InvalidCourseRegistrationException();
-        }
+            List<IGroup> lecGroups = currentCourse.getLectureGroups();
+            IGroupMgr groupMgr = GroupMgr.getInstance();
+            selectedLectureGroup = groupMgr.printGroupWithVacancyInfo(GroupType.LECTURE_GROUP, lecGroups, seatHold);
+
+            List<IGroup> tutGroups = currentCourse.getTutorialGroups();
+            selectedTutorialGroup = groupMgr.printGroupWithVacancyInfo(GroupType.TUTORIAL_GROUP, tutGroups, seatHold);
 
-        io.printRegistrationRequestDetails(currentStudent.getName(), currentStudent.getStudentId(),
-                currentCourse.getCourseId(), currentCourse.getName());
+            List<IGroup> labGroups = currentCourse.getLabGroups();
+            selectedLabGroup = groupMgr.printGroupWithVacancyInfo(GroupType.LAB_GROUP, labGroups, seatHold);
 
-        List<IGroup> lecGroups = currentCourse.getLectureGroups();
-        IGroupMgr groupMgr = GroupMgr.getInstance();
-        IGroup selectedLectureGroup = groupMgr.printGroupWithVacancyInfo(GroupType.LECTURE_GROUP, lecGroups);
+            if (!seatHold.isHeld()) {
+                io.printSeatHoldExpired();
+                throw new InvalidCourseRegistrationException();
+            }
 
-        List<IGroup> tutGroups = currentCourse.getTutorialGroups();
-        IGroup selectedTutorialGroup = groupMgr.printGroupWithVacancyInfo(GroupType.TUTORIAL_GROUP, tutGroups);
+            if (isFull(lecGroups, selectedLectureGroup) || isFull(tutGroups, selectedTutorialGroup)
+                    || isFull(labGroups, selectedLabGroup)) {
+                throw noSeatLeft(io, currentCourse.getVacancies() > 0
+                        && hasGroupWithVacancies(lecGroups, selectedLectureGroup)
+                        && hasGroupWithVacancies(tutGroups, selectedTutorialGroup)
+                        && hasGroupWithVacancies(labGroups, selectedLabGroup));
+            }
 
-        List<IGroup> labGroups = currentCourse.getLabGroups();
-        IGroup selectedLabGroup = groupMgr.printGroupWithVacancyInfo(GroupType.LAB_GROUP, labGroups);
+            recordRegistration(io, currentStudent, currentCourse, selectedLectureGroup, selectedTutorialGroup,
+                    selectedLabGroup, seatHold);
+        } finally {
+            // gives back the held seats, unless the registration was made
+            seatHold.release();
+        }
 
-        currentCourse.updateVacanciesForEnrollment();
-        ICourseRegistration courseRegistration = new CourseRegistration(currentStudent, currentCourse,
-                selectedLectureGroup, selectedTutorialGroup, selectedLabGroup);
-        courseRegistrationFileProcessor.writeNewEntryToFile(courseRegistration);
+        return generateRegistrationInformation(currentStudent, selectedLectureGroup, selectedTutorialGroup,
+                selectedLabGroup);
+    }
 
-        StudentCourseMarkMgr.getInstance().getStudentCourseMarks().add(StudentCourseMarkMgr.getInstance().initialiseStudentCourseMark(currentStudent, currentCourse));
+    @Override
+    public List<String> registerCourse(String studentID, String courseID, String lectureGroupName,
+                                       String tutorialGroupName, String labGroupName)
+            throws InvalidCourseRegistrationException, StudentNotFoundException, CourseNotFoundException {
+        ICourseRegistrationMgrIO io = new CourseRegistrationMgrIO();
+        IStudent currentStudent = StudentMgr.getInstance().getStudentFromId(studentID);
+        ICourse currentCourse = CourseMgr.getInstance().getCourseFromId(courseID);
 
-        courseRegistrations.add(courseRegistration);
+        checkCanRegister(io, currentStudent, currentCourse);
 
-        List<String> registrationInfo = new ArrayList<>();
-        registrationInfo.add(currentStudent.getName());
+        IGroup selectedLectureGroup = findGroup(io, GroupType.LECTURE_GROUP, currentCourse.getLectureGroups(),
+                lectureGroupName);
+        IGroup selectedTutorialGroup = findGroup(io, GroupType.TUTORIAL_GROUP, currentCourse.getTutorialGroups(),
+                tutorialGroupName);
+        IGroup selectedLabGroup = findGroup(io, GroupType.LAB_GROUP, currentCourse.getLabGroups(), labGroupName);
 
-        registrationInfo.add(selectedLectureGroup.getGroupName());
+        ISeatHold seatHold = holdSeat(io, currentCourse);
+        try {
+            for (IGroup group : new IGroup[]{selectedLectureGroup, selectedTutorialGroup, selectedLabGroup}) {
+                if (group != null && !seatHold.holdGroup(group)) {
+                    throw noSeatLeft(io, hasVacancies(currentCourse, group));
+                }
+            }
 
-        if (selectedTutorialGroup != null) {
-            registrationInfo.add(selectedTutorialGroup.getGroupName());
-        } else {
-            registrationInfo.add("");
+            recordRegistration(io, currentStudent, currentCourse, selectedLectureGroup, selectedTutorialGroup,
+                    selectedLabGroup, seatHold);
+        } finally {
+            // gives back the held seats, unless the registration was made
+            seatHold.release();
         }
 
-        if (selectedLabGroup != null) {
-            registrationInfo.add(selectedLabGroup.getGroupName());
-        } else {
-            registrationInfo.add("");
+        return generateRegistrationInformation(currentStudent, selectedLectureGroup, selectedTutorialGroup,
+                selectedLabGroup);
+    }
+
+    @Override
+    public List<RegistrationOutcome> registerCourses(List<RegistrationRequest> requests) {
+        List<RegistrationOutcome> outcomes = new ArrayList<>(Collections.nCopies(requests.size(), null));
+
+        // check every request without holding a lock, so that only the requests that can be made are locked for
+        Map<Integer, ICourseRegistration> validRegistrations = new LinkedHashMap<>();
+        Map<String, ICourse> coursesById = new HashMap<>();
+        Set<StudentCourseKey> requestedKeys = new HashSet<>();
+        for (int row = 0; row < requests.size(); row++) {
+            RegistrationRequest request = requests.get(row);
+            try {
+                IStudent student = StudentMgr.getInstance().getStudentFromId(request.getStudentId());
+                ICourse course = coursesById.get(request.getCourseId());
+                if (course == null) {
+                    course = CourseMgr.getInstance().getCourseFromId(request.getCourseId());
+                    coursesById.put(course.getCourseId(), course);
+                }
+
+                ICourseRegistration courseRegistration = new CourseRegistration(student, course,
+                        groupNamed(course.getLectureGroups(), request.getLectureGroupName()),
+                        groupNamed(course.getTutorialGroups(), request.getTutorialGroupName()),
+                        groupNamed(course.getLabGroups(), request.getLabGroupName()));
+                RegistrationOutcome outcome = checkRequest(request, courseRegistration, requestedKeys);
+                if (outcome == null) {
+                    validRegistrations.put(row, courseRegistration);
+                } else {
+                    outcomes.set(row, outcome);
+                }
+            } catch (StudentNotFoundException e) {
+                outcomes.set(row, RegistrationOutcome.STUDENT_NOT_FOUND);
+            } catch (CourseNotFoundException e) {
+                outcomes.set(row, RegistrationOutcome.COURSE_NOT_FOUND);
+            }
         }
 
-        return registrationInfo;
+        Set<String> courseIds = new HashSet<>();
+        Set<String> studentIds = new HashSet<>();
+        for (ICourseRegistration courseRegistration : validRegistrations.values()) {
+            courseIds.add(courseRegistration.getCourse().getCourseId());
+            studentIds.add(courseRegistration.getStudent().getStudentId());
+        }
+        List<Lock> locks = new ArrayList<>(courseLocks.locksFor(courseIds));
+        locks.addAll(studentLocks.locksFor(studentIds));
+
+        locks.forEach(Lock::lock);
+        try {
+            RepositoryBatch<StudentCourseKey, ICourseRegistration> batch = new RepositoryBatch<>();
+            List<ICourseRegistration> madeRegistrations = new ArrayList<>();
+            Map<ICourse, List<ICourseRegistration>> registrationsByCourse = new LinkedHashMap<>();
+            for (Map.Entry<Integer, ICourseRegistration> entry : validRegistrations.entrySet()) {
+                ICourseRegistration courseRegistration = entry.getValue();
+                ICourse course = courseRegistration.getCourse();
+
+                // another registration may have been made since the request was checked
+                if (courseRegistrationExists(courseRegistration.getStudent().getStudentId(), course.getCourseId())) {
+                    outcomes.set(entry.getKey(), RegistrationOutcome.ALREADY_REGISTERED);
+                } else if (!course.reserveSeat(courseRegistration.getLectureGroup(),
+                        courseRegistration.getTutorialGroup(), courseRegistration.getLabGroup())) {
+                    // the seats left may only be held by registrations that give them back
+                    outcomes.set(entry.getKey(), hasVacancies(course, courseRegistration.getLectureGroup(),
+                            courseRegistration.getTutorialGroup(), courseRegistration.getLabGroup())
+                            ? RegistrationOutcome.SEATS_HELD : RegistrationOutcome.NO_VACANCIES);
+                } else {
+                    batch.insert(courseRegistration);
+                    madeRegistrations.add(courseRegistration);
+                    registrationsByCourse.computeIfAbsent(course, c -> new ArrayList<>()).add(courseRegistration);
+                    outcomes.set(entry.getKey(), RegistrationOutcome.REGISTERED);
+                }
+            }
+
+            // the course and group vacancies have changed, and are given back if the batch is rolled back
+            for (Map.Entry<ICourse, List<ICourseRegistration>> entry : registrationsByCourse.entrySet()) {
+                ICourse course = entry.getKey();
+                List<ICourseRegistration> reserved = entry.getValue();
+                CourseMgr.getInstance().markCourseAsModified(course, () -> {
+                    for (ICourseRegistration courseRegistration : reserved) {
+                        course.releaseSeat(courseRegistration.getLectureGroup(),
+                                courseRegistration.getTutorialGroup(), courseRegistration.getLabGroup());
+                    }
+                });
+            }
+            if (!batch.isEmpty()) {
+                UnitOfWork.current().registerBatch(courseRegistrations, batch);
+                StudentCourseMarkMgr.getInstance().initialiseStudentCourseMarks(madeRegistrations);
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+
+        return outcomes;
     }
 
     @Override
@@ -112,16 +270,9 @@ public class CourseRegistrationMgr implements ICourseRegistrationMgr {
         ICourseRegistrationMgrIO io = new CourseRegistrationMgrIO();
         ICourse currentCourse = CourseMgr.getInstance().getCourseFromId(courseID);
 
-        // READ courseRegistrationFILE
-        // return List of Object(student,course,lecture,tut,lab)
-        List<ICourseRegistration> allCourseRegistrations = courseRegistrationFileProcessor.loadFile();
-
-        List<ICourseRegistration> courseRegistrationList = new ArrayList<>();
-        for (ICourseRegistration courseRegistration : allCourseRegistrations) {
-            if (courseRegistration.getCourse().getCourseId().equals(currentCourse.getCourseId())) {
-                courseRegistrationList.add(courseRegistration);
-            }
-        }
+        // copy the roster, since it is sorted below
+        List<ICourseRegistration> courseRegistrationList = new ArrayList<>(
+                courseRegistrations.scanByIndex(Repositories.COURSE_ID_INDEX, currentCourse.getCourseId()));
 
         if (courseRegistrationList.isEmpty()) {
             io.printNoRegistrationsForCourseMessage();
@@ -163,10 +314,9 @@ public class CourseRegistrationMgr implements ICourseRegistrationMgr {
     @Override
     public List<String> getCourseIdsForStudentId(String studentId) {
         List<String> courseIds = new ArrayList<>();
-        for (ICourseRegistration courseRegistration : courseRegistrations) {
-            if (courseRegistration.getStudent().getStudentId().equals(studentId)) {
-                courseIds.add(courseRegistration.getCourse().getCourseId());
-            }
+        for (ICourseRegistration courseRegistration
+                : courseRegistrations.scanByIndex(Repositories.STUDENT_ID_INDEX, studentId)) {
+            courseIds.add(courseRegistration.getCourse().getCourseId());
         }
 
         return courseIds;
@@ -201,6 +351,301 @@ public class CourseRegistrationMgr implements ICourseRegistrationMgr {
         return groupStringInfo;
     }
 
+    /**
+     * Checks that a student can register for a course before the groups are chosen, telling the user why not
+     * if they cannot.
+     *
+     * @param io      Tells the user why the student cannot register.
+     * @param student The student registering for the course.
+     * @param course  The course being registered by the student.
+     * @throws InvalidCourseRegistrationException if the student is already registered, the course has no
+     *                                            assessment yet, or the course has no vacancies.
+     */
+    private void checkCanRegister(ICourseRegistrationMgrIO io, IStudent student, ICourse course)
+            throws InvalidCourseRegistrationException {
+        if (courseRegistrationExists(student.getStudentId(), course.getCourseId())) {
+            io.printAlreadyRegisteredError();
+            throw new InvalidCourseRegistrationException();
+        }
+
+        if (course.getMainComponents().isEmpty()) {
+            io.printNoAssessmentMessage(course.getCourseCoordinator().getName());
+            throw new InvalidCourseRegistrationException();
+        }
+
+        if (course.getVacancies() == 0) {
+            io.printNoVacancies();
+            throw new InvalidCourseRegistrationException();
+        }
+    }
+
+    /**
+     * Holds a seat in a course for a registration that is starting, telling the user if there is none left.
+     *
+     * @param io     Tells the user if the course is full.
+     * @param course The course being registered for.
+     * @return the hold of the seat.
+     * @throws InvalidCourseRegistrationException if the course is full, or a {@code SeatsHeldException} if
+     *                                            every seat left in the course is held.
+     */
+    private ISeatHold holdSeat(ICourseRegistrationMgrIO io, ICourse course)
+            throws InvalidCourseRegistrationException {
+        ISeatHold seatHold = SeatHoldMgr.getInstance().holdSeat(course);
+        if (seatHold == null) {
+            throw noSeatLeft(io, hasVacancies(course));
+        }
+        return seatHold;
+    }
+
+    /**
+     * Tells the user that no seat could be had in a course or one of its chosen groups, telling seats that
+     * are all taken apart from seats that are only held by other registrations, which may give them back.
+     *
+     * @param io       Tells the user why the registration cannot be made.
+     * @param onlyHeld Whether the course and its chosen groups still have vacancies, which are all held.
+     * @return the exception to throw, which is a {@code SeatsHeldException} if the seats are only held.
+     */
+    private InvalidCourseRegistrationException noSeatLeft(ICourseRegistrationMgrIO io, boolean onlyHeld) {
+        if (onlyHeld) {
+            io.printSeatsHeld();
+            return new SeatsHeldException();
+        }
+        io.printNoVacancies();
+        return new InvalidCourseRegistrationException();
+    }
+
+    /**
+     * Checks whether a course and the chosen groups all have vacancies left, whether or not they are held.
+     *
+     * @param course The course being registered for.
+     * @param groups The chosen groups, which may be null where the course has no group of a type.
+     * @return Whether none of them is full.
+     */
+    private boolean hasVacancies(ICourse course, IGroup... groups) {
+        if (course.getVacancies() == 0) {
+            return false;
+        }
+        for (IGroup group : groups) {
+            if (group != null && group.getAvailableVacancies() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the seats held in the course and the chosen groups, and records the registration and the
+     * student's marks for the course, holding the lock of the course and then the lock of the student.
+     * The seats are given back if the current unit of work is rolled back.
+     *
+     * @param io            Tells the user why the registration cannot be made.
+     * @param student       The student registering for the course.
+     * @param course        The course being registered by the student.
+     * @param lectureGroup  The chosen lecture group.
+     * @param tutorialGroup The chosen tutorial group, or null if the course has none.
+     * @param labGroup      The chosen lab group, or null if the course has none.
+     * @param seatHold      The hold of the seats in the course and every chosen group.
+     * @throws InvalidCourseRegistrationException if the student has been registered for the course by
+     *                                            another thread, or the hold has expired.
+     */
+    private void recordRegistration(ICourseRegistrationMgrIO io, IStudent student, ICourse course,
+                                    IGroup lectureGroup, IGroup tutorialGroup, IGroup labGroup,
+                                    ISeatHold seatHold) throws InvalidCourseRegistrationException {
+        Lock courseLock = courseLocks.lockFor(course.getCourseId());
+        Lock studentLock = studentLocks.lockFor(student.getStudentId());
+        courseLock.lock();
+        try {
+            studentLock.lock();
+            try {
+                // another registration may have been made while the groups were chosen
+                if (courseRegistrationExists(student.getStudentId(), course.getCourseId())) {
+                    io.printAlreadyRegisteredError();
+                    throw new InvalidCourseRegistrationException();
+                }
+
+                if (!seatHold.commit()) {
+                    io.printSeatHoldExpired();
+                    throw new InvalidCourseRegistrationException();
+                }
+                // the course and group vacancies have changed, and the seat is given back if the registration
+                // fails to be recorded and the unit of work is rolled back
+                CourseMgr.getInstance().markCourseAsModified(course,
+                        () -> course.releaseSeat(lectureGroup, tutorialGroup, labGroup));
+
+                ICourseRegistration courseRegistration = new CourseRegistration(student, course,
+                        lectureGroup, tutorialGroup, labGroup);
+
+                StudentCourseMarkMgr.getInstance().initialiseStudentCourseMark(student, course);
+
+                UnitOfWork.current().registerNew(courseRegistrations, courseRegistration);
+            } finally {
+                studentLock.unlock();
+            }
+        } finally {
+            courseLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the group of a course with a name.
+     *
+     * @param io        Tells the user if the group does not exist.
+     * @param groupType The type of the group.
+     * @param groups    The groups of the type in the course.
+     * @param groupName The name of the group, or null if the course has no groups of the type.
+     * @return the group with the name, or null if the course has no groups of the type.
+     * @throws InvalidCourseRegistrationException if the course has no group of the type with the name, or
+     *                                            has groups of the type but no name was given.
+     */
+    private IGroup findGroup(ICourseRegistrationMgrIO io, GroupType groupType, List<IGroup> groups,
+                             String groupName) throws InvalidCourseRegistrationException {
+        IGroup group = groupNamed(groups, groupName);
+        if (!isValidGroupChoice(groups, groupName, group)) {
+            io.printGroupNotFound(groupType.toString(), groupName);
+            throw new InvalidCourseRegistrationException();
+        }
+        return group;
+    }
+
+    /**
+     * Finds the group with a name among the groups of a type in a course.
+     *
+     * @param groups    The groups of the type in the course.
+     * @param groupName The name of the group, or null if none was given.
+     * @return the group with the name, or null if there is none.
+     */
+    private IGroup groupNamed(List<IGroup> groups, String groupName) {
+        if (groups != null) {
+            for (IGroup group : groups) {
+                if (group.getGroupName().equals(groupName)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a group was found for a name, or no name was needed since the course has no groups of
+     * the type.
+     *
+     * @param groups    The groups of the type in the course.
+     * @param groupName The name of the group, or null if none was given.
+     * @param group     The group found with the name, or null if there is none.
+     * @return Whether the group can be registered in.
+     */
+    private boolean isValidGroupChoice(List<IGroup> groups, String groupName, IGroup group) {
+        return group != null || (groupName == null && (groups == null || groups.isEmpty()));
+    }
+
+    /**
+     * Checks whether a request in a batch can be made before any seat is taken, in the same order as the checks
+     * for a single registration.
+     *
+     * @param request            The request to check.
+     * @param courseRegistration The registration the request would make, with a null group for each name no
+     *                           group of the course has.
+     * @param requestedKeys      The students and courses of the requests in the batch found valid so far, which
+     *                           the student and course of the request are added to if it is valid.
+     * @return why the request cannot be made, or null if it can be.
+     */
+    private RegistrationOutcome checkRequest(RegistrationRequest request, ICourseRegistration courseRegistration,
+                                             Set<StudentCourseKey> requestedKeys) {
+        ICourse course = courseRegistration.getCourse();
+        StudentCourseKey key = new StudentCourseKey(courseRegistration.getStudent().getStudentId(),
+                course.getCourseId());
+
+        if (courseRegistrations.contains(key)) {
+            return RegistrationOutcome.ALREADY_REGISTERED;
+        }
+
+        if (course.getMainComponents().isEmpty()) {
+            return RegistrationOutcome.NO_ASSESSMENT;
+        }
+
+        if (course.getVacancies() == 0) {
+            return RegistrationOutcome.NO_VACANCIES;
+        }
+
+        if (!isValidGroupChoice(course.getLectureGroups(), request.getLectureGroupName(),
+                courseRegistration.getLectureGroup())
+                || !isValidGroupChoice(course.getTutorialGroups(), request.getTutorialGroupName(),
+                courseRegistration.getTutorialGroup())
+                || !isValidGroupChoice(course.getLabGroups(), request.getLabGroupName(),
+                courseRegistration.getLabGroup())) {
+            return RegistrationOutcome.GROUP_NOT_FOUND;
+        }
+
+        if (!requestedKeys.add(key)) {
+            return RegistrationOutcome.DUPLICATE_REQUEST;
+        }
+
+        return null;
+    }
+
+    /**
+     * Generates the information about a registration that is shown to the user.
+     *
+     * @param student       The student registered for the course.
+     * @param lectureGroup  The lecture group the student is registered in.
+     * @param tutorialGroup The tutorial group the student is registered in, or null if the course has none.
+     * @param labGroup      The lab group the student is registered in, or null if the course has none.
+     * @return the name of the student, then the names of the lecture, tutorial and lab groups, with an empty
+     *         name for each type of group the course does not have.
+     */
+    private List<String> generateRegistrationInformation(IStudent student, IGroup lectureGroup,
+                                                         IGroup tutorialGroup, IGroup labGroup) {
+        List<String> registrationInfo = new ArrayList<>();
+        registrationInfo.add(student.getName());
+
+        registrationInfo.add(lectureGroup.getGroupName());
+
+        if (tutorialGroup != null) {
+            registrationInfo.add(tutorialGroup.getGroupName());
+        } else {
+            registrationInfo.add("");
+        }
+
+        if (labGroup != null) {
+            registrationInfo.add(labGroup.getGroupName());
+        } else {
+            registrationInfo.add("");
+        }
+
+        return registrationInfo;
+    }
+
+    /**
+     * Checks whether every group of a type filled up before one could be chosen.
+     *
+     * @param groups        The groups of the type in the course.
+     * @param selectedGroup The group chosen, or null if none could be.
+     * @return Whether there are groups of the type but none could be chosen.
+     */
+    private boolean isFull(List<IGroup> groups, IGroup selectedGroup) {
+        return selectedGroup == null && groups != null && !groups.isEmpty();
+    }
+
+    /**
+     * Checks whether a group of a type was chosen, or one of the groups of the type still has vacancies,
+     * which are held by other registrations that may give them back.
+     *
+     * @param groups        The groups of the type in the course.
+     * @param selectedGroup The group chosen, or null if none could be.
+     * @return Whether the type of group is not full.
+     */
+    private boolean hasGroupWithVacancies(List<IGroup> groups, IGroup selectedGroup) {
+        if (!isFull(groups, selectedGroup)) {
+            return true;
+        }
+        for (IGroup group : groups) {
+            if (group.getAvailableVacancies() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks whether this course registration record exists.
      *
@@ -209,11 +654,7 @@ public class CourseRegistrationMgr implements ICourseRegistrationMgr {
      * @return the existing course registration record or else null.
      */
     private boolean courseRegistrationExists(String studentID, String courseID) {
-        Optional<ICourseRegistration> courseRegistration = courseRegistrations.stream()
-                .filter(cr -> studentID.equals(cr.getStudent().getStudentId()))
-                .filter(cr -> courseID.equals(cr.getCourse().getCourseId())).findFirst();
-
-        return courseRegistration.isPresent();
+        return courseRegistrations.contains(new StudentCourseKey(studentID, courseID));
     }
 
     /**
@@ -222,7 +663,7 @@ public class CourseRegistrationMgr implements ICourseRegistrationMgr {
      *
      * @return ICourseRegistrationMgr the singleton instance
      */
-    public static ICourseRegistrationMgr getInstance() {
+    public static synchronized ICourseRegistrationMgr getInstance() {
         if (singleInstance == null) {
             singleInstance = new CourseRegistrationMgr();
         }
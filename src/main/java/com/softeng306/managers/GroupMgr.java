@@ -3,10 +3,11 @@ package com.softeng306.managers;
 import com.softeng306.domain.course.group.IGroup;
 import com.softeng306.enums.GroupType;
 
-import java.util.HashMap;
+import com.softeng306.io.GroupMgrIO;
+import com.softeng306.io.IGroupMgrIO;
+
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
 
 /**
  * Concrete implementation of {@code IGroupMgr}.
@@ -14,9 +15,10 @@ import java.util.Scanner;
  */
 public class GroupMgr implements IGroupMgr {
     /**
-     * The input stream to user input from.
+     * Reads the user's choice of group. Created once, so that input it has read ahead is not lost
+     * between choices.
      */
-    private Scanner scanner = new Scanner(System.in);
+    private final IGroupMgrIO io = new GroupMgrIO();
 
     /**
      * Singleton instance of this group manager.
@@ -33,7 +35,7 @@ public class GroupMgr implements IGroupMgr {
      *
      * @return IGroupMgr the singleton instance
      */
-    public static IGroupMgr getInstance() {
+    public static synchronized IGroupMgr getInstance() {
         if (singleInstance == null) {
             singleInstance = new GroupMgr();
         }
@@ -42,39 +44,51 @@ public class GroupMgr implements IGroupMgr {
     }
 
     @Override
-    public IGroup printGroupWithVacancyInfo(GroupType groupType, List<IGroup> groups) {
+    public IGroup printGroupWithVacancyInfo(GroupType groupType, List<IGroup> groups, ISeatHold seatHold) {
         int index;
-        Map<String, Integer> groupAssign = new HashMap<>(0);
+        List<IGroup> listedGroups = new ArrayList<>();
         int selectedGroupNum;
 
         //Make sure there are groups to choose from
         if (groups.size() != 0) {
-            System.out.println("Here is a list of all the " + groupType + " groups with available slots:");
+            io.printGroupsWithVacanciesHeader(groupType.toString());
             do {
                 index = 0;
+                listedGroups.clear();
                 for (IGroup group : groups) {
+                    // seats held for other registrations cannot be chosen
+                    int vacancies = group.getAvailableVacancies() - group.getHeldVacancies();
+
                     //Check if group has spots left for registrations.
-                    if (group.getAvailableVacancies() == 0) {
+                    if (vacancies <= 0) {
                         continue;
                     }
                     index++;
 
-                    System.out.println(index + ": " + group.getGroupName() + " (" + group.getAvailableVacancies() + " vacancies)");
-                    groupAssign.put(group.getGroupName(), index);
+                    io.printGroupChoice(index, group.getGroupName(), vacancies);
+                    listedGroups.add(group);
+                }
+                if (index == 0) {
+                    // every group filled up while the registration was being made
+                    return null;
                 }
                 //Get user choice
-                System.out.println("Please enter an integer for your choice:");
-                selectedGroupNum = scanner.nextInt();
-                scanner.nextLine();
+                selectedGroupNum = io.readGroupChoice();
 
                 //Check that choice is valid
                 if (selectedGroupNum < 1 || selectedGroupNum > index) {
-                    System.out.println("Invalid choice. Please re-enter.");
+                    io.printInvalidGroupChoice();
                 } else {
                     // valid selection
-                    IGroup selectedGroup = groups.get(selectedGroupNum - 1);
-                    selectedGroup.updateVacanciesForEnrollment();
-                    return selectedGroup;
+                    IGroup selectedGroup = listedGroups.get(selectedGroupNum - 1);
+                    if (seatHold.holdGroup(selectedGroup)) {
+                        return selectedGroup;
+                    }
+                    if (!seatHold.isHeld()) {
+                        // the seats held for the registration have expired
+                        return null;
+                    }
+                    // the last seat of the group was held by someone else since the groups were listed
                 }
 
             } while (true);
@@ -0,0 +1,254 @@
+package com.softeng306.managers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks after a delay on a single background thread, keeping them in a hashed timer wheel.
+ * <p>
+ * The wheel is a ring of buckets, one for each tick of time. A task is put in the bucket of the tick it is
+ * due in, along with how many times round the wheel it is due, so scheduling and cancelling a task take the
+ * same time however many tasks are waiting. Tasks run up to one tick late. New and cancelled tasks are passed
+ * to the background thread through lock-free queues, so threads scheduling tasks never wait for it.
+ */
+class HashedTimerWheel {
+    /**
+     * The most new tasks put in the wheel each tick, so that a burst of scheduling cannot hold up the tasks due.
+     */
+    private static final int MAX_TASKS_ADDED_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final String threadName;
+
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * The time the wheel was created, which the deadlines are measured from. If the background thread is
+     * started later, it catches up on the ticks that have passed straight away.
+     */
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Creates a timer wheel. Its background thread is started when the first task is scheduled.
+     *
+     * @param tickDuration  The length of a tick.
+     * @param unit          The unit of the length of a tick.
+     * @param ticksPerWheel The least number of buckets in the wheel, rounded up to a power of two.
+     * @param threadName    The name of the background thread.
+     */
+    HashedTimerWheel(long tickDuration, TimeUnit unit, int ticksPerWheel, String threadName) {
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1;
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = size - 1;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Schedules a task to run once after a delay, on the background thread.
+     *
+     * @param task  The task to run.
+     * @param delay The delay before the task runs.
+     * @param unit  The unit of the delay.
+     * @return the scheduled task, which can be cancelled until it runs.
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        Timeout timeout = new Timeout(this, task, System.nanoTime() + unit.toNanos(delay) - startTime);
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread worker = new Thread(this::run, threadName);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (true) {
+            long deadline = tickNanos * (tick + 1);
+            try {
+                waitUntil(deadline);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            removeCancelledTimeouts();
+            addNewTimeouts(tick);
+            wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    private void waitUntil(long deadline) throws InterruptedException {
+        long sleepNanos;
+        while ((sleepNanos = deadline - (System.nanoTime() - startTime)) > 0) {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Puts the tasks scheduled since the last tick in the buckets of the ticks they are due in.
+     */
+    private void addNewTimeouts(long tick) {
+        for (int i = 0; i < MAX_TASKS_ADDED_PER_TICK; i++) {
+            Timeout timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            // a task already due is run in the current tick
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * A task waiting in the wheel.
+     */
+    static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final HashedTimerWheel wheel;
+        private final Runnable task;
+
+        /**
+         * When the task is due, measured from the start time of the wheel.
+         */
+        private final long deadline;
+
+        // only used by the background thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(HashedTimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task, if it has not run yet.
+         *
+         * @return Whether the task was cancelled before it ran.
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            // the background thread takes it out of its bucket at the next tick
+            wheel.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        private boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.out.println("Error running a scheduled task!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The tasks due in one tick of the wheel, in a doubly linked list so that a cancelled task can be
+     * taken out straight away. Only used by the background thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+            tail = timeout;
+        }
+
+        /**
+         * Runs the tasks in this bucket that are due by the deadline, and counts down a round for the others.
+         */
+        private void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+    }
+}
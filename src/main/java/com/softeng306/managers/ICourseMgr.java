@@ -9,21 +9,29 @@ import java.util.List;
 /**
  * Interface for course manager operations.
  * Defines the responsibilities of what functions must be performed on courses in the academic institute.
+ * <p>
+ * Implementations are safe to use from several threads at once. The methods that prompt the user read
+ * from standard input, which only one thread should be doing at a time.
  */
 public interface ICourseMgr {
 
     /**
      * Creates a new course and stores it in the file.
+     * Thread-safe, but reads the components of the course from standard input. A course ID can only be
+     * added once, even if two threads add it at the same time.
      */
     void addCourse(ICourseBuilder completeBuilder);
 
     /**
      * Checks whether a course (with all of its groups) have available slots and displays the result.
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      */
     void checkAvailableSlots();
 
     /**
      * Sets the course work component weightage of a course.
+     * Thread-safe, but reads the components from standard input. The components of a course are only
+     * entered by one thread at a time, so they can only be set once.
      *
      * @param currentCourse The course which course work component is to be set.
      */
@@ -31,11 +39,13 @@ public interface ICourseMgr {
 
     /**
      * Displays a list of IDs of all the courses.
+     * Thread-safe. Displays the courses that existed when it was called.
      */
     void printAllCourseIds();
 
     /**
      * Get a list of course IDs for courses registered in a given department.
+     * Thread-safe.
      *
      * @param departmentName The department to get course IDs for.
      * @return A list of course IDs.
@@ -44,11 +54,13 @@ public interface ICourseMgr {
 
     /**
      * Prints the course statics including enrollment rate, average result for every assessment component and the average overall performance of this course.
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      */
     void printCourseStatistics();
 
     /**
      * Prompts the user to input an existing course.
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @return the inputted course.
      * @throws CourseNotFoundException If the user enters an invalid course.
@@ -57,6 +69,7 @@ public interface ICourseMgr {
 
     /**
      * Prompts the user to input an existing department.
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @return the inputted department.
      */
@@ -64,6 +77,7 @@ public interface ICourseMgr {
 
     /**
      * Checks whether this course ID is used by other courses.
+     * Thread-safe.
      *
      * @param courseID The inputted course ID.
      * @return the existing course or else null.
@@ -73,6 +87,7 @@ public interface ICourseMgr {
 
     /**
      * Gets number of lecture groups
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @param compareTo The limit of the number of lecture groups
      * @param totalSeats The total number of seats in the course
@@ -82,6 +97,7 @@ public interface ICourseMgr {
 
     /**
      * Reads the number of weekly lecture hours
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @param academicUnits The number of academic units which limits the number of hours it can be
      * @return the number of weekly lecture hours
@@ -90,6 +106,7 @@ public interface ICourseMgr {
 
     /**
      * Gets number of lab groups
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @param compareTo The limit of the number of lab groups
      * @param totalSeats The total number of seats in the course
@@ -99,6 +116,7 @@ public interface ICourseMgr {
 
     /**
      * Reads the number of weekly lab hours
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @param academicUnits The number of academic units which limits the number of hours it can be
      * @return the number of weekly lab hours
@@ -107,6 +125,7 @@ public interface ICourseMgr {
 
     /**
      * Gets number of tutorial groups
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @param compareTo The limit af the number tutorial groups
      * @param totalSeats The total number of seats in the course
@@ -116,6 +135,7 @@ public interface ICourseMgr {
 
     /**
      * Reads the number of weekly tutorial hours
+     * Thread-safe. Reads from standard input, which only one thread should be doing at a time.
      *
      * @param academicUnits The number of academic units which limits the number of hours it can be
      * @return the number of weekly tutorial hours
@@ -124,6 +144,7 @@ public interface ICourseMgr {
 
     /**
      * Gets the list of course types
+     * Thread-safe.
      *
      * @return The list of course types of type String
      */
@@ -131,6 +152,7 @@ public interface ICourseMgr {
 
     /**
      * Gets the String indicating a main component
+     * Thread-safe.
      *
      * @return a string with the contents "main component"
      */
@@ -138,6 +160,7 @@ public interface ICourseMgr {
 
     /**
      * Gets the String indicating a main component
+     * Thread-safe.
      *
      * @return a string with the contents "main component"
      */
@@ -145,9 +168,20 @@ public interface ICourseMgr {
 
     /**
      * Checks if the course with specified courseID exists
+     * Thread-safe.
      *
      * @param courseID The courseID to check if the course exists
      * @return a boolean indicating if the course exists
      */
     boolean checkCourseExists(String courseID);
+
+    /**
+     * Records that a course has been modified, so that it is saved when the current operation is committed,
+     * and how to undo the modification if the operation is rolled back instead. Thread-safe. The changes
+     * themselves must already have been made safely, such as through the atomic updates of {@code ICourse}.
+     *
+     * @param course The course that has been modified
+     * @param undo   Undoes the modification of the course
+     */
+    void markCourseAsModified(ICourse course, Runnable undo);
 }
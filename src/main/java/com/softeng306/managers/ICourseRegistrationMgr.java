@@ -1,20 +1,28 @@
 package com.softeng306.managers;
 
+import com.softeng306.domain.course.courseregistration.RegistrationRequest;
 import com.softeng306.domain.exceptions.CourseNotFoundException;
 import com.softeng306.domain.exceptions.GroupTypeNotFoundException;
 import com.softeng306.domain.exceptions.InvalidCourseRegistrationException;
 import com.softeng306.domain.exceptions.StudentNotFoundException;
+import com.softeng306.enums.RegistrationOutcome;
 
 import java.util.List;
 
 /**
  * Interface for course registration manager operations.
  * Defines the responsibilities of what functions must be performed on courses registrations in the academic institute.
+ * <p>
+ * Implementations are safe to use from several threads at once.
  */
 public interface ICourseRegistrationMgr {
 
     /**
      * Registers a course for a student
+     * Thread-safe. Seats are taken atomically, so a course and its groups are never overbooked, and a
+     * student is never registered for a course twice. Reads the chosen groups from standard input, holding a
+     * seat in the course and in each group as it is chosen. The held seats are given back if the registration
+     * is not made within the time set by {@code SeatHoldMgr.HOLD_SECONDS_PROPERTY}.
      *
      * @param studentID The student registering for the course
      * @param courseID The course being registered by the student
@@ -25,8 +33,44 @@ public interface ICourseRegistrationMgr {
      */
     List<String> registerCourse(String studentID, String courseID) throws InvalidCourseRegistrationException, StudentNotFoundException, CourseNotFoundException;
 
+    /**
+     * Registers a course for a student in the groups with the given names, without reading from standard input.
+     * Thread-safe, like {@link #registerCourse(String, String)}. Registrations for different courses are made
+     * in parallel.
+     *
+     * @param studentID The student registering for the course
+     * @param courseID The course being registered by the student
+     * @param lectureGroupName The name of the lecture group to register in
+     * @param tutorialGroupName The name of the tutorial group to register in, or null if the course has none
+     * @param labGroupName The name of the lab group to register in, or null if the course has none
+     * @return information about the registration
+     * @throws InvalidCourseRegistrationException if the course has no group with one of the names, or the
+     *                                            registration cannot be made for the same reasons as interactively.
+     *                                            A {@code SeatsHeldException} if the vacancies left in the
+     *                                            course or a chosen group are all held by other registrations
+     * @throws StudentNotFoundException
+     * @throws CourseNotFoundException
+     */
+    List<String> registerCourse(String studentID, String courseID, String lectureGroupName, String tutorialGroupName,
+                                String labGroupName) throws InvalidCourseRegistrationException, StudentNotFoundException, CourseNotFoundException;
+
+    /**
+     * Registers students for courses in the groups with the given names, without reading from standard input or
+     * printing anything. Like every other operation, the registrations made and the students' new marks are
+     * left in the {@code UnitOfWork} of the calling thread, for the caller to commit or roll back.
+     * Thread-safe, like {@link #registerCourse(String, String, String, String, String)}. Every request is checked
+     * before any seat is taken, and the registrations and marks made are each written to storage in one batch
+     * when they are committed, so enrolling thousands of students takes about as long as writing the files once.
+     *
+     * @param requests The registrations to make, in order. A student asking for the same course twice is
+     *                 registered for the first request only.
+     * @return what happened to each request, in the order of the requests
+     */
+    List<RegistrationOutcome> registerCourses(List<RegistrationRequest> requests);
+
     /**
      * Prints the students in a course according to their lecture group, tutorial group or lab group.
+     * Thread-safe. Prints the registrations that existed when it was called.
      *
      * @param courseID The course ID representing the course to print students for
      * @param opt The option chosem: 1 for lecture groups, 2 for tutorial groups, 3 for lab groups
@@ -37,6 +81,7 @@ public interface ICourseRegistrationMgr {
 
     /**
      * Gets all course IDs that student has registered for
+     * Thread-safe.
      *
      * @param studentId The student ID representing the student to get information for
      * @return the list of course IDs that the student has registered for
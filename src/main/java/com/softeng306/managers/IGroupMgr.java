@@ -8,15 +8,22 @@ import java.util.List;
 /**
  * Interface for defining course group operations.
  * Defines the responsibilities of what functions should be done with course lecture/tutorial/lab groups.
+ * <p>
+ * Implementations are safe to use from several threads at once, but read the user's choices from
+ * standard input, which only one thread should be doing at a time.
  */
 public interface IGroupMgr {
     /**
      * Checks whether the inputted department is valid.
+     * Thread-safe, but reads from standard input. Holds a seat in the chosen group, so that no one else can
+     * take it before the registration is made or the hold is released or expires.
      *
      * @param groupType The type of this group.
      * @param groups    A list of a certain type of groups in a course.
-     * @return the name of the group chosen by the user.
+     * @param seatHold  The hold of the seats for the registration the group is chosen for.
+     * @return the name of the group chosen by the user, or null if there are no groups, none has vacancies
+     *         left, or the hold has expired.
      */
-    IGroup printGroupWithVacancyInfo(GroupType groupType, List<IGroup> groups);
+    IGroup printGroupWithVacancyInfo(GroupType groupType, List<IGroup> groups, ISeatHold seatHold);
 
 }
@@ -8,10 +8,13 @@ import java.util.List;
 /**
  * Interface for defining professor operations.
  * Defines the responsibilities of what functions should be done with professors.
+ * <p>
+ * Implementations are safe to use from several threads at once.
  */
 public interface IProfessorMgr {
     /**
      * Returns the IDs of all professors in the department.
+     * Thread-safe.
      *
      * @param departmentName The department the professors are in.
      * @return A list of all the IDs of the professors.
@@ -20,6 +23,7 @@ public interface IProfessorMgr {
 
     /**
      * Gets professor from specified professor ID
+     * Thread-safe.
      *
      * @param professorID The ID of the specified professor
      * @return the professor specified by ID
@@ -29,6 +33,8 @@ public interface IProfessorMgr {
 
     /**
      * Finds if a professor with the profID is in the system.
+     * Thread-safe.
+     *
      * @param profID The professor ID we are searching for.
      * @return If the professor exists.
      */
@@ -0,0 +1,58 @@
+package com.softeng306.managers;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.group.IGroup;
+
+/**
+ * Interface for the seats held for a registration that is still being made.
+ * A seat hold holds a seat in a course as soon as the registration starts, and a seat in each group as it
+ * is chosen, so that no one else can take them before the registration is made. Unless the registration
+ * is made first, the seats are given back when the hold is released, or when it expires.
+ * <p>
+ * Implementations are safe to use from several threads at once.
+ */
+public interface ISeatHold {
+    /**
+     * Gets the course a seat is held in.
+     * Thread-safe.
+     *
+     * @return the course of the registration.
+     */
+    ICourse getCourse();
+
+    /**
+     * Holds a seat in a group of the course as well.
+     * Thread-safe.
+     *
+     * @param group The chosen group.
+     * @return whether a seat was held, which it is not if the group is full or the hold has been committed,
+     *         released or has expired.
+     */
+    boolean holdGroup(IGroup group);
+
+    /**
+     * Takes all the held seats at once, when the registration is made, so that they are no longer
+     * vacancies and are never given back by the hold.
+     * Thread-safe. Either commits the hold or lets it expire, never both.
+     *
+     * @return whether the seats were taken, which they are not if the hold has already been committed,
+     *         released or has expired.
+     */
+    boolean commit();
+
+    /**
+     * Gives back all the held seats, unless the hold has already been committed, released or has expired.
+     * Thread-safe.
+     *
+     * @return whether the seats were given back.
+     */
+    boolean release();
+
+    /**
+     * Checks whether the seats are still held.
+     * Thread-safe.
+     *
+     * @return whether the hold has not been committed, released or expired yet.
+     */
+    boolean isHeld();
+}
@@ -0,0 +1,30 @@
+package com.softeng306.managers;
+
+import com.softeng306.domain.course.ICourse;
+
+/**
+ * Interface for seat hold operations.
+ * Defines the responsibilities of holding seats for registrations while they are being made.
+ * <p>
+ * Implementations are safe to use from several threads at once.
+ */
+public interface ISeatHoldMgr {
+    /**
+     * Holds a seat in a course for a registration that is being made, for as long as seats are held by default.
+     * Thread-safe. Seats are held with compare-and-set, so holds never hold more seats than there are.
+     *
+     * @param course The course being registered for.
+     * @return the hold of the seat, or null if every seat left in the course is already held.
+     */
+    ISeatHold holdSeat(ICourse course);
+
+    /**
+     * Holds a seat in a course for a registration that is being made, for a given time.
+     * Thread-safe. Seats are held with compare-and-set, so holds never hold more seats than there are.
+     *
+     * @param course     The course being registered for.
+     * @param holdMillis The time in milliseconds after which the hold expires, unless committed or released first.
+     * @return the hold of the seat, or null if every seat left in the course is already held.
+     */
+    ISeatHold holdSeat(ICourse course, long holdMillis);
+}
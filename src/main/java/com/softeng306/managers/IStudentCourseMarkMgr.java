@@ -1,6 +1,7 @@
 package com.softeng306.managers;
 
 import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.courseregistration.ICourseRegistration;
 import com.softeng306.domain.mark.IStudentCourseMark;
 import com.softeng306.domain.student.IStudent;
 
@@ -9,10 +10,13 @@ import java.util.List;
 /**
  * Interface for defining student mark operations.
  * Defines the responsibilities of what functions should be done with student course marks.
+ * <p>
+ * Implementations are safe to use from several threads at once.
  */
 public interface IStudentCourseMarkMgr {
     /**
-     * Initializes marks for a student when he/she just registered a course.
+     * Initializes marks for a student when he/she just registered a course, and adds them to the marks in the system.
+     * Thread-safe. Must only be called once for each student and course, which registering for the course ensures.
      *
      * @param student the student this mark record belongs to.
      * @param course  the course this mark record about.
@@ -20,8 +24,20 @@ public interface IStudentCourseMarkMgr {
      */
     IStudentCourseMark initialiseStudentCourseMark(IStudent student, ICourse course);
 
+    /**
+     * Initializes marks for the students of several new registrations, and adds them to the marks in the system
+     * in one batch.
+     * Thread-safe. Must only be called once for each student and course, which registering for the course ensures.
+     *
+     * @param courseRegistrations the new registrations, each for a different student and course.
+     * @return the new added marks, in the order of the registrations.
+     */
+    List<IStudentCourseMark> initialiseStudentCourseMarks(List<ICourseRegistration> courseRegistrations);
+
     /**
      * Sets the coursework mark for the mark record.
+     * Thread-safe. Reads the component and the mark from standard input. Each mark is added to the total
+     * mark atomically, so marks set for the same record at the same time are all counted.
      *
      * @param isExam whether this coursework component refers to "Exam"
      */
@@ -29,13 +45,43 @@ public interface IStudentCourseMarkMgr {
 
     /**
      * Return the list of all marks in the system.
+     * Thread-safe. Returns the marks that existed when it was called.
      *
      * @return An list of all marks.
      */
     List<IStudentCourseMark> getStudentCourseMarks();
 
+    /**
+     * Returns the mark record of a student for a course.
+     * Thread-safe.
+     *
+     * @param studentId The student ID of the student
+     * @param courseId  The course ID of the course
+     * @return the mark record of the student for the course, or else null.
+     */
+    IStudentCourseMark getStudentCourseMark(String studentId, String courseId);
+
+    /**
+     * Returns the mark records of a student, in the order the student registered for the courses.
+     * Thread-safe.
+     *
+     * @param studentId The student ID of the student
+     * @return the list of mark records for the student
+     */
+    List<IStudentCourseMark> getCourseMarksForStudent(String studentId);
+
+    /**
+     * Returns the mark records of every student registered for a course.
+     * Thread-safe.
+     *
+     * @param courseId The course ID of the course
+     * @return the list of mark records for the course
+     */
+    List<IStudentCourseMark> getCourseMarksForCourse(String courseId);
+
     /**
      * Returns the academic units for a student
+     * Thread-safe.
      *
      * @param studentId The student ID of specified student
      * @return the academic units for said student
@@ -45,6 +91,7 @@ public interface IStudentCourseMarkMgr {
     /**
      * Returns the mark message for the student, containing each mark each course that the student is registered for
      * This includes marks for each assessment component for each course, as well as the overall GPA for said student
+     * Thread-safe.
      *
      * @param studentId The student ID for said student
      * @param totalAU The total academic units for said student
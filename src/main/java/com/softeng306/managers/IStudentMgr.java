@@ -8,10 +8,13 @@ import java.util.List;
 /**
  * Interface for student manager operations.
  * Defines the responsibilities of what functions must be performed on enrolled students.
+ * <p>
+ * Implementations are safe to use from several threads at once.
  */
 public interface IStudentMgr {
     /**
      * Creates a new student.
+     * Thread-safe. Students with different IDs can be created at the same time from different threads.
      *
      * @param id     The new student's ID.
      * @param name   The new student's name.
@@ -23,11 +26,13 @@ public interface IStudentMgr {
 
     /**
      * Displays the IDs of all the students.
+     * Thread-safe. Displays the students that existed when it was called.
      */
     void printAllStudentIds();
 
     /**
      * Generates an ID for a new student.
+     * Thread-safe. IDs generated at the same time are never the same, even before the students are created.
      *
      * @return the generated student ID.
      */
@@ -35,6 +40,7 @@ public interface IStudentMgr {
 
     /**
      * Checks whether a student is enrolled in any courses.
+     * Thread-safe.
      *
      * @param studentId The student to check registrations for.
      * @return Whether or not the student has registrations.
@@ -43,6 +49,7 @@ public interface IStudentMgr {
 
     /**
      * Get a student with a given ID.
+     * Thread-safe.
      *
      * @param studentId The student ID to search for.
      * @return The student with the given ID.
@@ -52,6 +59,7 @@ public interface IStudentMgr {
 
     /**
      * Get the name of the student with a given ID.
+     * Thread-safe.
      *
      * @param studentId The ID to get the student name of.
      * @return The name of the student with the given ID.
@@ -61,6 +69,7 @@ public interface IStudentMgr {
 
     /**
      * Generate a list of strings representing each student.
+     * Thread-safe. Describes the students that existed when it was called.
      *
      * @return The list of student strings.
      */
@@ -68,6 +77,7 @@ public interface IStudentMgr {
 
     /**
      * Checks whether this student ID is used by any students.
+     * Thread-safe.
      *
      * @param studentID The student ID to check for.
      * @return Whether or not the given ID has been used.
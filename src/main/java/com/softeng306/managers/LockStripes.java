@@ -0,0 +1,71 @@
+package com.softeng306.managers;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out between keys by their hash, so that operations on different keys
+ * rarely wait for each other, while the number of locks stays the same however many keys there are.
+ * Two keys may share a lock, in which case operations on them are made one at a time.
+ * <p>
+ * A thread that needs several locks from one set of stripes must take them all at once through
+ * {@link #locksFor(Collection)}, which gives them in the same order to every thread. Otherwise two keys
+ * could share a lock held by another thread waiting for them the other way round.
+ */
+class LockStripes {
+    private final Lock[] locks;
+
+    /**
+     * Creates a set of stripes.
+     *
+     * @param stripes The least number of locks to share between the keys, rounded up to a power of two.
+     */
+    LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the lock for a key. The same key always gets the same lock.
+     *
+     * @param key The key to get the lock for.
+     * @return the lock to hold while the key is used.
+     */
+    Lock lockFor(String key) {
+        return locks[stripeFor(key)];
+    }
+
+    /**
+     * Gets the locks for several keys, each lock once, in the order they must be taken.
+     *
+     * @param keys The keys to get the locks for.
+     * @return the locks to hold while the keys are used, to be taken in order and given back in reverse.
+     */
+    List<Lock> locksFor(Collection<String> keys) {
+        BitSet stripes = new BitSet(locks.length);
+        for (String key : keys) {
+            stripes.set(stripeFor(key));
+        }
+
+        List<Lock> keyLocks = new ArrayList<>(stripes.cardinality());
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+            keyLocks.add(locks[i]);
+        }
+        return keyLocks;
+    }
+
+    private int stripeFor(String key) {
+        int hash = key.hashCode();
+        // spread the high bits into the low ones, since only the low ones choose the lock
+        hash ^= hash >>> 16;
+        return hash & (locks.length - 1);
+    }
+
+}
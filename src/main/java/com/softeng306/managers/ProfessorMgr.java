@@ -3,13 +3,12 @@ package com.softeng306.managers;
 import com.softeng306.domain.exceptions.ProfessorNotFoundException;
 import com.softeng306.domain.professor.IProfessor;
 
-import com.softeng306.fileprocessing.IFileProcessor;
-import com.softeng306.fileprocessing.ProfessorFileProcessor;
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.Repositories;
 
 import com.softeng306.enums.Department;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -18,26 +17,20 @@ import java.util.stream.Collectors;
  */
 public class ProfessorMgr implements IProfessorMgr {
     /**
-     * A list of all the professors in this school.
+     * The repository of all the professors in this school, keyed by professor ID.
      */
-    private List<IProfessor> professors;
+    private final IRepository<String, IProfessor> professors;
 
     /**
      * Singleton instance of this professor manager.
      */
     private static IProfessorMgr singleInstance = null;
 
-    /**
-     * The file processor to use for persisting professor data.
-     */
-    private final IFileProcessor<IProfessor> professorFileProcessor;
-
     /**
      * Override default constructor to implement singleton pattern
      */
     private ProfessorMgr() {
-        professorFileProcessor = new ProfessorFileProcessor();
-        professors = professorFileProcessor.loadFile();
+        professors = Repositories.forProfessors();
     }
 
     /**
@@ -45,7 +38,7 @@ public class ProfessorMgr implements IProfessorMgr {
      *
      * @return IProfessorMgr the singleton instance
      */
-    public static IProfessorMgr getInstance() {
+    public static synchronized IProfessorMgr getInstance() {
         if (singleInstance == null) {
             singleInstance = new ProfessorMgr();
         }
@@ -56,34 +49,26 @@ public class ProfessorMgr implements IProfessorMgr {
     @Override
     public List<String> getAllProfIDInDepartment(String departmentName) {
         Department department = Department.valueOf(departmentName);
-        return professors
+        return professors.scanByIndex(Repositories.DEPARTMENT_INDEX, department.name())
                 .stream()
-                .filter(p -> department.equals(p.getDepartment()))
                 .map(p -> p.getProfessorId())
                 .collect(Collectors.toList());
     }
 
     @Override
     public IProfessor getProfessorFromID(String professorID) throws ProfessorNotFoundException {
-        Optional<IProfessor> professor = professors
-                .stream()
-                .filter(p -> professorID.equals(p.getProfessorId()))
-                .findFirst();
+        IProfessor professor = professors.get(professorID);
 
-        if (!professor.isPresent()) {
+        if (professor == null) {
             throw new ProfessorNotFoundException(professorID);
         }
 
-        return professor.get();
+        return professor;
     }
 
     @Override
     public boolean checkProfessorExists(String profID) {
-        Optional<IProfessor> professor = professors.stream()
-                .filter(p -> profID.equals(p.getProfessorId()))
-                .findFirst();
-
-        return professor.isPresent();
+        return professors.contains(profID);
     }
 
 }
\ No newline at end of file
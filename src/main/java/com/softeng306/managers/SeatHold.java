@@ -0,0 +1,102 @@
+package com.softeng306.managers;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.group.IGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Concrete implementation of {@code ISeatHold}.
+ * Created by the {@code SeatHoldMgr} once it has held the seat in the course.
+ */
+class SeatHold implements ISeatHold {
+    private enum State {
+        HELD, COMMITTED, RELEASED
+    }
+
+    private final ICourse course;
+
+    /**
+     * The groups a seat is held in.
+     */
+    private final List<IGroup> groups = new ArrayList<>(3);
+
+    private State state = State.HELD;
+
+    /**
+     * Releases the hold when it expires, or null if it has not been scheduled yet.
+     */
+    private HashedTimerWheel.Timeout expiry;
+
+    /**
+     * Creates the hold of a seat already held in a course.
+     *
+     * @param course The course a seat is held in.
+     */
+    SeatHold(ICourse course) {
+        this.course = course;
+    }
+
+    @Override
+    public ICourse getCourse() {
+        return course;
+    }
+
+    @Override
+    public synchronized boolean holdGroup(IGroup group) {
+        if (state != State.HELD || !group.tryHoldVacancy()) {
+            return false;
+        }
+        groups.add(group);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean commit() {
+        if (state != State.HELD) {
+            return false;
+        }
+        course.commitHeldSeat();
+        groups.forEach(IGroup::commitHeldVacancy);
+        finish(State.COMMITTED);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean release() {
+        if (state != State.HELD) {
+            return false;
+        }
+        course.releaseHeldSeat();
+        groups.forEach(IGroup::releaseHeldVacancy);
+        finish(State.RELEASED);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isHeld() {
+        return state == State.HELD;
+    }
+
+    /**
+     * Sets the task that releases the hold when it expires, so that it can be cancelled once the hold is
+     * committed or released.
+     *
+     * @param expiry The scheduled release of the hold.
+     */
+    synchronized void setExpiry(HashedTimerWheel.Timeout expiry) {
+        this.expiry = expiry;
+        if (state != State.HELD) {
+            expiry.cancel();
+        }
+    }
+
+    private void finish(State finalState) {
+        state = finalState;
+        if (expiry != null) {
+            // nothing is left to give back, so the expiry no longer needs to wait in the timer wheel
+            expiry.cancel();
+        }
+    }
+}
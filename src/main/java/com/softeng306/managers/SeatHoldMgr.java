@@ -0,0 +1,75 @@
+package com.softeng306.managers;
+
+import com.softeng306.domain.course.ICourse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concrete implementation of {@code ISeatHoldMgr}.
+ * Releases the holds that expire from a hashed timer wheel on a background thread, so that registrations
+ * abandoned or left unfinished never keep their seats for longer than a hold lasts.
+ */
+public class SeatHoldMgr implements ISeatHoldMgr {
+    /**
+     * The time, in seconds, after which seats held for a registration are given back if it has not been made.
+     */
+    public static final String HOLD_SECONDS_PROPERTY = "softeng306.registration.seatHoldSeconds";
+
+    private static final long DEFAULT_HOLD_SECONDS = 300;
+
+    /**
+     * The length of a tick of the timer wheel, which is how late a hold may expire.
+     */
+    private static final long TICK_MILLIS = 100;
+
+    /**
+     * The number of ticks in the timer wheel, so that it goes round about once a minute.
+     */
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private final HashedTimerWheel expiries =
+            new HashedTimerWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL, "seat-hold-expiry");
+
+    private final long defaultHoldMillis;
+
+    /**
+     * Singleton instance of this seat hold manager.
+     */
+    private static ISeatHoldMgr singleInstance = null;
+
+    /**
+     * Override default constructor to implement singleton pattern
+     */
+    private SeatHoldMgr() {
+        defaultHoldMillis = TimeUnit.SECONDS.toMillis(Long.getLong(HOLD_SECONDS_PROPERTY, DEFAULT_HOLD_SECONDS));
+    }
+
+    /**
+     * Return the ISeatHoldMgr singleton, if not initialised already, create an instance.
+     *
+     * @return ISeatHoldMgr the singleton instance
+     */
+    public static synchronized ISeatHoldMgr getInstance() {
+        if (singleInstance == null) {
+            singleInstance = new SeatHoldMgr();
+        }
+
+        return singleInstance;
+    }
+
+    @Override
+    public ISeatHold holdSeat(ICourse course) {
+        return holdSeat(course, defaultHoldMillis);
+    }
+
+    @Override
+    public ISeatHold holdSeat(ICourse course, long holdMillis) {
+        if (!course.tryHoldSeat()) {
+            return null;
+        }
+
+        SeatHold seatHold = new SeatHold(course);
+        seatHold.setExpiry(expiries.schedule(seatHold::release, holdMillis, TimeUnit.MILLISECONDS));
+        return seatHold;
+    }
+}
@@ -1,13 +1,17 @@
 package com.softeng306.managers;
 
 import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.courseregistration.ICourseRegistration;
 import com.softeng306.domain.course.component.MainComponent;
 import com.softeng306.domain.course.component.SubComponent;
 import com.softeng306.domain.mark.*;
 import com.softeng306.domain.student.IStudent;
 
-import com.softeng306.fileprocessing.IFileProcessor;
-import com.softeng306.fileprocessing.StudentCourseMarkFileProcessor;
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.Repositories;
+import com.softeng306.fileprocessing.RepositoryBatch;
+import com.softeng306.fileprocessing.StudentCourseKey;
+import com.softeng306.fileprocessing.UnitOfWork;
 
 import com.softeng306.io.IStudentCourseMarkMgrIO;
 import com.softeng306.io.StudentCourseMarkMgrIO;
@@ -20,20 +24,23 @@ import java.util.List;
  */
 public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
     /**
-     * A list of all the student mark records in this school.
+     * All the student mark records in this school, keyed by student and course and indexed by each.
      */
-    private List<IStudentCourseMark> studentCourseMarks;
+    private final IRepository<StudentCourseKey, IStudentCourseMark> studentCourseMarks;
 
     private static IStudentCourseMarkMgr singleInstance = null;
 
-    private final IFileProcessor<IStudentCourseMark> studentCourseMarkFileProcessor;
-
     /**
      * Override default constructor to implement singleteon pattern
      */
     private StudentCourseMarkMgr() {
-        studentCourseMarkFileProcessor = new StudentCourseMarkFileProcessor();
-        studentCourseMarks = studentCourseMarkFileProcessor.loadFile();
+        // records refer to students and courses by ID, so those must be loaded before the records are resolved
+        studentCourseMarks = Repositories.forStudentCourseMarks(() -> {
+            StudentMgr.getInstance();
+            CourseMgr.getInstance();
+        });
+        // the manager owns the repository, so it is the one to close it when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(studentCourseMarks::close, "close-marks"));
     }
 
     /**
@@ -41,7 +48,7 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
      *
      * @return IStudentCourseMarkMgr the singleton instance
      */
-    public static IStudentCourseMarkMgr getInstance() {
+    public static synchronized IStudentCourseMarkMgr getInstance() {
         if (singleInstance == null) {
             singleInstance = new StudentCourseMarkMgr();
         }
@@ -51,6 +58,36 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
 
     @Override
     public IStudentCourseMark initialiseStudentCourseMark(IStudent student, ICourse course) {
+        IStudentCourseMark studentCourseMark = createStudentCourseMark(student, course);
+        UnitOfWork.current().registerNew(studentCourseMarks, studentCourseMark);
+        return studentCourseMark;
+    }
+
+    @Override
+    public List<IStudentCourseMark> initialiseStudentCourseMarks(List<ICourseRegistration> courseRegistrations) {
+        List<IStudentCourseMark> newMarks = new ArrayList<>(courseRegistrations.size());
+        RepositoryBatch<StudentCourseKey, IStudentCourseMark> batch = new RepositoryBatch<>();
+        for (ICourseRegistration courseRegistration : courseRegistrations) {
+            IStudentCourseMark studentCourseMark = createStudentCourseMark(courseRegistration.getStudent(),
+                    courseRegistration.getCourse());
+            batch.insert(studentCourseMark);
+            newMarks.add(studentCourseMark);
+        }
+
+        if (!batch.isEmpty()) {
+            UnitOfWork.current().registerBatch(studentCourseMarks, batch);
+        }
+        return newMarks;
+    }
+
+    /**
+     * Creates the marks of a student for a course, with every component of the course set to 0.
+     *
+     * @param student the student the marks belong to.
+     * @param course  the course the marks are for.
+     * @return the new marks, not yet added to the marks in the system.
+     */
+    private IStudentCourseMark createStudentCourseMark(IStudent student, ICourse course) {
         List<IMainComponentMark> courseWorkMarks = new ArrayList<>();
         double totalMark = 0d;
         List<MainComponent> mainComponents = course.getMainComponents();
@@ -64,9 +101,7 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
             }
             courseWorkMarks.add(mainComponentMark);
         }
-        IStudentCourseMark studentCourseMark = new StudentCourseMark(student, course, courseWorkMarks, totalMark);
-        studentCourseMarkFileProcessor.writeNewEntryToFile(studentCourseMark);
-        return studentCourseMark;
+        return new StudentCourseMark(student, course, courseWorkMarks, totalMark);
     }
 
     @Override
@@ -77,54 +112,69 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
         List<Integer> weights = new ArrayList<>();
         List<Boolean> isMainComponent = new ArrayList<>();
 
-        // loop through all coursework marks to find one corresponding to same course and student
-        for (IStudentCourseMark studentCourseMark : studentCourseMarks) {
-            if (studentCourseMark.getCourse().getCourseId().equals(courseID) && studentCourseMark.getStudent().getStudentId().equals(studentID)) {
-                if (!isExam) {
-                    for (IMainComponentMark mainComponentMark : studentCourseMark.getCourseWorkMarks()) {
-                        MainComponent mainComponent = mainComponentMark.getMainComponent();
-
-                        if (!mainComponent.getName().equals("Exam")
-                                && !mainComponentMark.hasSubComponentMarks()) {
-                            // get main component details, directly changes params
-                            extractMainComponentDetails(mainComponent, componentNameList,
-                                    availableChoices, weights, isMainComponent);
-                        }
-
-                        // get sub component details, directly changes params
-                        extractSubComponentDetails(mainComponent, componentNameList,
-                                availableChoices, weights, isMainComponent);
-                    }
-
-                    io.printCourseComponentChoices(availableChoices, weights);
-
-                    // get choice from user
-                    int choice = io.readCourseComponentChoice(availableChoices.size());
-                    if (choice == (availableChoices.size() + 1)) { // option to quit selected
-                        return;
-                    }
-
-                    // get mark from user and set for student
-                    double assessmentMark = io.readCourseComponentMark();
-                    String componentName = componentNameList.get(choice - 1);
-                    setComponentMark(studentCourseMark, isMainComponent.get(choice - 1), componentName, assessmentMark);
-
-                } else {
-                    // The user want to enter exam studentCourseMark.
-                    setExamMark(studentCourseMark);
+        // find the mark record corresponding to same course and student
+        IStudentCourseMark studentCourseMark = getStudentCourseMark(studentID, courseID);
+        if (studentCourseMark == null) {
+            io.printStudentNotRegisteredToCourse(courseID);
+            return;
+        }
+
+        Runnable undo;
+        if (!isExam) {
+            for (IMainComponentMark mainComponentMark : studentCourseMark.getCourseWorkMarks()) {
+                MainComponent mainComponent = mainComponentMark.getMainComponent();
+
+                if (!mainComponent.getName().equals("Exam")
+                        && !mainComponentMark.hasSubComponentMarks()) {
+                    // get main component details, directly changes params
+                    extractMainComponentDetails(mainComponent, componentNameList,
+                            availableChoices, weights, isMainComponent);
                 }
 
-                studentCourseMarkFileProcessor.updateFileContents(studentCourseMarks);
+                // get sub component details, directly changes params
+                extractSubComponentDetails(mainComponent, componentNameList,
+                        availableChoices, weights, isMainComponent);
+            }
+
+            io.printCourseComponentChoices(availableChoices, weights);
+
+            // get choice from user
+            int choice = io.readCourseComponentChoice(availableChoices.size());
+            if (choice == (availableChoices.size() + 1)) { // option to quit selected
                 return;
             }
+
+            // get mark from user and set for student
+            double assessmentMark = io.readCourseComponentMark();
+            String componentName = componentNameList.get(choice - 1);
+            undo = setComponentMark(studentCourseMark, isMainComponent.get(choice - 1), componentName, assessmentMark);
+
+        } else {
+            // The user want to enter exam studentCourseMark.
+            undo = setExamMark(studentCourseMark);
         }
 
-        io.printStudentNotRegisteredToCourse(courseID);
+        UnitOfWork.current().registerDirty(studentCourseMarks, studentCourseMark, undo);
     }
 
     @Override
     public List<IStudentCourseMark> getStudentCourseMarks() {
-        return studentCourseMarks;
+        return studentCourseMarks.scanAll();
+    }
+
+    @Override
+    public IStudentCourseMark getStudentCourseMark(String studentId, String courseId) {
+        return studentCourseMarks.get(new StudentCourseKey(studentId, courseId));
+    }
+
+    @Override
+    public List<IStudentCourseMark> getCourseMarksForStudent(String studentId) {
+        return studentCourseMarks.scanByIndex(Repositories.STUDENT_ID_INDEX, studentId);
+    }
+
+    @Override
+    public List<IStudentCourseMark> getCourseMarksForCourse(String courseId) {
+        return studentCourseMarks.scanByIndex(Repositories.COURSE_ID_INDEX, courseId);
     }
 
     @Override
@@ -196,24 +246,30 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
      * @param isMainComponent Whether the student course mark is for a main component
      * @param componentName The name of the component to set
      * @param assessmentMark The mark to set for the component
+     * @return Sets the previous mark of the component again
      */
-    private void setComponentMark(IStudentCourseMark studentCourseMark, boolean isMainComponent, String componentName,
-                                  double assessmentMark) {
+    private Runnable setComponentMark(IStudentCourseMark studentCourseMark, boolean isMainComponent,
+                                      String componentName, double assessmentMark) {
         IStudentCourseMarkMgrIO io = new StudentCourseMarkMgrIO();
         if (isMainComponent) {
             try {
                 // This is a stand alone main assessment
                 // Set mark and print results
+                double previousMark = getMainComponentMark(studentCourseMark, componentName);
                 List<Double> resultList = studentCourseMark.setMainComponentMark(componentName, assessmentMark);
                 io.printMainComponentMarkSetMessage(resultList);
+                return () -> studentCourseMark.setMainComponentMark(componentName, previousMark);
             } catch (IllegalArgumentException e) {
                 io.printMainComponentDoesNotExistMessage(e.getMessage());
+                return () -> {};
             }
 
         } else {
             // Set mark and print result message
+            double previousMark = getSubComponentMark(studentCourseMark, componentName);
             List<Double> resultList = studentCourseMark.setSubComponentMark(componentName, assessmentMark);
             io.printSubComponentMarkSetMessage(resultList);
+            return () -> studentCourseMark.setSubComponentMark(componentName, previousMark);
         }
     }
 
@@ -221,19 +277,57 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
      * Sets the exam mark
      *
      * @param studentCourseMark The coursework mark to set the result for
+     * @return Sets the previous exam mark again
      */
-    private void setExamMark(IStudentCourseMark studentCourseMark) {
+    private Runnable setExamMark(IStudentCourseMark studentCourseMark) {
         IStudentCourseMarkMgrIO io = new StudentCourseMarkMgrIO();
         double examMark = new StudentCourseMarkMgrIO().readExamMark();
 
         try {
             // Sets and prints results
+            double previousMark = getMainComponentMark(studentCourseMark, "Exam");
             List<Double> resultList = studentCourseMark.setMainComponentMark("Exam", examMark);
             io.printMainComponentMarkSetMessage(resultList);
+            return () -> studentCourseMark.setMainComponentMark("Exam", previousMark);
         }
         catch(IllegalArgumentException e) {
             io.printMainComponentDoesNotExistMessage(e.getMessage());
+            return () -> {};
+        }
+    }
+
+    /**
+     * Gets the mark of a main component
+     *
+     * @param studentCourseMark The student course mark to get the mark from
+     * @param componentName The name of the main component
+     * @return The mark of the main component
+     * @throws IllegalArgumentException If the main component does not exist
+     */
+    private double getMainComponentMark(IStudentCourseMark studentCourseMark, String componentName) {
+        for (IMainComponentMark mainComponentMark : studentCourseMark.getCourseWorkMarks()) {
+            if (mainComponentMark.getMainComponent().getName().equals(componentName)) {
+                return mainComponentMark.getMark();
+            }
         }
+        throw new IllegalArgumentException("This main assessment component does not exist...");
+    }
+
+    /**
+     * Gets the mark of a sub component
+     *
+     * @param studentCourseMark The student course mark to get the mark from
+     * @param componentName The name of the sub component
+     * @return The mark of the sub component, or 0 if it does not exist
+     */
+    private double getSubComponentMark(IStudentCourseMark studentCourseMark, String componentName) {
+        for (IMainComponentMark mainComponentMark : studentCourseMark.getCourseWorkMarks()) {
+            ISubComponentMark subComponentMark = mainComponentMark.getSubComponentMark(componentName);
+            if (subComponentMark != null) {
+                return subComponentMark.getMark();
+            }
+        }
+        return 0d;
     }
 
     /**
@@ -277,21 +371,4 @@ public class StudentCourseMarkMgr implements IStudentCourseMarkMgr {
         }
     }
 
-    /**
-     * Gets the list of coursework marks for specified student
-     *
-     * @param studentId The student ID to get the list of coursework marks for
-     * @return the list of student course marks for specified student
-     */
-    private List<IStudentCourseMark> getCourseMarksForStudent(String studentId) {
-        List<IStudentCourseMark> studentMarks = new ArrayList<>();
-        for (IStudentCourseMark studentCourseMark : StudentCourseMarkMgr.getInstance().getStudentCourseMarks()) {
-            // If student course mark is for student, then add to the list
-            if (studentCourseMark.getStudent().getStudentId().equals(studentId)) {
-                studentMarks.add(studentCourseMark);
-            }
-        }
-        return studentMarks;
-    }
-
 }
@@ -4,8 +4,11 @@ import com.softeng306.domain.exceptions.StudentNotFoundException;
 import com.softeng306.domain.student.IStudent;
 import com.softeng306.domain.student.Student;
 
-import com.softeng306.fileprocessing.IFileProcessor;
-import com.softeng306.fileprocessing.StudentFileProcessor;
+import com.softeng306.fileprocessing.EntityRegistry;
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.PersistenceConfig;
+import com.softeng306.fileprocessing.Repositories;
+import com.softeng306.fileprocessing.UnitOfWork;
 
 import com.softeng306.enums.Department;
 import com.softeng306.enums.Gender;
@@ -13,34 +16,40 @@ import com.softeng306.enums.Gender;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Concrete implementation of {@code IStudentMgr}.
  * Manages the operations on students enrolled in the academic institute.
+ * <p>
+ * When {@link PersistenceConfig#isIndexedEntitiesEnabled()} is set, students are looked up through an
+ * index of the student file as they are asked for, and every student is only read from the file once
+ * an operation needs all of them.
  */
 public class StudentMgr implements IStudentMgr {
     /**
-     * A list of all the students in this school.
+     * Singleton instance of the manager.
      */
-    private List<IStudent> students;
+    private static StudentMgr singleInstance = null;
 
     /**
-     * Singleton instance of the manager.
+     * The repository of all the students in this school, keyed by student ID.
      */
-    private static StudentMgr singleInstance = null;
+    private final IRepository<String, IStudent> students;
 
     /**
-     * The file processor to use for persisting student data.
+     * The number of the last student ID generated, so that IDs generated at the same time are not given
+     * the same number before either student has been created.
      */
-    private final IFileProcessor<IStudent> studentFileProcessor;
+    private final AtomicInteger lastGeneratedStudentNumber = new AtomicInteger();
 
     /**
      * Override default constructor to implement singleton pattern
      */
     private StudentMgr() {
-        studentFileProcessor = new StudentFileProcessor();
-        students = studentFileProcessor.loadFile();
+        students = Repositories.forStudents();
+        // students that have not been read yet are read from the repository when they are first referred to
+        EntityRegistry.getInstance().setStudentLoader(students::get);
     }
 
     /**
@@ -49,7 +58,7 @@ public class StudentMgr implements IStudentMgr {
      *
      * @return IStudentMgr the singleton instance
      */
-    public static StudentMgr getInstance() {
+    public static synchronized StudentMgr getInstance() {
         if (singleInstance == null) {
             singleInstance = new StudentMgr();
         }
@@ -65,26 +74,28 @@ public class StudentMgr implements IStudentMgr {
         currentStudent.setGender(Gender.valueOf(gender));      //gender
         currentStudent.setYearLevel(year);   //student year
 
-        studentFileProcessor.writeNewEntryToFile(currentStudent);
-        students.add(currentStudent);
+        EntityRegistry.getInstance().canonicalStudent(currentStudent);
+        UnitOfWork.current().registerNew(students, currentStudent);
     }
 
     @Override
     public void printAllStudentIds() {
-        for (IStudent s : students) {
+        for (IStudent s : students.scanAll()) {
             System.out.println(s.getStudentId());
         }
     }
 
     @Override
     public String generateStudentID() {
-        int smallestAvailableIDNumber = findLargestStudentID();
+        int largestStudentNumber = findLargestStudentID();
+        int studentNumber = lastGeneratedStudentNumber.updateAndGet(
+                lastNumber -> Math.max(lastNumber, largestStudentNumber) + 1);
 
         // randomly generate the last character from A-Z.
         int rand = new Random().nextInt();
         char randomEndNumber = (char) ((rand * (76 - 65) + 1) + 65);
 
-        return "U" + (smallestAvailableIDNumber + 1) + randomEndNumber;
+        return "U" + studentNumber + randomEndNumber;
     }
 
     @Override
@@ -95,16 +106,12 @@ public class StudentMgr implements IStudentMgr {
 
     @Override
     public IStudent getStudentFromId(String studentId) throws StudentNotFoundException {
-        Optional<IStudent> student = students
-                .stream()
-                .filter(s -> studentId.equals(s.getStudentId()))
-                .findFirst();
-
-        if (!student.isPresent()) {
+        IStudent student = students.get(studentId);
+        if (student == null) {
             throw new StudentNotFoundException(studentId);
         }
 
-        return student.get();
+        return student;
     }
 
     @Override
@@ -116,7 +123,7 @@ public class StudentMgr implements IStudentMgr {
     @Override
     public List<String> generateStudentInformationStrings() {
         List<String> studentInformationStrings = new ArrayList<>();
-        for (IStudent student : StudentMgr.getInstance().getStudents()) {
+        for (IStudent student : students.scanAll()) {
             String GPA = "not available";
             if (Double.compare(student.getGpa(), 0.0) != 0) {
                 GPA = String.valueOf(student.getGpa());
@@ -128,20 +135,7 @@ public class StudentMgr implements IStudentMgr {
 
     @Override
     public boolean studentExists(String studentID) {
-        Optional<IStudent> student = students.stream()
-                .filter(s -> studentID.equals(s.getStudentId()))
-                .findFirst();
-
-        return student.isPresent();
-    }
-
-    /**
-     * Return the list of all students in the system.
-     *
-     * @return The list of students.
-     */
-    private List<IStudent> getStudents() {
-        return students;
+        return students.contains(studentID);
     }
 
     /**
@@ -152,8 +146,9 @@ public class StudentMgr implements IStudentMgr {
      */
     private int findLargestStudentID() {
         int recentStudentID = 0;
-        for (IStudent student : students) {
-            recentStudentID = Math.max(recentStudentID, Integer.parseInt(student.getStudentId().substring(1, 8)));
+        // only the IDs are needed, so the students themselves are not read if the repository can list the IDs alone
+        for (String studentId : students.scanKeys()) {
+            recentStudentID = Math.max(recentStudentID, Integer.parseInt(studentId.substring(1, 8)));
         }
 
         return recentStudentID > 0 ? recentStudentID : 1800000;
@@ -0,0 +1,265 @@
+package testbatchregistration;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.courseregistration.RegistrationRequest;
+import com.softeng306.domain.course.group.Group;
+import com.softeng306.domain.course.group.IGroup;
+import com.softeng306.domain.exceptions.SeatsHeldException;
+import com.softeng306.enums.GroupType;
+import com.softeng306.enums.RegistrationOutcome;
+import com.softeng306.fileprocessing.PersistenceConfig;
+import com.softeng306.fileprocessing.UnitOfWork;
+import com.softeng306.managers.CourseMgr;
+import com.softeng306.managers.CourseRegistrationMgr;
+import com.softeng306.managers.ICourseMgr;
+import com.softeng306.managers.ICourseRegistrationMgr;
+import com.softeng306.managers.ISeatHold;
+import com.softeng306.managers.IStudentCourseMarkMgr;
+import com.softeng306.managers.IStudentMgr;
+import com.softeng306.managers.SeatHoldMgr;
+import com.softeng306.managers.StudentCourseMarkMgr;
+import com.softeng306.managers.StudentMgr;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import utils.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the outcome reported for each request in a batch of registrations, and that every registration of a
+ * large batch is made. When benchmarks are enabled, also checks that a batch of ten thousand registrations is
+ * made in seconds.
+ * <p>
+ * The managers use the in-memory backend, so the data files are read but never written. The managers are
+ * singletons, so the test class must run in a JVM of its own, as surefire is configured to do, for them to be
+ * created with that backend and for the courses it changes to be seen by no other test class.
+ * The groups of the courses used are replaced to give them known seats.
+ */
+public class TestBatchRegistration {
+    private static final List<String> COURSE_IDS = List.of("SE0001", "SE1006", "SE2002", "SE2005");
+    private static final int STUDENTS = 100;
+    private static final int BENCHMARK_STUDENTS = 2500;
+    private static final long BENCHMARK_LIMIT_SECONDS = 10;
+
+    @BeforeClass
+    public static void useMemoryBackend() {
+        System.setProperty(PersistenceConfig.STORAGE_BACKEND_PROPERTY, PersistenceConfig.MEMORY_BACKEND);
+    }
+
+    @AfterClass
+    public static void clearBackend() {
+        System.clearProperty(PersistenceConfig.STORAGE_BACKEND_PROPERTY);
+    }
+
+    @After
+    public void commit() {
+        UnitOfWork.current().awaitDurability();
+    }
+
+    /**
+     * Tests that every request in a batch is given the outcome of the first check it fails, that the valid
+     * requests are registered with their marks, and that only their seats are taken
+     */
+    @Test
+    public void testOutcomeOfEachRequest() throws Exception {
+        ICourseMgr courseMgr = CourseMgr.getInstance();
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        IStudentCourseMarkMgr studentCourseMarkMgr = StudentCourseMarkMgr.getInstance();
+        List<String> studentIds = createStudents(3);
+
+        // the tutorial group only has a seat for the first valid request
+        ICourse course = courseMgr.getCourseFromId("SE2002");
+        course.setCapacity(5);
+        course.setVacancies(5);
+        course.setLectureGroups(List.of(new Group("LEC", 5, 5, GroupType.LECTURE_GROUP)));
+        course.setTutorialGroups(List.of(new Group("TUT", 1, 1, GroupType.TUTORIAL_GROUP)));
+        course.setLabGroups(new ArrayList<>());
+
+        List<RegistrationOutcome> outcomes = courseRegistrationMgr.registerCourses(List.of(
+                new RegistrationRequest("U0000000Z", "SE2002", "LEC", "TUT", null),
+                new RegistrationRequest(studentIds.get(0), "SE9998", "LEC", "TUT", null),
+                new RegistrationRequest(studentIds.get(0), "SE2006", "LEC1", "TUT1", "LAB1"),
+                new RegistrationRequest(studentIds.get(0), "SE2004", "LEC1", "TUT1", "LAB1"),
+                new RegistrationRequest(studentIds.get(0), "SE2002", "LEC", "TUT9", null),
+                new RegistrationRequest(studentIds.get(0), "SE2002", "LEC", "TUT", "LAB"),
+                new RegistrationRequest(studentIds.get(0), "SE2002", "LEC", "TUT", null),
+                new RegistrationRequest(studentIds.get(0), "SE2002", "LEC", "TUT", null),
+                new RegistrationRequest(studentIds.get(1), "SE2002", "LEC", "TUT", null)));
+
+        assertEquals(List.of(RegistrationOutcome.STUDENT_NOT_FOUND, RegistrationOutcome.COURSE_NOT_FOUND,
+                RegistrationOutcome.NO_ASSESSMENT, RegistrationOutcome.NO_VACANCIES,
+                RegistrationOutcome.GROUP_NOT_FOUND, RegistrationOutcome.GROUP_NOT_FOUND,
+                RegistrationOutcome.REGISTERED, RegistrationOutcome.DUPLICATE_REQUEST,
+                RegistrationOutcome.NO_VACANCIES), outcomes);
+
+        assertEquals(List.of("SE2002"), courseRegistrationMgr.getCourseIdsForStudentId(studentIds.get(0)));
+        assertNotNull(studentCourseMarkMgr.getStudentCourseMark(studentIds.get(0), "SE2002"));
+        assertTrue(courseRegistrationMgr.getCourseIdsForStudentId(studentIds.get(1)).isEmpty());
+        assertNull(studentCourseMarkMgr.getStudentCourseMark(studentIds.get(1), "SE2002"));
+        assertEquals(4, course.getVacancies());
+        assertEquals(4, course.getLectureGroups().get(0).getAvailableVacancies());
+        assertEquals(0, course.getTutorialGroups().get(0).getAvailableVacancies());
+
+        // a later batch finds the registration already made
+        assertEquals(List.of(RegistrationOutcome.ALREADY_REGISTERED, RegistrationOutcome.NO_VACANCIES),
+                courseRegistrationMgr.registerCourses(List.of(
+                        new RegistrationRequest(studentIds.get(0), "SE2002", "LEC", "TUT", null),
+                        new RegistrationRequest(studentIds.get(2), "SE2002", "LEC", "TUT", null))));
+    }
+
+    /**
+     * Tests that a request for a course whose last seat is held by a registration still being made is told that
+     * the seat is held rather than that the course is full, and is made once the seat is given back
+     */
+    @Test
+    public void testSeatsHeldByAnotherRegistration() throws Exception {
+        ICourseMgr courseMgr = CourseMgr.getInstance();
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        String studentId = createStudents(1).get(0);
+        List<RegistrationRequest> requests = List.of(new RegistrationRequest(studentId, "SE1006", "LEC", null, null));
+
+        ICourse course = courseMgr.getCourseFromId("SE1006");
+        IGroup lecture = new Group("LEC", 1, 1, GroupType.LECTURE_GROUP);
+        course.setCapacity(1);
+        course.setVacancies(1);
+        course.setLectureGroups(List.of(lecture));
+        course.setTutorialGroups(new ArrayList<>());
+        course.setLabGroups(new ArrayList<>());
+
+        ISeatHold seatHold = SeatHoldMgr.getInstance().holdSeat(course);
+        assertTrue(seatHold.holdGroup(lecture));
+        try {
+            assertEquals(List.of(RegistrationOutcome.SEATS_HELD), courseRegistrationMgr.registerCourses(requests));
+            try {
+                courseRegistrationMgr.registerCourse(studentId, "SE1006", "LEC", null, null);
+                fail("The registration was made while the only seat was held");
+            } catch (SeatsHeldException e) {
+                // the seat may yet be given back
+            }
+        } finally {
+            seatHold.release();
+        }
+
+        assertEquals(List.of(RegistrationOutcome.REGISTERED), courseRegistrationMgr.registerCourses(requests));
+        assertEquals(0, course.getVacancies());
+        assertEquals(List.of(RegistrationOutcome.ALREADY_REGISTERED), courseRegistrationMgr.registerCourses(requests));
+    }
+
+    /**
+     * Tests that the registrations, marks and reserved seats of a batch are left in the unit of work of the
+     * caller, so that they are undone when the caller rolls it back
+     */
+    @Test
+    public void testBatchIsCommittedByTheCaller() throws Exception {
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        IStudentCourseMarkMgr studentCourseMarkMgr = StudentCourseMarkMgr.getInstance();
+        String studentId = createStudents(1).get(0);
+        UnitOfWork.current().commit();
+
+        ICourse course = CourseMgr.getInstance().getCourseFromId("SE2001");
+        course.setCapacity(1);
+        course.setVacancies(1);
+        course.setLectureGroups(List.of(new Group("LEC", 1, 1, GroupType.LECTURE_GROUP)));
+        course.setTutorialGroups(new ArrayList<>());
+        course.setLabGroups(new ArrayList<>());
+
+        assertEquals(List.of(RegistrationOutcome.REGISTERED), courseRegistrationMgr.registerCourses(List.of(
+                new RegistrationRequest(studentId, "SE2001", "LEC", null, null))));
+        UnitOfWork.current().rollback();
+
+        assertTrue(courseRegistrationMgr.getCourseIdsForStudentId(studentId).isEmpty());
+        assertNull(studentCourseMarkMgr.getStudentCourseMark(studentId, "SE2001"));
+        assertEquals(1, course.getVacancies());
+        assertEquals(1, course.getLectureGroups().get(0).getAvailableVacancies());
+    }
+
+    /**
+     * Tests that every registration of a batch across several courses is made with its mark, taking every seat
+     */
+    @Test
+    public void testLargeBatch() throws Exception {
+        registerEveryStudentForEveryCourse(STUDENTS);
+    }
+
+    /**
+     * Tests that ten thousand registrations across several courses are made in one batch within a few
+     * seconds, and prints how long they took. Only runs when benchmarks are enabled
+     */
+    @Test
+    public void testTenThousandRegistrations() throws Exception {
+        Benchmarks.assumeBenchmarksEnabled();
+        long elapsedMillis = registerEveryStudentForEveryCourse(BENCHMARK_STUDENTS);
+        System.out.println(BENCHMARK_STUDENTS * COURSE_IDS.size() + " registrations in one batch: "
+                + elapsedMillis + " ms");
+        assertTrue(elapsedMillis + " ms", elapsedMillis < TimeUnit.SECONDS.toMillis(BENCHMARK_LIMIT_SECONDS));
+    }
+
+    /**
+     * Gives every course seats for a number of new students, registers each of them for every course in one
+     * batch, and checks that every registration is made with its mark.
+     *
+     * @return how long the batch took to register and write, in milliseconds.
+     */
+    private static long registerEveryStudentForEveryCourse(int students) throws Exception {
+        ICourseMgr courseMgr = CourseMgr.getInstance();
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        for (String courseId : COURSE_IDS) {
+            ICourse course = courseMgr.getCourseFromId(courseId);
+            course.setCapacity(students);
+            course.setVacancies(students);
+            course.setLectureGroups(List.of(new Group("LEC", students, students, GroupType.LECTURE_GROUP)));
+            course.setTutorialGroups(List.of(new Group("TUT", students, students, GroupType.TUTORIAL_GROUP)));
+            course.setLabGroups(new ArrayList<>());
+        }
+
+        List<String> studentIds = createStudents(students);
+        UnitOfWork.current().commit();
+        List<RegistrationRequest> requests = new ArrayList<>();
+        for (String studentId : studentIds) {
+            for (String courseId : COURSE_IDS) {
+                requests.add(new RegistrationRequest(studentId, courseId, "LEC", "TUT", null));
+            }
+        }
+
+        long start = System.nanoTime();
+        List<RegistrationOutcome> outcomes = courseRegistrationMgr.registerCourses(requests);
+        UnitOfWork.current().awaitDurability();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Collections.nCopies(requests.size(), RegistrationOutcome.REGISTERED), outcomes);
+        for (String courseId : COURSE_IDS) {
+            ICourse course = courseMgr.getCourseFromId(courseId);
+            assertEquals(courseId, 0, course.getVacancies());
+            assertEquals(courseId, 0, course.getTutorialGroups().get(0).getAvailableVacancies());
+        }
+        for (String studentId : studentIds) {
+            assertEquals(COURSE_IDS.size(), courseRegistrationMgr.getCourseIdsForStudentId(studentId).size());
+            assertEquals(COURSE_IDS.size(),
+                    StudentCourseMarkMgr.getInstance().getCourseMarksForStudent(studentId).size());
+        }
+        return elapsedMillis;
+    }
+
+    private static List<String> createStudents(int count) {
+        IStudentMgr studentMgr = StudentMgr.getInstance();
+        List<String> studentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String studentId = studentMgr.generateStudentID();
+            studentMgr.createNewStudent(studentId, "Batch " + i, "CS", "FEMALE", 3);
+            studentIds.add(studentId);
+        }
+        return studentIds;
+    }
+
+}
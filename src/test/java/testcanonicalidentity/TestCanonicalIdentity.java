@@ -0,0 +1,183 @@
+package testcanonicalidentity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.courseregistration.CourseRegistration;
+import com.softeng306.domain.course.courseregistration.ICourseRegistration;
+import com.softeng306.domain.professor.IProfessor;
+import com.softeng306.domain.student.IStudent;
+import com.softeng306.fileprocessing.CourseFileProcessor;
+import com.softeng306.fileprocessing.CourseRegistrationFileProcessor;
+import com.softeng306.fileprocessing.CourseRegistrationRecord;
+import com.softeng306.fileprocessing.EntityRegistry;
+import com.softeng306.fileprocessing.StudentFileProcessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCanonicalIdentity {
+    private static final int REGISTRATION_COUNT = 100_000;
+
+    /**
+     * A registration that shares its student and course needs well under this many bytes of heap,
+     * while one holding its own copy of the course graph needs several kilobytes.
+     */
+    private static final long MAX_BYTES_PER_REGISTRATION = 256;
+
+    private static File dataDirectory;
+    private static List<IStudent> students;
+    private static List<ICourse> courses;
+
+    private Path registrationFile;
+
+    @BeforeClass
+    public static void loadEntities() throws URISyntaxException {
+        dataDirectory = new File(TestCanonicalIdentity.class.getResource("/utils/originaldata").toURI());
+        students = new StudentFileProcessor(new File(dataDirectory, "studentFile.json").getPath()).loadFile();
+        courses = new CourseFileProcessor(new File(dataDirectory, "courseFile.json").getPath()).loadFile();
+    }
+
+    @Before
+    public void createRegistrationFile() throws IOException {
+        registrationFile = Files.createTempFile("courseRegistrationFile", ".json");
+    }
+
+    @After
+    public void deleteRegistrationFile() throws IOException {
+        Files.deleteIfExists(registrationFile);
+    }
+
+    /**
+     * Tests that reloading the entity files yields the instances that were already loaded
+     */
+    @Test
+    public void testReloadReturnsCanonicalInstances() {
+        List<IStudent> reloadedStudents = new StudentFileProcessor(new File(dataDirectory, "studentFile.json").getPath()).loadFile();
+        List<ICourse> reloadedCourses = new CourseFileProcessor(new File(dataDirectory, "courseFile.json").getPath()).loadFile();
+
+        for (int i = 0; i < students.size(); i++) {
+            assertSame(students.get(i), reloadedStudents.get(i));
+        }
+        for (int i = 0; i < courses.size(); i++) {
+            assertSame(courses.get(i), reloadedCourses.get(i));
+        }
+    }
+
+    /**
+     * Tests that courses coordinated by the same professor share one professor instance
+     */
+    @Test
+    public void testCoordinatorsAreShared() throws Exception {
+        for (ICourse course : courses) {
+            IProfessor coordinator = course.getCourseCoordinator();
+            assertSame(EntityRegistry.getInstance().getProfessor(coordinator.getProfessorId()), coordinator);
+        }
+    }
+
+    /**
+     * Tests that registrations in the legacy format, which embed a copy of their student and course,
+     * resolve to the canonical instances
+     */
+    @Test
+    public void testLegacyRegistrationsShareEntities() throws IOException {
+        List<ICourseRegistration> legacyRegistrations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            legacyRegistrations.add(newRegistration(i));
+        }
+        new ObjectMapper().writeValue(registrationFile.toFile(), legacyRegistrations);
+
+        List<ICourseRegistration> loaded = new CourseRegistrationFileProcessor(registrationFile.toString()).loadFile();
+
+        assertEquals(legacyRegistrations.size(), loaded.size());
+        assertSharesEntities(loaded);
+    }
+
+    /**
+     * Tests that the heap used by 100k registrations grows with the number of registrations only by
+     * the size of the registration objects themselves, not by copies of their students and courses
+     */
+    @Test
+    public void testHeapFootprintOfHundredThousandRegistrations() throws IOException {
+        List<CourseRegistrationRecord> records = new ArrayList<>();
+        for (int i = 0; i < REGISTRATION_COUNT; i++) {
+            records.add(new CourseRegistrationRecord(newRegistration(i)));
+        }
+        new ObjectMapper().writeValue(registrationFile.toFile(), records);
+        records = null;
+
+        CourseRegistrationFileProcessor processor = new CourseRegistrationFileProcessor(registrationFile.toString());
+        long heapBefore = usedHeap();
+        List<ICourseRegistration> loaded = processor.loadFile();
+        long heapAfter = usedHeap();
+
+        assertEquals(REGISTRATION_COUNT, loaded.size());
+        assertSharesEntities(loaded);
+
+        long bytesPerRegistration = (heapAfter - heapBefore) / REGISTRATION_COUNT;
+        assertTrue("Each registration uses " + bytesPerRegistration + " bytes of heap",
+                bytesPerRegistration < MAX_BYTES_PER_REGISTRATION);
+    }
+
+    /**
+     * Creates a registration of a student in a course, cycling through all students and courses.
+     *
+     * @param index The index of the registration.
+     * @return The registration.
+     */
+    private static ICourseRegistration newRegistration(int index) {
+        IStudent student = students.get(index % students.size());
+        ICourse course = courses.get(index % courses.size());
+
+        return new CourseRegistration(student, course, course.getLectureGroups().get(0),
+                course.getTutorialGroups().isEmpty() ? null : course.getTutorialGroups().get(0),
+                course.getLabGroups().isEmpty() ? null : course.getLabGroups().get(0));
+    }
+
+    /**
+     * Asserts that the registrations refer to no more student and course instances than there are
+     * students and courses, and that those instances are the canonical ones.
+     *
+     * @param registrations The registrations to check.
+     */
+    private static void assertSharesEntities(List<ICourseRegistration> registrations) {
+        Set<IStudent> distinctStudents = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<ICourse> distinctCourses = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ICourseRegistration registration : registrations) {
+            distinctStudents.add(registration.getStudent());
+            distinctCourses.add(registration.getCourse());
+        }
+
+        assertEquals(students.size(), distinctStudents.size());
+        assertEquals(courses.size(), distinctCourses.size());
+        assertTrue(distinctStudents.containsAll(students));
+        assertTrue(distinctCourses.containsAll(courses));
+    }
+
+    /**
+     * @return The heap in use after a garbage collection, in bytes.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,238 @@
+package testconcurrentwriters;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.group.IGroup;
+import com.softeng306.domain.exceptions.InvalidCourseRegistrationException;
+import com.softeng306.fileprocessing.PersistenceConfig;
+import com.softeng306.fileprocessing.UnitOfWork;
+import com.softeng306.managers.CourseMgr;
+import com.softeng306.managers.CourseRegistrationMgr;
+import com.softeng306.managers.GroupMgr;
+import com.softeng306.managers.ICourseMgr;
+import com.softeng306.managers.ICourseRegistrationMgr;
+import com.softeng306.managers.IStudentCourseMarkMgr;
+import com.softeng306.managers.IStudentMgr;
+import com.softeng306.managers.ProfessorMgr;
+import com.softeng306.managers.StudentCourseMarkMgr;
+import com.softeng306.managers.StudentMgr;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress tests the managers with many threads writing at once, and checks that no write is lost and
+ * no check made before a write is undone by another thread.
+ * <p>
+ * The managers use the in-memory backend, so the data files are read but never written. The managers are
+ * singletons, so the test class must run in a JVM of its own, as surefire is configured to do, for them to be
+ * created with that backend and for the courses it changes to be seen by no other test class.
+ */
+public class TestConcurrentWriters {
+    private static final int WRITERS = 32;
+    private static final int STUDENTS_PER_WRITER = 25;
+
+    /**
+     * The instances each thread got from {@code getInstance()} when the managers were first used,
+     * keyed by manager.
+     */
+    private static final Map<String, Set<Object>> FIRST_INSTANCES = new ConcurrentHashMap<>();
+
+    @BeforeClass
+    public static void createManagers() throws Exception {
+        System.setProperty(PersistenceConfig.STORAGE_BACKEND_PROPERTY, PersistenceConfig.MEMORY_BACKEND);
+        // every registration chooses the first group of each type
+        System.setIn(new ByteArrayInputStream("1\n".repeat(WRITERS * 16).getBytes(StandardCharsets.UTF_8)));
+
+        runWriters(writer -> {
+            recordFirstInstance("StudentMgr", StudentMgr.getInstance());
+            recordFirstInstance("CourseMgr", CourseMgr.getInstance());
+            recordFirstInstance("ProfessorMgr", ProfessorMgr.getInstance());
+            recordFirstInstance("GroupMgr", GroupMgr.getInstance());
+            recordFirstInstance("CourseRegistrationMgr", CourseRegistrationMgr.getInstance());
+            recordFirstInstance("StudentCourseMarkMgr", StudentCourseMarkMgr.getInstance());
+        });
+    }
+
+    @AfterClass
+    public static void clearBackend() {
+        System.clearProperty(PersistenceConfig.STORAGE_BACKEND_PROPERTY);
+    }
+
+    @After
+    public void commit() {
+        UnitOfWork.current().awaitDurability();
+    }
+
+    /**
+     * Tests that threads using the managers for the first time at the same time all get the same instance
+     */
+    @Test
+    public void testSingletonsAreShared() {
+        assertEquals(6, FIRST_INSTANCES.size());
+        FIRST_INSTANCES.forEach((manager, instances) ->
+                assertEquals(manager + " was created more than once", 1, instances.size()));
+    }
+
+    /**
+     * Tests that students created at the same time with generated IDs are all given different IDs and are all kept
+     */
+    @Test
+    public void testConcurrentStudentCreation() throws Exception {
+        IStudentMgr studentMgr = StudentMgr.getInstance();
+        int studentsBefore = studentMgr.generateStudentInformationStrings().size();
+        Set<String> createdIds = ConcurrentHashMap.newKeySet();
+
+        runWriters(writer -> {
+            for (int i = 0; i < STUDENTS_PER_WRITER; i++) {
+                String studentId = studentMgr.generateStudentID();
+                studentMgr.createNewStudent(studentId, "Writer " + writer, "ECSE", "FEMALE", 1);
+                createdIds.add(studentId);
+            }
+        });
+
+        assertEquals(WRITERS * STUDENTS_PER_WRITER, createdIds.size());
+        for (String studentId : createdIds) {
+            assertTrue(studentMgr.studentExists(studentId));
+        }
+        assertEquals(studentsBefore + WRITERS * STUDENTS_PER_WRITER,
+                studentMgr.generateStudentInformationStrings().size());
+    }
+
+    /**
+     * Tests that students registering for a course at the same time take exactly the vacancies it has, and
+     * that every registration and mark record is kept
+     */
+    @Test
+    public void testConcurrentRegistrationsFillCourseExactly() throws Exception {
+        ICourseMgr courseMgr = CourseMgr.getInstance();
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        IStudentCourseMarkMgr studentCourseMarkMgr = StudentCourseMarkMgr.getInstance();
+        ICourse course = courseMgr.getCourseFromId("SE2001");
+        IGroup lectureGroup = course.getLectureGroups().get(0);
+        int vacanciesBefore = course.getVacancies();
+        int lectureVacanciesBefore = lectureGroup.getAvailableVacancies();
+        int marksBefore = studentCourseMarkMgr.getCourseMarksForCourse("SE2001").size();
+        assertTrue(vacanciesBefore < WRITERS);
+
+        List<String> studentIds = createStudents(WRITERS);
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runWriters(writer -> {
+            try {
+                courseRegistrationMgr.registerCourse(studentIds.get(writer), "SE2001");
+                registered.incrementAndGet();
+            } catch (InvalidCourseRegistrationException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(vacanciesBefore, registered.get());
+        assertEquals(WRITERS - vacanciesBefore, rejected.get());
+        assertEquals(0, course.getVacancies());
+        assertEquals(lectureVacanciesBefore - vacanciesBefore, lectureGroup.getAvailableVacancies());
+        assertEquals(marksBefore + vacanciesBefore, studentCourseMarkMgr.getCourseMarksForCourse("SE2001").size());
+
+        int studentsRegistered = 0;
+        for (String studentId : studentIds) {
+            if (courseRegistrationMgr.getCourseIdsForStudentId(studentId).contains("SE2001")) {
+                studentsRegistered++;
+            }
+        }
+        assertEquals(vacanciesBefore, studentsRegistered);
+    }
+
+    /**
+     * Tests that a student registering for the same course from many threads at once is only registered once
+     */
+    @Test
+    public void testConcurrentRegistrationsOfOneStudent() throws Exception {
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        ICourse course = CourseMgr.getInstance().getCourseFromId("SE2007");
+        int vacanciesBefore = course.getVacancies();
+        String studentId = createStudents(1).get(0);
+
+        AtomicInteger registered = new AtomicInteger();
+        runWriters(writer -> {
+            try {
+                courseRegistrationMgr.registerCourse(studentId, "SE2007");
+                registered.incrementAndGet();
+            } catch (InvalidCourseRegistrationException e) {
+                // the student is already registered
+            }
+        });
+
+        assertEquals(1, registered.get());
+        assertEquals(vacanciesBefore - 1, course.getVacancies());
+        assertEquals(List.of("SE2007"), courseRegistrationMgr.getCourseIdsForStudentId(studentId));
+        assertEquals(1, StudentCourseMarkMgr.getInstance().getCourseMarksForStudent(studentId).size());
+    }
+
+    private static List<String> createStudents(int count) {
+        IStudentMgr studentMgr = StudentMgr.getInstance();
+        List<String> studentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String studentId = studentMgr.generateStudentID();
+            studentMgr.createNewStudent(studentId, "Registering " + i, "CS", "MALE", 2);
+            studentIds.add(studentId);
+        }
+        return studentIds;
+    }
+
+    private static void recordFirstInstance(String manager, Object instance) {
+        FIRST_INSTANCES.computeIfAbsent(manager, name -> ConcurrentHashMap.newKeySet()).add(instance);
+    }
+
+    /**
+     * Runs a writer on each of {@link #WRITERS} threads, all started at once, and rethrows the first
+     * failure of any of them.
+     */
+    private static void runWriters(WriterTask writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                int writerNumber = i;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    writer.write(writerNumber);
+                    // each thread has a unit of work of its own, which its operations leave to be committed
+                    UnitOfWork.current().commit();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : writers) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The work one of the writing threads does.
+     */
+    private interface WriterTask {
+        void write(int writer) throws Exception;
+    }
+
+}
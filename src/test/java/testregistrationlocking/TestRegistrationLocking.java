@@ -0,0 +1,346 @@
+package testregistrationlocking;
+
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.group.Group;
+import com.softeng306.domain.course.group.IGroup;
+import com.softeng306.domain.exceptions.InvalidCourseRegistrationException;
+import com.softeng306.domain.exceptions.SeatsHeldException;
+import com.softeng306.enums.GroupType;
+import com.softeng306.fileprocessing.PersistenceConfig;
+import com.softeng306.fileprocessing.UnitOfWork;
+import com.softeng306.managers.CourseMgr;
+import com.softeng306.managers.CourseRegistrationMgr;
+import com.softeng306.managers.ICourseMgr;
+import com.softeng306.managers.ICourseRegistrationMgr;
+import com.softeng306.managers.IStudentMgr;
+import com.softeng306.managers.StudentCourseMarkMgr;
+import com.softeng306.managers.StudentMgr;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import utils.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Load tests registrations made from many threads across several courses, and checks that no seat is ever
+ * taken twice and no student is registered twice. When benchmarks are enabled, also prints how
+ * registrations scale as threads are added when each thread registers for a course of its own, compared
+ * to all of them registering for one course.
+ * <p>
+ * The managers use the in-memory backend, so the data files are read but never written. The managers are
+ * singletons, so the test class must run in a JVM of its own, as surefire is configured to do, for them to be
+ * created with that backend and for the courses it changes to be seen by no other test class.
+ * The groups of the courses used are replaced to give them known seats.
+ */
+public class TestRegistrationLocking {
+    private static final List<String> COURSE_IDS = List.of("SE0001", "SE1006", "SE2002", "SE2005");
+    private static final int WRITERS = 32;
+    private static final int REQUESTS_PER_REGISTRATION = 4;
+    private static final int[] BENCHMARK_THREADS = {1, 2, 4};
+    private static final int BENCHMARK_REGISTRATIONS_PER_THREAD = 1000;
+
+    @BeforeClass
+    public static void useMemoryBackend() {
+        System.setProperty(PersistenceConfig.STORAGE_BACKEND_PROPERTY, PersistenceConfig.MEMORY_BACKEND);
+    }
+
+    @AfterClass
+    public static void clearBackend() {
+        System.clearProperty(PersistenceConfig.STORAGE_BACKEND_PROPERTY);
+    }
+
+    @After
+    public void commit() {
+        UnitOfWork.current().awaitDurability();
+    }
+
+    /**
+     * Tests that students registering for several courses from many threads at once, each registration
+     * requested several times, take exactly the seats of the course or its smallest chosen group, whichever has
+     * fewer, and that no student is registered for a course twice
+     */
+    @Test
+    public void testRegistrationsAcrossCoursesNeverOverbook() throws Exception {
+        ICourseMgr courseMgr = CourseMgr.getInstance();
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+
+        // every student asks for every course several times in a row, so that threads ask at the same time
+        List<String> studentIds = createStudents(120);
+        List<String[]> registrations = new ArrayList<>();
+        for (String studentId : studentIds) {
+            for (String courseId : COURSE_IDS) {
+                registrations.add(new String[]{studentId, courseId});
+            }
+        }
+        Collections.shuffle(registrations, new Random(306));
+        List<String[]> requests = new ArrayList<>();
+        for (String[] registration : registrations) {
+            for (int i = 0; i < REQUESTS_PER_REGISTRATION; i++) {
+                requests.add(registration);
+            }
+        }
+
+        // the smallest chosen group is the tutorial group of every other course, and the course itself otherwise
+        List<Integer> expectedRegistrations = new ArrayList<>();
+        for (int i = 0; i < COURSE_IDS.size(); i++) {
+            int vacancies = 40 + 10 * i;
+            ICourse course = courseMgr.getCourseFromId(COURSE_IDS.get(i));
+            course.setCapacity(vacancies);
+            course.setVacancies(vacancies);
+            course.setLectureGroups(List.of(new Group("LEC", vacancies + 5, vacancies + 5,
+                    GroupType.LECTURE_GROUP)));
+            if (i % 2 == 0) {
+                course.setTutorialGroups(List.of(new Group("TUT", vacancies - 5, vacancies - 5,
+                        GroupType.TUTORIAL_GROUP)));
+                expectedRegistrations.add(vacancies - 5);
+            } else {
+                course.setTutorialGroups(new ArrayList<>());
+                expectedRegistrations.add(vacancies);
+            }
+            course.setLabGroups(List.of(new Group("LAB", vacancies + 3, vacancies + 3, GroupType.LAB_GROUP)));
+        }
+
+        ConcurrentLinkedQueue<String[]> queue = new ConcurrentLinkedQueue<>(requests);
+        AtomicInteger registered = new AtomicInteger();
+        runThreads(WRITERS, thread -> {
+            String[] request;
+            while ((request = queue.poll()) != null) {
+                ICourse course = courseMgr.getCourseFromId(request[1]);
+                try {
+                    courseRegistrationMgr.registerCourse(request[0], request[1],
+                            firstGroupName(course.getLectureGroups()), firstGroupName(course.getTutorialGroups()),
+                            firstGroupName(course.getLabGroups()));
+                    registered.incrementAndGet();
+                } catch (SeatsHeldException e) {
+                    // the last seats are held by registrations that may yet give them back
+                    queue.add(request);
+                } catch (InvalidCourseRegistrationException e) {
+                    // the student is already registered, or the course or group is full, which it then stays
+                    assertTrue(String.join(" ", request) + " was refused while seats were left",
+                            courseRegistrationMgr.getCourseIdsForStudentId(request[0]).contains(request[1])
+                                    || isFull(course));
+                }
+            }
+            return 0;
+        });
+
+        int expectedTotal = 0;
+        for (int i = 0; i < COURSE_IDS.size(); i++) {
+            String courseId = COURSE_IDS.get(i);
+            ICourse course = courseMgr.getCourseFromId(courseId);
+            int expected = expectedRegistrations.get(i);
+            expectedTotal += expected;
+
+            assertEquals(courseId, 40 + 10 * i - expected, course.getVacancies());
+            assertEquals(courseId, 45 + 10 * i - expected, course.getLectureGroups().get(0).getAvailableVacancies());
+            assertEquals(courseId, 43 + 10 * i - expected, course.getLabGroups().get(0).getAvailableVacancies());
+
+            int studentsRegistered = 0;
+            for (String studentId : studentIds) {
+                if (courseRegistrationMgr.getCourseIdsForStudentId(studentId).contains(courseId)) {
+                    studentsRegistered++;
+                }
+            }
+            assertEquals(courseId, expected, studentsRegistered);
+        }
+        assertEquals(expectedTotal, registered.get());
+
+        for (String studentId : studentIds) {
+            List<String> courseIds = courseRegistrationMgr.getCourseIdsForStudentId(studentId);
+            assertEquals(courseIds.size(), courseIds.stream().distinct().count());
+            assertEquals(courseIds.size(),
+                    StudentCourseMarkMgr.getInstance().getCourseMarksForStudent(studentId).size());
+        }
+    }
+
+    /**
+     * Tests that the seats taken by a registration are given back when the unit of work it was made in is
+     * rolled back, whether after the registration was made or because recording it failed
+     */
+    @Test
+    public void testRolledBackRegistrationGivesBackItsSeats() throws Exception {
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        List<String> studentIds = createStudents(2);
+        UnitOfWork.current().commit();
+
+        ICourse course = CourseMgr.getInstance().getCourseFromId("SE2005");
+        course.setCapacity(2);
+        course.setVacancies(2);
+        course.setLectureGroups(List.of(new Group("LEC", 2, 2, GroupType.LECTURE_GROUP)));
+        course.setTutorialGroups(new ArrayList<>());
+        course.setLabGroups(new ArrayList<>());
+
+        courseRegistrationMgr.registerCourse(studentIds.get(0), "SE2005", "LEC", null, null);
+        assertEquals(1, course.getVacancies());
+        UnitOfWork.current().rollback();
+        assertEquals(2, course.getVacancies());
+        assertEquals(2, course.getLectureGroups().get(0).getAvailableVacancies());
+        assertTrue(courseRegistrationMgr.getCourseIdsForStudentId(studentIds.get(0)).isEmpty());
+
+        // a mark left for the student makes recording the registration fail once the seat is taken
+        StudentCourseMarkMgr.getInstance().initialiseStudentCourseMark(
+                StudentMgr.getInstance().getStudentFromId(studentIds.get(1)), course);
+        UnitOfWork.current().commit();
+        try {
+            courseRegistrationMgr.registerCourse(studentIds.get(1), "SE2005", "LEC", null, null);
+            fail("Recording the registration should have failed");
+        } catch (IllegalArgumentException e) {
+            UnitOfWork.current().rollback();
+        }
+        assertEquals(2, course.getVacancies());
+        assertEquals(2, course.getLectureGroups().get(0).getAvailableVacancies());
+        assertEquals(0, course.getLectureGroups().get(0).getHeldVacancies());
+    }
+
+    /**
+     * Prints how many registrations per second are made as threads are added, when each thread registers
+     * students for a course of its own and when every thread registers students for the same course. Only
+     * runs when benchmarks are enabled
+     */
+    @Test
+    public void testThroughputAcrossCourses() throws Exception {
+        Benchmarks.assumeBenchmarksEnabled();
+        // warm up, so that the first measurement is not slowed down by compilation
+        measureRegistrations(COURSE_IDS.size(), COURSE_IDS);
+
+        for (int threads : BENCHMARK_THREADS) {
+            long spread = measureRegistrations(threads, COURSE_IDS.subList(0, threads));
+            long hot = measureRegistrations(threads, COURSE_IDS.subList(0, 1));
+            System.out.println(threads + " threads: " + spread + " registrations/s on " + threads
+                    + " courses, " + hot + " registrations/s on one course");
+        }
+    }
+
+    /**
+     * Registers new students for courses from a number of threads, giving each thread the next course in
+     * turn, and checks that every registration is made.
+     *
+     * @return the number of registrations made per second.
+     */
+    private static long measureRegistrations(int threads, List<String> courseIds) throws Exception {
+        ICourseMgr courseMgr = CourseMgr.getInstance();
+        ICourseRegistrationMgr courseRegistrationMgr = CourseRegistrationMgr.getInstance();
+        int registrations = threads * BENCHMARK_REGISTRATIONS_PER_THREAD;
+        for (String courseId : courseIds) {
+            // give the course one large lecture group with enough seats for every registration
+            ICourse course = courseMgr.getCourseFromId(courseId);
+            course.setCapacity(registrations);
+            course.setVacancies(registrations);
+            course.setLectureGroups(List.of(new Group("LOAD", registrations, registrations,
+                    GroupType.LECTURE_GROUP)));
+            course.setTutorialGroups(new ArrayList<>());
+            course.setLabGroups(new ArrayList<>());
+        }
+        List<String> studentIds = createStudents(registrations);
+
+        long start = System.nanoTime();
+        List<Integer> registered = runThreads(threads, thread -> {
+            String courseId = courseIds.get(thread % courseIds.size());
+            int made = 0;
+            for (int i = thread; i < registrations; i += threads) {
+                try {
+                    courseRegistrationMgr.registerCourse(studentIds.get(i), courseId, "LOAD", null, null);
+                    made++;
+                } catch (InvalidCourseRegistrationException e) {
+                    // counted as missing below
+                }
+            }
+            return made;
+        });
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals(registrations, registered.stream().mapToInt(Integer::intValue).sum());
+        int vacanciesLeft = 0;
+        for (String courseId : courseIds) {
+            vacanciesLeft += courseMgr.getCourseFromId(courseId).getVacancies();
+        }
+        assertEquals(registrations * courseIds.size() - registrations, vacanciesLeft);
+
+        return Math.round(registrations * 1e9 / elapsedNanos);
+    }
+
+    /**
+     * Checks whether a course or the first of one of its types of groups has no seats left, held or not.
+     */
+    private static boolean isFull(ICourse course) {
+        for (List<IGroup> groups : List.of(course.getLectureGroups(), course.getTutorialGroups(),
+                course.getLabGroups())) {
+            if (groups != null && !groups.isEmpty() && groups.get(0).getAvailableVacancies() == 0) {
+                return true;
+            }
+        }
+        return course.getVacancies() == 0;
+    }
+
+    private static String firstGroupName(List<IGroup> groups) {
+        return groups == null || groups.isEmpty() ? null : groups.get(0).getGroupName();
+    }
+
+    private static List<String> createStudents(int count) {
+        IStudentMgr studentMgr = StudentMgr.getInstance();
+        List<String> studentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String studentId = studentMgr.generateStudentID();
+            studentMgr.createNewStudent(studentId, "Load " + i, "CS", "FEMALE", 3);
+            studentIds.add(studentId);
+        }
+        return studentIds;
+    }
+
+    /**
+     * Runs a task on each of a number of threads, all started at once, and rethrows the first failure of
+     * any of them.
+     *
+     * @return What each thread returned, in the order the threads were numbered.
+     */
+    private static List<Integer> runThreads(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int result = task.run(thread);
+                    // each thread has a unit of work of its own, which its operations leave to be committed
+                    UnitOfWork.current().commit();
+                    return result;
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(120, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The work one of the threads does.
+     */
+    private interface ThreadTask {
+        int run(int thread) throws Exception;
+    }
+
+}
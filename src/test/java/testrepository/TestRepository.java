@@ -0,0 +1,409 @@
+package testrepository;
+
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.InMemoryRepository;
+import com.softeng306.fileprocessing.JournaledRepository;
+import com.softeng306.fileprocessing.RepositoryBatch;
+import com.softeng306.fileprocessing.RepositorySchema;
+import com.softeng306.fileprocessing.SnapshotCodecs;
+import com.softeng306.fileprocessing.SnapshotRepository;
+import com.softeng306.fileprocessing.UnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import utils.Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that every repository backend behaves the same through {@code IRepository}. When benchmarks are
+ * enabled, also prints how long each backend takes for the same work so that they can be compared.
+ */
+@RunWith(Parameterized.class)
+public class TestRepository {
+    private static final String DEPARTMENT_INDEX = "department";
+    private static final int BENCHMARK_ENTRIES = 2_000;
+
+    private static final RepositorySchema<String, Entry, Entry> SCHEMA =
+            RepositorySchema.storedAsIs(Entry.class, Entry::getId).withIndex(DEPARTMENT_INDEX, Entry::getDepartment);
+
+    @Parameterized.Parameter
+    public String backend;
+
+    private Path dataDirectory;
+    private Path dataFile;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> backends() {
+        return Arrays.asList(new Object[][]{{"memory"}, {"json"}, {"ndjson"}, {"binary"}, {"journaled"}});
+    }
+
+    @Before
+    public void createDataDirectory() throws IOException {
+        dataDirectory = Files.createTempDirectory("repository");
+        dataFile = dataDirectory.resolve("entryFile.json");
+    }
+
+    @After
+    public void deleteDataDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Tests that inserted entries are found by key, by index and in the scans, in the order they were inserted
+     */
+    @Test
+    public void testInsertAndRead() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+        repository.insert(new Entry("E2", "CSE", "second"));
+        repository.insert(new Entry("E3", "ECSE", "third"));
+
+        assertEquals(new Entry("E2", "CSE", "second"), repository.get("E2"));
+        assertNull(repository.get("E4"));
+        assertTrue(repository.contains("E3"));
+        assertFalse(repository.contains("E4"));
+        assertEquals(List.of("E1", "E2", "E3"), repository.scanKeys());
+        assertEquals(List.of("E1", "E2", "E3"), idsOf(repository.scanAll()));
+        assertEquals(List.of("E1", "E3"), idsOf(repository.scanByIndex(DEPARTMENT_INDEX, "ECSE")));
+        assertTrue(repository.scanByIndex(DEPARTMENT_INDEX, "MAE").isEmpty());
+    }
+
+    /**
+     * Tests that inserting an entry with a key that is already used is rejected and changes nothing
+     */
+    @Test
+    public void testInsertDuplicateKey() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+
+        try {
+            repository.insert(new Entry("E1", "CSE", "again"));
+            fail("Expected the duplicate key to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // the entry that was there first is kept
+        }
+        assertEquals(new Entry("E1", "ECSE", "first"), repository.get("E1"));
+        assertEquals(1, repository.scanAll().size());
+    }
+
+    /**
+     * Tests that an update replaces the entry with its key and moves it between index values
+     */
+    @Test
+    public void testUpdate() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+        repository.insert(new Entry("E2", "ECSE", "second"));
+
+        repository.update(new Entry("E1", "CSE", "changed"));
+
+        assertEquals(new Entry("E1", "CSE", "changed"), repository.get("E1"));
+        assertEquals(List.of("E1", "E2"), idsOf(repository.scanAll()));
+        assertEquals(List.of("E2"), idsOf(repository.scanByIndex(DEPARTMENT_INDEX, "ECSE")));
+        assertEquals(List.of("E1"), idsOf(repository.scanByIndex(DEPARTMENT_INDEX, "CSE")));
+    }
+
+    /**
+     * Tests that updating an entry that is not in the repository is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateMissingKey() {
+        open().update(new Entry("E1", "ECSE", "first"));
+    }
+
+    /**
+     * Tests that a deleted entry is gone from every read, and that deleting a missing key does nothing
+     */
+    @Test
+    public void testDelete() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+        repository.insert(new Entry("E2", "ECSE", "second"));
+
+        repository.delete("E1");
+        repository.delete("E3");
+
+        assertNull(repository.get("E1"));
+        assertEquals(List.of("E2"), repository.scanKeys());
+        assertEquals(List.of("E2"), idsOf(repository.scanByIndex(DEPARTMENT_INDEX, "ECSE")));
+    }
+
+    /**
+     * Tests that asking for an index the repository does not have is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIndex() {
+        open().scanByIndex("name", "first");
+    }
+
+    /**
+     * Tests that a batch is applied as a whole, or not at all if one of its changes is rejected
+     */
+    @Test
+    public void testWriteBatch() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+
+        repository.writeBatch(new RepositoryBatch<String, Entry>()
+                .insert(new Entry("E2", "CSE", "second"))
+                .update(new Entry("E1", "ECSE", "changed"))
+                .insert(new Entry("E3", "CSE", "third"))
+                .delete("E2"));
+        assertEquals(List.of("E1", "E3"), repository.scanKeys());
+        assertEquals("changed", repository.get("E1").getName());
+
+        try {
+            repository.writeBatch(new RepositoryBatch<String, Entry>()
+                    .insert(new Entry("E4", "CSE", "fourth"))
+                    .delete("E3")
+                    .insert(new Entry("E1", "CSE", "again")));
+            fail("Expected the duplicate key to be rejected");
+        } catch (IllegalArgumentException expected) {
+            // none of the batch is applied
+        }
+        assertEquals(List.of("E1", "E3"), repository.scanKeys());
+        assertEquals(List.of("E3"), idsOf(repository.scanByIndex(DEPARTMENT_INDEX, "CSE")));
+        assertEquals(List.of("E1", "E3"), idsOf(reopen(repository).scanAll()));
+    }
+
+    /**
+     * Tests that changes made in a transaction are seen straight away and kept once it is committed
+     */
+    @Test
+    public void testCommitTransaction() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+
+        repository.beginTransaction();
+        repository.insert(new Entry("E2", "CSE", "second"));
+        repository.update(new Entry("E1", "ECSE", "changed"));
+        assertEquals(List.of("E1", "E2"), repository.scanKeys());
+        repository.commitTransaction();
+
+        IRepository<String, Entry> reopened = reopen(repository);
+        assertEquals(List.of("E1", "E2"), reopened.scanKeys());
+        assertEquals("changed", reopened.get("E1").getName());
+    }
+
+    /**
+     * Tests that rolling a transaction back undoes every change made in it, and writes none of them
+     */
+    @Test
+    public void testRollbackTransaction() {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+
+        repository.beginTransaction();
+        repository.insert(new Entry("E2", "CSE", "second"));
+        repository.update(new Entry("E1", "CSE", "changed"));
+        repository.delete("E1");
+        repository.rollbackTransaction();
+
+        assertEquals(List.of("E1"), repository.scanKeys());
+        assertEquals(new Entry("E1", "ECSE", "first"), repository.get("E1"));
+        assertEquals(List.of("E1"), idsOf(repository.scanByIndex(DEPARTMENT_INDEX, "ECSE")));
+        assertEquals(List.of("E1"), idsOf(reopen(repository).scanAll()));
+    }
+
+    /**
+     * Tests that rolling a unit of work back restores the entries changed in place in it, even when another
+     * write has saved them with the changes in the meantime
+     */
+    @Test
+    public void testRollbackUnitOfWorkRestoresEntriesChangedInPlace() throws InterruptedException {
+        IRepository<String, Entry> repository = open();
+        repository.insert(new Entry("E1", "ECSE", "first"));
+
+        Entry entry = repository.get("E1");
+        entry.setName("changed");
+        UnitOfWork.current().registerDirty(repository, entry, () -> entry.setName("first"));
+        Thread writer = new Thread(() -> repository.insert(new Entry("E2", "CSE", "second")));
+        writer.start();
+        writer.join();
+        UnitOfWork.current().rollback();
+
+        assertEquals("first", repository.get("E1").getName());
+        assertEquals("first", reopen(repository).get("E1").getName());
+        assertEquals(List.of("E1", "E2"), reopen(repository).scanKeys());
+    }
+
+    /**
+     * Tests that a persistent backend reads back every change written before it was reopened
+     */
+    @Test
+    public void testReopen() {
+        IRepository<String, Entry> repository = open();
+        for (int i = 0; i < 10; i++) {
+            repository.insert(new Entry("E" + i, i % 2 == 0 ? "ECSE" : "CSE", "entry " + i));
+        }
+        repository.update(new Entry("E4", "MAE", "changed"));
+        repository.delete("E7");
+
+        IRepository<String, Entry> reopened = reopen(repository);
+        assertEquals(repository.scanAll(), reopened.scanAll());
+        assertEquals(List.of("E4"), idsOf(reopened.scanByIndex(DEPARTMENT_INDEX, "MAE")));
+    }
+
+    /**
+     * Times inserting, updating, reading and deleting entries one write at a time and in one batch,
+     * and prints the timings so that the backends can be compared. Only runs when benchmarks are enabled
+     */
+    @Test
+    public void testBenchmark() {
+        Benchmarks.assumeBenchmarksEnabled();
+        IRepository<String, Entry> repository = open();
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ENTRIES; i++) {
+            repository.insert(new Entry("S" + i, "ECSE", "entry " + i));
+        }
+        long singleInserts = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        RepositoryBatch<String, Entry> batch = new RepositoryBatch<>();
+        for (int i = 0; i < BENCHMARK_ENTRIES; i++) {
+            batch.insert(new Entry("B" + i, "CSE", "entry " + i));
+        }
+        repository.writeBatch(batch);
+        long batchInsert = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        repository.beginTransaction();
+        for (int i = 0; i < BENCHMARK_ENTRIES; i++) {
+            repository.update(new Entry("S" + i, "MAE", "changed " + i));
+        }
+        repository.commitTransaction();
+        long transactionUpdates = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ENTRIES; i++) {
+            assertEquals("changed " + i, repository.get("S" + i).getName());
+        }
+        assertEquals(BENCHMARK_ENTRIES, repository.scanByIndex(DEPARTMENT_INDEX, "CSE").size());
+        long reads = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        IRepository<String, Entry> reopened = reopen(repository);
+        assertEquals(2 * BENCHMARK_ENTRIES, reopened.scanKeys().size());
+        long reopen = System.nanoTime() - start;
+
+        System.out.printf("%s backend, %d entries: %d ms single inserts, %d ms batch insert, %d ms updates in a"
+                        + " transaction, %d ms reads, %d ms reopen%n", backend, BENCHMARK_ENTRIES,
+                singleInserts / 1_000_000, batchInsert / 1_000_000, transactionUpdates / 1_000_000, reads / 1_000_000,
+                reopen / 1_000_000);
+    }
+
+    private IRepository<String, Entry> open() {
+        switch (backend) {
+            case "memory":
+                return new InMemoryRepository<>(SCHEMA);
+            case "json":
+            case "ndjson":
+            case "binary":
+                return new SnapshotRepository<>(SCHEMA, dataFile.toString(), SnapshotCodecs.forName(backend));
+            case "journaled":
+                return new JournaledRepository<>(SCHEMA, dataFile.toString(), SnapshotCodecs.forName("json"));
+            default:
+                throw new IllegalStateException("Unknown backend: " + backend);
+        }
+    }
+
+    /**
+     * @return The repository as it is read back from its data file, or the same repository for the
+     *         in-memory backend, which keeps nothing once it is gone.
+     */
+    private IRepository<String, Entry> reopen(IRepository<String, Entry> repository) {
+        return "memory".equals(backend) ? repository : open();
+    }
+
+    private static List<String> idsOf(List<Entry> entries) {
+        return entries.stream().map(Entry::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * A minimal entry with a key, an indexed value and a value that is only ever read.
+     */
+    public static class Entry {
+        private String id;
+        private String department;
+        private String name;
+
+        public Entry() {
+        }
+
+        public Entry(String id, String department, String name) {
+            this.id = id;
+            this.department = department;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getDepartment() {
+            return department;
+        }
+
+        public void setDepartment(String department) {
+            this.department = department;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry entry = (Entry) o;
+            return Objects.equals(id, entry.id) && Objects.equals(department, entry.department)
+                    && Objects.equals(name, entry.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, department, name);
+        }
+
+        @Override
+        public String toString() {
+            return id + " " + department + " " + name;
+        }
+    }
+
+}
@@ -0,0 +1,286 @@
+package testseatholds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softeng306.domain.course.Course;
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.group.Group;
+import com.softeng306.domain.course.group.IGroup;
+import com.softeng306.enums.GroupType;
+import com.softeng306.managers.ISeatHold;
+import com.softeng306.managers.ISeatHoldMgr;
+import com.softeng306.managers.SeatHoldMgr;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that seats held for registrations being made cannot be taken by anyone else, are taken all at once
+ * when the registration is made, and are always given back when a registration is released or abandoned.
+ */
+public class TestSeatHolds {
+    private static final int THREADS = 32;
+    private static final long LONG_HOLD_MILLIS = 60_000;
+    private static final long SHORT_HOLD_MILLIS = 300;
+
+    private final ISeatHoldMgr seatHoldMgr = SeatHoldMgr.getInstance();
+
+    /**
+     * Tests that a held seat is still a vacancy, but cannot be held by another registration
+     */
+    @Test
+    public void testHeldSeatCannotBeHeldAgain() {
+        IGroup lecture = new Group("LEC1", 1, 1, GroupType.LECTURE_GROUP);
+        ICourse course = createCourse(1, lecture);
+
+        ISeatHold seatHold = seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS);
+        assertNotNull(seatHold);
+        assertTrue(seatHold.holdGroup(lecture));
+
+        assertNull(seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS));
+        assertFalse(lecture.tryHoldVacancy());
+        assertEquals(1, course.getVacancies());
+        assertEquals(1, course.getHeldVacancies());
+        assertEquals(1, lecture.getAvailableVacancies());
+        assertEquals(1, lecture.getHeldVacancies());
+
+        assertTrue(seatHold.release());
+    }
+
+    /**
+     * Tests that committing a hold takes every held seat, and that it can then no longer be released
+     */
+    @Test
+    public void testCommitTakesHeldSeats() {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", 5, 5, GroupType.TUTORIAL_GROUP);
+        ICourse course = createCourse(10, lecture);
+
+        ISeatHold seatHold = seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS);
+        assertTrue(seatHold.holdGroup(lecture));
+        assertTrue(seatHold.holdGroup(tutorial));
+        assertTrue(seatHold.commit());
+
+        assertFalse(seatHold.isHeld());
+        assertFalse(seatHold.release());
+        assertFalse(seatHold.holdGroup(tutorial));
+        assertEquals(9, course.getVacancies());
+        assertEquals(0, course.getHeldVacancies());
+        assertEquals(9, lecture.getAvailableVacancies());
+        assertEquals(0, lecture.getHeldVacancies());
+        assertEquals(4, tutorial.getAvailableVacancies());
+        assertEquals(0, tutorial.getHeldVacancies());
+    }
+
+    /**
+     * Tests that releasing a hold gives back every held seat, and that it can then no longer be committed
+     */
+    @Test
+    public void testReleaseGivesSeatsBack() {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        ICourse course = createCourse(10, lecture);
+
+        ISeatHold seatHold = seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS);
+        assertTrue(seatHold.holdGroup(lecture));
+        assertTrue(seatHold.release());
+
+        assertFalse(seatHold.commit());
+        assertEquals(10, course.getVacancies());
+        assertEquals(0, course.getHeldVacancies());
+        assertEquals(10, lecture.getAvailableVacancies());
+        assertEquals(0, lecture.getHeldVacancies());
+    }
+
+    /**
+     * Tests that a hold that is neither committed nor released gives its seats back once it expires
+     */
+    @Test
+    public void testExpiredHoldGivesSeatsBack() throws Exception {
+        IGroup lecture = new Group("LEC1", 1, 1, GroupType.LECTURE_GROUP);
+        ICourse course = createCourse(1, lecture);
+
+        ISeatHold seatHold = seatHoldMgr.holdSeat(course, SHORT_HOLD_MILLIS);
+        assertTrue(seatHold.holdGroup(lecture));
+
+        awaitNoSeatsHeld(course, lecture);
+        assertFalse(seatHold.isHeld());
+        assertFalse(seatHold.commit());
+        assertEquals(1, course.getVacancies());
+        assertEquals(1, lecture.getAvailableVacancies());
+        assertNotNull(seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS));
+    }
+
+    /**
+     * Tests that held seats are stored as vacancies, so that they are not lost if the program stops
+     * before the holds expire
+     */
+    @Test
+    public void testHeldSeatsAreStoredAsVacancies() throws Exception {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        ICourse course = createCourse(10, lecture);
+
+        ISeatHold seatHold = seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS);
+        assertTrue(seatHold.holdGroup(lecture));
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(course);
+        assertFalse(json, json.contains("held"));
+
+        ICourse stored = mapper.readValue(json, ICourse.class);
+        assertEquals(10, stored.getVacancies());
+        assertEquals(0, stored.getHeldVacancies());
+        assertEquals(10, stored.getLectureGroups().get(0).getAvailableVacancies());
+        assertEquals(0, stored.getLectureGroups().get(0).getHeldVacancies());
+
+        seatHold.release();
+    }
+
+    /**
+     * Tests that thousands of registrations abandoned half way through, while others are made at the same
+     * time, only take the seats of the registrations that are made once their holds have expired
+     */
+    @Test
+    public void testAbandonedRegistrationsNeverConsumeCapacity() throws Exception {
+        IGroup lecture = new Group("LEC1", 100, 100, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", 50, 50, GroupType.TUTORIAL_GROUP);
+        ICourse course = createCourse(100, lecture);
+
+        List<Integer> made = runThreads(thread -> {
+            int registrations = 0;
+            for (int i = 0; i < 100; i++) {
+                ISeatHold seatHold = seatHoldMgr.holdSeat(course, SHORT_HOLD_MILLIS);
+                if (seatHold == null || !seatHold.holdGroup(lecture)) {
+                    continue;
+                }
+                // one registration in three is made once the tutorial group is chosen, the rest are abandoned
+                if (seatHold.holdGroup(tutorial) && i % 3 == 0 && seatHold.commit()) {
+                    registrations++;
+                }
+            }
+            return registrations;
+        });
+        int registrations = made.stream().mapToInt(Integer::intValue).sum();
+
+        awaitNoSeatsHeld(course, lecture, tutorial);
+        assertTrue(registrations > 0);
+        assertTrue(registrations <= 50);
+        assertEquals(100 - registrations, course.getVacancies());
+        assertEquals(100 - registrations, lecture.getAvailableVacancies());
+        assertEquals(50 - registrations, tutorial.getAvailableVacancies());
+    }
+
+    /**
+     * Tests that registrations holding and taking seats in one course from many threads at once take exactly
+     * the seats of its smallest chosen group
+     */
+    @Test
+    public void testConcurrentHoldsNeverOverbook() throws Exception {
+        IGroup lecture = new Group("LEC1", 1000, 1000, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", 800, 800, GroupType.TUTORIAL_GROUP);
+        ICourse course = createCourse(1000, lecture);
+
+        List<Integer> made = runThreads(thread -> {
+            int registrations = 0;
+            int failuresInARow = 0;
+            // keep trying until the group has been full for a while, since other threads may give seats back
+            while (failuresInARow < 1000) {
+                ISeatHold seatHold = seatHoldMgr.holdSeat(course, LONG_HOLD_MILLIS);
+                if (seatHold != null && seatHold.holdGroup(lecture) && seatHold.holdGroup(tutorial)
+                        && seatHold.commit()) {
+                    registrations++;
+                    failuresInARow = 0;
+                } else {
+                    failuresInARow++;
+                }
+                if (seatHold != null) {
+                    seatHold.release();
+                }
+            }
+            return registrations;
+        });
+
+        assertEquals(800, made.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(200, course.getVacancies());
+        assertEquals(0, course.getHeldVacancies());
+        assertEquals(200, lecture.getAvailableVacancies());
+        assertEquals(0, lecture.getHeldVacancies());
+        assertEquals(0, tutorial.getAvailableVacancies());
+        assertEquals(0, tutorial.getHeldVacancies());
+    }
+
+    private static ICourse createCourse(int vacancies, IGroup lecture) {
+        ICourse course = new Course();
+        course.setCourseId("SE9999");
+        course.setCapacity(vacancies);
+        course.setVacancies(vacancies);
+        course.setLectureGroups(List.of(lecture));
+        return course;
+    }
+
+    /**
+     * Waits until no seat is held in a course or any of its groups, failing if the holds have not expired
+     * well after they should have.
+     */
+    private static void awaitNoSeatsHeld(ICourse course, IGroup... groups) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            boolean held = course.getHeldVacancies() > 0;
+            for (IGroup group : groups) {
+                held |= group.getHeldVacancies() > 0;
+            }
+            if (!held) {
+                return;
+            }
+            assertTrue("Seats are still held after the holds should have expired", System.nanoTime() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Runs a task on each of {@link #THREADS} threads, all started at once.
+     *
+     * @return What each thread returned, in the order the threads were numbered.
+     */
+    private static List<Integer> runThreads(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(thread);
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The work one of the threads does.
+     */
+    private interface ThreadTask {
+        int run(int thread);
+    }
+
+}
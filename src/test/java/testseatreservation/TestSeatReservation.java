@@ -0,0 +1,234 @@
+package testseatreservation;
+
+import com.softeng306.domain.course.Course;
+import com.softeng306.domain.course.ICourse;
+import com.softeng306.domain.course.group.Group;
+import com.softeng306.domain.course.group.IGroup;
+import com.softeng306.enums.GroupType;
+import org.junit.Test;
+import utils.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that seats in a course and its groups are taken all or nothing and never overbooked. When
+ * benchmarks are enabled, also prints how many seats can be taken on one course as threads are added so
+ * that the throughput can be compared.
+ */
+public class TestSeatReservation {
+    private static final int[] BENCHMARK_THREADS = {1, 2, 4, 8, 16, 32};
+    private static final int BENCHMARK_RESERVATIONS = 2_000_000;
+    private static final int CHURN_THREADS = 8;
+    private static final int CHURN_RESERVATIONS_PER_THREAD = 10_000;
+
+    /**
+     * Tests that a seat is taken in the course and every chosen group
+     */
+    @Test
+    public void testReserveSeat() {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", 5, 5, GroupType.TUTORIAL_GROUP);
+        ICourse course = createCourse(10, lecture);
+
+        assertTrue(course.reserveSeat(lecture, tutorial, null));
+
+        assertEquals(9, course.getVacancies());
+        assertEquals(9, lecture.getAvailableVacancies());
+        assertEquals(4, tutorial.getAvailableVacancies());
+    }
+
+    /**
+     * Tests that no seat is taken anywhere when one of the chosen groups is full
+     */
+    @Test
+    public void testReserveSeatInFullGroup() {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", 5, 5, GroupType.TUTORIAL_GROUP);
+        IGroup lab = new Group("LAB1", 0, 5, GroupType.LAB_GROUP);
+        ICourse course = createCourse(10, lecture);
+
+        assertFalse(course.reserveSeat(lecture, tutorial, lab));
+
+        assertEquals(10, course.getVacancies());
+        assertEquals(10, lecture.getAvailableVacancies());
+        assertEquals(5, tutorial.getAvailableVacancies());
+        assertEquals(0, lab.getAvailableVacancies());
+    }
+
+    /**
+     * Tests that no seat is taken in a group when the course is full
+     */
+    @Test
+    public void testReserveSeatInFullCourse() {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        ICourse course = createCourse(0, lecture);
+
+        assertFalse(course.reserveSeat(lecture, null, null));
+
+        assertEquals(0, course.getVacancies());
+        assertEquals(10, lecture.getAvailableVacancies());
+    }
+
+    /**
+     * Tests that releasing a seat gives it back to the course and every chosen group
+     */
+    @Test
+    public void testReleaseSeat() {
+        IGroup lecture = new Group("LEC1", 10, 10, GroupType.LECTURE_GROUP);
+        IGroup lab = new Group("LAB1", 3, 5, GroupType.LAB_GROUP);
+        ICourse course = createCourse(10, lecture);
+
+        assertTrue(course.reserveSeat(lecture, null, lab));
+        course.releaseSeat(lecture, null, lab);
+
+        assertEquals(10, course.getVacancies());
+        assertEquals(10, lecture.getAvailableVacancies());
+        assertEquals(3, lab.getAvailableVacancies());
+    }
+
+    /**
+     * Tests that 32 threads taking seats in one course at once take exactly the seats of its smallest
+     * chosen group, and that the seats of failed reservations are all given back
+     */
+    @Test
+    public void testConcurrentReservationsNeverOverbook() throws Exception {
+        IGroup lecture = new Group("LEC1", 1000, 1000, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", 800, 800, GroupType.TUTORIAL_GROUP);
+        ICourse course = createCourse(1000, lecture);
+
+        List<Integer> reserved = runThreads(32, thread -> {
+            int seats = 0;
+            while (course.reserveSeat(lecture, tutorial, null)) {
+                seats++;
+            }
+            return seats;
+        });
+
+        assertEquals(800, reserved.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(200, course.getVacancies());
+        assertEquals(200, lecture.getAvailableVacancies());
+        assertEquals(0, tutorial.getAvailableVacancies());
+    }
+
+    /**
+     * Tests that threads taking and giving back seats in one course at once, each with a seat of its own,
+     * are never refused and give back every seat
+     */
+    @Test
+    public void testConcurrentReserveAndReleaseGivesEverySeatBack() throws Exception {
+        IGroup lecture = new Group("LEC1", CHURN_THREADS, CHURN_THREADS, GroupType.LECTURE_GROUP);
+        IGroup tutorial = new Group("TUT1", CHURN_THREADS, CHURN_THREADS, GroupType.TUTORIAL_GROUP);
+        ICourse course = createCourse(CHURN_THREADS, lecture);
+
+        List<Integer> reserved = runThreads(CHURN_THREADS, thread -> {
+            int seats = 0;
+            for (int i = 0; i < CHURN_RESERVATIONS_PER_THREAD; i++) {
+                if (course.reserveSeat(lecture, tutorial, null)) {
+                    seats++;
+                    course.releaseSeat(lecture, tutorial, null);
+                }
+            }
+            return seats;
+        });
+
+        assertEquals(CHURN_THREADS * CHURN_RESERVATIONS_PER_THREAD, reserved.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(CHURN_THREADS, course.getVacancies());
+        assertEquals(CHURN_THREADS, lecture.getAvailableVacancies());
+        assertEquals(CHURN_THREADS, tutorial.getAvailableVacancies());
+    }
+
+    /**
+     * Prints how many seats per second can be taken and given back in one course, with its lecture and
+     * tutorial group, as threads are added. Only runs when benchmarks are enabled
+     */
+    @Test
+    public void testThroughputOnOneHotCourse() throws Exception {
+        Benchmarks.assumeBenchmarksEnabled();
+        for (int threads : BENCHMARK_THREADS) {
+            IGroup lecture = new Group("LEC1", threads, threads, GroupType.LECTURE_GROUP);
+            IGroup tutorial = new Group("TUT1", threads, threads, GroupType.TUTORIAL_GROUP);
+            ICourse course = createCourse(threads, lecture);
+            int reservationsPerThread = BENCHMARK_RESERVATIONS / threads;
+
+            long start = System.nanoTime();
+            List<Integer> reserved = runThreads(threads, thread -> {
+                int seats = 0;
+                for (int i = 0; i < reservationsPerThread; i++) {
+                    if (course.reserveSeat(lecture, tutorial, null)) {
+                        seats++;
+                        course.releaseSeat(lecture, tutorial, null);
+                    }
+                }
+                return seats;
+            });
+            long elapsedNanos = System.nanoTime() - start;
+
+            int total = reserved.stream().mapToInt(Integer::intValue).sum();
+            System.out.println(threads + " threads on one course: " + total + " reservations in "
+                    + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms ("
+                    + Math.round(total * 1e9 / elapsedNanos) + " reservations/s)");
+
+            // every thread has a seat of its own, so none is ever refused and every seat is given back
+            assertEquals(reservationsPerThread * threads, total);
+            assertEquals(threads, course.getVacancies());
+            assertEquals(threads, lecture.getAvailableVacancies());
+            assertEquals(threads, tutorial.getAvailableVacancies());
+        }
+    }
+
+    private static ICourse createCourse(int vacancies, IGroup lecture) {
+        ICourse course = new Course();
+        course.setCourseId("SE9999");
+        course.setCapacity(vacancies);
+        course.setVacancies(vacancies);
+        course.setLectureGroups(List.of(lecture));
+        return course;
+    }
+
+    /**
+     * Runs a task on each of a number of threads, all started at once.
+     *
+     * @return What each thread returned, in the order the threads were numbered.
+     */
+    private static List<Integer> runThreads(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(thread);
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The work one of the threads does.
+     */
+    private interface ThreadTask {
+        int run(int thread);
+    }
+
+}
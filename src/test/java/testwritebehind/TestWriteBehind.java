@@ -0,0 +1,101 @@
+package testwritebehind;
+
+import com.softeng306.fileprocessing.IRepository;
+import com.softeng306.fileprocessing.InMemoryRepository;
+import com.softeng306.fileprocessing.PersistenceConfig;
+import com.softeng306.fileprocessing.RepositoryBatch;
+import com.softeng306.fileprocessing.RepositorySchema;
+import com.softeng306.fileprocessing.UnitOfWork;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that changes written by the background writer report a failed write to the thread that committed
+ * them when it waits for its changes to be written.
+ * <p>
+ * The background writer is shared by every unit of work and created the first time one is committed, so the
+ * test class must run in a JVM of its own, as surefire is configured to do, for it to be created.
+ */
+public class TestWriteBehind {
+    private static final RepositorySchema<String, String, String> SCHEMA =
+            RepositorySchema.storedAsIs(String.class, id -> id);
+
+    @BeforeClass
+    public static void enableWriteBehind() {
+        System.setProperty(PersistenceConfig.WRITE_BEHIND_PROPERTY, "true");
+    }
+
+    @AfterClass
+    public static void clearWriteBehind() {
+        System.clearProperty(PersistenceConfig.WRITE_BEHIND_PROPERTY);
+    }
+
+    /**
+     * Tests that a write that fails in the background makes waiting for the changes fail, and that it is
+     * reported only once, so that later changes that are written are not blamed for it
+     */
+    @Test
+    public void testFailedWriteIsReported() {
+        UnitOfWork.current().registerNew(failingRepository(), "E1");
+        try {
+            UnitOfWork.current().awaitDurability();
+            fail("Waiting for the changes should have failed");
+        } catch (IllegalStateException e) {
+            assertEquals("The disk is full", e.getCause().getMessage());
+        }
+
+        UnitOfWork.current().registerNew(new InMemoryRepository<>(SCHEMA), "E2");
+        UnitOfWork.current().awaitDurability();
+    }
+
+    /**
+     * Tests that a failed write is reported to the thread that committed the changes, and not to another
+     * thread whose changes were written
+     */
+    @Test
+    public void testFailureIsOnlyReportedToTheThreadThatCommittedTheChanges() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> failed = executor.submit(() -> {
+                UnitOfWork.current().registerNew(failingRepository(), "E1");
+                try {
+                    UnitOfWork.current().awaitDurability();
+                    return false;
+                } catch (IllegalStateException e) {
+                    return true;
+                }
+            });
+            assertTrue(failed.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        UnitOfWork.current().registerNew(new InMemoryRepository<>(SCHEMA), "E2");
+        UnitOfWork.current().awaitDurability();
+    }
+
+    /**
+     * @return A repository whose writes always fail.
+     */
+    private static IRepository<String, String> failingRepository() {
+        return new InMemoryRepository<String, String>(SCHEMA) {
+            @Override
+            protected Runnable prepareWrite(RepositoryBatch<String, String> batch) {
+                return () -> {
+                    throw new IllegalStateException("The disk is full");
+                };
+            }
+        };
+    }
+
+}
@@ -0,0 +1,22 @@
+package utils;
+
+import org.junit.Assume;
+
+/**
+ * Benchmarks only run when they are asked for, with the {@code benchmarks} Maven profile or by setting
+ * the {@value #BENCHMARKS_PROPERTY} system property to true, so that the default test suite stays quick.
+ */
+public final class Benchmarks {
+    public static final String BENCHMARKS_PROPERTY = "softeng306.benchmarks";
+
+    private Benchmarks() { }
+
+    /**
+     * Skips the calling test unless benchmarks have been asked for.
+     */
+    public static void assumeBenchmarksEnabled() {
+        Assume.assumeTrue("Benchmarks only run with -D" + BENCHMARKS_PROPERTY + "=true",
+                Boolean.getBoolean(BENCHMARKS_PROPERTY));
+    }
+
+}